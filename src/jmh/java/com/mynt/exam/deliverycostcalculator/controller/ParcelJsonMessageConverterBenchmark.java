@@ -0,0 +1,126 @@
+package com.mynt.exam.deliverycostcalculator.controller;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+
+// Benchmark of the single parcel request and response bodies read and written
+// by the streaming codec and by the Jackson databind converter it precedes
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParcelJsonMessageConverterBenchmark {
+
+	private ParcelJsonMessageConverter parcelConverter;
+	private MappingJackson2HttpMessageConverter databindConverter;
+
+	private CalculationResponse response;
+	private byte[] requestJson;
+
+	@Setup
+	public void setUp() {
+		ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+				.modulesToInstall(new ParameterNamesModule(JsonCreator.Mode.DEFAULT)).build();
+		parcelConverter = new ParcelJsonMessageConverter(objectMapper);
+		databindConverter = new MappingJackson2HttpMessageConverter(objectMapper);
+		requestJson = "{\"length\":10,\"width\":20,\"height\":10,\"weight\":8,\"promoCode\":\"MYNT\"}"
+				.getBytes(StandardCharsets.UTF_8);
+		response = CalculationResponse.builder().deliveryCost(new BigDecimal("71.02"))
+				.totalWeight(new BigDecimal("8.00")).totalVolume(new BigDecimal("2000.00")).build();
+	}
+
+	@Benchmark
+	public Object readParcelRequest() throws IOException {
+		return parcelConverter.read(ParcelRequest.class, new InputMessage(requestJson));
+	}
+
+	@Benchmark
+	public Object readParcelRequestDatabind() throws IOException {
+		return databindConverter.read(ParcelRequest.class, new InputMessage(requestJson));
+	}
+
+	@Benchmark
+	public byte[] writeCalculationResponse() throws IOException {
+		OutputMessage outputMessage = new OutputMessage();
+		parcelConverter.write(response, MediaType.APPLICATION_JSON, outputMessage);
+		return outputMessage.body.toByteArray();
+	}
+
+	@Benchmark
+	public byte[] writeCalculationResponseDatabind() throws IOException {
+		OutputMessage outputMessage = new OutputMessage();
+		databindConverter.write(response, MediaType.APPLICATION_JSON, outputMessage);
+		return outputMessage.body.toByteArray();
+	}
+
+	// Request body held in memory
+	static class InputMessage implements HttpInputMessage {
+
+		private final HttpHeaders headers = new HttpHeaders();
+		private final byte[] body;
+
+		InputMessage(byte[] body) {
+			this.body = body;
+			headers.setContentType(MediaType.APPLICATION_JSON);
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return headers;
+		}
+
+		@Override
+		public InputStream getBody() {
+			return new ByteArrayInputStream(body);
+		}
+	}
+
+	// Response body held in memory
+	static class OutputMessage implements HttpOutputMessage {
+
+		private final HttpHeaders headers = new HttpHeaders();
+		private final ByteArrayOutputStream body = new ByteArrayOutputStream(128);
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return headers;
+		}
+
+		@Override
+		public OutputStream getBody() {
+			return body;
+		}
+	}
+
+}
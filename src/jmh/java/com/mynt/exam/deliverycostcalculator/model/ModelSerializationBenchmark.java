@@ -0,0 +1,83 @@
+package com.mynt.exam.deliverycostcalculator.model;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+
+// Benchmark of the JSON (de)serialization of the request and response bodies
+// The object mapper is configured like the one of the web application, which
+// creates the Lombok builder classes through their all-args constructor
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelSerializationBenchmark {
+
+	private ObjectReader requestReader;
+	private ObjectWriter requestWriter;
+	private ObjectReader responseReader;
+	private ObjectWriter responseWriter;
+
+	private ParcelRequest request;
+	private CalculationResponse response;
+	private byte[] requestJson;
+	private byte[] responseJson;
+
+	@Setup
+	public void setUp() throws IOException {
+		ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(new ParameterNamesModule())
+				.build();
+		requestReader = objectMapper.readerFor(ParcelRequest.class);
+		requestWriter = objectMapper.writerFor(ParcelRequest.class);
+		responseReader = objectMapper.readerFor(CalculationResponse.class);
+		responseWriter = objectMapper.writerFor(CalculationResponse.class);
+
+		requestJson = "{\"length\":10,\"width\":20,\"height\":10,\"weight\":8,\"promoCode\":\"MYNT\"}"
+				.getBytes(StandardCharsets.UTF_8);
+		request = requestReader.readValue(requestJson);
+		response = CalculationResponse.builder().deliveryCost(new BigDecimal("71.02"))
+				.totalWeight(new BigDecimal("8.00")).totalVolume(new BigDecimal("2000.00")).build();
+		responseJson = responseWriter.writeValueAsBytes(response);
+	}
+
+	@Benchmark
+	public ParcelRequest deserializeParcelRequest() throws IOException {
+		return requestReader.readValue(requestJson);
+	}
+
+	@Benchmark
+	public byte[] serializeParcelRequest() throws IOException {
+		return requestWriter.writeValueAsBytes(request);
+	}
+
+	@Benchmark
+	public CalculationResponse deserializeCalculationResponse() throws IOException {
+		return responseReader.readValue(responseJson);
+	}
+
+	@Benchmark
+	public byte[] serializeCalculationResponse() throws IOException {
+		return responseWriter.writeValueAsBytes(response);
+	}
+
+}
@@ -0,0 +1,110 @@
+package com.mynt.exam.deliverycostcalculator.service.impl;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.Validation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.mynt.exam.deliverycostcalculator.audit.QuoteAuditLog;
+import com.mynt.exam.deliverycostcalculator.config.BatchProperties;
+import com.mynt.exam.deliverycostcalculator.config.QuoteAuditProperties;
+import com.mynt.exam.deliverycostcalculator.config.QuoteCacheProperties;
+import com.mynt.exam.deliverycostcalculator.metrics.DeliveryCostMetrics;
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+import com.mynt.exam.deliverycostcalculator.service.impl.ParcelDeliveryCostCalculatorServiceBenchmark.StubVoucherService;
+import com.mynt.exam.deliverycostcalculator.util.ParcelColumns;
+import com.mynt.exam.deliverycostcalculator.util.PricedColumns;
+import com.mynt.exam.deliverycostcalculator.util.PricingRuleSnapshot;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Benchmark of re-pricing parcels column-wise against looping the single parcel
+// calculation, per parcel
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColumnarPricingKernelBenchmark {
+
+	private static final int PARCELS = 1000;
+
+	private ParcelDeliveryCostCalculatorService service;
+	private ColumnarPricingKernel kernel;
+	private List<ParcelRequest> requests;
+	private ParcelColumns columns;
+
+	@Setup
+	public void setUp() {
+		DeliveryCostMetrics metrics = new DeliveryCostMetrics(new SimpleMeterRegistry());
+		BigDecimalPricingEngine bigDecimalEngine = new BigDecimalPricingEngine(metrics);
+		service = new ParcelDeliveryCostCalculatorService(new StubVoucherService(),
+				Validation.buildDefaultValidatorFactory().getValidator(), ForkJoinPool.commonPool(),
+				new BatchProperties(), new FixedPointPricingEngine(bigDecimalEngine, metrics), metrics,
+				new QuoteCache(new QuoteCacheProperties(), null, null, null),
+				new QuoteAuditLog(new QuoteAuditProperties(), new SimpleMeterRegistry()));
+		kernel = new ColumnarPricingKernel(bigDecimalEngine, () -> PricingRuleSnapshot.DEFAULT, metrics);
+
+		// Typical parcels up to 2 decimal places, spread over every calculating rule
+		Random random = new Random(20221018L);
+		requests = new ArrayList<>(PARCELS);
+		for (int i = 0; i < PARCELS; i++) {
+			requests.add(ParcelRequest.builder().length(BigDecimal.valueOf(100 + random.nextInt(3000), 2))
+					.width(BigDecimal.valueOf(100 + random.nextInt(3000), 2))
+					.height(BigDecimal.valueOf(100 + random.nextInt(3000), 2))
+					.weight(BigDecimal.valueOf(10 + random.nextInt(2000), 2)).build());
+		}
+		columns = toColumns();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PARCELS)
+	public void calculateCostLoop(Blackhole blackhole) {
+		for (ParcelRequest request : requests) {
+			blackhole.consume(service.calculateCost(request));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PARCELS)
+	public PricedColumns kernel() {
+		return kernel.price(columns);
+	}
+
+	// Including the conversion of the requests to columns and of the prices to
+	// responses, as done by the batch calculation
+	@Benchmark
+	@OperationsPerInvocation(PARCELS)
+	public void kernelWithConversion(Blackhole blackhole) {
+		PricedColumns priced = kernel.price(toColumns());
+		for (int row = 0; row < PARCELS; row++) {
+			blackhole.consume(priced.getResponse(row));
+		}
+	}
+
+	private ParcelColumns toColumns() {
+		ParcelColumns parcelColumns = new ParcelColumns(PARCELS);
+		for (ParcelRequest request : requests) {
+			parcelColumns.add(request, BigDecimal.ZERO);
+		}
+		return parcelColumns;
+	}
+}
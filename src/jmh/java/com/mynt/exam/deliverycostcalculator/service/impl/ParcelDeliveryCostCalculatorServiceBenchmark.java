@@ -0,0 +1,107 @@
+package com.mynt.exam.deliverycostcalculator.service.impl;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.Validation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.StringUtils;
+
+import com.mynt.exam.deliverycostcalculator.audit.QuoteAuditLog;
+import com.mynt.exam.deliverycostcalculator.config.BatchProperties;
+import com.mynt.exam.deliverycostcalculator.config.PricingProperties.Engine;
+import com.mynt.exam.deliverycostcalculator.config.QuoteAuditProperties;
+import com.mynt.exam.deliverycostcalculator.config.QuoteCacheProperties;
+import com.mynt.exam.deliverycostcalculator.metrics.DeliveryCostMetrics;
+import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+import com.mynt.exam.deliverycostcalculator.remoteservice.VoucherService;
+import com.mynt.exam.deliverycostcalculator.service.intf.PricingEngine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Benchmark of the single parcel calculation with the voucher service stubbed out
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParcelDeliveryCostCalculatorServiceBenchmark {
+
+	@Param({ "BIG_DECIMAL", "FIXED_POINT" })
+	private Engine engine;
+
+	@Param({ "", "MYNT" })
+	private String promoCode;
+
+	private ParcelDeliveryCostCalculatorService service;
+	private ParcelRequest request;
+
+	@Setup
+	public void setUp() {
+		DeliveryCostMetrics metrics = new DeliveryCostMetrics(new SimpleMeterRegistry());
+		BigDecimalPricingEngine bigDecimalEngine = new BigDecimalPricingEngine(metrics);
+		PricingEngine pricingEngine = Engine.FIXED_POINT == engine
+				? new FixedPointPricingEngine(bigDecimalEngine, metrics)
+				: bigDecimalEngine;
+		service = new ParcelDeliveryCostCalculatorService(new StubVoucherService(),
+				Validation.buildDefaultValidatorFactory().getValidator(), ForkJoinPool.commonPool(),
+				new BatchProperties(), pricingEngine, metrics, new QuoteCache(new QuoteCacheProperties(), null, null, null),
+				new QuoteAuditLog(new QuoteAuditProperties(), new SimpleMeterRegistry()));
+		request = ParcelRequest.builder().length(BigDecimal.valueOf(10)).width(BigDecimal.valueOf(20))
+				.height(BigDecimal.valueOf(10)).weight(BigDecimal.valueOf(8)).promoCode(promoCode).build();
+	}
+
+	@Benchmark
+	public CalculationResponse calculateCost() {
+		return service.calculateCost(request);
+	}
+
+	@Benchmark
+	public CalculationResponse calculateCostAsync() {
+		return service.calculateCostAsync(request).join();
+	}
+
+	// Voucher service answering from memory instead of the remote service
+	static class StubVoucherService extends VoucherService {
+
+		private final Map<String, Object> voucherResponse;
+
+		StubVoucherService() {
+			super(null, null, null, null, null, null);
+			Map<String, Object> response = new HashMap<>();
+			response.put("code", "MYNT");
+			response.put("discount", 12.25);
+			response.put("expiry", "2050-08-18");
+			voucherResponse = Collections.unmodifiableMap(response);
+		}
+
+		@Override
+		public Map<String, Object> getVoucherDiscountFromPromoCode(String promoCode) {
+			return StringUtils.hasText(promoCode) ? voucherResponse : Collections.emptyMap();
+		}
+
+		@Override
+		public CompletableFuture<Map<String, Object>> getVoucherDiscountFromPromoCodeAsync(String promoCode) {
+			return CompletableFuture.completedFuture(getVoucherDiscountFromPromoCode(promoCode));
+		}
+	}
+
+}
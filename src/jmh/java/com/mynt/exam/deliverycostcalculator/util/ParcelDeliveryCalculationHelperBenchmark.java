@@ -0,0 +1,60 @@
+package com.mynt.exam.deliverycostcalculator.util;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Benchmark of each parcel cost calculation of the helper class
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParcelDeliveryCalculationHelperBenchmark {
+
+	// Non-final so the values are not constant folded
+	private BigDecimal weight = new BigDecimal("12.35");
+	private BigDecimal volume = new BigDecimal("1234.5678");
+	private RulePriority rule = RulePriority.MEDIUM_PARCEL;
+
+	@Benchmark
+	public BigDecimal calculateHeavyParcel() {
+		return ParcelDeliveryCalculationHelper.calculateHeavyParcel(weight);
+	}
+
+	@Benchmark
+	public BigDecimal calculateSmallParcel() {
+		return ParcelDeliveryCalculationHelper.calculateSmallParcel(volume);
+	}
+
+	@Benchmark
+	public BigDecimal calculateMediumParcel() {
+		return ParcelDeliveryCalculationHelper.calculateMediumParcel(volume);
+	}
+
+	@Benchmark
+	public BigDecimal calculateLargeParcel() {
+		return ParcelDeliveryCalculationHelper.calculateLargeParcel(volume);
+	}
+
+	@Benchmark
+	public BigDecimal calculateParcel() {
+		return ParcelDeliveryCalculationHelper.calculateParcel(weight, volume, rule);
+	}
+
+	@Benchmark
+	public BigDecimal getRate() {
+		return ParcelDeliveryCalculationHelper.getRate(rule);
+	}
+
+}
@@ -0,0 +1,90 @@
+package com.mynt.exam.deliverycostcalculator.util;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Benchmark of the rule lookup for a parcel of each rule
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RulePriorityBenchmark {
+
+	@Param({ "REJECT", "HEAVY_PARCEL", "SMALL_PARCEL", "MEDIUM_PARCEL", "LARGE_PARCEL" })
+	private RulePriority expectedRule;
+
+	private BigDecimal weight;
+	private BigDecimal volume;
+	private long scaledWeight;
+	private long scaledVolume;
+
+	@Setup
+	public void setUp() {
+		switch (expectedRule) {
+		case REJECT:
+			weight = new BigDecimal("51");
+			volume = new BigDecimal("1000");
+			break;
+		case HEAVY_PARCEL:
+			weight = new BigDecimal("15");
+			volume = new BigDecimal("1000");
+			break;
+		case SMALL_PARCEL:
+			weight = new BigDecimal("3");
+			volume = new BigDecimal("1200");
+			break;
+		case MEDIUM_PARCEL:
+			weight = new BigDecimal("3");
+			volume = new BigDecimal("2000");
+			break;
+		default:
+			weight = new BigDecimal("3");
+			volume = new BigDecimal("6000");
+			break;
+		}
+		volume = volume.setScale(4);
+		scaledWeight = weight.movePointRight(RuleDecisionTable.SCALED_WEIGHT_SCALE).longValueExact();
+		scaledVolume = volume.movePointRight(RuleDecisionTable.SCALED_VOLUME_SCALE).longValueExact();
+		if (RuleDecisionTable.DEFAULT.resolve(weight, volume) != expectedRule) {
+			throw new IllegalStateException("Parcel does not resolve to " + expectedRule);
+		}
+	}
+
+	@Benchmark
+	public int getRules() {
+		// Ordered walk over the rules map as done per parcel before rule compilation
+		int priority = 0;
+		for (RulePriority rule : RulePriority.getRules().values()) {
+			if (rule == expectedRule) {
+				priority = rule.getPriority();
+				break;
+			}
+		}
+		return priority;
+	}
+
+	@Benchmark
+	public RulePriority resolve() {
+		return RuleDecisionTable.DEFAULT.resolve(weight, volume);
+	}
+
+	@Benchmark
+	public RulePriority resolveScaled() {
+		return RuleDecisionTable.DEFAULT.resolveScaled(scaledWeight, scaledVolume);
+	}
+
+}
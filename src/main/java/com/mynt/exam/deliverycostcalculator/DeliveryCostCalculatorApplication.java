@@ -2,15 +2,18 @@ package com.mynt.exam.deliverycostcalculator;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
 
-import springfox.documentation.swagger2.annotations.EnableSwagger2;
-
-@EnableSwagger2
-@SpringBootApplication(exclude = DataSourceAutoConfiguration.class)
+@SpringBootApplication
 public class DeliveryCostCalculatorApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(DeliveryCostCalculatorApplication.class, args); 
+		ConfigurableApplicationContext context = SpringApplication.run(DeliveryCostCalculatorApplication.class,
+				args);
+		// Without web server (bulk profile) the work is done once started
+		if (!(context instanceof WebServerApplicationContext)) {
+			System.exit(SpringApplication.exit(context));
+		}
 	}
 }
\ No newline at end of file
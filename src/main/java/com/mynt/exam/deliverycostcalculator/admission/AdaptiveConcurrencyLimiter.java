@@ -0,0 +1,127 @@
+package com.mynt.exam.deliverycostcalculator.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+import com.mynt.exam.deliverycostcalculator.config.AdmissionControlProperties;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Limit of the requests in flight, adapted to their latency. The limit grows
+ * by one per request completing at normal latency while at least half of it
+ * is used, and is multiplied by the backoff ratio, at most once per short-term
+ * latency, while the short-term average latency exceeds the long-term one by
+ * the latency tolerance. Admission is one CAS on the in-flight count, requests
+ * over the limit are refused rather than queued
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+	// Weights of a latency sample in the short-term and long-term averages
+	private static final double SHORT_WEIGHT = 0.1;
+	private static final double LONG_WEIGHT = 0.01;
+
+	private final AdmissionControlProperties properties;
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger limit;
+
+	// Average latencies in nanoseconds, stored as double bits
+	private final AtomicLong shortLatency = new AtomicLong(Double.doubleToLongBits(0));
+	private final AtomicLong longLatency = new AtomicLong(Double.doubleToLongBits(0));
+
+	private final AtomicLong lastDecrease = new AtomicLong(System.nanoTime());
+	private final LongAdder rejected = new LongAdder();
+
+	public AdaptiveConcurrencyLimiter(AdmissionControlProperties properties, MeterRegistry meterRegistry) {
+		this.properties = properties;
+		this.limit = new AtomicInteger(
+				Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), properties.getInitialLimit())));
+		Gauge.builder("delivery.admission.limit", limit, AtomicInteger::get)
+				.description("Adaptive limit of calculations in flight").register(meterRegistry);
+		Gauge.builder("delivery.admission.in-flight", inFlight, AtomicInteger::get)
+				.description("Calculations in flight").register(meterRegistry);
+		FunctionCounter.builder(ClientRateLimiter.ADMISSION_REJECTIONS_METRIC, rejected, LongAdder::sum)
+				.tag("reason", "concurrency").description("Requests refused by admission control per reason")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Admit a request if the limit allows it. An admitted request must be
+	 * released once served
+	 *
+	 * @return true if admitted
+	 */
+	public boolean tryAcquire() {
+		while (true) {
+			int current = inFlight.get();
+			if (current >= limit.get()) {
+				rejected.increment();
+				return false;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Release an admitted request and adapt the limit to its latency
+	 *
+	 * @param latencyNanos time the request took to be served
+	 */
+	public void release(long latencyNanos) {
+		int current = inFlight.getAndDecrement();
+		double shortAverage = average(shortLatency, latencyNanos, SHORT_WEIGHT);
+		double longAverage = average(longLatency, latencyNanos, LONG_WEIGHT);
+
+		int currentLimit = limit.get();
+		if (shortAverage > longAverage * properties.getLatencyTolerance()) {
+			long now = System.nanoTime();
+			long last = lastDecrease.get();
+			if (now - last >= shortAverage && lastDecrease.compareAndSet(last, now)) {
+				limit.compareAndSet(currentLimit, Math.max(properties.getMinLimit(),
+						(int) (currentLimit * properties.getBackoffRatio())));
+			}
+		} else if (current * 2 >= currentLimit && currentLimit < properties.getMaxLimit()) {
+			limit.compareAndSet(currentLimit, currentLimit + 1);
+		}
+	}
+
+	public int getLimit() {
+		return limit.get();
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	public double getShortLatencyNanos() {
+		return Double.longBitsToDouble(shortLatency.get());
+	}
+
+	public double getLongLatencyNanos() {
+		return Double.longBitsToDouble(longLatency.get());
+	}
+
+	public long getRejected() {
+		return rejected.sum();
+	}
+
+	// Exponential moving average, starting at the first sample
+	private static double average(AtomicLong average, long sample, double weight) {
+		while (true) {
+			long bits = average.get();
+			double previous = Double.longBitsToDouble(bits);
+			double next = previous == 0 ? sample : previous + weight * (sample - previous);
+			if (average.compareAndSet(bits, Double.doubleToLongBits(next))) {
+				return next;
+			}
+		}
+	}
+}
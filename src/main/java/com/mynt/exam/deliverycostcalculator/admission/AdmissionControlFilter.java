@@ -0,0 +1,120 @@
+package com.mynt.exam.deliverycostcalculator.admission;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.mynt.exam.deliverycostcalculator.config.AdmissionControlProperties;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Admission control of the calculate endpoints. Runs before the request body
+ * is read, so a refused request costs no parsing, validation or voucher
+ * lookup: it is answered 429 with a Retry-After header when its client is
+ * over its rate, or when the requests in flight are over the adaptive limit
+ */
+@RequiredArgsConstructor
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+	// Bodies of refused requests, written without a message converter
+	private static final byte[] RATE_LIMITED_BODY = "{\"message\":\"Request rate limit exceeded for client\"}"
+			.getBytes(StandardCharsets.UTF_8);
+	private static final byte[] OVERLOADED_BODY = "{\"message\":\"Too many requests in flight, retry later\"}"
+			.getBytes(StandardCharsets.UTF_8);
+
+	private final AdmissionControlProperties properties;
+	private final ClientRateLimiter clientRateLimiter;
+	private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !properties.isEnabled();
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		long waitNanos = clientRateLimiter.tryAcquire(clientOf(request));
+		if (waitNanos > 0) {
+			reject(response, RATE_LIMITED_BODY, TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1);
+			return;
+		}
+		if (!concurrencyLimiter.tryAcquire()) {
+			reject(response, OVERLOADED_BODY, 1);
+			return;
+		}
+		long start = System.nanoTime();
+		boolean released = true;
+		try {
+			filterChain.doFilter(request, response);
+			if (request.isAsyncStarted()) {
+				// Released when the calculation completes, on the container thread
+				request.getAsyncContext().addListener(new ReleaseListener(start));
+				released = false;
+			}
+		} finally {
+			if (released) {
+				concurrencyLimiter.release(System.nanoTime() - start);
+			}
+		}
+	}
+
+	// Client of a request, by its key header or else its address
+	private String clientOf(HttpServletRequest request) {
+		String client = request.getHeader(properties.getClientHeader());
+		return StringUtils.hasText(client) ? client : request.getRemoteAddr();
+	}
+
+	private static void reject(HttpServletResponse response, byte[] body, long retryAfterSeconds) throws IOException {
+		response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+		response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		response.setContentLength(body.length);
+		response.getOutputStream().write(body);
+	}
+
+	// Releases an asynchronously served request, complete is also called after
+	// a timeout or error
+	private final class ReleaseListener implements AsyncListener {
+
+		private final long start;
+
+		private ReleaseListener(long start) {
+			this.start = start;
+		}
+
+		@Override
+		public void onComplete(AsyncEvent event) {
+			concurrencyLimiter.release(System.nanoTime() - start);
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) {
+			// Released on complete
+		}
+
+		@Override
+		public void onError(AsyncEvent event) {
+			// Released on complete
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) {
+			event.getAsyncContext().addListener(this);
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package com.mynt.exam.deliverycostcalculator.admission;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mynt.exam.deliverycostcalculator.config.AdmissionControlProperties;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Per-client request rate limit. Each client has its own StripedTokenBucket,
+ * created on its first request at the configured rate of the client, so one
+ * client exhausting its tokens does not slow down the others
+ */
+@Component
+public class ClientRateLimiter {
+
+	public static final String ADMISSION_REJECTIONS_METRIC = "delivery.admission.rejections";
+
+	private final AdmissionControlProperties properties;
+	private final Cache<String, StripedTokenBucket> buckets;
+	private final LongAdder rejected = new LongAdder();
+
+	public ClientRateLimiter(AdmissionControlProperties properties, MeterRegistry meterRegistry) {
+		this.properties = properties;
+		this.buckets = Caffeine.newBuilder().maximumSize(properties.getMaxClients())
+				.expireAfterAccess(properties.getClientIdleTimeout()).build();
+		FunctionCounter.builder(ADMISSION_REJECTIONS_METRIC, rejected, LongAdder::sum).tag("reason", "rate_limit")
+				.description("Requests refused by admission control per reason").register(meterRegistry);
+	}
+
+	/**
+	 * Admit a request of a client
+	 *
+	 * @param client client identifier
+	 * @return 0 if admitted, otherwise the time until the client is admitted again
+	 */
+	public long tryAcquire(String client) {
+		if (getRate(client) <= 0) {
+			return 0;
+		}
+		long nowNanos = System.nanoTime();
+		long waitNanos = buckets.get(client, key -> createBucket(key, nowNanos)).tryAcquire(nowNanos);
+		if (waitNanos > 0) {
+			rejected.increment();
+		}
+		return waitNanos;
+	}
+
+	/**
+	 * Count the requests a client may send right away
+	 *
+	 * @param client client identifier
+	 * @return tokens left, -1 if the client is not limited
+	 */
+	public long getAvailableTokens(String client) {
+		if (getRate(client) <= 0) {
+			return -1;
+		}
+		StripedTokenBucket bucket = buckets.getIfPresent(client);
+		return bucket != null ? bucket.availableTokens(System.nanoTime()) : getBurst(client);
+	}
+
+	public double getRate(String client) {
+		return properties.getClientRates().getOrDefault(client, properties.getClientRate());
+	}
+
+	// Burst of a client, spanning the same time as the default burst
+	public int getBurst(String client) {
+		double rate = getRate(client);
+		if (rate == properties.getClientRate()) {
+			return properties.getClientBurst();
+		}
+		return (int) Math.max(1, Math.round(properties.getClientBurst() * rate / properties.getClientRate()));
+	}
+
+	public long getClients() {
+		return buckets.estimatedSize();
+	}
+
+	public long getRejected() {
+		return rejected.sum();
+	}
+
+	private StripedTokenBucket createBucket(String client, long nowNanos) {
+		return new StripedTokenBucket(getRate(client), getBurst(client), properties.getStripes(), nowNanos);
+	}
+}
@@ -0,0 +1,88 @@
+package com.mynt.exam.deliverycostcalculator.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Token bucket of one client, split into stripes so concurrent requests of the
+ * client rarely update the same counter. Each stripe holds the time its next
+ * token is earned (generic cell rate algorithm), so taking a token is one CAS
+ * and refilling needs no timer. A request takes a token from the stripe of its
+ * thread, or from the other stripes once that one is empty
+ */
+final class StripedTokenBucket {
+
+	private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	// Longs between two stripes, keeping each on its own cache line
+	private static final int PADDING = 8;
+
+	private final AtomicLongArray arrivalTimes;
+	private final int mask;
+
+	// Time a stripe takes to earn a token, and to earn its full burst
+	private final long intervalNanos;
+	private final long capacityNanos;
+
+	/**
+	 * Create a full bucket
+	 *
+	 * @param rate      tokens earned per second
+	 * @param burst     tokens the bucket holds
+	 * @param stripes   counters the tokens are spread over
+	 * @param nowNanos  current System.nanoTime()
+	 */
+	StripedTokenBucket(double rate, int burst, int stripes, long nowNanos) {
+		// Every stripe holds at least one token
+		int stripeCount = Integer.highestOneBit(Math.max(1, Math.min(stripes, burst)));
+		this.mask = stripeCount - 1;
+		this.intervalNanos = Math.max(1, Math.round(NANOS_PER_SECOND * stripeCount / rate));
+		this.capacityNanos = intervalNanos * ((Math.max(1, burst) + stripeCount - 1) / stripeCount);
+		this.arrivalTimes = new AtomicLongArray(stripeCount * PADDING);
+		for (int stripe = 0; stripe < stripeCount; stripe++) {
+			arrivalTimes.set(stripe * PADDING, nowNanos);
+		}
+	}
+
+	/**
+	 * Take a token
+	 *
+	 * @param nowNanos current System.nanoTime()
+	 * @return 0 if a token was taken, otherwise the time until one is earned
+	 */
+	long tryAcquire(long nowNanos) {
+		int first = (int) Thread.currentThread().getId();
+		long waitNanos = Long.MAX_VALUE;
+		for (int i = 0; i <= mask; i++) {
+			int index = ((first + i) & mask) * PADDING;
+			while (true) {
+				long arrivalTime = arrivalTimes.get(index);
+				long nextArrivalTime = Math.max(arrivalTime, nowNanos) + intervalNanos;
+				long excessNanos = nextArrivalTime - nowNanos - capacityNanos;
+				if (excessNanos > 0) {
+					waitNanos = Math.min(waitNanos, excessNanos);
+					break;
+				}
+				if (arrivalTimes.compareAndSet(index, arrivalTime, nextArrivalTime)) {
+					return 0;
+				}
+			}
+		}
+		return waitNanos;
+	}
+
+	/**
+	 * Count the tokens left
+	 *
+	 * @param nowNanos current System.nanoTime()
+	 * @return whole tokens the bucket holds
+	 */
+	long availableTokens(long nowNanos) {
+		long tokens = 0;
+		for (int stripe = 0; stripe <= mask; stripe++) {
+			long usedNanos = Math.max(0, arrivalTimes.get(stripe * PADDING) - nowNanos);
+			tokens += (capacityNanos - usedNanos) / intervalNanos;
+		}
+		return tokens;
+	}
+}
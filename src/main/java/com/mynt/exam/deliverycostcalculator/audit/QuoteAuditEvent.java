@@ -0,0 +1,59 @@
+package com.mynt.exam.deliverycostcalculator.audit;
+
+import java.math.BigDecimal;
+
+import lombok.Getter;
+
+/**
+ * Preallocated slot of the quote audit ring buffer. Producers only store
+ * references to the request and response values, all formatting is left to
+ * the audit writer thread
+ */
+@Getter
+public class QuoteAuditEvent {
+
+	// How the quote was requested
+	public enum Mode {
+		SYNC, ASYNC, BATCH, SHIPMENT
+	}
+
+	// How the quote was answered
+	public enum Outcome {
+		PRICED, CACHED, REJECTED
+	}
+
+	private long timestamp;
+	private Mode mode;
+	private Outcome outcome;
+	private BigDecimal length;
+	private BigDecimal width;
+	private BigDecimal height;
+	private BigDecimal weight;
+	private String promoCode;
+	private BigDecimal discountPct;
+	private BigDecimal deliveryCost;
+	private BigDecimal totalVolume;
+	private String message;
+
+	void set(long timestamp, Mode mode, Outcome outcome, BigDecimal length, BigDecimal width, BigDecimal height,
+			BigDecimal weight, String promoCode, BigDecimal discountPct, BigDecimal deliveryCost,
+			BigDecimal totalVolume, String message) {
+		this.timestamp = timestamp;
+		this.mode = mode;
+		this.outcome = outcome;
+		this.length = length;
+		this.width = width;
+		this.height = height;
+		this.weight = weight;
+		this.promoCode = promoCode;
+		this.discountPct = discountPct;
+		this.deliveryCost = deliveryCost;
+		this.totalVolume = totalVolume;
+		this.message = message;
+	}
+
+	// Drop references once written so the slot does not keep requests alive
+	void clear() {
+		set(0, null, null, null, null, null, null, null, null, null, null, null);
+	}
+}
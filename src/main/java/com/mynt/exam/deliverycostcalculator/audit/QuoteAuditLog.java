@@ -0,0 +1,233 @@
+package com.mynt.exam.deliverycostcalculator.audit;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.stereotype.Component;
+
+import com.mynt.exam.deliverycostcalculator.audit.QuoteAuditEvent.Mode;
+import com.mynt.exam.deliverycostcalculator.audit.QuoteAuditEvent.Outcome;
+import com.mynt.exam.deliverycostcalculator.config.QuoteAuditProperties;
+import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Structured audit stream of quotes. Request threads store a sampled share of
+ * quotes into a lock-free ring buffer and never block, a full buffer drops the
+ * quote. A single writer thread drains the buffer and appends batches of
+ * compact comma-separated records to a rolling audit file
+ */
+@Slf4j
+@Component
+public class QuoteAuditLog {
+
+	public static final String AUDIT_EVENTS_METRIC = "delivery.audit.events";
+	public static final String AUDIT_BACKLOG_METRIC = "delivery.audit.backlog";
+
+	static final String HEADER = "timestamp,mode,outcome,length,width,height,weight,promoCode,discountPct,"
+			+ "deliveryCost,totalVolume,message\n";
+
+	private final QuoteAuditProperties properties;
+	private final QuoteAuditRingBuffer ringBuffer;
+	private final StringBuilder records = new StringBuilder();
+
+	private volatile boolean running;
+	private volatile Thread writer;
+	private RollingAuditFile auditFile;
+	private volatile long written;
+
+	public QuoteAuditLog(QuoteAuditProperties properties, MeterRegistry meterRegistry) {
+		this.properties = properties;
+		this.ringBuffer = new QuoteAuditRingBuffer(properties.isEnabled() ? properties.getBufferSize() : 1);
+		FunctionCounter.builder(AUDIT_EVENTS_METRIC, this, QuoteAuditLog::getWritten).tag("result", "written")
+				.description("Audited quotes per result").register(meterRegistry);
+		FunctionCounter.builder(AUDIT_EVENTS_METRIC, ringBuffer, QuoteAuditRingBuffer::getDropped)
+				.tag("result", "dropped").description("Audited quotes per result").register(meterRegistry);
+		Gauge.builder(AUDIT_BACKLOG_METRIC, ringBuffer, QuoteAuditRingBuffer::getBacklog)
+				.description("Audited quotes waiting to be written").register(meterRegistry);
+	}
+
+	// Open the audit file and start the writer thread
+	@PostConstruct
+	public void start() throws IOException {
+		if (!properties.isEnabled()) {
+			return;
+		}
+		auditFile = new RollingAuditFile(properties.getFile(), properties.getMaxFileSize().toBytes(),
+				properties.getMaxHistory(), HEADER.getBytes(StandardCharsets.US_ASCII));
+		running = true;
+		Thread thread = new Thread(this::writeEvents, "quote-audit");
+		thread.setDaemon(true);
+		writer = thread;
+		thread.start();
+		log.info("Quote audit log writing to {}, sampling {}", properties.getFile(), properties.getSampleRatio());
+	}
+
+	// Stop the writer thread once the buffered quotes are written
+	@PreDestroy
+	public void stop() throws InterruptedException {
+		Thread thread = writer;
+		if (thread == null) {
+			return;
+		}
+		running = false;
+		LockSupport.unpark(thread);
+		thread.join(properties.getFlushInterval().toMillis() * 10);
+	}
+
+	/**
+	 * Audit a priced quote
+	 *
+	 * @param mode        how the quote was requested
+	 * @param request     parcel request object
+	 * @param discountPct discount multiplier applied
+	 * @param response    quote of the parcel
+	 */
+	public void priced(Mode mode, ParcelRequest request, BigDecimal discountPct, CalculationResponse response) {
+		record(mode, Outcome.PRICED, request, request != null ? request.getPromoCode() : null, discountPct, response,
+				null);
+	}
+
+	/**
+	 * Audit a priced quote of a shipment parcel, discounted by the promo code of
+	 * the shipment
+	 *
+	 * @param request     parcel request object
+	 * @param promoCode   promo code of the shipment
+	 * @param discountPct discount multiplier applied
+	 * @param response    quote of the parcel
+	 */
+	public void pricedShipmentParcel(ParcelRequest request, String promoCode, BigDecimal discountPct,
+			CalculationResponse response) {
+		record(Mode.SHIPMENT, Outcome.PRICED, request, promoCode, discountPct, response, null);
+	}
+
+	/**
+	 * Audit a quote served from the quote cache
+	 *
+	 * @param mode     how the quote was requested
+	 * @param request  parcel request object
+	 * @param response cached quote of the parcel
+	 */
+	public void cached(Mode mode, ParcelRequest request, CalculationResponse response) {
+		record(mode, Outcome.CACHED, request, request != null ? request.getPromoCode() : null, null, response, null);
+	}
+
+	/**
+	 * Audit a rejected quote
+	 *
+	 * @param mode    how the quote was requested
+	 * @param request parcel request object
+	 * @param message rejection message
+	 */
+	public void rejected(Mode mode, ParcelRequest request, String message) {
+		record(mode, Outcome.REJECTED, request, request != null ? request.getPromoCode() : null, null, null, message);
+	}
+
+	/**
+	 * Audit a parcel of a rejected shipment
+	 *
+	 * @param request   parcel request object
+	 * @param promoCode promo code of the shipment
+	 * @param message   rejection message of the shipment
+	 */
+	public void rejectedShipmentParcel(ParcelRequest request, String promoCode, String message) {
+		record(Mode.SHIPMENT, Outcome.REJECTED, request, promoCode, null, null, message);
+	}
+
+	public long getWritten() {
+		return written;
+	}
+
+	public long getDropped() {
+		return ringBuffer.getDropped();
+	}
+
+	private void record(Mode mode, Outcome outcome, ParcelRequest request, String promoCode, BigDecimal discountPct,
+			CalculationResponse response, String message) {
+		if (!running || request == null || (properties.getSampleRatio() < 1.0
+				&& ThreadLocalRandom.current().nextDouble() >= properties.getSampleRatio())) {
+			return;
+		}
+		long sequence = ringBuffer.tryClaim();
+		if (sequence < 0) {
+			return;
+		}
+		ringBuffer.get(sequence).set(System.currentTimeMillis(), mode, outcome, request.getLength(),
+				request.getWidth(), request.getHeight(), request.getWeight(), promoCode, discountPct,
+				response != null ? response.getDeliveryCost() : null,
+				response != null ? response.getTotalVolume() : null, message);
+		ringBuffer.publish(sequence);
+	}
+
+	// Writer thread loop, waits a flush interval whenever the buffer is empty
+	private void writeEvents() {
+		long flushIntervalNanos = properties.getFlushInterval().toNanos();
+		try {
+			while (running) {
+				if (writeBatch() == 0) {
+					LockSupport.parkNanos(this, flushIntervalNanos);
+				}
+			}
+			while (writeBatch() > 0) {
+				// Write what was buffered before stopping
+			}
+		} finally {
+			try {
+				auditFile.close();
+			} catch (IOException e) {
+				log.warn("Quote audit file not closed: {}", e.getMessage());
+			}
+		}
+	}
+
+	private int writeBatch() {
+		records.setLength(0);
+		int drained = ringBuffer.drain(this::appendRecord, properties.getBatchSize());
+		if (drained > 0) {
+			try {
+				auditFile.write(StandardCharsets.UTF_8.encode(records.toString()));
+				written += drained;
+			} catch (IOException e) {
+				log.warn("Quote audit records dropped, audit file not written: {}", e.getMessage());
+			}
+		}
+		return drained;
+	}
+
+	private void appendRecord(QuoteAuditEvent event) {
+		records.append(event.getTimestamp()).append(',').append(event.getMode()).append(',')
+				.append(event.getOutcome()).append(',');
+		appendDecimal(event.getLength()).append(',');
+		appendDecimal(event.getWidth()).append(',');
+		appendDecimal(event.getHeight()).append(',');
+		appendDecimal(event.getWeight()).append(',');
+		appendText(event.getPromoCode()).append(',');
+		appendDecimal(event.getDiscountPct()).append(',');
+		appendDecimal(event.getDeliveryCost()).append(',');
+		appendDecimal(event.getTotalVolume()).append(',');
+		appendText(event.getMessage()).append('\n');
+	}
+
+	private StringBuilder appendDecimal(BigDecimal value) {
+		return value != null ? records.append(value.toPlainString()) : records;
+	}
+
+	private StringBuilder appendText(String value) {
+		if (value == null) {
+			return records;
+		}
+		return records.append('"').append(value.replace("\"", "\"\"")).append('"');
+	}
+}
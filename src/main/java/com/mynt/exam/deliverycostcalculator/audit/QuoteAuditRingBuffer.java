@@ -0,0 +1,121 @@
+package com.mynt.exam.deliverycostcalculator.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Lock-free multi-producer, single-consumer ring of preallocated audit events.
+ * Producers claim a sequence with a compare-and-set and never wait: while the
+ * ring is full, claims fail and the event is dropped. The consumer drains
+ * published events in sequence order
+ */
+public class QuoteAuditRingBuffer {
+
+	private static final long UNPUBLISHED = -1;
+
+	private final QuoteAuditEvent[] events;
+	private final int mask;
+
+	// Sequence last published in each slot
+	private final AtomicLongArray published;
+	// Next sequence to claim
+	private final AtomicLong claimed = new AtomicLong();
+	// Next sequence to drain, slots before it are free
+	private final AtomicLong consumed = new AtomicLong();
+	private final LongAdder dropped = new LongAdder();
+
+	/**
+	 * Create a ring buffer
+	 *
+	 * @param capacity events held, rounded up to a power of two
+	 */
+	public QuoteAuditRingBuffer(int capacity) {
+		if (capacity <= 0 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("Audit buffer size must be between 1 and 2^30: " + capacity);
+		}
+		int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+		this.events = new QuoteAuditEvent[size];
+		this.mask = size - 1;
+		this.published = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			events[i] = new QuoteAuditEvent();
+			published.set(i, UNPUBLISHED);
+		}
+	}
+
+	/**
+	 * Claim the next slot without waiting
+	 *
+	 * @return sequence of the claimed slot, -1 if the ring is full
+	 */
+	public long tryClaim() {
+		while (true) {
+			long sequence = claimed.get();
+			if (sequence - consumed.get() >= events.length) {
+				dropped.increment();
+				return UNPUBLISHED;
+			}
+			if (claimed.compareAndSet(sequence, sequence + 1)) {
+				return sequence;
+			}
+		}
+	}
+
+	/**
+	 * Get the event of a claimed slot, to be filled in before publishing
+	 *
+	 * @param sequence claimed sequence
+	 * @return preallocated event of the slot
+	 */
+	public QuoteAuditEvent get(long sequence) {
+		return events[(int) sequence & mask];
+	}
+
+	/**
+	 * Hand a filled in slot over to the consumer
+	 *
+	 * @param sequence claimed sequence
+	 */
+	public void publish(long sequence) {
+		published.lazySet((int) sequence & mask, sequence);
+	}
+
+	/**
+	 * Drain published events in sequence order. Only called by the consumer
+	 * thread
+	 *
+	 * @param handler   handler of each event, events are cleared afterwards
+	 * @param maxEvents most events to drain
+	 * @return events drained
+	 */
+	public int drain(Consumer<QuoteAuditEvent> handler, int maxEvents) {
+		long next = consumed.get();
+		int drained = 0;
+		while (drained < maxEvents && published.get((int) next & mask) == next) {
+			QuoteAuditEvent event = events[(int) next & mask];
+			handler.accept(event);
+			event.clear();
+			next++;
+			drained++;
+		}
+		if (drained > 0) {
+			consumed.lazySet(next);
+		}
+		return drained;
+	}
+
+	public int getCapacity() {
+		return events.length;
+	}
+
+	// Events claimed but not drained yet
+	public long getBacklog() {
+		return claimed.get() - consumed.get();
+	}
+
+	public long getDropped() {
+		return dropped.sum();
+	}
+}
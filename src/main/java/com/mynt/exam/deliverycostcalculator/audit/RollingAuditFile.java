@@ -0,0 +1,93 @@
+package com.mynt.exam.deliverycostcalculator.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only audit file rolled over by size. A full file is renamed to .1,
+ * older files shift up to .maxHistory and the oldest is deleted
+ */
+public class RollingAuditFile implements Closeable {
+
+	private final Path file;
+	private final long maxFileSize;
+	private final int maxHistory;
+	private final byte[] header;
+
+	private FileChannel channel;
+
+	/**
+	 * Open an audit file, appending to it if it exists
+	 *
+	 * @param file        audit file
+	 * @param maxFileSize size a file may grow to before it is rolled over
+	 * @param maxHistory  rolled over files kept
+	 * @param header      bytes starting every new file
+	 * @throws IOException if the file cannot be opened
+	 */
+	public RollingAuditFile(Path file, long maxFileSize, int maxHistory, byte[] header) throws IOException {
+		this.file = file;
+		this.maxFileSize = maxFileSize;
+		this.maxHistory = maxHistory;
+		this.header = header;
+		Path parent = file.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		open();
+	}
+
+	/**
+	 * Append a batch of records, rolling the file over first if they do not fit
+	 *
+	 * @param records complete records
+	 * @throws IOException if the file cannot be written
+	 */
+	public void write(ByteBuffer records) throws IOException {
+		if (channel.size() > header.length && channel.size() + records.remaining() > maxFileSize) {
+			rollOver();
+		}
+		while (records.hasRemaining()) {
+			channel.write(records);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private void open() throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+		if (channel.size() == 0) {
+			channel.write(ByteBuffer.wrap(header));
+		}
+	}
+
+	private void rollOver() throws IOException {
+		channel.close();
+		if (maxHistory > 0) {
+			Files.deleteIfExists(rolledOver(maxHistory));
+			for (int i = maxHistory - 1; i >= 1; i--) {
+				if (Files.exists(rolledOver(i))) {
+					Files.move(rolledOver(i), rolledOver(i + 1), StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+			Files.move(file, rolledOver(1), StandardCopyOption.REPLACE_EXISTING);
+		} else {
+			Files.delete(file);
+		}
+		open();
+	}
+
+	private Path rolledOver(int index) {
+		return file.resolveSibling(file.getFileName() + "." + index);
+	}
+}
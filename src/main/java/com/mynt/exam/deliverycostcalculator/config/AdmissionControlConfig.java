@@ -0,0 +1,30 @@
+package com.mynt.exam.deliverycostcalculator.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import com.mynt.exam.deliverycostcalculator.admission.AdaptiveConcurrencyLimiter;
+import com.mynt.exam.deliverycostcalculator.admission.AdmissionControlFilter;
+import com.mynt.exam.deliverycostcalculator.admission.ClientRateLimiter;
+
+@Configuration
+@ConditionalOnWebApplication(type = Type.SERVLET)
+public class AdmissionControlConfig {
+
+	// Admission control of the calculate endpoints, first in the filter chain so
+	// refused requests are answered before any other work
+	@Bean
+	public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+			AdmissionControlProperties admissionControlProperties, ClientRateLimiter clientRateLimiter,
+			AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter) {
+		FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(
+				new AdmissionControlFilter(admissionControlProperties, clientRateLimiter, adaptiveConcurrencyLimiter));
+		registration.addUrlPatterns("/calculate", "/calculate/*");
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+		return registration;
+	}
+}
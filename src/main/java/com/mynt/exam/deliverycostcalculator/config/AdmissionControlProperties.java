@@ -0,0 +1,57 @@
+package com.mynt.exam.deliverycostcalculator.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+// Configuration properties for admission control of the calculate endpoints
+@Data
+@Component
+@ConfigurationProperties(prefix = "delivery.admission")
+public class AdmissionControlProperties {
+
+	// Turns admission control on or off
+	private boolean enabled = false;
+
+	// Header identifying the client, the remote address is used without it
+	private String clientHeader = "X-Api-Key";
+
+	// Requests per second admitted per client, 0 for no limit
+	private double clientRate = 50;
+
+	// Requests a client may send at once after being idle
+	private int clientBurst = 100;
+
+	// Requests per second of specific clients, by header value. Their burst is
+	// scaled like their rate
+	private Map<String, Double> clientRates = new HashMap<>();
+
+	// Clients whose rate is tracked at once, the least recent are forgotten
+	private long maxClients = 10000;
+
+	// Time a client's rate is tracked after its last request
+	private Duration clientIdleTimeout = Duration.ofMinutes(10);
+
+	// Counters each client's rate is spread over, rounded down to a power of
+	// two. More stripes mean less contention between concurrent requests
+	private int stripes = Runtime.getRuntime().availableProcessors();
+
+	// Requests in flight admitted before any latency is observed
+	private int initialLimit = 200;
+
+	// Bounds of the adaptive limit of requests in flight
+	private int minLimit = 20;
+	private int maxLimit = 1000;
+
+	// Ratio of short-term to long-term average latency the limit is reduced at
+	private double latencyTolerance = 2.0;
+
+	// Factor the limit is multiplied by when latency rises
+	private double backoffRatio = 0.9;
+
+}
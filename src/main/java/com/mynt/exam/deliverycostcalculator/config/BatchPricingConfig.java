@@ -0,0 +1,17 @@
+package com.mynt.exam.deliverycostcalculator.config;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class BatchPricingConfig {
+
+	// Bounded pool used to price batch items in parallel
+	// Kept separate from the common pool so batches cannot starve other work
+	@Bean(destroyMethod = "shutdown")
+	public ForkJoinPool batchPricingPool(BatchProperties batchProperties) {
+		return new ForkJoinPool(batchProperties.getParallelism());
+	}
+}
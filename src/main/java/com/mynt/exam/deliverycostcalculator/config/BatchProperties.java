@@ -0,0 +1,20 @@
+package com.mynt.exam.deliverycostcalculator.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+// Configuration properties for batch cost calculation
+@Data
+@Component
+@ConfigurationProperties(prefix = "delivery.batch")
+public class BatchProperties {
+
+	// Number of worker threads in the batch pricing pool
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	// Maximum number of parcels accepted in a single batch
+	private int maxSize = 500;
+
+}
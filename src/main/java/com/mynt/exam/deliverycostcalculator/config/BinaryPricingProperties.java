@@ -0,0 +1,31 @@
+package com.mynt.exam.deliverycostcalculator.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+// Configuration properties for the internal binary pricing listener
+@Data
+@Component
+@ConfigurationProperties(prefix = "delivery.binary")
+public class BinaryPricingProperties {
+
+	// Turns the binary pricing listener on or off
+	private boolean enabled = false;
+
+	// Address the listener binds to, all interfaces if empty. Loopback by
+	// default, as the listener does not authenticate its callers
+	private String address = "127.0.0.1";
+
+	// Port of the listener, any free port if 0
+	private int port = 9443;
+
+	// Requests of a connection priced at once. Reading from the connection
+	// pauses while this many responses are outstanding
+	private int maxPipelined = 256;
+
+	// Connections accepted at once, further connections are closed
+	private int maxConnections = 1024;
+
+}
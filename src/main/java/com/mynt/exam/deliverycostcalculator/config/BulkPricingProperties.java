@@ -0,0 +1,71 @@
+package com.mynt.exam.deliverycostcalculator.config;
+
+import java.nio.file.Path;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+// Configuration properties for the bulk pricing run mode
+@Data
+@Component
+@ConfigurationProperties(prefix = "delivery.bulk")
+public class BulkPricingProperties {
+
+	// Parcel file to price, setting it starts the bulk pricing run
+	private Path input;
+
+	// Priced file, defaults to the input file name suffixed with -priced
+	private Path output;
+
+	// Row format of the input and output files
+	private Format format = Format.AUTO;
+
+	// Parcels priced together, capped by delivery.batch.max-size
+	private int chunkSize = 500;
+
+	// Chunks priced at the same time
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	// Read buffer size, also the longest row accepted
+	private DataSize bufferSize = DataSize.ofMegabytes(1);
+
+	public enum Format {
+		// Detected from the input file extension, .ndjson and .jsonl are NDJSON
+		AUTO, CSV, NDJSON
+	}
+
+	/**
+	 * Get the row format of a parcel file
+	 * 
+	 * @param file parcel file
+	 * @return configured format, or the one of the file extension if AUTO
+	 */
+	public Format resolveFormat(Path file) {
+		if (format != Format.AUTO) {
+			return format;
+		}
+		String fileName = file.getFileName().toString().toLowerCase();
+		return fileName.endsWith(".ndjson") || fileName.endsWith(".jsonl") ? Format.NDJSON : Format.CSV;
+	}
+
+	/**
+	 * Get the priced file of the input file
+	 * 
+	 * @return configured output, or the input file name suffixed with -priced
+	 */
+	public Path resolveOutput() {
+		if (output != null) {
+			return output;
+		}
+		String fileName = input.getFileName().toString();
+		int extension = fileName.lastIndexOf('.');
+		String pricedName = extension > 0
+				? fileName.substring(0, extension) + "-priced" + fileName.substring(extension)
+				: fileName + "-priced";
+		return input.resolveSibling(pricedName);
+	}
+
+}
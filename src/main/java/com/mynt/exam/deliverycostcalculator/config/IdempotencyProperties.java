@@ -0,0 +1,25 @@
+package com.mynt.exam.deliverycostcalculator.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+// Configuration properties for the Idempotency-Key store of quote requests
+@Data
+@Component
+@ConfigurationProperties(prefix = "delivery.idempotency")
+public class IdempotencyProperties {
+
+	// Turns replaying quotes by Idempotency-Key on or off
+	private boolean enabled = true;
+
+	// Maximum number of idempotency keys kept
+	private long maxSize = 10000;
+
+	// Time a quote is replayed for its idempotency key
+	private Duration ttl = Duration.ofMinutes(10);
+
+}
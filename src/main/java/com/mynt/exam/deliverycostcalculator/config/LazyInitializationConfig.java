@@ -0,0 +1,25 @@
+package com.mynt.exam.deliverycostcalculator.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.mynt.exam.deliverycostcalculator.audit.QuoteAuditLog;
+import com.mynt.exam.deliverycostcalculator.remoteservice.VoucherCatalog;
+import com.mynt.exam.deliverycostcalculator.server.BinaryPricingServer;
+import com.mynt.exam.deliverycostcalculator.service.intf.DeliveryCostCalculatorService;
+import com.mynt.exam.deliverycostcalculator.service.intf.PricingRuleService;
+
+@Configuration
+public class LazyInitializationConfig {
+
+	// Beans still created at startup with spring.main.lazy-initialization (fast
+	// profile): the pricing rule load, the voucher catalog prefetch and the audit
+	// writer would otherwise start on the first request, the calculation service
+	// wires the request path, and the binary listener would never start
+	@Bean
+	public static LazyInitializationExcludeFilter eagerStartupBeans() {
+		return LazyInitializationExcludeFilter.forBeanTypes(PricingRuleService.class, VoucherCatalog.class,
+				QuoteAuditLog.class, DeliveryCostCalculatorService.class, BinaryPricingServer.class);
+	}
+}
@@ -0,0 +1,29 @@
+package com.mynt.exam.deliverycostcalculator.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.mynt.exam.deliverycostcalculator.metrics.DeliveryCostMetrics;
+import com.mynt.exam.deliverycostcalculator.service.impl.BigDecimalPricingEngine;
+import com.mynt.exam.deliverycostcalculator.service.impl.FixedPointPricingEngine;
+import com.mynt.exam.deliverycostcalculator.service.intf.PricingEngine;
+import com.mynt.exam.deliverycostcalculator.service.intf.PricingRuleService;
+
+@Configuration
+public class PricingEngineConfig {
+
+	// Pricing engine selected by delivery.pricing.engine
+	// The fixed-point engine falls back to BigDecimal for parcels it cannot represent
+	// Both price with the current snapshot of the pricing rule table
+	@Bean
+	public PricingEngine pricingEngine(PricingProperties pricingProperties, PricingRuleService pricingRuleService,
+			DeliveryCostMetrics deliveryCostMetrics) {
+		BigDecimalPricingEngine bigDecimalPricingEngine = new BigDecimalPricingEngine(pricingRuleService::getSnapshot,
+				deliveryCostMetrics);
+		if (pricingProperties.getEngine() == PricingProperties.Engine.FIXED_POINT) {
+			return new FixedPointPricingEngine(bigDecimalPricingEngine, pricingRuleService::getSnapshot,
+					deliveryCostMetrics);
+		}
+		return bigDecimalPricingEngine;
+	}
+}
@@ -0,0 +1,21 @@
+package com.mynt.exam.deliverycostcalculator.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+// Configuration properties for parcel pricing
+@Data
+@Component
+@ConfigurationProperties(prefix = "delivery.pricing")
+public class PricingProperties {
+
+	// Arithmetic used to price parcels
+	private Engine engine = Engine.BIG_DECIMAL;
+
+	public enum Engine {
+		BIG_DECIMAL, FIXED_POINT
+	}
+
+}
@@ -0,0 +1,44 @@
+package com.mynt.exam.deliverycostcalculator.config;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+// Configuration properties for the quote audit log
+@Data
+@Component
+@ConfigurationProperties(prefix = "delivery.audit")
+public class QuoteAuditProperties {
+
+	// Turns the quote audit log on or off
+	private boolean enabled = false;
+
+	// Audit file, rolled over to .1, .2, ... once full
+	private Path file = Paths.get("logs", "quote-audit.log");
+
+	// Size an audit file may grow to before it is rolled over
+	private DataSize maxFileSize = DataSize.ofMegabytes(64);
+
+	// Rolled over audit files kept
+	private int maxHistory = 5;
+
+	// Events the ring buffer holds, rounded up to a power of two. Events
+	// arriving while it is full are dropped
+	private int bufferSize = 8192;
+
+	// Events written to the file at once
+	private int batchSize = 512;
+
+	// Time the writer waits for events once the ring buffer is empty
+	private Duration flushInterval = Duration.ofMillis(200);
+
+	// Share of quotes audited, from 0 (none) to 1 (all)
+	private double sampleRatio = 1.0;
+
+}
@@ -0,0 +1,26 @@
+package com.mynt.exam.deliverycostcalculator.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+// Configuration properties for the cache of whole quote results
+@Data
+@Component
+@ConfigurationProperties(prefix = "delivery.quote-cache")
+public class QuoteCacheProperties {
+
+	// Turns quote caching on or off
+	private boolean enabled = false;
+
+	// Estimated memory the cached quotes may take
+	private DataSize maxMemory = DataSize.ofMegabytes(16);
+
+	// Maximum time a quote is kept
+	private Duration ttl = Duration.ofMinutes(10);
+
+}
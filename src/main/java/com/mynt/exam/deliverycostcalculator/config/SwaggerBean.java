@@ -1,13 +1,23 @@
 package com.mynt.exam.deliverycostcalculator.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
+import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
+// Springfox documents Spring MVC mappings only, so Swagger is left out of the
+// reactive web application. Left out with delivery.swagger.enabled=false, as in
+// the fast startup profile, which saves the scan of every request mapping
+@EnableSwagger2
 @Configuration
+@ConditionalOnWebApplication(type = Type.SERVLET)
+@ConditionalOnProperty(prefix = "delivery.swagger", name = "enabled", matchIfMissing = true)
 public class SwaggerBean {
 
 	@Bean
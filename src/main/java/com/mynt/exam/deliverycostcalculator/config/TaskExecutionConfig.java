@@ -0,0 +1,24 @@
+package com.mynt.exam.deliverycostcalculator.config;
+
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class TaskExecutionConfig {
+
+	// Boot only creates its application executor when no Executor bean exists,
+	// and the voucher executor and batch pricing pool are Executor beans. Declared
+	// as Boot would, so Spring MVC async requests and @Async keep the pool
+	// configured by spring.task.execution instead of the bulkheads
+	@Lazy
+	@Bean(name = { TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+			AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME })
+	public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder taskExecutorBuilder) {
+		return taskExecutorBuilder.build();
+	}
+}
@@ -0,0 +1,28 @@
+package com.mynt.exam.deliverycostcalculator.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+// Configuration properties for the voucher lookup cache
+@Data
+@Component
+@ConfigurationProperties(prefix = "voucher.cache")
+public class VoucherCacheProperties {
+
+	// Turns voucher caching on or off
+	private boolean enabled = true;
+
+	// Maximum number of promo codes kept in the cache
+	private long maxSize = 1000;
+
+	// Maximum time a valid voucher is kept, capped by the voucher expiry
+	private Duration ttl = Duration.ofMinutes(10);
+
+	// Time an invalid promo code is kept
+	private Duration negativeTtl = Duration.ofSeconds(30);
+
+}
@@ -0,0 +1,36 @@
+package com.mynt.exam.deliverycostcalculator.config;
+
+import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.VOUCHER_CATALOG_URL;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+// Configuration properties for the prefetched voucher catalog
+@Data
+@Component
+@ConfigurationProperties(prefix = "voucher.catalog")
+public class VoucherCatalogProperties {
+
+	// Turns catalog prefetch on or off, promo codes are looked up one by one
+	// when off
+	private boolean enabled = false;
+
+	// Voucher catalog url template, expects {key} and {since} variables. An empty
+	// since asks for all active vouchers, else for vouchers changed since then
+	private String url = VOUCHER_CATALOG_URL;
+
+	// Time between incremental refreshes
+	private Duration refreshInterval = Duration.ofMinutes(1);
+
+	// Time between full reloads, dropping vouchers an incremental refresh missed
+	private Duration fullRefreshInterval = Duration.ofHours(1);
+
+	// Look up promo codes missing from the catalog one by one, else they get no
+	// discount without a remote call
+	private boolean lookupUnknown = true;
+
+}
@@ -0,0 +1,28 @@
+package com.mynt.exam.deliverycostcalculator.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+// Configuration properties for the voucher service circuit breaker
+@Data
+@Component
+@ConfigurationProperties(prefix = "voucher.circuit-breaker")
+public class VoucherCircuitBreakerProperties {
+
+	// Turns the circuit breaker on or off
+	private boolean enabled = true;
+
+	// Consecutive failed calls that open the circuit
+	private int failureThreshold = 5;
+
+	// Time the circuit stays open before probing the voucher service
+	private Duration openDuration = Duration.ofSeconds(30);
+
+	// Calls allowed through while probing a half-open circuit
+	private int halfOpenProbes = 1;
+
+}
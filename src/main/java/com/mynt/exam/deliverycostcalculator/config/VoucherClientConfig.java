@@ -0,0 +1,77 @@
+package com.mynt.exam.deliverycostcalculator.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.client.RestTemplate;
+
+import com.mynt.exam.deliverycostcalculator.remoteservice.RestTemplateVoucherClient;
+import com.mynt.exam.deliverycostcalculator.remoteservice.VoucherClient;
+
+@Configuration
+public class VoucherClientConfig {
+
+	// Pooled http client shared by all voucher service calls
+	@Bean(destroyMethod = "close")
+	public CloseableHttpClient voucherHttpClient(VoucherClientProperties properties) {
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setMaxTotal(properties.getMaxConnections());
+		connectionManager.setDefaultMaxPerRoute(properties.getMaxConnectionsPerRoute());
+
+		RequestConfig requestConfig = RequestConfig.custom()
+				.setConnectTimeout((int) properties.getConnectTimeout().toMillis())
+				.setSocketTimeout((int) properties.getReadTimeout().toMillis())
+				.setConnectionRequestTimeout((int) properties.getConnectionRequestTimeout().toMillis()).build();
+
+		return HttpClients.custom().setConnectionManager(connectionManager).setDefaultRequestConfig(requestConfig)
+				.setKeepAliveStrategy(keepAliveStrategy(properties)).evictExpiredConnections()
+				.evictIdleConnections(properties.getIdleTimeout().toMillis(), TimeUnit.MILLISECONDS).build();
+	}
+
+	@Bean
+	public RestTemplate voucherRestTemplate(CloseableHttpClient voucherHttpClient) {
+		return new RestTemplate(new HttpComponentsClientHttpRequestFactory(voucherHttpClient));
+	}
+
+	// Transport selected by voucher.client.transport. The rest template blocks a
+	// voucher executor thread per call. The web-client transport is built with
+	// the reactive Maven profile, see WebClientVoucherClientConfig
+	@Bean
+	@ConditionalOnProperty(prefix = "voucher.client", name = "transport", havingValue = "rest-template",
+			matchIfMissing = true)
+	public VoucherClient voucherClient(VoucherClientProperties properties, RestTemplate voucherRestTemplate,
+			ThreadPoolTaskExecutor voucherExecutor) {
+		return new RestTemplateVoucherClient(voucherRestTemplate, voucherExecutor, properties);
+	}
+
+	// Bounded executor running voucher service calls off the request thread
+	// Acts as bulkhead, calls beyond its threads and queue get no discount
+	@Bean
+	public ThreadPoolTaskExecutor voucherExecutor(VoucherClientProperties properties) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(properties.getExecutorThreads());
+		executor.setMaxPoolSize(properties.getExecutorThreads());
+		executor.setQueueCapacity(properties.getExecutorQueueCapacity());
+		executor.setThreadNamePrefix("voucher-");
+		return executor;
+	}
+
+	// Honor the Keep-Alive header of the voucher service, else use the configured
+	// keep-alive
+	private ConnectionKeepAliveStrategy keepAliveStrategy(VoucherClientProperties properties) {
+		return (response, context) -> {
+			long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+			return keepAlive > 0 ? keepAlive : properties.getKeepAlive().toMillis();
+		};
+	}
+}
@@ -0,0 +1,65 @@
+package com.mynt.exam.deliverycostcalculator.config;
+
+import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.VOUCHER_SERVICE_URL;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+// Configuration properties for the voucher service HTTP client
+@Data
+@Component
+@ConfigurationProperties(prefix = "voucher.client")
+public class VoucherClientProperties {
+
+	// Voucher service url template, expects {promocode} and {key} variables
+	private String url = VOUCHER_SERVICE_URL;
+
+	// Api key sent to the voucher service
+	private String apiKey = "apikey";
+
+	// Transport of voucher service calls, web-client needs the reactive Maven profile
+	private Transport transport = Transport.REST_TEMPLATE;
+
+	// Time allowed to establish a connection
+	private Duration connectTimeout = Duration.ofSeconds(1);
+
+	// Time allowed between response packets
+	private Duration readTimeout = Duration.ofSeconds(2);
+
+	// Time allowed to wait for a free pooled connection
+	private Duration connectionRequestTimeout = Duration.ofMillis(500);
+
+	// Maximum pooled connections across all hosts
+	private int maxConnections = 200;
+
+	// Maximum pooled connections to a single host
+	private int maxConnectionsPerRoute = 100;
+
+	// Keep-alive used when the voucher service does not send one
+	private Duration keepAlive = Duration.ofSeconds(30);
+
+	// Idle time after which pooled connections are closed
+	private Duration idleTimeout = Duration.ofSeconds(60);
+
+	// Threads running voucher service calls, bounding concurrent calls
+	private int executorThreads = 32;
+
+	// Voucher service calls allowed to wait for a thread
+	private int executorQueueCapacity = 500;
+
+	// Time a calculation waits for the voucher service before going ahead
+	// without discount
+	private Duration latencyBudget = Duration.ofSeconds(2);
+
+	// Time a lookup waits for an in-flight call of the same promo code
+	private Duration followerTimeout = Duration.ofSeconds(3);
+
+	public enum Transport {
+		REST_TEMPLATE, WEB_CLIENT
+	}
+
+}
@@ -1,40 +1,102 @@
 package com.mynt.exam.deliverycostcalculator.controller;
 
+import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.IDEMPOTENCY_KEY_HEADER;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import javax.validation.Valid;
 import javax.ws.rs.core.MediaType;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.mynt.exam.deliverycostcalculator.exception.DeliveryCostCalculationException;
+import com.mynt.exam.deliverycostcalculator.model.BatchCalculationResponse;
 import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
 import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+import com.mynt.exam.deliverycostcalculator.model.ShipmentCalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.ShipmentRequest;
+import com.mynt.exam.deliverycostcalculator.service.impl.IdempotencyStore;
 import com.mynt.exam.deliverycostcalculator.service.intf.DeliveryCostCalculatorService;
 
 import io.swagger.annotations.Api;
 import lombok.RequiredArgsConstructor;
 
 /**
- * Rest controller class for Delivery Cost calculator
+ * Rest controller class for Delivery Cost calculator. The reactive web
+ * application is served by DeliveryCostRouter instead
  */
 @Api
 @RestController
+@ConditionalOnWebApplication(type = Type.SERVLET)
 @RequiredArgsConstructor
 public class DeliveryCostController {
 
 	private final DeliveryCostCalculatorService costCalculatorService;
+	private final IdempotencyStore idempotencyStore;
 
 	/**
-	 * Calculate delivery cost
+	 * Calculate delivery cost. Served asynchronously so the request thread is
+	 * released while the voucher lookup is in flight. Retries sent with the
+	 * idempotency key of an earlier request are answered with its quote
 	 * 
-	 * @param request parcel dimensions and promo code (if any)
+	 * @param idempotencyKey client key of the request (if any)
+	 * @param request        parcel dimensions and promo code (if any)
 	 * @return total calculation for delivery of parcel
 	 */
 	@PostMapping(value = "/calculate", consumes = MediaType.APPLICATION_JSON)
-	public @ResponseBody ResponseEntity<CalculationResponse> calculateDeliveryCost(
+	public @ResponseBody CompletableFuture<ResponseEntity<CalculationResponse>> calculateDeliveryCost(
+			@RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
 			@Valid @RequestBody ParcelRequest request) {
-		return ResponseEntity.ok(costCalculatorService.calculateCost(request));
+		CompletableFuture<CalculationResponse> quote = idempotencyStore.calculate(idempotencyKey, request,
+				costCalculatorService::calculateCostAsync);
+		rethrowRejection(quote);
+		return quote.thenApply(ResponseEntity::ok);
+	}
+
+	/**
+	 * Calculate delivery cost of several parcels in one call
+	 * 
+	 * @param requests parcel dimensions and promo code (if any) per parcel
+	 * @return calculation or rejection per parcel, in request order
+	 */
+	@PostMapping(value = "/calculate/batch", consumes = MediaType.APPLICATION_JSON)
+	public @ResponseBody ResponseEntity<List<BatchCalculationResponse>> calculateBatchDeliveryCost(
+			@RequestBody List<ParcelRequest> requests) {
+		return ResponseEntity.ok(costCalculatorService.calculateCostBatch(requests));
+	}
+
+	/**
+	 * Calculate delivery cost of the parcels of a shipment under one promo code.
+	 * The promo code is looked up once for the whole shipment
+	 * 
+	 * @param request shipment parcels and promo code (if any)
+	 * @return calculation per parcel and in total
+	 */
+	@PostMapping(value = "/calculate/shipment", consumes = MediaType.APPLICATION_JSON)
+	public @ResponseBody CompletableFuture<ResponseEntity<ShipmentCalculationResponse>> calculateShipmentDeliveryCost(
+			@Valid @RequestBody ShipmentRequest request) {
+		CompletableFuture<ShipmentCalculationResponse> quote = costCalculatorService
+				.calculateShipmentCostAsync(request);
+		rethrowRejection(quote);
+		return quote.thenApply(ResponseEntity::ok);
+	}
+
+	// Rejected before any lookup started: answered right away, without an async
+	// dispatch or a CompletionException wrapping the rejection
+	private static void rethrowRejection(CompletableFuture<?> quote) {
+		if (quote.isCompletedExceptionally()) {
+			Throwable rejection = quote.handle((response, e) -> e).join();
+			if (rejection instanceof DeliveryCostCalculationException) {
+				throw (DeliveryCostCalculationException) rejection;
+			}
+		}
 	}
 }
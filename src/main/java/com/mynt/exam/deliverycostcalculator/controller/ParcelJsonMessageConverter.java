@@ -0,0 +1,172 @@
+package com.mynt.exam.deliverycostcalculator.controller;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+
+/**
+ * Streaming JSON codec of the single parcel endpoint, used ahead of the
+ * Jackson databind converter. ParcelRequest is read token by token, numbers
+ * parsed straight from the parser buffer, and CalculationResponse is written
+ * field by field, without bean introspection or reflective accessor calls.
+ * Parser and generator come from the application ObjectMapper, so features and
+ * output bytes are the same as with databind
+ */
+@Component
+@ConditionalOnWebApplication(type = Type.SERVLET)
+public class ParcelJsonMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+	private final JsonFactory jsonFactory;
+
+	public ParcelJsonMessageConverter(ObjectMapper objectMapper) {
+		// No default charset, so the content type is written like databind's
+		super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+		this.jsonFactory = objectMapper.getFactory();
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return ParcelRequest.class == clazz || CalculationResponse.class == clazz;
+	}
+
+	@Override
+	public boolean canRead(Class<?> clazz, MediaType mediaType) {
+		return ParcelRequest.class == clazz && canRead(mediaType);
+	}
+
+	@Override
+	public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+		return CalculationResponse.class == clazz && canWrite(mediaType);
+	}
+
+	@Override
+	protected Object readInternal(Class<? extends Object> clazz, HttpInputMessage inputMessage) throws IOException {
+		try (JsonParser parser = createParser(inputMessage)) {
+			return readParcelRequest(parser);
+		} catch (JsonProcessingException e) {
+			throw new HttpMessageNotReadableException("JSON parse error: " + e.getOriginalMessage(), e, inputMessage);
+		} catch (NumberFormatException e) {
+			throw new HttpMessageNotReadableException("JSON parse error: invalid number", e, inputMessage);
+		}
+	}
+
+	@Override
+	protected void writeInternal(Object object, HttpOutputMessage outputMessage) throws IOException {
+		CalculationResponse response = (CalculationResponse) object;
+		// The output stream is left open like databind leaves it
+		try (JsonGenerator generator = jsonFactory.createGenerator(StreamUtils.nonClosing(outputMessage.getBody()),
+				JsonEncoding.UTF8)) {
+			generator.writeStartObject();
+			writeDecimalField(generator, "deliveryCost", response.getDeliveryCost());
+			writeDecimalField(generator, "totalWeight", response.getTotalWeight());
+			writeDecimalField(generator, "totalVolume", response.getTotalVolume());
+			generator.writeEndObject();
+		}
+	}
+
+	/**
+	 * Read a parcel request object. Unknown fields are skipped and numbers may be
+	 * sent as strings, as databind accepts
+	 *
+	 * @param parser parser positioned before the object
+	 * @return parcel request
+	 * @throws IOException if the input is not a valid parcel request
+	 */
+	private static ParcelRequest readParcelRequest(JsonParser parser) throws IOException {
+		if (parser.nextToken() != JsonToken.START_OBJECT) {
+			throw new JsonParseException(parser, "Parcel request must be a JSON object");
+		}
+		ParcelRequest.ParcelRequestBuilder request = ParcelRequest.builder();
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			JsonToken value = parser.nextToken();
+			switch (field) {
+			case "length":
+				request.length(readDecimal(parser, value));
+				break;
+			case "width":
+				request.width(readDecimal(parser, value));
+				break;
+			case "height":
+				request.height(readDecimal(parser, value));
+				break;
+			case "weight":
+				request.weight(readDecimal(parser, value));
+				break;
+			case "promoCode":
+				request.promoCode(readText(parser, value));
+				break;
+			default:
+				parser.skipChildren();
+			}
+		}
+		return request.build();
+	}
+
+	private JsonParser createParser(HttpInputMessage inputMessage) throws IOException {
+		MediaType contentType = inputMessage.getHeaders().getContentType();
+		Charset charset = contentType != null ? contentType.getCharset() : null;
+		// Unicode input is detected and decoded by the parser from the raw bytes
+		if (charset == null || StandardCharsets.UTF_8.equals(charset) || charset.name().startsWith("UTF-")) {
+			return jsonFactory.createParser(inputMessage.getBody());
+		}
+		return jsonFactory.createParser(new InputStreamReader(inputMessage.getBody(), charset));
+	}
+
+	private static BigDecimal readDecimal(JsonParser parser, JsonToken value) throws IOException {
+		if (value.isNumeric()) {
+			return parser.getDecimalValue();
+		}
+		if (value == JsonToken.VALUE_NULL) {
+			return null;
+		}
+		if (value == JsonToken.VALUE_STRING) {
+			String text = parser.getText().trim();
+			return text.isEmpty() ? null : new BigDecimal(text);
+		}
+		throw new JsonParseException(parser, "Field " + parser.getCurrentName() + " must be a number");
+	}
+
+	private static String readText(JsonParser parser, JsonToken value) throws IOException {
+		if (value == JsonToken.VALUE_NULL) {
+			return null;
+		}
+		if (value.isScalarValue()) {
+			return parser.getText();
+		}
+		throw new JsonParseException(parser, "Field " + parser.getCurrentName() + " must be a string");
+	}
+
+	private static void writeDecimalField(JsonGenerator generator, String field, BigDecimal value)
+			throws IOException {
+		generator.writeFieldName(field);
+		if (value != null) {
+			generator.writeNumber(value);
+		} else {
+			generator.writeNull();
+		}
+	}
+}
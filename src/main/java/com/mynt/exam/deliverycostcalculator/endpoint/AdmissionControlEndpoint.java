@@ -0,0 +1,65 @@
+package com.mynt.exam.deliverycostcalculator.endpoint;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import com.mynt.exam.deliverycostcalculator.admission.AdaptiveConcurrencyLimiter;
+import com.mynt.exam.deliverycostcalculator.admission.ClientRateLimiter;
+import com.mynt.exam.deliverycostcalculator.config.AdmissionControlProperties;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Actuator endpoint exposing admission control limits and rejections, and the
+ * rate of a single client
+ */
+@Component
+@Endpoint(id = "admission")
+@RequiredArgsConstructor
+public class AdmissionControlEndpoint {
+
+	private final AdmissionControlProperties admissionControlProperties;
+	private final ClientRateLimiter clientRateLimiter;
+	private final AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter;
+
+	@ReadOperation
+	public Map<String, Object> admissionState() {
+		Map<String, Object> concurrency = new LinkedHashMap<>();
+		concurrency.put("limit", adaptiveConcurrencyLimiter.getLimit());
+		concurrency.put("inFlight", adaptiveConcurrencyLimiter.getInFlight());
+		concurrency.put("shortLatencyMillis", toMillis(adaptiveConcurrencyLimiter.getShortLatencyNanos()));
+		concurrency.put("longLatencyMillis", toMillis(adaptiveConcurrencyLimiter.getLongLatencyNanos()));
+		concurrency.put("rejected", adaptiveConcurrencyLimiter.getRejected());
+
+		Map<String, Object> clients = new LinkedHashMap<>();
+		clients.put("tracked", clientRateLimiter.getClients());
+		clients.put("rate", admissionControlProperties.getClientRate());
+		clients.put("burst", admissionControlProperties.getClientBurst());
+		clients.put("rejected", clientRateLimiter.getRejected());
+
+		Map<String, Object> body = new LinkedHashMap<>();
+		body.put("enabled", admissionControlProperties.isEnabled());
+		body.put("concurrency", concurrency);
+		body.put("clients", clients);
+		return body;
+	}
+
+	@ReadOperation
+	public Map<String, Object> clientState(@Selector String client) {
+		Map<String, Object> body = new LinkedHashMap<>();
+		body.put("rate", clientRateLimiter.getRate(client));
+		body.put("burst", clientRateLimiter.getBurst(client));
+		body.put("availableTokens", clientRateLimiter.getAvailableTokens(client));
+		return body;
+	}
+
+	private static double toMillis(double nanos) {
+		return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+}
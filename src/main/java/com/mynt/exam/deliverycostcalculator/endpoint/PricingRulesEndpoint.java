@@ -0,0 +1,67 @@
+package com.mynt.exam.deliverycostcalculator.endpoint;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import com.mynt.exam.deliverycostcalculator.service.intf.PricingRuleService;
+import com.mynt.exam.deliverycostcalculator.util.PricingRuleSnapshot;
+import com.mynt.exam.deliverycostcalculator.util.RuleDecisionTable.Condition;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Actuator endpoint exposing the pricing rules in use and reloading them from
+ * the pricing rule table
+ */
+@Component
+@Endpoint(id = "pricingrules")
+@RequiredArgsConstructor
+public class PricingRulesEndpoint {
+
+	private final PricingRuleService pricingRuleService;
+
+	@ReadOperation
+	public Map<String, Object> pricingRules() {
+		return describe(pricingRuleService.getSnapshot());
+	}
+
+	@WriteOperation
+	public Map<String, Object> reload() {
+		try {
+			return describe(pricingRuleService.reload());
+		} catch (IllegalArgumentException e) {
+			Map<String, Object> body = new LinkedHashMap<>();
+			body.put("error", e.getMessage());
+			body.put("version", pricingRuleService.getSnapshot().getVersion());
+			return body;
+		}
+	}
+
+	private static Map<String, Object> describe(PricingRuleSnapshot snapshot) {
+		List<Map<String, Object>> rules = new ArrayList<>();
+		for (Condition condition : snapshot.getConditions()) {
+			Map<String, Object> rule = new LinkedHashMap<>();
+			rule.put("rule", condition.getRule());
+			rule.put("priority", snapshot.getPriority(condition.getRule()));
+			rule.put("metric", condition.getMetric());
+			rule.put("comparison", condition.getComparison());
+			rule.put("threshold", condition.getThreshold());
+			rule.put("costBasis", condition.getCostBasis());
+			rule.put("rate", snapshot.getRate(condition.getRule()));
+			rules.add(rule);
+		}
+		Map<String, Object> body = new LinkedHashMap<>();
+		body.put("version", snapshot.getVersion());
+		body.put("loadedAt", snapshot.getLoadedAt().toString());
+		body.put("fixedPointSupported", snapshot.isFixedPointSupported());
+		body.put("rules", rules);
+		return body;
+	}
+}
@@ -0,0 +1,45 @@
+package com.mynt.exam.deliverycostcalculator.endpoint;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.mynt.exam.deliverycostcalculator.service.impl.QuoteCache;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Actuator endpoint exposing quote cache counters and clearing the cache
+ */
+@Component
+@Endpoint(id = "quotecache")
+@RequiredArgsConstructor
+public class QuoteCacheEndpoint {
+
+	private final QuoteCache quoteCache;
+
+	@ReadOperation
+	public Map<String, Object> quoteCacheStats() {
+		CacheStats stats = quoteCache.getStats();
+
+		Map<String, Object> body = new LinkedHashMap<>();
+		body.put("enabled", quoteCache.isEnabled());
+		body.put("size", quoteCache.getSize());
+		body.put("estimatedBytes", quoteCache.getWeightedSize());
+		body.put("hits", stats.hitCount());
+		body.put("misses", stats.missCount());
+		body.put("hitRate", stats.hitRate());
+		body.put("evictions", stats.evictionCount());
+		return body;
+	}
+
+	@DeleteOperation
+	public void clear() {
+		quoteCache.invalidateAll();
+	}
+}
@@ -0,0 +1,37 @@
+package com.mynt.exam.deliverycostcalculator.endpoint;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.mynt.exam.deliverycostcalculator.remoteservice.VoucherCache;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Actuator endpoint exposing voucher cache counters
+ */
+@Component
+@Endpoint(id = "vouchercache")
+@RequiredArgsConstructor
+public class VoucherCacheEndpoint {
+
+	private final VoucherCache voucherCache;
+
+	@ReadOperation
+	public Map<String, Object> voucherCacheStats() {
+		CacheStats stats = voucherCache.getStats();
+
+		Map<String, Object> body = new LinkedHashMap<>();
+		body.put("size", voucherCache.getSize());
+		body.put("hits", stats.hitCount());
+		body.put("misses", stats.missCount());
+		body.put("hitRate", stats.hitRate());
+		body.put("evictions", stats.evictionCount());
+		return body;
+	}
+}
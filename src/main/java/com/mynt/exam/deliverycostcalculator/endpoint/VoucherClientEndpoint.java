@@ -0,0 +1,57 @@
+package com.mynt.exam.deliverycostcalculator.endpoint;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import com.mynt.exam.deliverycostcalculator.config.VoucherClientProperties;
+import com.mynt.exam.deliverycostcalculator.remoteservice.VoucherCatalog;
+import com.mynt.exam.deliverycostcalculator.remoteservice.VoucherCircuitBreaker;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Actuator endpoint exposing voucher circuit breaker, executor and catalog
+ * state
+ */
+@Component
+@Endpoint(id = "voucherclient")
+@RequiredArgsConstructor
+public class VoucherClientEndpoint {
+
+	private final VoucherCircuitBreaker voucherCircuitBreaker;
+	private final ThreadPoolTaskExecutor voucherExecutor;
+	private final VoucherClientProperties voucherClientProperties;
+	private final VoucherCatalog voucherCatalog;
+
+	@ReadOperation
+	public Map<String, Object> voucherClientState() {
+		Map<String, Object> circuitBreaker = new LinkedHashMap<>();
+		circuitBreaker.put("state", voucherCircuitBreaker.getState());
+		circuitBreaker.put("consecutiveFailures", voucherCircuitBreaker.getConsecutiveFailures());
+
+		Map<String, Object> executor = new LinkedHashMap<>();
+		executor.put("activeThreads", voucherExecutor.getActiveCount());
+		executor.put("maxThreads", voucherExecutor.getMaxPoolSize());
+		executor.put("queued", voucherExecutor.getThreadPoolExecutor().getQueue().size());
+		executor.put("queueRemaining", voucherExecutor.getThreadPoolExecutor().getQueue().remainingCapacity());
+
+		Map<String, Object> catalog = new LinkedHashMap<>();
+		catalog.put("loaded", voucherCatalog.isLoaded());
+		catalog.put("size", voucherCatalog.getSize());
+		catalog.put("refreshedAt",
+				voucherCatalog.getRefreshedAt() != null ? voucherCatalog.getRefreshedAt().toString() : null);
+
+		Map<String, Object> body = new LinkedHashMap<>();
+		body.put("transport", voucherClientProperties.getTransport());
+		body.put("circuitBreaker", circuitBreaker);
+		body.put("executor", executor);
+		body.put("catalog", catalog);
+		body.put("latencyBudget", voucherClientProperties.getLatencyBudget().toString());
+		return body;
+	}
+}
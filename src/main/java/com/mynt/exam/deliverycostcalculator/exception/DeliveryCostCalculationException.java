@@ -20,4 +20,20 @@ public class DeliveryCostCalculationException extends RuntimeException {
 	public DeliveryCostCalculationException(Throwable cause) {
 		super(cause);
 	}
+
+	private DeliveryCostCalculationException(String message, boolean writableStackTrace) {
+		super(message, null, false, writableStackTrace);
+	}
+
+	/**
+	 * Create a rejection without stack trace, cause or suppressed exceptions.
+	 * It holds nothing but its message, so one instance can be preallocated and
+	 * thrown for every parcel rejected with that message
+	 *
+	 * @param message rejection message returned to the client
+	 * @return stackless exception
+	 */
+	public static DeliveryCostCalculationException rejection(String message) {
+		return new DeliveryCostCalculationException(message, false);
+	}
 }
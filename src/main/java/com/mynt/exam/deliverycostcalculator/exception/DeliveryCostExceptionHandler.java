@@ -3,6 +3,8 @@ package com.mynt.exam.deliverycostcalculator.exception;
 import java.util.Collections;
 import java.util.Map;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -16,6 +18,7 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
  * Custom exception response handler for Delivery Cost Calculator
  */
 @ControllerAdvice
+@ConditionalOnWebApplication(type = Type.SERVLET)
 public class DeliveryCostExceptionHandler extends ResponseEntityExceptionHandler {
 
 	private static final String ERROR_MESSAGE_KEY = "message";
@@ -28,6 +31,13 @@ public class DeliveryCostExceptionHandler extends ResponseEntityExceptionHandler
 				request);
 	}
 
+	// Response for handling an idempotency key reused for another request
+	@ExceptionHandler(value = IdempotencyKeyReuseException.class)
+	protected ResponseEntity<Object> handleIdempotencyKeyReuse(IdempotencyKeyReuseException ex, WebRequest request) {
+		return handleExceptionInternal(ex, mapErrorResponse(ex.getMessage()), new HttpHeaders(),
+				HttpStatus.UNPROCESSABLE_ENTITY, request);
+	}
+
 	// Response for handling MethodArgumentNotValidException
 	@Override
 	protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex,
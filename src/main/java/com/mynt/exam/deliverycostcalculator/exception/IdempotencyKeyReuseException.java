@@ -0,0 +1,11 @@
+package com.mynt.exam.deliverycostcalculator.exception;
+
+// Exception for an idempotency key sent again with a different request
+public class IdempotencyKeyReuseException extends RuntimeException {
+
+	private static final long serialVersionUID = 6018830911754270642L;
+
+	public IdempotencyKeyReuseException(String message) {
+		super(message);
+	}
+}
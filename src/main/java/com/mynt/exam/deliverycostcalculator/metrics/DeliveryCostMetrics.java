@@ -0,0 +1,155 @@
+package com.mynt.exam.deliverycostcalculator.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import com.mynt.exam.deliverycostcalculator.util.RulePriority;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Micrometer meters of the delivery cost calculation. Meters are registered
+ * once and held in arrays so recording does not look up the registry
+ */
+@Component
+public class DeliveryCostMetrics {
+
+	public static final String RULE_SELECTED_METRIC = "delivery.rule.selected";
+	public static final String REJECTIONS_METRIC = "delivery.rejections";
+	public static final String CALCULATION_METRIC = "delivery.calculation";
+	public static final String VOUCHER_REQUESTS_METRIC = "voucher.requests";
+	public static final String VOUCHER_COALESCED_METRIC = "voucher.requests.coalesced";
+	public static final String VOUCHER_FALLBACKS_METRIC = "voucher.fallbacks";
+
+	private static final double[] PERCENTILES = { 0.5, 0.95, 0.99 };
+
+	// Reason a parcel or batch is rejected
+	public enum Rejection {
+		INVALID_DIMENSION, WEIGHT_LIMIT, NO_RULE, BATCH_LIMIT, SHIPMENT_LIMIT
+	}
+
+	// Outcome of a remote voucher service call
+	public enum VoucherOutcome {
+		VALID, INVALID, ERROR
+	}
+
+	// Reason a voucher lookup went ahead without discount
+	public enum VoucherFallback {
+		CIRCUIT_OPEN, EXECUTOR_SATURATED, BUDGET_EXCEEDED, FOLLOWER_TIMEOUT
+	}
+
+	// How the calculation was served
+	public enum CalculationMode {
+		SYNC, ASYNC, SHIPMENT
+	}
+
+	private final Counter[] ruleCounters = new Counter[RulePriority.values().length];
+	private final Counter[] rejectionCounters = new Counter[Rejection.values().length];
+	private final Timer[] voucherTimers = new Timer[VoucherOutcome.values().length];
+	private final Timer[] calculationTimers = new Timer[CalculationMode.values().length];
+	private final Counter voucherCoalescedCounter;
+	private final Counter[] voucherFallbackCounters = new Counter[VoucherFallback.values().length];
+
+	public DeliveryCostMetrics(MeterRegistry meterRegistry) {
+		for (RulePriority rule : RulePriority.values()) {
+			ruleCounters[rule.ordinal()] = Counter.builder(RULE_SELECTED_METRIC).tag("rule", rule.getRemark())
+					.description("Parcels priced per rule").register(meterRegistry);
+		}
+		for (Rejection rejection : Rejection.values()) {
+			rejectionCounters[rejection.ordinal()] = Counter.builder(REJECTIONS_METRIC)
+					.tag("reason", tagValue(rejection)).description("Rejected cost calculations per reason")
+					.register(meterRegistry);
+		}
+		for (VoucherOutcome outcome : VoucherOutcome.values()) {
+			voucherTimers[outcome.ordinal()] = Timer.builder(VOUCHER_REQUESTS_METRIC)
+					.tag("outcome", tagValue(outcome)).description("Remote voucher service call latency")
+					.publishPercentiles(PERCENTILES).publishPercentileHistogram().register(meterRegistry);
+		}
+		for (CalculationMode mode : CalculationMode.values()) {
+			calculationTimers[mode.ordinal()] = Timer.builder(CALCULATION_METRIC).tag("mode", tagValue(mode))
+					.description("End-to-end parcel cost calculation time").publishPercentiles(PERCENTILES)
+					.register(meterRegistry);
+		}
+		voucherCoalescedCounter = Counter.builder(VOUCHER_COALESCED_METRIC)
+				.description("Voucher lookups joining an in-flight call of the same promo code")
+				.register(meterRegistry);
+		for (VoucherFallback fallback : VoucherFallback.values()) {
+			voucherFallbackCounters[fallback.ordinal()] = Counter.builder(VOUCHER_FALLBACKS_METRIC)
+					.tag("reason", tagValue(fallback)).description("Voucher lookups given no discount per reason")
+					.register(meterRegistry);
+		}
+	}
+
+	/**
+	 * Count a parcel priced by a rule
+	 *
+	 * @param rule rule the parcel was priced with
+	 */
+	public void ruleSelected(RulePriority rule) {
+		ruleCounters[rule.ordinal()].increment();
+	}
+
+	/**
+	 * Count parcels priced together by a rule
+	 *
+	 * @param rule    rule the parcels were priced with
+	 * @param parcels number of parcels
+	 */
+	public void ruleSelected(RulePriority rule, long parcels) {
+		if (parcels > 0) {
+			ruleCounters[rule.ordinal()].increment(parcels);
+		}
+	}
+
+	/**
+	 * Count a rejected cost calculation
+	 *
+	 * @param rejection reason of the rejection
+	 */
+	public void rejected(Rejection rejection) {
+		rejectionCounters[rejection.ordinal()].increment();
+	}
+
+	/**
+	 * Record the latency of a remote voucher service call
+	 *
+	 * @param outcome   outcome of the call
+	 * @param startNanos System.nanoTime() when the call started
+	 */
+	public void voucherRequest(VoucherOutcome outcome, long startNanos) {
+		voucherTimers[outcome.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Count a voucher lookup served by an in-flight call instead of its own
+	 */
+	public void voucherCoalesced() {
+		voucherCoalescedCounter.increment();
+	}
+
+	/**
+	 * Count a voucher lookup going ahead without discount
+	 *
+	 * @param fallback reason no discount was applied
+	 */
+	public void voucherFallback(VoucherFallback fallback) {
+		voucherFallbackCounters[fallback.ordinal()].increment();
+	}
+
+	/**
+	 * Record the end-to-end time of a parcel cost calculation
+	 *
+	 * @param mode       how the calculation was served
+	 * @param startNanos System.nanoTime() when the calculation started
+	 */
+	public void calculation(CalculationMode mode, long startNanos) {
+		calculationTimers[mode.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+	}
+
+	private static String tagValue(Enum<?> value) {
+		return value.name().toLowerCase();
+	}
+}
@@ -0,0 +1,34 @@
+package com.mynt.exam.deliverycostcalculator.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Builder;
+import lombok.Data;
+
+// Response class for a single parcel in a batch calculation
+// Holds either the calculation result or the error for that parcel
+@Data
+@Builder
+@ApiModel
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchCalculationResponse {
+
+	// HTTP status the parcel would have received on the single endpoint
+	@JsonProperty(value = "status")
+	@ApiModelProperty(value = "status")
+	private int status;
+
+	// Calculation result, present if the parcel was priced
+	@JsonProperty(value = "result")
+	@ApiModelProperty(value = "result")
+	private CalculationResponse result;
+
+	// Error message, present if the parcel was rejected
+	@JsonProperty(value = "message")
+	@ApiModelProperty(value = "message")
+	private String message;
+
+}
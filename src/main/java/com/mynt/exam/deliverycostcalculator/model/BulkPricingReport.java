@@ -0,0 +1,39 @@
+package com.mynt.exam.deliverycostcalculator.model;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import lombok.Builder;
+import lombok.Data;
+
+// Summary of a bulk pricing run
+@Data
+@Builder
+public class BulkPricingReport {
+
+	// Priced parcel file
+	private Path input;
+
+	// File the results were written to
+	private Path output;
+
+	// Parcel rows read, blank lines and header excluded
+	private long rows;
+
+	// Rows priced
+	private long priced;
+
+	// Rows rejected, with the status they would have received on the endpoint
+	private long rejected;
+
+	// Time from the first read to the last write
+	private Duration elapsed;
+
+	// Peak resident set size of the process in bytes, -1 if unavailable
+	private long peakRssBytes;
+
+	public double getRowsPerSecond() {
+		long nanos = elapsed.toNanos();
+		return nanos > 0 ? rows * 1_000_000_000d / nanos : 0;
+	}
+}
@@ -0,0 +1,64 @@
+package com.mynt.exam.deliverycostcalculator.model;
+
+import java.math.BigDecimal;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import com.mynt.exam.deliverycostcalculator.util.RuleDecisionTable.Comparison;
+import com.mynt.exam.deliverycostcalculator.util.RuleDecisionTable.Metric;
+import com.mynt.exam.deliverycostcalculator.util.RulePriority;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Entity class for a pricing rule: when it applies and at which rate
+// Only read on reload, pricing uses the compiled PricingRuleSnapshot
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "pricing_rule")
+public class PricingRule {
+
+	// Rule identity
+	@Id
+	@Enumerated(EnumType.STRING)
+	@Column(length = 32)
+	private RulePriority rule;
+
+	// Evaluation order, lowest first
+	@Column(nullable = false)
+	private int priority;
+
+	// Parcel property the condition checks
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 16)
+	private Metric metric;
+
+	// Comparison of the parcel property against the threshold
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 16)
+	private Comparison comparison;
+
+	// Threshold in kg (weight) or cm3 (volume)
+	@Column(nullable = false, precision = 19, scale = 4)
+	private BigDecimal threshold;
+
+	// Parcel property the cost is calculated from, null for the reject rule
+	@Enumerated(EnumType.STRING)
+	@Column(length = 16)
+	private Metric costBasis;
+
+	// Cost per kg or cm3 of the cost basis, null for the reject rule
+	@Column(precision = 19, scale = 6)
+	private BigDecimal rate;
+
+}
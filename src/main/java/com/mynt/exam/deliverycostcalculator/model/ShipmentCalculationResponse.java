@@ -0,0 +1,28 @@
+package com.mynt.exam.deliverycostcalculator.model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Builder;
+import lombok.Data;
+
+// Response class for shipment calculation result
+@Data
+@Builder
+@ApiModel
+public class ShipmentCalculationResponse {
+
+	// Calculation result per parcel, in request order
+	@JsonProperty(value = "parcels")
+	@ApiModelProperty(value = "parcels")
+	private List<CalculationResponse> parcels;
+
+	// Sum of the delivery cost, weight and volume of the parcels
+	@JsonProperty(value = "total")
+	@ApiModelProperty(value = "total")
+	private CalculationResponse total;
+
+}
@@ -0,0 +1,32 @@
+package com.mynt.exam.deliverycostcalculator.model;
+
+import java.util.List;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Builder;
+import lombok.Data;
+
+// Request class for a shipment of several parcels under one promo code
+@Data
+@Builder
+@ApiModel
+public class ShipmentRequest {
+
+	// Parcels of the shipment, promo codes of the parcels are ignored
+	@JsonProperty(value = "parcels")
+	@ApiModelProperty(value = "parcels")
+	@NotEmpty(message = "Shipment must contain at least 1 parcel")
+	private List<@Valid ParcelRequest> parcels;
+
+	// Promo code applied to every parcel of the shipment
+	@JsonProperty(value = "promoCode")
+	@ApiModelProperty(value = "promoCode")
+	private String promoCode;
+
+}
@@ -0,0 +1,49 @@
+package com.mynt.exam.deliverycostcalculator.remoteservice;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+
+import com.mynt.exam.deliverycostcalculator.config.VoucherClientProperties;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Voucher service transport on the pooled rest template. Each call blocks a
+ * voucher executor thread, the executor bounding concurrent calls
+ */
+@RequiredArgsConstructor
+public class RestTemplateVoucherClient implements VoucherClient {
+
+	private static final ParameterizedTypeReference<Map<String, Object>> VOUCHER_RESPONSE_TYPE =
+			new ParameterizedTypeReference<Map<String, Object>>() {
+			};
+
+	private final RestTemplate voucherRestTemplate;
+	private final Executor voucherExecutor;
+	private final VoucherClientProperties voucherClientProperties;
+
+	@Override
+	public CompletableFuture<ResponseEntity<Map<String, Object>>> fetchVoucher(Map<String, String> uriVariables) {
+		return CompletableFuture.supplyAsync(() -> exchange(uriVariables), voucherExecutor);
+	}
+
+	private ResponseEntity<Map<String, Object>> exchange(Map<String, String> uriVariables) {
+		HttpEntity<HttpHeaders> httpEntity = new HttpEntity<>(new HttpHeaders());
+		try {
+			return voucherRestTemplate.exchange(voucherClientProperties.getUrl(), HttpMethod.GET, httpEntity,
+					VOUCHER_RESPONSE_TYPE, uriVariables);
+		} catch (HttpStatusCodeException e) {
+			// Error statuses are answers of the voucher service, not transport failures
+			return ResponseEntity.status(e.getRawStatusCode()).build();
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package com.mynt.exam.deliverycostcalculator.remoteservice;
+
+import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.VOUCHER_RESPONSE_EXPIRY;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.mynt.exam.deliverycostcalculator.config.VoucherCacheProperties;
+
+/**
+ * In-process cache of voucher service responses keyed by upper-cased promo
+ * code. Invalid promo codes are cached as an empty response
+ */
+@Component
+public class VoucherCache {
+
+	private final VoucherCacheProperties properties;
+	private final Clock clock;
+	private final Cache<String, Map<String, Object>> cache;
+
+	@Autowired
+	public VoucherCache(VoucherCacheProperties properties) {
+		this(properties, Clock.systemDefaultZone(), Ticker.systemTicker());
+	}
+
+	VoucherCache(VoucherCacheProperties properties, Clock clock, Ticker ticker) {
+		this.properties = properties;
+		this.clock = clock;
+		this.cache = Caffeine.newBuilder().maximumSize(properties.getMaxSize()).expireAfter(new VoucherExpiry())
+				.ticker(ticker).recordStats().build();
+	}
+
+	/**
+	 * Get cached voucher response
+	 *
+	 * @param promoCode upper-cased promo code
+	 * @return cached response, empty if promo code is invalid, null if not cached
+	 */
+	public Map<String, Object> get(String promoCode) {
+		return properties.isEnabled() ? cache.getIfPresent(promoCode) : null;
+	}
+
+	/**
+	 * Cache voucher response
+	 *
+	 * @param promoCode upper-cased promo code
+	 * @param voucher   response body of voucher service, empty if invalid
+	 */
+	public void put(String promoCode, Map<String, Object> voucher) {
+		if (properties.isEnabled()) {
+			cache.put(promoCode, Collections.unmodifiableMap(voucher));
+		}
+	}
+
+	public CacheStats getStats() {
+		return cache.stats();
+	}
+
+	public long getSize() {
+		return cache.estimatedSize();
+	}
+
+	/**
+	 * Time an entry may stay in the cache. Valid vouchers are kept until their
+	 * expiry date (capped by the ttl), invalid and expired ones only briefly
+	 *
+	 * @param voucher cached voucher response
+	 * @return time to live of the entry
+	 */
+	Duration getTimeToLive(Map<String, Object> voucher) {
+		Duration negativeTtl = properties.getNegativeTtl();
+		if (voucher.isEmpty()) {
+			return negativeTtl;
+		}
+
+		Object expiry = voucher.get(VOUCHER_RESPONSE_EXPIRY);
+		if (!(expiry instanceof String)) {
+			return properties.getTtl();
+		}
+		try {
+			// Promo is applicable until the start of its expiry date
+			Duration untilExpiry = Duration.between(clock.instant(),
+					LocalDate.parse((String) expiry).atStartOfDay(clock.getZone()).toInstant());
+			Duration ttl = untilExpiry.compareTo(properties.getTtl()) < 0 ? untilExpiry : properties.getTtl();
+			return ttl.compareTo(negativeTtl) > 0 ? ttl : negativeTtl;
+		} catch (DateTimeParseException e) {
+			return properties.getTtl();
+		}
+	}
+
+	// Per-entry expiry based on the cached voucher response
+	private class VoucherExpiry implements Expiry<String, Map<String, Object>> {
+
+		@Override
+		public long expireAfterCreate(String key, Map<String, Object> value, long currentTime) {
+			return getTimeToLive(value).toNanos();
+		}
+
+		@Override
+		public long expireAfterUpdate(String key, Map<String, Object> value, long currentTime,
+				long currentDuration) {
+			return getTimeToLive(value).toNanos();
+		}
+
+		@Override
+		public long expireAfterRead(String key, Map<String, Object> value, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
+	}
+}
@@ -0,0 +1,219 @@
+package com.mynt.exam.deliverycostcalculator.remoteservice;
+
+import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.API_KEY_REQUEST_PARAM;
+import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.SINCE_REQUEST_PARAM;
+import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.VOUCHER_CATALOG_AS_OF;
+import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.VOUCHER_CATALOG_VOUCHERS;
+import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.VOUCHER_RESPONSE_ACTIVE;
+import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.VOUCHER_RESPONSE_CODE;
+import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.VOUCHER_RESPONSE_DISCOUNT;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import com.mynt.exam.deliverycostcalculator.config.VoucherCatalogProperties;
+import com.mynt.exam.deliverycostcalculator.config.VoucherClientProperties;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Prefetched catalog of active vouchers keyed by upper-cased promo code. Loaded
+ * in full at startup and refreshed incrementally by a background thread, so
+ * known promo codes are served without a remote call. Each refresh swaps in a
+ * new immutable map, lookups never see a refresh half applied
+ */
+@Slf4j
+@Component
+public class VoucherCatalog {
+
+	private static final ParameterizedTypeReference<Map<String, Object>> CATALOG_TYPE =
+			new ParameterizedTypeReference<Map<String, Object>>() {
+			};
+
+	private final VoucherCatalogProperties properties;
+	private final VoucherClientProperties voucherClientProperties;
+	private final RestTemplate voucherRestTemplate;
+	private final Clock clock;
+
+	// Null until the first full load succeeds
+	private volatile Map<String, Map<String, Object>> vouchers;
+	private volatile Instant refreshedAt;
+	// Catalog asOf of the last refresh, sent as since on the next one
+	private String asOf;
+	private Instant fullyLoadedAt;
+	private ScheduledExecutorService refresher;
+
+	@Autowired
+	public VoucherCatalog(VoucherCatalogProperties properties, VoucherClientProperties voucherClientProperties,
+			RestTemplate voucherRestTemplate) {
+		this(properties, voucherClientProperties, voucherRestTemplate, Clock.systemUTC());
+	}
+
+	VoucherCatalog(VoucherCatalogProperties properties, VoucherClientProperties voucherClientProperties,
+			RestTemplate voucherRestTemplate, Clock clock) {
+		this.properties = properties;
+		this.voucherClientProperties = voucherClientProperties;
+		this.voucherRestTemplate = voucherRestTemplate;
+		this.clock = clock;
+	}
+
+	// Load the catalog and schedule its refreshes. A failed load leaves promo
+	// codes to be looked up one by one until a refresh succeeds
+	@PostConstruct
+	public void start() {
+		if (!properties.isEnabled()) {
+			return;
+		}
+		refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "voucher-catalog");
+			thread.setDaemon(true);
+			return thread;
+		});
+		refreshQuietly();
+		long interval = properties.getRefreshInterval().toMillis();
+		refresher.scheduleWithFixedDelay(this::refreshQuietly, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void stop() {
+		if (refresher != null) {
+			refresher.shutdownNow();
+		}
+	}
+
+	/**
+	 * Get voucher of the catalog
+	 *
+	 * @param promoCode upper-cased promo code
+	 * @return voucher, null if the catalog is not loaded or does not hold the promo
+	 *         code
+	 */
+	public Map<String, Object> get(String promoCode) {
+		Map<String, Map<String, Object>> catalog = vouchers;
+		return catalog != null ? catalog.get(promoCode) : null;
+	}
+
+	public boolean isLoaded() {
+		return vouchers != null;
+	}
+
+	/**
+	 * Whether the catalog answers lookups of promo codes it does not hold
+	 *
+	 * @return true if loaded and promo codes missing from it are not looked up
+	 */
+	public boolean isAuthoritative() {
+		return isLoaded() && !properties.isLookupUnknown();
+	}
+
+	public int getSize() {
+		Map<String, Map<String, Object>> catalog = vouchers;
+		return catalog != null ? catalog.size() : 0;
+	}
+
+	public Instant getRefreshedAt() {
+		return refreshedAt;
+	}
+
+	/**
+	 * Refresh the catalog with the vouchers changed since the last refresh, or
+	 * reload it in full when not loaded yet or the full refresh interval passed
+	 *
+	 * @return vouchers received
+	 * @throws RestClientException if the voucher catalog cannot be fetched
+	 */
+	public synchronized int refresh() {
+		Instant now = clock.instant();
+		boolean full = vouchers == null
+				|| !now.isBefore(fullyLoadedAt.plus(properties.getFullRefreshInterval()));
+		Map<String, Object> body = fetch(full ? "" : asOf);
+		List<?> received = vouchersOf(body);
+
+		Map<String, Map<String, Object>> catalog = full ? new HashMap<>() : new HashMap<>(vouchers);
+		for (Object item : received) {
+			if (!(item instanceof Map)) {
+				continue;
+			}
+			Map<?, ?> voucher = (Map<?, ?>) item;
+			Object code = voucher.get(VOUCHER_RESPONSE_CODE);
+			if (!(code instanceof String)) {
+				continue;
+			}
+			String promoCode = ((String) code).toUpperCase();
+			if (Boolean.FALSE.equals(voucher.get(VOUCHER_RESPONSE_ACTIVE))) {
+				catalog.remove(promoCode);
+			} else if (voucher.get(VOUCHER_RESPONSE_DISCOUNT) instanceof Number) {
+				catalog.put(promoCode, normalize(voucher));
+			}
+		}
+		vouchers = Collections.unmodifiableMap(catalog);
+		Object catalogAsOf = body.get(VOUCHER_CATALOG_AS_OF);
+		asOf = catalogAsOf != null ? catalogAsOf.toString() : now.toString();
+		refreshedAt = now;
+		if (full) {
+			fullyLoadedAt = now;
+		}
+		log.debug("Voucher catalog {} with {} vouchers, {} held", full ? "loaded" : "refreshed", received.size(),
+				catalog.size());
+		return received.size();
+	}
+
+	private void refreshQuietly() {
+		try {
+			refresh();
+		} catch (RestClientException | IllegalArgumentException e) {
+			log.warn("Voucher catalog not refreshed: {}", e.getMessage());
+		} catch (RuntimeException e) {
+			// Any other failure would cancel the scheduled refreshes
+			log.warn("Voucher catalog not refreshed", e);
+		}
+	}
+
+	private Map<String, Object> fetch(String since) {
+		Map<String, String> uriVariables = new HashMap<>();
+		uriVariables.put(API_KEY_REQUEST_PARAM, voucherClientProperties.getApiKey());
+		uriVariables.put(SINCE_REQUEST_PARAM, since);
+		Map<String, Object> body = voucherRestTemplate
+				.exchange(properties.getUrl(), HttpMethod.GET, null, CATALOG_TYPE, uriVariables).getBody();
+		if (body == null) {
+			throw new IllegalArgumentException("Empty voucher catalog response");
+		}
+		return body;
+	}
+
+	private static List<?> vouchersOf(Map<String, Object> body) {
+		Object received = body.get(VOUCHER_CATALOG_VOUCHERS);
+		if (!(received instanceof List)) {
+			throw new IllegalArgumentException("Voucher catalog response without vouchers");
+		}
+		return (List<?>) received;
+	}
+
+	// Same shape as a looked up voucher: discount as a double, without the
+	// catalog only active flag
+	private static Map<String, Object> normalize(Map<?, ?> voucher) {
+		Map<String, Object> normalized = new LinkedHashMap<>();
+		voucher.forEach((key, value) -> normalized.put(String.valueOf(key), value));
+		normalized.remove(VOUCHER_RESPONSE_ACTIVE);
+		normalized.put(VOUCHER_RESPONSE_DISCOUNT, ((Number) voucher.get(VOUCHER_RESPONSE_DISCOUNT)).doubleValue());
+		return Collections.unmodifiableMap(normalized);
+	}
+}
@@ -0,0 +1,123 @@
+package com.mynt.exam.deliverycostcalculator.remoteservice;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.mynt.exam.deliverycostcalculator.config.VoucherCircuitBreakerProperties;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Circuit breaker of the voucher service. Opens after consecutive failed calls,
+ * rejects calls while open, then lets a limited number of probe calls through
+ * (half-open) which close the circuit on success or open it again on failure
+ */
+@Slf4j
+@Component
+public class VoucherCircuitBreaker {
+
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	private final VoucherCircuitBreakerProperties properties;
+	private final Clock clock;
+
+	private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+	private final AtomicInteger consecutiveFailures = new AtomicInteger();
+	private final AtomicInteger halfOpenProbes = new AtomicInteger();
+	private volatile long openedAt;
+
+	@Autowired
+	public VoucherCircuitBreaker(VoucherCircuitBreakerProperties properties) {
+		this(properties, Clock.systemUTC());
+	}
+
+	VoucherCircuitBreaker(VoucherCircuitBreakerProperties properties, Clock clock) {
+		this.properties = properties;
+		this.clock = clock;
+	}
+
+	/**
+	 * Check if a voucher service call may be made. Every permitted call must be
+	 * followed by onSuccess, onFailure or releasePermission
+	 *
+	 * @return true if the call may be made
+	 */
+	public boolean tryAcquirePermission() {
+		if (!properties.isEnabled()) {
+			return true;
+		}
+		State current = state.get();
+		if (State.CLOSED == current) {
+			return true;
+		}
+		if (State.OPEN == current) {
+			if (clock.millis() - openedAt < properties.getOpenDuration().toMillis()) {
+				return false;
+			}
+			if (state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+				log.info("Voucher circuit half-open, probing voucher service");
+			}
+		}
+		return tryAcquireProbe();
+	}
+
+	// Successful or invalid promo code response, the voucher service is healthy
+	public void onSuccess() {
+		consecutiveFailures.set(0);
+		if (state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+			log.info("Voucher circuit closed");
+		}
+	}
+
+	// Server error, timeout or connection failure
+	public void onFailure() {
+		State current = state.get();
+		if (State.HALF_OPEN == current) {
+			open(current);
+		} else if (consecutiveFailures.incrementAndGet() >= properties.getFailureThreshold()
+				&& State.CLOSED == current) {
+			open(current);
+		}
+	}
+
+	// Permitted call that was not made
+	public void releasePermission() {
+		if (State.HALF_OPEN == state.get()) {
+			halfOpenProbes.updateAndGet(probes -> Math.max(0, probes - 1));
+		}
+	}
+
+	public State getState() {
+		return state.get();
+	}
+
+	public int getConsecutiveFailures() {
+		return consecutiveFailures.get();
+	}
+
+	private boolean tryAcquireProbe() {
+		int probes;
+		do {
+			probes = halfOpenProbes.get();
+			if (probes >= properties.getHalfOpenProbes()) {
+				return false;
+			}
+		} while (!halfOpenProbes.compareAndSet(probes, probes + 1));
+		return true;
+	}
+
+	private void open(State from) {
+		// Probes are reset before the state change so the next half-open starts clean
+		halfOpenProbes.set(0);
+		openedAt = clock.millis();
+		if (state.compareAndSet(from, State.OPEN)) {
+			log.warn("Voucher circuit opened after {} consecutive failures", consecutiveFailures.get());
+		}
+	}
+}
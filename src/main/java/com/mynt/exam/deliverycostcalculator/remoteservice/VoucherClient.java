@@ -0,0 +1,21 @@
+package com.mynt.exam.deliverycostcalculator.remoteservice;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.http.ResponseEntity;
+
+// Transport of the remote voucher service call, selected by voucher.client.transport
+public interface VoucherClient {
+
+	/**
+	 * Call the voucher service without blocking the caller
+	 * 
+	 * @param uriVariables promo code and api key of the voucher service url
+	 * @return future voucher service response of any status, completed
+	 *         exceptionally on timeouts and connection failures
+	 * @throws java.util.concurrent.RejectedExecutionException if the call cannot
+	 *                                                         be started
+	 */
+	CompletableFuture<ResponseEntity<Map<String, Object>>> fetchVoucher(Map<String, String> uriVariables);
+}
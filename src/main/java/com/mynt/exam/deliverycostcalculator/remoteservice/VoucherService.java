@@ -2,22 +2,29 @@ package com.mynt.exam.deliverycostcalculator.remoteservice;
 
 import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.API_KEY_REQUEST_PARAM;
 import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.PROMO_CODE_REQUEST_PARAM;
-import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.VOUCHER_SERVICE_URL;
 
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
 
+import com.mynt.exam.deliverycostcalculator.config.VoucherClientProperties;
+import com.mynt.exam.deliverycostcalculator.metrics.DeliveryCostMetrics;
+import com.mynt.exam.deliverycostcalculator.metrics.DeliveryCostMetrics.VoucherFallback;
+import com.mynt.exam.deliverycostcalculator.metrics.DeliveryCostMetrics.VoucherOutcome;
+
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -26,42 +33,237 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class VoucherService {
 
+	private final VoucherCache voucherCache;
+	private final VoucherClient voucherClient;
+	private final VoucherClientProperties voucherClientProperties;
+	private final DeliveryCostMetrics metrics;
+	private final VoucherCircuitBreaker voucherCircuitBreaker;
+	private final VoucherCatalog voucherCatalog;
+
+	// Pending remote calls per upper-cased promo code, shared by concurrent lookups
+	private final ConcurrentMap<String, CompletableFuture<Map<String, Object>>> inFlightLookups =
+			new ConcurrentHashMap<>();
+
 	/*
-	 * Get voucher discount percentage based on promo code
+	 * Get voucher discount percentage based on promo code. Waits at most the
+	 * latency budget, after which no discount is applied
 	 * 
 	 * @param promoCode promo code from request
 	 * 
 	 * @return response body containing discount percentage
 	 */
-	@SuppressWarnings({ "rawtypes", "unchecked" })
 	public Map<String, Object> getVoucherDiscountFromPromoCode(String promoCode) {
-		if (StringUtils.hasText(promoCode)) {
-			log.info("Remote service call to voucher service initiated. Promo code: [{}]", promoCode);
+		return getVoucherDiscountFromPromoCodeAsync(promoCode).join();
+	}
 
-			RestTemplate restTemplate = new RestTemplate();
+	/**
+	 * Get voucher discount percentage based on promo code without blocking the
+	 * caller. Promo codes of the voucher catalog (if prefetched) and cached promo
+	 * codes complete immediately, promo codes already being
+	 * looked up share that lookup, others are looked up through the voucher
+	 * client. Completes without discount if the circuit is open, the voucher
+	 * client is saturated or the latency budget is exceeded
+	 * 
+	 * @param promoCode promo code from request
+	 * @return future response body containing discount percentage, never
+	 *         completes exceptionally
+	 */
+	public CompletableFuture<Map<String, Object>> getVoucherDiscountFromPromoCodeAsync(String promoCode) {
+		if (!StringUtils.hasText(promoCode)) {
+			return CompletableFuture.completedFuture(Collections.emptyMap());
+		}
+		String cacheKey = promoCode.toUpperCase();
+		Map<String, Object> catalogVoucher = voucherCatalog.get(cacheKey);
+		if (catalogVoucher != null) {
+			log.debug("Voucher promo code [{}] served from catalog", promoCode);
+			return CompletableFuture.completedFuture(catalogVoucher);
+		}
+		if (voucherCatalog.isAuthoritative()) {
+			log.debug("Voucher promo code [{}] not in catalog", promoCode);
+			return CompletableFuture.completedFuture(Collections.emptyMap());
+		}
+		Map<String, Object> cachedVoucher = voucherCache.get(cacheKey);
+		if (cachedVoucher != null) {
+			log.debug("Voucher promo code [{}] served from cache", promoCode);
+			return CompletableFuture.completedFuture(cachedVoucher);
+		}
 
-			HttpHeaders headers = new HttpHeaders();
-			HttpEntity<HttpHeaders> httpEntity = new HttpEntity<>(headers);
+		// First lookup of a promo code calls the voucher service, concurrent
+		// lookups of the same promo code wait for its result
+		CompletableFuture<Map<String, Object>> lookup = new CompletableFuture<>();
+		CompletableFuture<Map<String, Object>> inFlightLookup = inFlightLookups.putIfAbsent(cacheKey, lookup);
+		if (inFlightLookup != null) {
+			return withinLatencyBudget(promoCode, followInFlightLookup(promoCode, inFlightLookup));
+		}
+		startLookup(promoCode, cacheKey, lookup);
+		// Budget applies to a copy so the shared lookup still completes for others
+		return withinLatencyBudget(promoCode, lookup.copy());
+	}
 
-			Map<String, String> uriVariables = setUriVariables(promoCode);
+	/**
+	 * Start the voucher service call of a promo code through the voucher client,
+	 * unless the circuit is open or the voucher client is saturated
+	 * 
+	 * @param promoCode promo code from request
+	 * @param cacheKey  upper-cased promo code
+	 * @param lookup    lookup shared with concurrent lookups of the promo code
+	 */
+	private void startLookup(String promoCode, String cacheKey, CompletableFuture<Map<String, Object>> lookup) {
+		if (!voucherCircuitBreaker.tryAcquirePermission()) {
+			log.debug("Voucher circuit open, no discount applied. Promo code: [{}]", promoCode);
+			metrics.voucherFallback(VoucherFallback.CIRCUIT_OPEN);
+			completeLookup(cacheKey, lookup, Collections.emptyMap());
+			return;
+		}
+		log.debug("Remote service call to voucher service initiated. Promo code: [{}]", promoCode);
+		long startNanos = System.nanoTime();
+		CompletableFuture<ResponseEntity<Map<String, Object>>> call;
+		try {
+			call = voucherClient.fetchVoucher(setUriVariables(promoCode));
+		} catch (RejectedExecutionException e) {
+			// Saturated voucher client should not stop customer from getting a delivery
+			// calculation
+			log.warn("Voucher lookup rejected, executor saturated. Promo code: [{}]", promoCode);
+			voucherCircuitBreaker.releasePermission();
+			metrics.voucherFallback(VoucherFallback.EXECUTOR_SATURATED);
+			completeLookup(cacheKey, lookup, Collections.emptyMap());
+			return;
+		}
+		call.handle((response, e) -> e == null ? handleVoucherResponse(promoCode, cacheKey, response, startNanos)
+				: handleVoucherError(e, startNanos)).whenComplete((voucherResponse, e) -> {
+					if (e == null) {
+						completeLookup(cacheKey, lookup, voucherResponse);
+					} else {
+						voucherCircuitBreaker.onFailure();
+						inFlightLookups.remove(cacheKey, lookup);
+						lookup.completeExceptionally(e);
+					}
+				});
+	}
 
-			try {
-				ResponseEntity<Map> response = restTemplate.exchange(VOUCHER_SERVICE_URL, HttpMethod.GET, httpEntity,
-						Map.class, uriVariables);
+	private void completeLookup(String cacheKey, CompletableFuture<Map<String, Object>> lookup,
+			Map<String, Object> voucherResponse) {
+		// Removed first so lookups after completion do not follow a finished lookup
+		inFlightLookups.remove(cacheKey, lookup);
+		lookup.complete(voucherResponse);
+	}
 
-				if (response.getStatusCode() == HttpStatus.OK) {
-					log.info("Voucher promo code [{}] is valid!", promoCode);
-					return response.getBody();
-				}
-			} catch (HttpClientErrorException e) {
-				logErrorScenario(promoCode, e);
-			}
+	/**
+	 * Handle the voucher service response and cache it
+	 * 
+	 * @param promoCode  promo code from request
+	 * @param cacheKey   upper-cased promo code
+	 * @param response   voucher service response
+	 * @param startNanos System.nanoTime() when the call started
+	 * @return response body containing discount percentage, empty if invalid or
+	 *         unavailable
+	 */
+	private Map<String, Object> handleVoucherResponse(String promoCode, String cacheKey,
+			ResponseEntity<Map<String, Object>> response, long startNanos) {
+		int status = response.getStatusCodeValue();
+		if (HttpStatus.OK.value() == status && response.getBody() != null) {
+			log.debug("Voucher promo code [{}] is valid!", promoCode);
+			recordOutcome(VoucherOutcome.VALID, startNanos);
+			voucherCache.put(cacheKey, response.getBody());
+			return response.getBody();
 		}
+		if (HttpStatus.BAD_REQUEST.value() == status) {
+			recordOutcome(VoucherOutcome.INVALID, startNanos);
+			log.debug("Voucher code [{}] invalid!", promoCode);
+			// Invalid promo codes are cached briefly, other errors are retried
+			voucherCache.put(cacheKey, Collections.emptyMap());
+		} else if (status >= HttpStatus.BAD_REQUEST.value()) {
+			// In the case VoucherService returns a server side error, it should not stop
+			// customer from getting a delivery calculation
+			recordOutcome(VoucherOutcome.ERROR, startNanos);
+			log.error("Exception encountered during voucher service call: status {}", status);
+		} else {
+			recordOutcome(VoucherOutcome.INVALID, startNanos);
+		}
+		return Collections.emptyMap();
+	}
+
+	/**
+	 * Handle a voucher service call that got no response: timeouts and
+	 * connection failures
+	 * 
+	 * @param e          failure of the call
+	 * @param startNanos System.nanoTime() when the call started
+	 * @return empty response body
+	 */
+	private Map<String, Object> handleVoucherError(Throwable e, long startNanos) {
+		Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+		recordOutcome(VoucherOutcome.ERROR, startNanos);
+		log.error("Exception encountered during voucher service call: {}", cause.getMessage());
 		return Collections.emptyMap();
 	}
 
+	/**
+	 * Record latency of a voucher service call and its outcome for the circuit
+	 * breaker. Invalid promo codes count as a healthy voucher service
+	 * 
+	 * @param outcome    outcome of the call
+	 * @param startNanos System.nanoTime() when the call started
+	 */
+	private void recordOutcome(VoucherOutcome outcome, long startNanos) {
+		metrics.voucherRequest(outcome, startNanos);
+		if (VoucherOutcome.ERROR == outcome) {
+			voucherCircuitBreaker.onFailure();
+		} else {
+			voucherCircuitBreaker.onSuccess();
+		}
+	}
+
+	/**
+	 * Follow the in-flight lookup of the same promo code. Waiting is bounded by
+	 * the follower timeout, after which no discount is applied, as it is if the
+	 * in-flight lookup fails
+	 * 
+	 * @param promoCode      promo code from request
+	 * @param inFlightLookup pending lookup of the same promo code
+	 * @return future response body containing discount percentage
+	 */
+	private CompletableFuture<Map<String, Object>> followInFlightLookup(String promoCode,
+			CompletableFuture<Map<String, Object>> inFlightLookup) {
+		metrics.voucherCoalesced();
+		log.debug("Voucher promo code [{}] joined in-flight lookup", promoCode);
+		return inFlightLookup.copy()
+				.orTimeout(voucherClientProperties.getFollowerTimeout().toMillis(), TimeUnit.MILLISECONDS)
+				.exceptionally(e -> {
+					log.warn("In-flight voucher lookup unavailable, no discount applied. Promo code: [{}]", promoCode);
+					metrics.voucherFallback(VoucherFallback.FOLLOWER_TIMEOUT);
+					return Collections.emptyMap();
+				});
+	}
+
+	/**
+	 * Bound the wait for a lookup by the latency budget. The voucher service call
+	 * itself goes on and its response is still cached
+	 * 
+	 * @param promoCode promo code from request
+	 * @param lookup    lookup of the promo code
+	 * @return future response body, empty if the budget is exceeded or the lookup
+	 *         fails
+	 */
+	private CompletableFuture<Map<String, Object>> withinLatencyBudget(String promoCode,
+			CompletableFuture<Map<String, Object>> lookup) {
+		return lookup.orTimeout(voucherClientProperties.getLatencyBudget().toMillis(), TimeUnit.MILLISECONDS)
+				.exceptionally(e -> {
+					Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+					if (cause instanceof TimeoutException) {
+						log.warn("Voucher lookup exceeded latency budget, no discount applied. Promo code: [{}]",
+								promoCode);
+						metrics.voucherFallback(VoucherFallback.BUDGET_EXCEEDED);
+					} else {
+						log.error("Exception encountered during voucher lookup: {}", cause.getMessage());
+					}
+					return Collections.emptyMap();
+				});
+	}
+
 	/**
 	 * Set uri parameters for voucher service call
 	 * 
@@ -72,23 +274,8 @@ public class VoucherService {
 		Map<String, String> uriVariables = new HashMap<>();
 
 		uriVariables.put(PROMO_CODE_REQUEST_PARAM, promoCode.toUpperCase());
-		// Hardcoded apikey
-		uriVariables.put(API_KEY_REQUEST_PARAM, "apikey");
+		uriVariables.put(API_KEY_REQUEST_PARAM, voucherClientProperties.getApiKey());
 		return uriVariables;
 	}
 
-	/**
-	 * In the case VoucherService returns a server side error or a BAD_REQUEST
-	 * (400), it should not stop customer from getting a delivery calculation
-	 * 
-	 * @param e HttpClientErrorException
-	 */
-	private void logErrorScenario(String promoCode, HttpClientErrorException e) {
-		if (e.getStatusCode() == HttpStatus.BAD_REQUEST) {
-			log.info("Voucher code [{}] invalid!", promoCode);
-		} else {
-			log.error("Exception encountered during voucher service call: {}", e.getMessage());
-		}
-	}
-
 }
@@ -0,0 +1,13 @@
+package com.mynt.exam.deliverycostcalculator.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.mynt.exam.deliverycostcalculator.model.PricingRule;
+import com.mynt.exam.deliverycostcalculator.util.RulePriority;
+
+// Repository of the pricing rule table
+@Repository
+public interface PricingRuleRepository extends JpaRepository<PricingRule, RulePriority> {
+
+}
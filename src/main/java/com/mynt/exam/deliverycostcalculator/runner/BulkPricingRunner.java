@@ -0,0 +1,42 @@
+package com.mynt.exam.deliverycostcalculator.runner;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.mynt.exam.deliverycostcalculator.config.BulkPricingProperties;
+import com.mynt.exam.deliverycostcalculator.model.BulkPricingReport;
+import com.mynt.exam.deliverycostcalculator.service.intf.BulkPricingService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Prices the parcel file of delivery.bulk.input on startup. Used with the bulk
+ * profile, which runs the application without web server so it exits once the
+ * file is priced
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "delivery.bulk", name = "input")
+@RequiredArgsConstructor
+public class BulkPricingRunner implements ApplicationRunner {
+
+	private static final double MEGABYTE = 1024 * 1024;
+
+	private final BulkPricingService bulkPricingService;
+	private final BulkPricingProperties bulkPricingProperties;
+
+	@Override
+	public void run(ApplicationArguments args) throws Exception {
+		BulkPricingReport report = bulkPricingService.priceFile(bulkPricingProperties.getInput(),
+				bulkPricingProperties.resolveOutput());
+		log.info("Bulk pricing done: {} rows ({} priced, {} rejected) written to {}", report.getRows(),
+				report.getPriced(), report.getRejected(), report.getOutput());
+		log.info("Elapsed {} ms, {} rows/s, peak RSS {}", report.getElapsed().toMillis(),
+				String.format("%.0f", report.getRowsPerSecond()),
+				report.getPeakRssBytes() < 0 ? "unavailable"
+						: String.format("%.1f MB", report.getPeakRssBytes() / MEGABYTE));
+	}
+}
@@ -0,0 +1,209 @@
+package com.mynt.exam.deliverycostcalculator.server;
+
+import java.math.BigDecimal;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.HttpStatus;
+
+import com.mynt.exam.deliverycostcalculator.model.BatchCalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+
+/**
+ * Frames of the binary pricing protocol. Every frame is a big-endian int32
+ * length of the rest of the frame followed by an int32 request id chosen by
+ * the caller and echoed in the response.
+ *
+ * <pre>
+ * request:  length | requestId | scale:int8 | length:int64 | width:int64 | height:int64 | weight:int64
+ *           | promoCodeLength:uint8 | promoCode:UTF-8
+ * response: length | requestId | status:int16 | deliveryCost | totalWeight | totalVolume
+ *           (status 200, each decimal as scale:int8 | unscaled:int64)
+ *           length | requestId | status:int16 | messageLength:uint16 | message:UTF-8
+ *           (any other status)
+ * </pre>
+ *
+ * Dimensions and weight are the unscaled values of decimals sharing one
+ * scale, e.g. 12.5cm at scale 1 is 125. Status codes are those of the HTTP
+ * endpoint: 400 for invalid parcels, 403 for rejected parcels
+ */
+public final class BinaryPricingCodec {
+
+	public static final int LENGTH_PREFIX = 4;
+	public static final int MAX_SCALE = 18;
+	public static final int MAX_PROMO_CODE_BYTES = 255;
+	public static final int MAX_MESSAGE_BYTES = 512;
+
+	// Request id, scale, dimensions and weight, promo code length
+	public static final int MIN_REQUEST_FRAME = 4 + 1 + 4 * 8 + 1;
+	public static final int MAX_REQUEST_FRAME = MIN_REQUEST_FRAME + MAX_PROMO_CODE_BYTES;
+
+	// Request id, status, and three decimals or a message, length prefix included
+	public static final int MAX_RESPONSE_FRAME = LENGTH_PREFIX + 4 + 2 + Math.max(3 * 9, 2 + MAX_MESSAGE_BYTES);
+
+	private BinaryPricingCodec() {
+	}
+
+	/**
+	 * Peek the length of the next frame without consuming it
+	 *
+	 * @param in buffer positioned at the start of a frame
+	 * @return length of the frame after its length prefix, -1 if the prefix is
+	 *         not fully buffered yet
+	 * @throws ProtocolException if the length is not one of a request frame
+	 */
+	public static int requestFrameLength(ByteBuffer in) throws ProtocolException {
+		if (in.remaining() < LENGTH_PREFIX) {
+			return -1;
+		}
+		int length = in.getInt(in.position());
+		if (length < MIN_REQUEST_FRAME || length > MAX_REQUEST_FRAME) {
+			throw new ProtocolException("Invalid request frame length " + length);
+		}
+		return length;
+	}
+
+	/**
+	 * Read the parcel of a request frame
+	 *
+	 * @param in       buffer positioned after the request id
+	 * @param frameEnd position the frame ends at
+	 * @return parcel request, without promo code if none was sent
+	 * @throws IllegalArgumentException if the frame is not a valid request
+	 */
+	public static ParcelRequest decodeRequest(ByteBuffer in, int frameEnd) {
+		int scale = in.get();
+		if (scale < 0 || scale > MAX_SCALE) {
+			throw new IllegalArgumentException("Invalid scale " + scale);
+		}
+		ParcelRequest.ParcelRequestBuilder request = ParcelRequest.builder()
+				.length(BigDecimal.valueOf(in.getLong(), scale)).width(BigDecimal.valueOf(in.getLong(), scale))
+				.height(BigDecimal.valueOf(in.getLong(), scale)).weight(BigDecimal.valueOf(in.getLong(), scale));
+		int promoCodeLength = in.get() & 0xFF;
+		if (in.position() + promoCodeLength != frameEnd) {
+			throw new IllegalArgumentException("Invalid promo code length " + promoCodeLength);
+		}
+		if (promoCodeLength > 0) {
+			request.promoCode(readString(in, promoCodeLength));
+		}
+		return request.build();
+	}
+
+	/**
+	 * Write a request frame
+	 *
+	 * @param out       buffer with room for a request frame
+	 * @param requestId id echoed in the response
+	 * @param request   parcel dimensions, weight and promo code (if any)
+	 * @throws ArithmeticException      if a dimension or weight does not fit the
+	 *                                  format
+	 * @throws IllegalArgumentException if the promo code is too long
+	 */
+	public static void encodeRequest(ByteBuffer out, int requestId, ParcelRequest request) {
+		int scale = Math.max(0, Math.max(Math.max(request.getLength().scale(), request.getWidth().scale()),
+				Math.max(request.getHeight().scale(), request.getWeight().scale())));
+		if (scale > MAX_SCALE) {
+			throw new ArithmeticException("Scale " + scale + " exceeds " + MAX_SCALE);
+		}
+		byte[] promoCode = request.getPromoCode() != null ? request.getPromoCode().getBytes(StandardCharsets.UTF_8)
+				: new byte[0];
+		if (promoCode.length > MAX_PROMO_CODE_BYTES) {
+			throw new IllegalArgumentException("Promo code exceeds " + MAX_PROMO_CODE_BYTES + " bytes");
+		}
+		out.putInt(MIN_REQUEST_FRAME + promoCode.length).putInt(requestId).put((byte) scale)
+				.putLong(unscaled(request.getLength(), scale)).putLong(unscaled(request.getWidth(), scale))
+				.putLong(unscaled(request.getHeight(), scale)).putLong(unscaled(request.getWeight(), scale))
+				.put((byte) promoCode.length).put(promoCode);
+	}
+
+	/**
+	 * Write the response frame of a priced parcel. Nothing is written if the
+	 * calculation does not fit the format
+	 *
+	 * @param out       buffer with room for a response frame
+	 * @param requestId id of the request
+	 * @param response  calculation of the parcel
+	 * @throws ArithmeticException if a decimal does not fit the format
+	 */
+	public static void encodeResponse(ByteBuffer out, int requestId, CalculationResponse response) {
+		int start = out.position();
+		try {
+			out.putInt(4 + 2 + 3 * 9).putInt(requestId).putShort((short) HttpStatus.OK.value());
+			putDecimal(out, response.getDeliveryCost());
+			putDecimal(out, response.getTotalWeight());
+			putDecimal(out, response.getTotalVolume());
+		} catch (ArithmeticException e) {
+			out.position(start);
+			throw e;
+		}
+	}
+
+	/**
+	 * Write the response frame of a parcel that was not priced
+	 *
+	 * @param out       buffer with room for a response frame
+	 * @param requestId id of the request
+	 * @param status    HTTP status the endpoint would answer with
+	 * @param message   reason, truncated to MAX_MESSAGE_BYTES
+	 */
+	public static void encodeError(ByteBuffer out, int requestId, HttpStatus status, String message) {
+		byte[] bytes = message != null ? message.getBytes(StandardCharsets.UTF_8) : new byte[0];
+		int length = Math.min(bytes.length, MAX_MESSAGE_BYTES);
+		out.putInt(4 + 2 + 2 + length).putInt(requestId).putShort((short) status.value()).putShort((short) length)
+				.put(bytes, 0, length);
+	}
+
+	/**
+	 * Read the result of a response frame
+	 *
+	 * @param in       buffer positioned after the request id
+	 * @param frameEnd position the frame ends at
+	 * @return status with either the calculation or the message
+	 * @throws IllegalArgumentException if the frame is not a valid response
+	 */
+	public static BatchCalculationResponse decodeResponse(ByteBuffer in, int frameEnd) {
+		int status = in.getShort();
+		if (HttpStatus.OK.value() == status) {
+			CalculationResponse response = CalculationResponse.builder().deliveryCost(getDecimal(in))
+					.totalWeight(getDecimal(in)).totalVolume(getDecimal(in)).build();
+			return BatchCalculationResponse.builder().status(status).result(response).build();
+		}
+		int length = in.getShort() & 0xFFFF;
+		if (in.position() + length != frameEnd) {
+			throw new IllegalArgumentException("Invalid message length " + length);
+		}
+		return BatchCalculationResponse.builder().status(status).message(readString(in, length)).build();
+	}
+
+	private static long unscaled(BigDecimal value, int scale) {
+		return value.setScale(scale).unscaledValue().longValueExact();
+	}
+
+	private static void putDecimal(ByteBuffer out, BigDecimal value) {
+		int scale = value.scale();
+		if (scale < Byte.MIN_VALUE || scale > Byte.MAX_VALUE) {
+			throw new ArithmeticException("Scale " + scale + " out of range");
+		}
+		out.put((byte) scale).putLong(value.unscaledValue().longValueExact());
+	}
+
+	private static BigDecimal getDecimal(ByteBuffer in) {
+		int scale = in.get();
+		return BigDecimal.valueOf(in.getLong(), scale);
+	}
+
+	private static String readString(ByteBuffer in, int length) {
+		String value;
+		if (in.hasArray()) {
+			value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+			in.position(in.position() + length);
+		} else {
+			byte[] bytes = new byte[length];
+			in.get(bytes);
+			value = new String(bytes, StandardCharsets.UTF_8);
+		}
+		return value;
+	}
+}
@@ -0,0 +1,420 @@
+package com.mynt.exam.deliverycostcalculator.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.mynt.exam.deliverycostcalculator.config.BinaryPricingProperties;
+import com.mynt.exam.deliverycostcalculator.exception.DeliveryCostCalculationException;
+import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+import com.mynt.exam.deliverycostcalculator.service.intf.DeliveryCostCalculatorService;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Internal listener pricing parcels sent in BinaryPricingCodec frames, for
+ * high-volume callers that do not need HTTP. A single selector thread reads
+ * and writes every connection without blocking. Callers may pipeline
+ * requests: each is handed to DeliveryCostCalculatorService as it is read,
+ * and responses are written in request order as their calculations finish
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "delivery.binary", name = "enabled", havingValue = "true")
+public class BinaryPricingServer {
+
+	public static final String CONNECTIONS_METRIC = "delivery.binary.connections";
+
+	private static final int BUFFER_SIZE = 16 * 1024;
+	private static final long STOP_TIMEOUT_MILLIS = 5000;
+
+	private final BinaryPricingProperties properties;
+	private final DeliveryCostCalculatorService costCalculatorService;
+	private final Validator validator;
+
+	// Connections with calculations finished on other threads
+	private final ConcurrentLinkedQueue<Connection> completed = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger connections = new AtomicInteger();
+
+	private Selector selector;
+	private ServerSocketChannel serverChannel;
+	private volatile boolean running;
+	private volatile Thread selectorThread;
+
+	public BinaryPricingServer(BinaryPricingProperties properties,
+			DeliveryCostCalculatorService costCalculatorService, Validator validator, MeterRegistry meterRegistry) {
+		this.properties = properties;
+		this.costCalculatorService = costCalculatorService;
+		this.validator = validator;
+		Gauge.builder(CONNECTIONS_METRIC, connections, AtomicInteger::get)
+				.description("Open binary pricing connections").register(meterRegistry);
+	}
+
+	// Bind the listener and start the selector thread
+	@PostConstruct
+	public void start() throws IOException {
+		InetSocketAddress address = StringUtils.hasText(properties.getAddress())
+				? new InetSocketAddress(properties.getAddress(), properties.getPort())
+				: new InetSocketAddress(properties.getPort());
+		selector = Selector.open();
+		serverChannel = ServerSocketChannel.open();
+		serverChannel.bind(address);
+		serverChannel.configureBlocking(false);
+		serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+		running = true;
+		Thread thread = new Thread(this::serve, "binary-pricing");
+		thread.setDaemon(true);
+		selectorThread = thread;
+		thread.start();
+		log.info("Binary pricing listener on {}", getLocalAddress());
+	}
+
+	// Stop accepting and close every connection
+	@PreDestroy
+	public void stop() throws InterruptedException {
+		Thread thread = selectorThread;
+		if (thread == null) {
+			return;
+		}
+		running = false;
+		selector.wakeup();
+		thread.join(STOP_TIMEOUT_MILLIS);
+	}
+
+	public InetSocketAddress getLocalAddress() throws IOException {
+		return (InetSocketAddress) serverChannel.getLocalAddress();
+	}
+
+	public int getConnections() {
+		return connections.get();
+	}
+
+	private void serve() {
+		try {
+			while (running) {
+				// Calculations finished while serving the last keys must not wait for I/O
+				if (completed.isEmpty()) {
+					selector.select();
+				} else {
+					selector.selectNow();
+				}
+				Set<SelectionKey> selectedKeys = selector.selectedKeys();
+				for (Iterator<SelectionKey> keys = selectedKeys.iterator(); keys.hasNext();) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					if (key.isValid() && key.isAcceptable()) {
+						accept();
+					} else if (key.isValid()) {
+						((Connection) key.attachment()).ready(key);
+					}
+				}
+				Connection connection;
+				while ((connection = completed.poll()) != null) {
+					connection.completed();
+				}
+			}
+		} catch (IOException e) {
+			log.error("Binary pricing listener failed", e);
+		} finally {
+			close();
+		}
+	}
+
+	private void accept() {
+		SocketChannel channel = null;
+		try {
+			channel = serverChannel.accept();
+			if (channel == null) {
+				return;
+			}
+			if (connections.get() >= properties.getMaxConnections()) {
+				log.warn("Binary pricing connection from {} refused, {} connections open",
+						channel.getRemoteAddress(), connections.get());
+				channel.close();
+				return;
+			}
+			channel.configureBlocking(false);
+			channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+			key.attach(new Connection(channel, key));
+			connections.incrementAndGet();
+		} catch (IOException e) {
+			// The listener keeps serving open connections
+			log.warn("Binary pricing connection not accepted: {}", e.getMessage());
+			closeQuietly(channel);
+		}
+	}
+
+	private static void closeQuietly(SocketChannel channel) {
+		if (channel == null) {
+			return;
+		}
+		try {
+			channel.close();
+		} catch (IOException e) {
+			log.debug("Binary pricing connection not closed cleanly: {}", e.getMessage());
+		}
+	}
+
+	private void close() {
+		for (SelectionKey key : selector.keys()) {
+			if (key.attachment() instanceof Connection) {
+				((Connection) key.attachment()).close();
+			}
+		}
+		try {
+			serverChannel.close();
+			selector.close();
+		} catch (IOException e) {
+			log.warn("Binary pricing listener not closed cleanly", e);
+		}
+	}
+
+	/**
+	 * Start pricing a request. Parcels the HTTP endpoint would not accept are
+	 * answered without calling the service
+	 *
+	 * @param requestId id of the request
+	 * @param frame     buffer positioned after the request id
+	 * @param frameEnd  position the frame ends at
+	 * @return response pending on the calculation
+	 */
+	private PendingResponse price(int requestId, ByteBuffer frame, int frameEnd) {
+		ParcelRequest request;
+		try {
+			request = BinaryPricingCodec.decodeRequest(frame, frameEnd);
+		} catch (IllegalArgumentException e) {
+			return new PendingResponse(requestId, HttpStatus.BAD_REQUEST, e.getMessage());
+		}
+		Set<ConstraintViolation<ParcelRequest>> violations = validator.validate(request);
+		if (!violations.isEmpty()) {
+			return new PendingResponse(requestId, HttpStatus.BAD_REQUEST, violations.iterator().next().getMessage());
+		}
+		try {
+			return new PendingResponse(requestId, costCalculatorService.calculateCostAsync(request));
+		} catch (RuntimeException e) {
+			log.warn("Binary pricing request failed", e);
+			return new PendingResponse(requestId, HttpStatus.INTERNAL_SERVER_ERROR, "Cost calculation failed");
+		}
+	}
+
+	// Connection state, only touched by the selector thread
+	private final class Connection {
+
+		private final SocketChannel channel;
+		private final SelectionKey key;
+
+		// Both buffers are kept in fill mode between events
+		private final ByteBuffer readBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+		private final ByteBuffer writeBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+		// Responses in request order
+		private final ArrayDeque<PendingResponse> pending = new ArrayDeque<>();
+
+		// True while the connection waits in the completed queue
+		private final AtomicBoolean queued = new AtomicBoolean();
+
+		private boolean inputShutdown;
+		private boolean closed;
+
+		Connection(SocketChannel channel, SelectionKey key) {
+			this.channel = channel;
+			this.key = key;
+		}
+
+		// Serve a selected key
+		void ready(SelectionKey selectedKey) {
+			try {
+				if (selectedKey.isReadable() && channel.read(readBuffer) < 0) {
+					inputShutdown = true;
+				}
+				process();
+			} catch (IOException | CancelledKeyException e) {
+				log.debug("Binary pricing connection closed: {}", e.getMessage());
+				close();
+			}
+		}
+
+		// Serve calculations finished on other threads
+		void completed() {
+			queued.set(false);
+			if (closed) {
+				return;
+			}
+			try {
+				process();
+			} catch (IOException | CancelledKeyException e) {
+				log.debug("Binary pricing connection closed: {}", e.getMessage());
+				close();
+			}
+		}
+
+		// Called on the thread finishing a calculation
+		void signal() {
+			if (queued.compareAndSet(false, true)) {
+				completed.add(this);
+				if (Thread.currentThread() != selectorThread) {
+					selector.wakeup();
+				}
+			}
+		}
+
+		void close() {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			connections.decrementAndGet();
+			key.cancel();
+			closeQuietly(channel);
+		}
+
+		private void process() throws IOException {
+			readRequests();
+			writeResponses();
+			// Writing may have made room for requests still buffered
+			if (readBuffer.position() > 0 && readRequests()) {
+				writeResponses();
+			}
+			if (inputShutdown && pending.isEmpty() && writeBuffer.position() == 0) {
+				close();
+				return;
+			}
+			int ops = 0;
+			if (!inputShutdown && pending.size() < properties.getMaxPipelined()) {
+				ops |= SelectionKey.OP_READ;
+			}
+			if (writeBuffer.position() > 0) {
+				ops |= SelectionKey.OP_WRITE;
+			}
+			key.interestOps(ops);
+		}
+
+		/**
+		 * Start pricing the requests fully buffered, up to the pipelining limit
+		 *
+		 * @return true if any request was read
+		 * @throws IOException if the caller does not follow the protocol
+		 */
+		private boolean readRequests() throws IOException {
+			boolean read = false;
+			readBuffer.flip();
+			try {
+				while (pending.size() < properties.getMaxPipelined()) {
+					int length = BinaryPricingCodec.requestFrameLength(readBuffer);
+					if (length < 0 || readBuffer.remaining() < BinaryPricingCodec.LENGTH_PREFIX + length) {
+						break;
+					}
+					int frameEnd = readBuffer.position() + BinaryPricingCodec.LENGTH_PREFIX + length;
+					readBuffer.position(readBuffer.position() + BinaryPricingCodec.LENGTH_PREFIX);
+					PendingResponse response = price(readBuffer.getInt(), readBuffer, frameEnd);
+					readBuffer.position(frameEnd);
+					pending.add(response);
+					if (response.quote != null) {
+						response.quote.whenComplete((quote, e) -> signal());
+					}
+					read = true;
+				}
+			} finally {
+				readBuffer.compact();
+			}
+			return read;
+		}
+
+		// Write responses in request order until one is not finished or the
+		// socket is full
+		private void writeResponses() throws IOException {
+			while (true) {
+				while (!pending.isEmpty() && pending.peek().isDone()
+						&& writeBuffer.remaining() >= BinaryPricingCodec.MAX_RESPONSE_FRAME) {
+					pending.poll().encode(writeBuffer);
+				}
+				if (writeBuffer.position() == 0) {
+					return;
+				}
+				writeBuffer.flip();
+				int written = channel.write(writeBuffer);
+				writeBuffer.compact();
+				if (written == 0 || pending.isEmpty() || !pending.peek().isDone()) {
+					return;
+				}
+			}
+		}
+	}
+
+	// Response of a request, waiting for its calculation unless answered right away
+	private static final class PendingResponse {
+
+		private final int requestId;
+		private final CompletableFuture<CalculationResponse> quote;
+		private final HttpStatus status;
+		private final String message;
+
+		PendingResponse(int requestId, CompletableFuture<CalculationResponse> quote) {
+			this.requestId = requestId;
+			this.quote = quote;
+			this.status = HttpStatus.OK;
+			this.message = null;
+		}
+
+		PendingResponse(int requestId, HttpStatus status, String message) {
+			this.requestId = requestId;
+			this.quote = null;
+			this.status = status;
+			this.message = message;
+		}
+
+		boolean isDone() {
+			return quote == null || quote.isDone();
+		}
+
+		void encode(ByteBuffer out) {
+			if (quote == null) {
+				BinaryPricingCodec.encodeError(out, requestId, status, message);
+				return;
+			}
+			try {
+				BinaryPricingCodec.encodeResponse(out, requestId, quote.join());
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof DeliveryCostCalculationException) {
+					BinaryPricingCodec.encodeError(out, requestId, HttpStatus.FORBIDDEN, e.getCause().getMessage());
+				} else {
+					log.warn("Binary pricing request failed", e.getCause());
+					BinaryPricingCodec.encodeError(out, requestId, HttpStatus.INTERNAL_SERVER_ERROR,
+							"Cost calculation failed");
+				}
+			} catch (RuntimeException e) {
+				log.warn("Binary pricing response not encoded", e);
+				BinaryPricingCodec.encodeError(out, requestId, HttpStatus.INTERNAL_SERVER_ERROR,
+						"Cost calculation failed");
+			}
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package com.mynt.exam.deliverycostcalculator.service.impl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.mynt.exam.deliverycostcalculator.exception.DeliveryCostCalculationException;
+import com.mynt.exam.deliverycostcalculator.metrics.DeliveryCostMetrics;
+import com.mynt.exam.deliverycostcalculator.metrics.DeliveryCostMetrics.Rejection;
+import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+import com.mynt.exam.deliverycostcalculator.service.intf.PricingEngine;
+import com.mynt.exam.deliverycostcalculator.util.ParcelColumns;
+import com.mynt.exam.deliverycostcalculator.util.PricedColumns;
+import com.mynt.exam.deliverycostcalculator.util.PricingRuleSnapshot;
+import com.mynt.exam.deliverycostcalculator.util.RulePriority;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Pricing engine doing all arithmetic in BigDecimal
+@Slf4j
+public class BigDecimalPricingEngine implements PricingEngine {
+
+	private static final String CALCULATION_LOG = "Calculating using {} calculation";
+
+	private static final DeliveryCostCalculationException NO_RULE_REJECTION = DeliveryCostCalculationException
+			.rejection("No calculation available for parcel.");
+
+	private final Supplier<PricingRuleSnapshot> pricingRules;
+	private final DeliveryCostMetrics metrics;
+
+	// Engine pricing with the default rules
+	public BigDecimalPricingEngine(DeliveryCostMetrics metrics) {
+		this(() -> PricingRuleSnapshot.DEFAULT, metrics);
+	}
+
+	public BigDecimalPricingEngine(Supplier<PricingRuleSnapshot> pricingRules, DeliveryCostMetrics metrics) {
+		this.pricingRules = pricingRules;
+		this.metrics = metrics;
+	}
+
+	@Override
+	public PricedParcel price(ParcelRequest request) {
+		// Single snapshot per parcel, a reload in between is not seen half applied
+		return price(request, pricingRules.get());
+	}
+
+	@Override
+	public List<PricedParcel> priceAll(List<ParcelRequest> requests) {
+		// Single snapshot per shipment, every parcel is priced with the same rules
+		PricingRuleSnapshot rules = pricingRules.get();
+		List<PricedParcel> pricedParcels = new ArrayList<>(requests.size());
+		for (ParcelRequest request : requests) {
+			pricedParcels.add(price(request, rules));
+		}
+		return pricedParcels;
+	}
+
+	@Override
+	public PricedColumns priceColumns(ParcelColumns parcels) {
+		// Single snapshot per batch, every parcel is priced with the same rules
+		return priceColumns(parcels, pricingRules.get());
+	}
+
+	@Override
+	public PricedParcel price(ParcelRequest request, PricingRuleSnapshot rules) {
+		BigDecimal totalVolume = getParcelTotalVolume(request);
+		BigDecimal undiscountedCost = getUndiscountedParcelDeliveryCost(request, totalVolume, rules);
+
+		return discountPct -> CalculationResponse.builder()
+				.deliveryCost(applyDiscount(undiscountedCost, discountPct))
+				.totalWeight(request.getWeight().setScale(2, RoundingMode.HALF_UP))
+				.totalVolume(totalVolume.setScale(2, RoundingMode.HALF_UP)).build();
+	}
+
+	/**
+	 * Calculate total volume of parcel
+	 *
+	 * @param request contains length, width, and height dimension
+	 * @return total volume of parcel
+	 */
+	private BigDecimal getParcelTotalVolume(ParcelRequest request) {
+		return request.getLength().multiply(request.getWidth()).multiply(request.getHeight()).setScale(4,
+				RoundingMode.HALF_UP);
+	}
+
+	/**
+	 * Calculate delivery cost of parcel before any discount
+	 *
+	 * @param request     contains properties to be considered in cost calculation
+	 * @param totalVolume calculated total volume of the parcel
+	 * @param rules       pricing rules to price with
+	 * @return undiscounted delivery cost
+	 */
+	private BigDecimal getUndiscountedParcelDeliveryCost(ParcelRequest request, BigDecimal totalVolume,
+			PricingRuleSnapshot rules) {
+		RulePriority rule = rules.getRuleTable().resolve(request.getWeight(), totalVolume);
+		if (RulePriority.REJECT == rule) {
+			// If request.weight > 50kg (by default), reject to deliver/calculate
+			log.debug(rules.getRejectMessage());
+			metrics.rejected(Rejection.WEIGHT_LIMIT);
+			throw rules.getRejection();
+		}
+		if (rule == null) {
+			// If no calculation available, throw RuntimeException
+			// But it's going to be a really edge case it reaches this point
+			metrics.rejected(Rejection.NO_RULE);
+			throw NO_RULE_REJECTION;
+		}
+		log.debug(CALCULATION_LOG, rule.getRemark());
+		metrics.ruleSelected(rule);
+		return rules.calculateCost(rule, request.getWeight(), totalVolume);
+	}
+
+	/**
+	 * Apply discount to delivery cost
+	 *
+	 * @param deliveryCost   undiscounted delivery cost
+	 * @param discMultiplier discount to be multiplied if available
+	 * @return total delivery cost
+	 */
+	private BigDecimal applyDiscount(BigDecimal deliveryCost, BigDecimal discMultiplier) {
+		return deliveryCost.subtract(deliveryCost.multiply(discMultiplier)).setScale(2, RoundingMode.HALF_UP);
+	}
+
+}
@@ -0,0 +1,182 @@
+package com.mynt.exam.deliverycostcalculator.service.impl;
+
+import static com.mynt.exam.deliverycostcalculator.util.ParcelColumns.DIMENSION_SCALE;
+import static com.mynt.exam.deliverycostcalculator.util.ParcelColumns.DISCOUNT_SCALE;
+import static com.mynt.exam.deliverycostcalculator.util.PricedColumns.NOT_FIXED_POINT;
+import static com.mynt.exam.deliverycostcalculator.util.PricedColumns.RESPONSE_SCALE;
+import static com.mynt.exam.deliverycostcalculator.util.RuleDecisionTable.SCALED_VOLUME_SCALE;
+import static com.mynt.exam.deliverycostcalculator.util.RuleDecisionTable.SCALED_WEIGHT_SCALE;
+
+import java.util.function.Supplier;
+
+import com.mynt.exam.deliverycostcalculator.exception.DeliveryCostCalculationException;
+import com.mynt.exam.deliverycostcalculator.metrics.DeliveryCostMetrics;
+import com.mynt.exam.deliverycostcalculator.service.intf.PricingEngine;
+import com.mynt.exam.deliverycostcalculator.util.ParcelColumns;
+import com.mynt.exam.deliverycostcalculator.util.PricedColumns;
+import com.mynt.exam.deliverycostcalculator.util.PricingRuleSnapshot;
+import com.mynt.exam.deliverycostcalculator.util.RuleDecisionTable.Metric;
+import com.mynt.exam.deliverycostcalculator.util.RulePriority;
+
+/**
+ * Prices parcels stored column-wise with the arithmetic of the fixed-point
+ * engine. Volume, rule and cost are each calculated in their own loop over the
+ * primitive columns, creating no object per parcel, so the JIT can unroll
+ * them and vectorize the simpler ones. Parcels the columns cannot represent,
+ * whose cost would overflow, and rejected parcels are priced by the fallback
+ * engine afterwards, one by one
+ */
+public class ColumnarPricingKernel {
+
+	private static final int MAX_LONG_DIGITS = 18;
+
+	// Scaled dimensions below this bound can be multiplied without overflow
+	private static final long MAX_SCALED_DIMENSION = 1L << 21;
+
+	// Scaled weights below this bound can be rounded without overflow
+	private static final long MAX_SCALED_WEIGHT = 1_000_000_000_000_000_000L;
+
+	private static final long[] POWERS_OF_TEN = new long[MAX_LONG_DIGITS + 1];
+
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+		}
+	}
+
+	private static final long DISCOUNT_ONE = POWERS_OF_TEN[DISCOUNT_SCALE];
+	private static final long VOLUME_DIVISOR = POWERS_OF_TEN[3 * DIMENSION_SCALE - SCALED_VOLUME_SCALE];
+	private static final long WEIGHT_RESPONSE_DIVISOR = POWERS_OF_TEN[SCALED_WEIGHT_SCALE - RESPONSE_SCALE];
+	private static final long VOLUME_RESPONSE_DIVISOR = POWERS_OF_TEN[SCALED_VOLUME_SCALE - RESPONSE_SCALE];
+
+	private static final RulePriority[] RULES = RulePriority.values();
+
+	private final PricingEngine fallbackEngine;
+	private final Supplier<PricingRuleSnapshot> pricingRules;
+	private final DeliveryCostMetrics metrics;
+
+	public ColumnarPricingKernel(PricingEngine fallbackEngine, Supplier<PricingRuleSnapshot> pricingRules,
+			DeliveryCostMetrics metrics) {
+		this.fallbackEngine = fallbackEngine;
+		this.pricingRules = pricingRules;
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Calculate the discounted delivery cost of parcels that passed the rejected
+	 * scenario checks, all with the same pricing rules
+	 *
+	 * @param parcels parcels and their discounts
+	 * @return price or rejection per parcel, by row
+	 */
+	public PricedColumns price(ParcelColumns parcels) {
+		PricedColumns priced = new PricedColumns(parcels.size());
+		PricingRuleSnapshot rules = pricingRules.get();
+		if (rules.isFixedPointSupported()) {
+			priceFixedPoint(parcels, rules, priced);
+		}
+		priceFallbacks(parcels, rules, priced);
+		return priced;
+	}
+
+	private void priceFixedPoint(ParcelColumns parcels, PricingRuleSnapshot rules, PricedColumns priced) {
+		int size = parcels.size();
+		long[] lengths = parcels.getLengths();
+		long[] widths = parcels.getWidths();
+		long[] heights = parcels.getHeights();
+		long[] weights = parcels.getWeights();
+		long[] discounts = parcels.getDiscounts();
+		int[] resolved = priced.getRules();
+		long[] deliveryCosts = priced.getDeliveryCosts();
+		long[] totalWeights = priced.getTotalWeights();
+		long[] totalVolumes = priced.getTotalVolumes();
+
+		// Pass 1: volume at 4 decimal places, rounded HALF_UP. Parcels out of range
+		// get a negative volume
+		long[] volumes = new long[size];
+		for (int p = 0; p < size; p++) {
+			long length = lengths[p];
+			long width = widths[p];
+			long height = heights[p];
+			boolean inRange = length >= 0 && width >= 0 && height >= 0 && length < MAX_SCALED_DIMENSION
+					&& width < MAX_SCALED_DIMENSION && height < MAX_SCALED_DIMENSION;
+			volumes[p] = inRange ? (length * width * height + VOLUME_DIVISOR / 2) / VOLUME_DIVISOR : -1;
+		}
+
+		// Pass 2: rule of each parcel, one condition at a time
+		rules.getRuleTable().resolveScaled(weights, volumes, size, resolved);
+
+		// Rate, cost basis and rounding divisor per rule ordinal. A zero divisor
+		// marks rules not priced in fixed point
+		long[] rates = new long[RULES.length];
+		boolean[] costOnWeight = new boolean[RULES.length];
+		long[] costDivisors = new long[RULES.length];
+		for (RulePriority rule : RULES) {
+			if (RulePriority.REJECT == rule || rules.getRate(rule) == null) {
+				continue;
+			}
+			costOnWeight[rule.ordinal()] = Metric.WEIGHT == rules.getCostBasis(rule);
+			rates[rule.ordinal()] = rules.getUnscaledRate(rule);
+			int places = (costOnWeight[rule.ordinal()] ? SCALED_WEIGHT_SCALE : SCALED_VOLUME_SCALE)
+					+ rules.getRateScale(rule) + DISCOUNT_SCALE - RESPONSE_SCALE;
+			costDivisors[rule.ordinal()] = places <= MAX_LONG_DIGITS ? POWERS_OF_TEN[places] : 0;
+		}
+
+		// Pass 3: discounted cost, weight and volume in centi-units. Rejected parcels
+		// and parcels whose cost would overflow are left to the fallback engine
+		long[] ruleCounts = new long[RULES.length];
+		for (int p = 0; p < size; p++) {
+			int rule = resolved[p];
+			long weight = weights[p];
+			long volume = volumes[p];
+			long discount = discounts[p];
+			if (rule == NOT_FIXED_POINT || costDivisors[rule] == 0 || volume < 0 || weight < 0
+					|| weight >= MAX_SCALED_WEIGHT || discount < 0 || discount > DISCOUNT_ONE) {
+				resolved[p] = NOT_FIXED_POINT;
+				continue;
+			}
+			long basis = costOnWeight[rule] ? weight : volume;
+			long rate = rates[rule];
+			long cost = basis * rate;
+			long factor = DISCOUNT_ONE - discount;
+			long discountedCost = cost * factor;
+			if (Math.multiplyHigh(basis, rate) != 0 || cost < 0 || Math.multiplyHigh(cost, factor) != 0
+					|| discountedCost < 0) {
+				resolved[p] = NOT_FIXED_POINT;
+				continue;
+			}
+			deliveryCosts[p] = roundHalfUp(discountedCost, costDivisors[rule]);
+			totalWeights[p] = (weight + WEIGHT_RESPONSE_DIVISOR / 2) / WEIGHT_RESPONSE_DIVISOR;
+			totalVolumes[p] = (volume + VOLUME_RESPONSE_DIVISOR / 2) / VOLUME_RESPONSE_DIVISOR;
+			ruleCounts[rule]++;
+		}
+		for (RulePriority rule : RULES) {
+			metrics.ruleSelected(rule, ruleCounts[rule.ordinal()]);
+		}
+	}
+
+	// Parcels not priced in fixed point, including rejections raised by the
+	// fallback engine, with the rules of the fixed-point passes
+	private void priceFallbacks(ParcelColumns parcels, PricingRuleSnapshot rules, PricedColumns priced) {
+		int[] resolved = priced.getRules();
+		for (int p = 0; p < parcels.size(); p++) {
+			if (resolved[p] != NOT_FIXED_POINT) {
+				continue;
+			}
+			try {
+				priced.setResponse(p,
+						fallbackEngine.price(parcels.getRequest(p), rules).applyDiscount(parcels.getDiscountPct(p)));
+			} catch (DeliveryCostCalculationException e) {
+				priced.setRejection(p, e);
+			}
+		}
+	}
+
+	// Drop the decimal places of a non-negative value divided by divisor,
+	// rounding HALF_UP
+	private static long roundHalfUp(long value, long divisor) {
+		long quotient = value / divisor;
+		return (value - quotient * divisor) * 2 >= divisor ? quotient + 1 : quotient;
+	}
+}
@@ -0,0 +1,93 @@
+package com.mynt.exam.deliverycostcalculator.service.impl;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.mynt.exam.deliverycostcalculator.config.BatchProperties;
+import com.mynt.exam.deliverycostcalculator.config.BulkPricingProperties;
+import com.mynt.exam.deliverycostcalculator.config.BulkPricingProperties.Format;
+import com.mynt.exam.deliverycostcalculator.model.BatchCalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.BulkPricingReport;
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+import com.mynt.exam.deliverycostcalculator.service.intf.BulkPricingService;
+import com.mynt.exam.deliverycostcalculator.service.intf.DeliveryCostCalculatorService;
+import com.mynt.exam.deliverycostcalculator.util.ParcelFileReader;
+import com.mynt.exam.deliverycostcalculator.util.PricedRowWriter;
+import com.mynt.exam.deliverycostcalculator.util.ProcessMemory;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Service implementation pricing parcel files in chunks through the batch calculation
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileBulkPricingService implements BulkPricingService {
+
+	private final DeliveryCostCalculatorService costCalculatorService;
+	private final BulkPricingProperties bulkPricingProperties;
+	private final BatchProperties batchProperties;
+
+	/**
+	 * Price every parcel row of a file. Chunks are read on the calling thread,
+	 * priced in parallel and written back in input order. At most twice the
+	 * parallelism of chunks is held at once, so memory does not grow with the
+	 * file
+	 */
+	@Override
+	public BulkPricingReport priceFile(Path input, Path output) throws IOException {
+		Format format = bulkPricingProperties.resolveFormat(input);
+		int chunkSize = Math.min(bulkPricingProperties.getChunkSize(), batchProperties.getMaxSize());
+		int parallelism = bulkPricingProperties.getParallelism();
+		log.info("Bulk pricing {} ({}) into {}, {} rows per chunk, {} chunks in parallel", input, format, output,
+				chunkSize, parallelism);
+
+		ExecutorService chunkExecutor = Executors.newFixedThreadPool(parallelism,
+				new CustomizableThreadFactory("bulk-"));
+		Deque<CompletableFuture<List<BatchCalculationResponse>>> pendingChunks = new ArrayDeque<>();
+		long startNanos = System.nanoTime();
+		try (ParcelFileReader reader = new ParcelFileReader(input, format,
+				(int) bulkPricingProperties.getBufferSize().toBytes());
+				PricedRowWriter writer = new PricedRowWriter(output, format)) {
+			List<ParcelRequest> chunk;
+			while (!(chunk = reader.readRows(chunkSize)).isEmpty()) {
+				List<ParcelRequest> requests = chunk;
+				pendingChunks.add(CompletableFuture
+						.supplyAsync(() -> costCalculatorService.calculateCostBatch(requests), chunkExecutor));
+				if (pendingChunks.size() >= 2 * parallelism) {
+					writer.writeRows(awaitChunk(pendingChunks.poll()));
+				}
+			}
+			while (!pendingChunks.isEmpty()) {
+				writer.writeRows(awaitChunk(pendingChunks.poll()));
+			}
+			// Flushed before the run is timed
+			writer.close();
+			return BulkPricingReport.builder().input(input).output(output).rows(writer.getRows())
+					.priced(writer.getPriced()).rejected(writer.getRows() - writer.getPriced())
+					.elapsed(Duration.ofNanos(System.nanoTime() - startNanos))
+					.peakRssBytes(ProcessMemory.peakRssBytes()).build();
+		} finally {
+			chunkExecutor.shutdownNow();
+		}
+	}
+
+	private static List<BatchCalculationResponse> awaitChunk(CompletableFuture<List<BatchCalculationResponse>> chunk) {
+		try {
+			return chunk.join();
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package com.mynt.exam.deliverycostcalculator.service.impl;
+
+import static com.mynt.exam.deliverycostcalculator.util.ParcelColumns.DIMENSION_SCALE;
+import static com.mynt.exam.deliverycostcalculator.util.ParcelColumns.DISCOUNT_SCALE;
+import static com.mynt.exam.deliverycostcalculator.util.ParcelColumns.UNSUPPORTED;
+import static com.mynt.exam.deliverycostcalculator.util.ParcelColumns.toScaled;
+import static com.mynt.exam.deliverycostcalculator.util.RuleDecisionTable.SCALED_VOLUME_SCALE;
+import static com.mynt.exam.deliverycostcalculator.util.RuleDecisionTable.SCALED_WEIGHT_SCALE;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.mynt.exam.deliverycostcalculator.metrics.DeliveryCostMetrics;
+import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+import com.mynt.exam.deliverycostcalculator.service.intf.PricingEngine;
+import com.mynt.exam.deliverycostcalculator.util.ParcelColumns;
+import com.mynt.exam.deliverycostcalculator.util.PricedColumns;
+import com.mynt.exam.deliverycostcalculator.util.PricingRuleSnapshot;
+import com.mynt.exam.deliverycostcalculator.util.RuleDecisionTable.Metric;
+import com.mynt.exam.deliverycostcalculator.util.RulePriority;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pricing engine doing its arithmetic on scaled longs: dimensions in milli-cm,
+ * weight in grams, volume at 4 decimal places and costs in centavos. Each
+ * rounding step matches the HALF_UP rounding of the BigDecimal engine exactly.
+ * Parcels that cannot be represented without overflow or loss of precision,
+ * or rules whose thresholds or rates cannot, are priced by the BigDecimal
+ * engine instead
+ */
+@Slf4j
+public class FixedPointPricingEngine implements PricingEngine {
+
+	private static final int RESPONSE_SCALE = 2;
+	private static final int MAX_LONG_DIGITS = 18;
+
+	// Scaled dimensions below this bound can be multiplied without overflow
+	private static final long MAX_SCALED_DIMENSION = 1L << 21;
+
+	private static final long[] POWERS_OF_TEN = new long[MAX_LONG_DIGITS + 1];
+
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+		}
+	}
+
+	private final PricingEngine fallbackEngine;
+	private final Supplier<PricingRuleSnapshot> pricingRules;
+	private final DeliveryCostMetrics metrics;
+	private final ColumnarPricingKernel columnarKernel;
+
+	// Engine pricing with the default rules
+	public FixedPointPricingEngine(PricingEngine fallbackEngine, DeliveryCostMetrics metrics) {
+		this(fallbackEngine, () -> PricingRuleSnapshot.DEFAULT, metrics);
+	}
+
+	public FixedPointPricingEngine(PricingEngine fallbackEngine, Supplier<PricingRuleSnapshot> pricingRules,
+			DeliveryCostMetrics metrics) {
+		this.fallbackEngine = fallbackEngine;
+		this.pricingRules = pricingRules;
+		this.metrics = metrics;
+		this.columnarKernel = new ColumnarPricingKernel(fallbackEngine, pricingRules, metrics);
+	}
+
+	@Override
+	public PricedParcel price(ParcelRequest request) {
+		return price(request, pricingRules.get());
+	}
+
+	@Override
+	public List<PricedParcel> priceAll(List<ParcelRequest> requests) {
+		// Single snapshot per shipment, handed on to the fallback engine so every
+		// parcel is priced with the same rules
+		PricingRuleSnapshot rules = pricingRules.get();
+		List<PricedParcel> pricedParcels = new ArrayList<>(requests.size());
+		for (ParcelRequest request : requests) {
+			pricedParcels.add(price(request, rules));
+		}
+		return pricedParcels;
+	}
+
+	@Override
+	public PricedColumns priceColumns(ParcelColumns parcels) {
+		return columnarKernel.price(parcels);
+	}
+
+	@Override
+	public PricedParcel price(ParcelRequest request, PricingRuleSnapshot rules) {
+		long length = toScaled(request.getLength(), DIMENSION_SCALE);
+		long width = toScaled(request.getWidth(), DIMENSION_SCALE);
+		long height = toScaled(request.getHeight(), DIMENSION_SCALE);
+		long weight = toScaled(request.getWeight(), SCALED_WEIGHT_SCALE);
+		if (!rules.isFixedPointSupported() || length < 0 || width < 0 || height < 0 || weight < 0
+				|| length >= MAX_SCALED_DIMENSION || width >= MAX_SCALED_DIMENSION
+				|| height >= MAX_SCALED_DIMENSION) {
+			return fallbackEngine.price(request, rules);
+		}
+
+		// Volume at 4 decimal places
+		long volume = roundHalfUp(length * width * height, 3 * DIMENSION_SCALE - SCALED_VOLUME_SCALE);
+
+		RulePriority rule = rules.getRuleTable().resolveScaled(weight, volume);
+		if (rule == null || RulePriority.REJECT == rule) {
+			// Rejections are raised by the BigDecimal engine
+			return fallbackEngine.price(request, rules);
+		}
+
+		boolean onWeight = Metric.WEIGHT == rules.getCostBasis(rule);
+		long basis = onWeight ? weight : volume;
+		int costScale = (onWeight ? SCALED_WEIGHT_SCALE : SCALED_VOLUME_SCALE) + rules.getRateScale(rule);
+		long rate = rules.getUnscaledRate(rule);
+		if (Math.multiplyHigh(basis, rate) != 0 || basis * rate < 0
+				|| costScale + DISCOUNT_SCALE - RESPONSE_SCALE > MAX_LONG_DIGITS) {
+			return fallbackEngine.price(request, rules);
+		}
+		long undiscountedCost = basis * rate;
+		log.debug("Calculating using {} calculation", rule.getRemark());
+		metrics.ruleSelected(rule);
+
+		long totalWeight = roundHalfUp(weight, SCALED_WEIGHT_SCALE - RESPONSE_SCALE);
+		long totalVolume = roundHalfUp(volume, SCALED_VOLUME_SCALE - RESPONSE_SCALE);
+
+		return discountPct -> {
+			long discount = toScaled(discountPct, DISCOUNT_SCALE);
+			long factor = POWERS_OF_TEN[DISCOUNT_SCALE] - discount;
+			long discountedCost = undiscountedCost * factor;
+			BigDecimal deliveryCost;
+			if (discount == UNSUPPORTED || factor < 0 || Math.multiplyHigh(undiscountedCost, factor) != 0
+					|| discountedCost < 0) {
+				// Discount applied in BigDecimal like the fallback engine would, without
+				// pricing the parcel and counting its rule again
+				BigDecimal cost = BigDecimal.valueOf(undiscountedCost, costScale);
+				deliveryCost = cost.subtract(cost.multiply(discountPct)).setScale(RESPONSE_SCALE, RoundingMode.HALF_UP);
+			} else {
+				deliveryCost = BigDecimal.valueOf(
+						roundHalfUp(discountedCost, costScale + DISCOUNT_SCALE - RESPONSE_SCALE), RESPONSE_SCALE);
+			}
+			return CalculationResponse.builder().deliveryCost(deliveryCost)
+					.totalWeight(BigDecimal.valueOf(totalWeight, RESPONSE_SCALE))
+					.totalVolume(BigDecimal.valueOf(totalVolume, RESPONSE_SCALE)).build();
+		};
+	}
+
+	/**
+	 * Drop decimal places of a non-negative scaled value, rounding HALF_UP
+	 *
+	 * @param value  scaled value
+	 * @param places number of decimal places dropped
+	 * @return value scaled by 10^places less
+	 */
+	static long roundHalfUp(long value, int places) {
+		long divisor = POWERS_OF_TEN[places];
+		long quotient = value / divisor;
+		return (value - quotient * divisor) * 2 >= divisor ? quotient + 1 : quotient;
+	}
+
+}
@@ -0,0 +1,131 @@
+package com.mynt.exam.deliverycostcalculator.service.impl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.mynt.exam.deliverycostcalculator.config.IdempotencyProperties;
+import com.mynt.exam.deliverycostcalculator.exception.DeliveryCostCalculationException;
+import com.mynt.exam.deliverycostcalculator.exception.IdempotencyKeyReuseException;
+import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+import com.mynt.exam.deliverycostcalculator.util.ParcelKey;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Quotes of requests sent with an Idempotency-Key header, replayed for
+ * retries of the same request. The first request of a key calculates the
+ * quote, retries arriving while it is in flight wait for the same result.
+ * Quotes and rejections are kept until the ttl passes or the store is full;
+ * unexpected failures are dropped so a retry calculates again
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+	private final IdempotencyProperties properties;
+	private final Cache<String, IdempotentQuote> cache;
+
+	public IdempotencyStore(IdempotencyProperties properties) {
+		this.properties = properties;
+		this.cache = Caffeine.newBuilder().maximumSize(properties.getMaxSize())
+				.expireAfterWrite(properties.getTtl()).recordStats().build();
+	}
+
+	/**
+	 * Calculate the quote of a request once per idempotency key
+	 *
+	 * @param idempotencyKey key sent by the client, null or blank to always
+	 *                       calculate
+	 * @param request        parcel request object
+	 * @param calculation    calculation of the quote
+	 * @return quote of the first request with the key, completed exceptionally
+	 *         if it was rejected
+	 * @throws IdempotencyKeyReuseException if the key was sent with another
+	 *                                      request
+	 */
+	public CompletableFuture<CalculationResponse> calculate(String idempotencyKey, ParcelRequest request,
+			Function<ParcelRequest, CompletableFuture<CalculationResponse>> calculation) {
+		if (!properties.isEnabled() || !StringUtils.hasText(idempotencyKey)) {
+			return calculation.apply(request);
+		}
+		IdempotentQuote storedQuote = cache.getIfPresent(idempotencyKey);
+		if (storedQuote == null) {
+			IdempotentQuote quote = new IdempotentQuote(request);
+			storedQuote = cache.asMap().putIfAbsent(idempotencyKey, quote);
+			if (storedQuote == null) {
+				calculate(idempotencyKey, quote, calculation);
+				return quote.response;
+			}
+		}
+		if (!storedQuote.fingerprint.equals(fingerprintOf(request))) {
+			throw new IdempotencyKeyReuseException("Idempotency key was already used for another parcel");
+		}
+		log.debug("Replaying quote of idempotency key [{}]", idempotencyKey);
+		return storedQuote.response;
+	}
+
+	public CacheStats getStats() {
+		return cache.stats();
+	}
+
+	public long getSize() {
+		return cache.estimatedSize();
+	}
+
+	private void calculate(String idempotencyKey, IdempotentQuote quote,
+			Function<ParcelRequest, CompletableFuture<CalculationResponse>> calculation) {
+		CompletableFuture<CalculationResponse> response;
+		try {
+			response = calculation.apply(quote.request);
+		} catch (RuntimeException e) {
+			forget(idempotencyKey, quote);
+			quote.response.completeExceptionally(e);
+			throw e;
+		}
+		response.whenComplete((calculated, e) -> {
+			if (e == null) {
+				quote.response.complete(calculated);
+				return;
+			}
+			Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+			if (!(cause instanceof DeliveryCostCalculationException)) {
+				forget(idempotencyKey, quote);
+			}
+			quote.response.completeExceptionally(cause);
+		});
+	}
+
+	// Removed first so retries after the failure calculate again
+	private void forget(String idempotencyKey, IdempotentQuote quote) {
+		cache.asMap().remove(idempotencyKey, quote);
+	}
+
+	// Normalized like quote cache keys so retries differing only in decimal scale
+	// or promo code case are the same request. Incomplete requests, rejected by
+	// the calculation, are compared as sent
+	private static Object fingerprintOf(ParcelRequest request) {
+		ParcelKey parcel = ParcelKey.of(request);
+		return parcel != null ? parcel : request;
+	}
+
+	// Request of an idempotency key and its quote, shared by its retries
+	private static final class IdempotentQuote {
+
+		private final ParcelRequest request;
+		private final Object fingerprint;
+		private final CompletableFuture<CalculationResponse> response = new CompletableFuture<>();
+
+		private IdempotentQuote(ParcelRequest request) {
+			this.request = request;
+			this.fingerprint = fingerprintOf(request);
+		}
+	}
+}
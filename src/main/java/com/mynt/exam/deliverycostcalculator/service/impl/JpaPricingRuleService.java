@@ -0,0 +1,60 @@
+package com.mynt.exam.deliverycostcalculator.service.impl;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.stereotype.Service;
+
+import com.mynt.exam.deliverycostcalculator.model.PricingRule;
+import com.mynt.exam.deliverycostcalculator.repository.PricingRuleRepository;
+import com.mynt.exam.deliverycostcalculator.service.intf.PricingRuleService;
+import com.mynt.exam.deliverycostcalculator.util.PricingRuleSnapshot;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Service implementation of pricing rules stored in the pricing_rule table
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class JpaPricingRuleService implements PricingRuleService {
+
+	private final PricingRuleRepository pricingRuleRepository;
+
+	private final AtomicReference<PricingRuleSnapshot> snapshot = new AtomicReference<>(
+			PricingRuleSnapshot.DEFAULT);
+
+	// Seed an empty rule table with the default rules, then load it
+	@PostConstruct
+	public void init() {
+		if (pricingRuleRepository.count() == 0) {
+			log.info("Pricing rule table empty, seeding default rules");
+			pricingRuleRepository.saveAll(PricingRuleSnapshot.defaultRules());
+		}
+		reload();
+	}
+
+	@Override
+	public PricingRuleSnapshot getSnapshot() {
+		return snapshot.get();
+	}
+
+	// Reloads are serialized so versions increase, pricing reads never wait
+	@Override
+	public synchronized PricingRuleSnapshot reload() {
+		List<PricingRule> rules = pricingRuleRepository.findAll();
+		PricingRuleSnapshot loaded;
+		try {
+			loaded = PricingRuleSnapshot.compile(rules, snapshot.get().getVersion() + 1);
+		} catch (IllegalArgumentException e) {
+			log.error("Pricing rules not reloaded, keeping version {}: {}", snapshot.get().getVersion(),
+					e.getMessage());
+			throw e;
+		}
+		snapshot.set(loaded);
+		log.info("Pricing rules version {} loaded with {} rules", loaded.getVersion(), rules.size());
+		return loaded;
+	}
+}
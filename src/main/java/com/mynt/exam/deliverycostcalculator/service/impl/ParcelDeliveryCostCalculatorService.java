@@ -2,26 +2,47 @@ package com.mynt.exam.deliverycostcalculator.service.impl;
 
 import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.VOUCHER_RESPONSE_DISCOUNT;
 import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.VOUCHER_RESPONSE_EXPIRY;
-import static com.mynt.exam.deliverycostcalculator.util.ParcelDeliveryCalculationHelper.calculateHeavyParcel;
-import static com.mynt.exam.deliverycostcalculator.util.ParcelDeliveryCalculationHelper.calculateLargeParcel;
-import static com.mynt.exam.deliverycostcalculator.util.ParcelDeliveryCalculationHelper.calculateMediumParcel;
-import static com.mynt.exam.deliverycostcalculator.util.ParcelDeliveryCalculationHelper.calculateParcel;
-import static com.mynt.exam.deliverycostcalculator.util.ParcelDeliveryCalculationHelper.calculateSmallParcel;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
 
+import com.mynt.exam.deliverycostcalculator.audit.QuoteAuditEvent.Mode;
+import com.mynt.exam.deliverycostcalculator.audit.QuoteAuditLog;
+import com.mynt.exam.deliverycostcalculator.config.BatchProperties;
 import com.mynt.exam.deliverycostcalculator.exception.DeliveryCostCalculationException;
+import com.mynt.exam.deliverycostcalculator.metrics.DeliveryCostMetrics;
+import com.mynt.exam.deliverycostcalculator.metrics.DeliveryCostMetrics.CalculationMode;
+import com.mynt.exam.deliverycostcalculator.metrics.DeliveryCostMetrics.Rejection;
+import com.mynt.exam.deliverycostcalculator.model.BatchCalculationResponse;
 import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
 import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+import com.mynt.exam.deliverycostcalculator.model.ShipmentCalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.ShipmentRequest;
 import com.mynt.exam.deliverycostcalculator.remoteservice.VoucherService;
+import com.mynt.exam.deliverycostcalculator.service.impl.QuoteCache.QuoteKey;
 import com.mynt.exam.deliverycostcalculator.service.intf.DeliveryCostCalculatorService;
-import com.mynt.exam.deliverycostcalculator.util.RulePriority;
+import com.mynt.exam.deliverycostcalculator.service.intf.PricingEngine;
+import com.mynt.exam.deliverycostcalculator.service.intf.PricingEngine.PricedParcel;
+import com.mynt.exam.deliverycostcalculator.util.ParcelColumns;
+import com.mynt.exam.deliverycostcalculator.util.PricedColumns;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -32,37 +53,262 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class ParcelDeliveryCostCalculatorService implements DeliveryCostCalculatorService {
 
-	private final VoucherService voucherService;
+	// Rejections are stackless and preallocated, rejecting a parcel costs no more
+	// than pricing it
+	private static final DeliveryCostCalculationException INVALID_DIMENSION_REJECTION = DeliveryCostCalculationException
+			.rejection("Invalid dimension. Reject cost calculation for parcel");
 
-	private static final String CALCULATION_LOG = "Calculating using {} calculation";
-	private static final String CALCULATE_ACTION = "CALCULATE";
+	private final VoucherService voucherService;
+	private final Validator validator;
+	private final ForkJoinPool batchPricingPool;
+	private final BatchProperties batchProperties;
+	private final PricingEngine pricingEngine;
+	private final DeliveryCostMetrics metrics;
+	private final QuoteCache quoteCache;
+	private final QuoteAuditLog quoteAuditLog;
 
 	@Override
 	public CalculationResponse calculateCost(ParcelRequest request) {
-		log.info("Calculating parcel cost");
-
-		// Step 1: pre-check rejected scenarios
-		handleRejectedScenarios(request);
-
-		// Step 2.a: check promo code validity
-		Map<String, Object> voucherResponse = voucherService.getVoucherDiscountFromPromoCode(request.getPromoCode());
-
-		// Step 2.b: assign voucher promo details(if valid)
-		BigDecimal discountPct = getDiscountPercentage(voucherResponse);
-		
-		// Expiry date consideration commented out to consider discount in calculation
-		// See Considerations/Assumptions #3
-		// LocalDate expiryDate = getExpiryDate(voucherResponse);
-		// Confirm if promo is still applicable
-		// discountPct = checkPromoExpiry(discountPct, expiryDate);
-
-		// Step 3: Calculate response properties
-		BigDecimal totalVolume = getParcelTotalVolume(request);
-		BigDecimal deliveryCost = getParcelDeliveryCost(request, totalVolume, discountPct);
-
-		return CalculationResponse.builder().deliveryCost(deliveryCost)
-				.totalWeight(request.getWeight().setScale(2, RoundingMode.HALF_UP))
-				.totalVolume(totalVolume.setScale(2, RoundingMode.HALF_UP)).build();
+		log.debug("Calculating parcel cost");
+		long startNanos = System.nanoTime();
+
+		try {
+			// Step 0: serve repeated quotes from the quote cache
+			QuoteKey quoteKey = quoteCache.keyOf(request);
+			CalculationResponse cachedQuote = quoteCache.get(quoteKey);
+			if (cachedQuote != null) {
+				quoteAuditLog.cached(Mode.SYNC, request, cachedQuote);
+				return cachedQuote;
+			}
+
+			// Step 1: pre-check rejected scenarios
+			handleRejectedScenarios(request);
+
+			// Step 2.a: check promo code validity
+			Map<String, Object> voucherResponse = voucherService.getVoucherDiscountFromPromoCode(request.getPromoCode());
+
+			// Step 2.b: assign voucher promo details(if valid)
+			BigDecimal discountPct = getDiscountPercentage(voucherResponse);
+
+			// Expiry date consideration commented out to consider discount in calculation
+			// See Considerations/Assumptions #3
+			// LocalDate expiryDate = getExpiryDate(voucherResponse);
+			// Confirm if promo is still applicable
+			// discountPct = checkPromoExpiry(discountPct, expiryDate);
+
+			// Step 3: Calculate response properties
+			CalculationResponse response = pricingEngine.price(request).applyDiscount(discountPct);
+			quoteCache.put(quoteKey, voucherResponse, response);
+			quoteAuditLog.priced(Mode.SYNC, request, discountPct, response);
+			return response;
+		} catch (DeliveryCostCalculationException e) {
+			quoteAuditLog.rejected(Mode.SYNC, request, e.getMessage());
+			throw e;
+		} finally {
+			metrics.calculation(CalculationMode.SYNC, startNanos);
+		}
+	}
+
+	@Override
+	public CompletableFuture<CalculationResponse> calculateCostAsync(ParcelRequest request) {
+		log.debug("Calculating parcel cost asynchronously");
+		long startNanos = System.nanoTime();
+
+		try {
+			// Step 0: serve repeated quotes from the quote cache. The key holds the
+			// rules version read before pricing, so a reload before the voucher lookup
+			// completes leaves the quote under the older version
+			QuoteKey quoteKey = quoteCache.keyOf(request);
+			CalculationResponse cachedQuote = quoteCache.get(quoteKey);
+			if (cachedQuote != null) {
+				metrics.calculation(CalculationMode.ASYNC, startNanos);
+				quoteAuditLog.cached(Mode.ASYNC, request, cachedQuote);
+				return CompletableFuture.completedFuture(cachedQuote);
+			}
+
+			// Step 1: pre-check rejected scenarios
+			handleRejectedScenarios(request);
+
+			// Step 2: start promo code lookup
+			CompletableFuture<Map<String, Object>> voucherFuture = voucherService
+					.getVoucherDiscountFromPromoCodeAsync(request.getPromoCode());
+
+			// Step 3: calculate undiscounted cost while the lookup is in flight
+			PricedParcel pricedParcel = pricingEngine.price(request);
+
+			// Step 4: apply voucher promo details(if valid) once available
+			return voucherFuture.thenApply(voucherResponse -> {
+				BigDecimal discountPct = getDiscountPercentage(voucherResponse);
+				CalculationResponse response = pricedParcel.applyDiscount(discountPct);
+				quoteCache.put(quoteKey, voucherResponse, response);
+				quoteAuditLog.priced(Mode.ASYNC, request, discountPct, response);
+				return response;
+			}).whenComplete((response, e) -> metrics.calculation(CalculationMode.ASYNC, startNanos));
+		} catch (DeliveryCostCalculationException e) {
+			metrics.calculation(CalculationMode.ASYNC, startNanos);
+			quoteAuditLog.rejected(Mode.ASYNC, request, e.getMessage());
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+
+	@Override
+	public List<BatchCalculationResponse> calculateCostBatch(List<ParcelRequest> requests) {
+		log.debug("Calculating batch cost for {} parcels", requests.size());
+		if (requests.size() > batchProperties.getMaxSize()) {
+			metrics.rejected(Rejection.BATCH_LIMIT);
+			throw DeliveryCostCalculationException.rejection(
+					"Batch exceeds " + batchProperties.getMaxSize() + " parcels. Reject cost calculation for batch");
+		}
+
+		// Step 1: validate each parcel once (null if parcel is valid)
+		List<BatchCalculationResponse> rejections = requests.stream().map(this::validateBatchItem)
+				.collect(Collectors.toList());
+
+		// Step 2: look up each distinct promo code of the valid parcels once
+		Set<String> promoCodes = IntStream.range(0, requests.size()).filter(i -> rejections.get(i) == null)
+				.mapToObj(i -> requests.get(i).getPromoCode()).filter(StringUtils::hasText).map(String::toUpperCase)
+				.collect(Collectors.toSet());
+		Map<String, BigDecimal> discounts = batchPricingPool.submit(() -> promoCodes.parallelStream()
+				.collect(Collectors.toMap(Function.identity(),
+						promoCode -> getDiscountPercentage(voucherService.getVoucherDiscountFromPromoCode(promoCode)))))
+				.join();
+
+		// Step 3: price the valid parcels column-wise, all in one pass
+		ParcelColumns parcels = new ParcelColumns(requests.size());
+		int[] rows = new int[requests.size()];
+		for (int i = 0; i < requests.size(); i++) {
+			rows[i] = rejections.get(i) == null ? parcels.add(requests.get(i), getDiscount(requests.get(i), discounts))
+					: -1;
+		}
+		PricedColumns pricedColumns = batchPricingPool.submit(() -> pricingEngine.priceColumns(parcels)).join();
+
+		// Step 4: build and audit the responses in parallel, keeping request order
+		return batchPricingPool.submit(() -> IntStream.range(0, requests.size()).parallel()
+				.mapToObj(i -> rejections.get(i) != null ? auditBatchRejection(requests.get(i), rejections.get(i))
+						: calculateBatchItem(requests.get(i), getDiscount(requests.get(i), discounts), pricedColumns,
+								rows[i]))
+				.collect(Collectors.toList())).join();
+	}
+
+	@Override
+	public CompletableFuture<ShipmentCalculationResponse> calculateShipmentCostAsync(ShipmentRequest request) {
+		List<ParcelRequest> parcels = request.getParcels();
+		log.debug("Calculating shipment cost for {} parcels", parcels.size());
+		long startNanos = System.nanoTime();
+
+		try {
+			if (parcels.size() > batchProperties.getMaxSize()) {
+				metrics.rejected(Rejection.SHIPMENT_LIMIT);
+				throw DeliveryCostCalculationException.rejection("Shipment exceeds " + batchProperties.getMaxSize()
+						+ " parcels. Reject cost calculation for shipment");
+			}
+
+			// Step 1: pre-check rejected scenarios of every parcel
+			for (ParcelRequest parcel : parcels) {
+				if (parcel == null || parcel.getLength() == null || parcel.getWidth() == null
+						|| parcel.getHeight() == null || parcel.getWeight() == null) {
+					metrics.rejected(Rejection.INVALID_DIMENSION);
+					throw INVALID_DIMENSION_REJECTION;
+				}
+				handleRejectedScenarios(parcel);
+			}
+
+			// Step 2: start the promo code lookup, once for the whole shipment
+			CompletableFuture<Map<String, Object>> voucherFuture = voucherService
+					.getVoucherDiscountFromPromoCodeAsync(request.getPromoCode());
+
+			// Step 3: calculate undiscounted costs in one pass while the lookup is in
+			// flight
+			List<PricedParcel> pricedParcels = pricingEngine.priceAll(parcels);
+
+			// Step 4: apply the shipment discount to every parcel once available
+			return voucherFuture.thenApply(voucherResponse -> {
+				BigDecimal discountPct = getDiscountPercentage(voucherResponse);
+				List<CalculationResponse> responses = new ArrayList<>(pricedParcels.size());
+				BigDecimal deliveryCost = BigDecimal.ZERO;
+				BigDecimal totalWeight = BigDecimal.ZERO;
+				BigDecimal totalVolume = BigDecimal.ZERO;
+				for (int i = 0; i < pricedParcels.size(); i++) {
+					CalculationResponse response = pricedParcels.get(i).applyDiscount(discountPct);
+					responses.add(response);
+					deliveryCost = deliveryCost.add(response.getDeliveryCost());
+					totalWeight = totalWeight.add(response.getTotalWeight());
+					totalVolume = totalVolume.add(response.getTotalVolume());
+					quoteAuditLog.pricedShipmentParcel(parcels.get(i), request.getPromoCode(), discountPct, response);
+				}
+				return ShipmentCalculationResponse.builder().parcels(responses)
+						.total(CalculationResponse.builder().deliveryCost(deliveryCost).totalWeight(totalWeight)
+								.totalVolume(totalVolume).build())
+						.build();
+			}).whenComplete((response, e) -> metrics.calculation(CalculationMode.SHIPMENT, startNanos));
+		} catch (DeliveryCostCalculationException e) {
+			metrics.calculation(CalculationMode.SHIPMENT, startNanos);
+			// A shipment is quoted as a whole, none of its parcels is priced
+			for (ParcelRequest parcel : parcels) {
+				quoteAuditLog.rejectedShipmentParcel(parcel, request.getPromoCode(), e.getMessage());
+			}
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+
+	/**
+	 * Validate a single batch item against the same constraints as the single
+	 * parcel endpoint
+	 * 
+	 * @param request parcel request object
+	 * @return rejection response if invalid, null if valid
+	 */
+	private BatchCalculationResponse validateBatchItem(ParcelRequest request) {
+		if (request == null || request.getLength() == null || request.getWidth() == null
+				|| request.getHeight() == null || request.getWeight() == null) {
+			return rejectBatchItem(HttpStatus.BAD_REQUEST, "Parcel dimensions and weight are required");
+		}
+		Set<ConstraintViolation<ParcelRequest>> violations = validator.validate(request);
+		if (!violations.isEmpty()) {
+			return rejectBatchItem(HttpStatus.BAD_REQUEST, violations.iterator().next().getMessage());
+		}
+		try {
+			handleRejectedScenarios(request);
+		} catch (DeliveryCostCalculationException e) {
+			return rejectBatchItem(HttpStatus.FORBIDDEN, e.getMessage());
+		}
+		return null;
+	}
+
+	/**
+	 * Build the response of a single valid batch item from its price
+	 * 
+	 * @param request       parcel request object
+	 * @param discountPct   discount multiplier of its promo code
+	 * @param pricedColumns prices of the valid batch items
+	 * @param row           row of the item in the priced columns
+	 * @return batch response holding either the result or the rejection
+	 */
+	private BatchCalculationResponse calculateBatchItem(ParcelRequest request, BigDecimal discountPct,
+			PricedColumns pricedColumns, int row) {
+		try {
+			CalculationResponse response = pricedColumns.getResponse(row);
+			quoteAuditLog.priced(Mode.BATCH, request, discountPct, response);
+			return BatchCalculationResponse.builder().status(HttpStatus.OK.value()).result(response).build();
+		} catch (DeliveryCostCalculationException e) {
+			return auditBatchRejection(request, rejectBatchItem(HttpStatus.FORBIDDEN, e.getMessage()));
+		}
+	}
+
+	// Discount of the promo code of a batch item, zero without promo code
+	private BigDecimal getDiscount(ParcelRequest request, Map<String, BigDecimal> discounts) {
+		return StringUtils.hasText(request.getPromoCode())
+				? discounts.getOrDefault(request.getPromoCode().toUpperCase(), BigDecimal.ZERO)
+				: BigDecimal.ZERO;
+	}
+
+	private BatchCalculationResponse auditBatchRejection(ParcelRequest request, BatchCalculationResponse rejection) {
+		quoteAuditLog.rejected(Mode.BATCH, request, rejection.getMessage());
+		return rejection;
+	}
+
+	private BatchCalculationResponse rejectBatchItem(HttpStatus status, String message) {
+		return BatchCalculationResponse.builder().status(status.value()).message(message).build();
 	}
 
 	/**
@@ -78,7 +324,8 @@ public class ParcelDeliveryCostCalculatorService implements DeliveryCostCalculat
 		if (BigDecimal.ZERO.compareTo(request.getWeight()) >= 0 || BigDecimal.ZERO.compareTo(request.getLength()) >= 0
 				|| BigDecimal.ZERO.compareTo(request.getWidth()) >= 0
 				|| BigDecimal.ZERO.compareTo(request.getHeight()) >= 0) {
-			throw new DeliveryCostCalculationException("Invalid dimension. Reject cost calculation for parcel");
+			metrics.rejected(Rejection.INVALID_DIMENSION);
+			throw INVALID_DIMENSION_REJECTION;
 		}
 	}
 
@@ -122,99 +369,12 @@ public class ParcelDeliveryCostCalculatorService implements DeliveryCostCalculat
 		if (BigDecimal.ZERO.compareTo(discountPct) <= 0) {
 			LocalDate today = LocalDate.now();
 			if (today.isBefore(expiryDate)) {
-				log.info("Promo discount applied");
+				log.debug("Promo discount applied");
 				return discountPct;
 			}
 		} 
-		log.info("Promo discount already expired: Expiry date: {}", expiryDate.toString());
-		return BigDecimal.ZERO;
-	}
-
-	/**
-	 * Calculate total volume of parcel
-	 * 
-	 * @param request contains length, width, and height dimension
-	 * @return total volume of parcel
-	 */
-	private BigDecimal getParcelTotalVolume(ParcelRequest request) {
-		return request.getLength().multiply(request.getWidth()).multiply(request.getHeight()).setScale(4,
-				RoundingMode.HALF_UP);
-	}
-
-	/**
-	 * Calculate delivery cost of parcel
-	 * 
-	 * @param request        contains properties to be considered in cost
-	 *                       calculation
-	 * @param totalVolume    calculated total volume of the parcel
-	 * @param discMultiplier discount to be multiplied if available
-	 * @return total delivery cost
-	 */
-	private BigDecimal getParcelDeliveryCost(ParcelRequest request, BigDecimal totalVolume, BigDecimal discMultiplier) {
-		BigDecimal deliveryCost = BigDecimal.ZERO;
-		for (Map.Entry<Integer, RulePriority> ruleEntry : RulePriority.getRules().entrySet()) {
-			deliveryCost = calculateDeliveryCostBasedOnPriority(request.getWeight(), totalVolume, ruleEntry.getValue());
-			// Break out of loop once a delivery cost has been calculated
-			if (BigDecimal.ZERO.compareTo(deliveryCost) < 0)
-				break;
-		}
-
-		// If delivery cost is still uncalculated at this point, use highest rule
-		// priority calculation
-		if (BigDecimal.ZERO.compareTo(deliveryCost) == 0)
-			deliveryCost = calculateDeliveryCostUsingHighestRulePriorityCalculation(request.getWeight(), totalVolume);
-
-		return deliveryCost.subtract(deliveryCost.multiply(discMultiplier)).setScale(2, RoundingMode.HALF_UP);
-	}
-
-	/**
-	 * Calculate delivery cost based on rule priority
-	 * 
-	 * @param weight parcel weight
-	 * @param volume parcel volume
-	 * @param rule   calculation rule to be checked
-	 * @return total delivery cost
-	 */
-	private BigDecimal calculateDeliveryCostBasedOnPriority(BigDecimal weight, BigDecimal volume, RulePriority rule) {
-		if (RulePriority.REJECT == rule && BigDecimal.valueOf(50).compareTo(weight) < 0) {
-			// If request.weight > 50kg, reject to deliver/calculate
-			log.info("Weight exceeds 50kg. Rejecting calculation");
-			throw new DeliveryCostCalculationException("Weight exceeds 50kg. Reject cost calculation for parcel");
-		} else {
-			if (RulePriority.HEAVY_PARCEL == rule && BigDecimal.TEN.compareTo(weight) < 0) {
-				log.info(CALCULATION_LOG, rule.getRemark());
-				return calculateHeavyParcel(weight);
-			} else if (RulePriority.SMALL_PARCEL == rule && BigDecimal.valueOf(1500).compareTo(volume) > 0) {
-				log.info(CALCULATION_LOG, rule.getRemark());
-				return calculateSmallParcel(volume);
-			} else if (RulePriority.MEDIUM_PARCEL == rule && BigDecimal.valueOf(2500).compareTo(volume) > 0) {
-				log.info(CALCULATION_LOG, rule.getRemark());
-				return calculateMediumParcel(volume);
-			} else if (RulePriority.LARGE_PARCEL == rule && BigDecimal.valueOf(2500).compareTo(volume) <= 0) {
-				log.info(CALCULATION_LOG, rule.getRemark());
-				return calculateLargeParcel(volume);
-			}
-		}
+		log.debug("Promo discount already expired: Expiry date: {}", expiryDate);
 		return BigDecimal.ZERO;
 	}
 
-	/**
-	 * Calculate delivery cost based using highest rule priority calculation
-	 * 
-	 * @param weight
-	 * @param volume
-	 * @return total delivery cost
-	 */
-	private BigDecimal calculateDeliveryCostUsingHighestRulePriorityCalculation(BigDecimal weight, BigDecimal volume) {
-		for (Map.Entry<Integer, RulePriority> ruleEntry : RulePriority.getRules().entrySet()) {
-			if (ruleEntry.getValue().getAction().equalsIgnoreCase(CALCULATE_ACTION)) {
-				log.info(CALCULATION_LOG, ruleEntry.getValue().getRemark());
-				return calculateParcel(weight, volume, ruleEntry.getValue());
-			}
-		}
-		// If no calculation available, throw RuntimeException
-		// But it's going to be a really edge case it reaches this point
-		throw new DeliveryCostCalculationException("No calculation available for parcel.");
-	}
-
 }
@@ -0,0 +1,186 @@
+package com.mynt.exam.deliverycostcalculator.service.impl;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.mynt.exam.deliverycostcalculator.config.QuoteCacheProperties;
+import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+import com.mynt.exam.deliverycostcalculator.remoteservice.VoucherCache;
+import com.mynt.exam.deliverycostcalculator.remoteservice.VoucherCatalog;
+import com.mynt.exam.deliverycostcalculator.service.intf.PricingRuleService;
+import com.mynt.exam.deliverycostcalculator.util.ParcelKey;
+
+import lombok.EqualsAndHashCode;
+
+/**
+ * In-process cache of whole quotes keyed by the scale-stripped dimensions and
+ * weight, the upper-cased promo code and the pricing rules version. Bounded by
+ * estimated memory with Caffeine's frequency and recency based eviction.
+ * <p>
+ * A reload of the pricing rules changes the version, so older quotes are no
+ * longer hit. The version is read when the key is built, before pricing, so a
+ * reload while a quote is priced stores it under the older version. A quote
+ * with a promo code is only served while the voucher catalog or cache still
+ * holds the voucher it was priced with
+ */
+@Component
+public class QuoteCache {
+
+	// Estimated bytes of an entry without its decimals and promo code
+	private static final int ENTRY_BYTES = 160;
+	private static final int DECIMAL_BYTES = 40;
+	private static final int STRING_BYTES = 40;
+
+	private final QuoteCacheProperties properties;
+	private final VoucherCache voucherCache;
+	private final VoucherCatalog voucherCatalog;
+	private final PricingRuleService pricingRuleService;
+	private final Cache<QuoteKey, Quote> cache;
+
+	public QuoteCache(QuoteCacheProperties properties, VoucherCache voucherCache, VoucherCatalog voucherCatalog,
+			PricingRuleService pricingRuleService) {
+		this.properties = properties;
+		this.voucherCache = voucherCache;
+		this.voucherCatalog = voucherCatalog;
+		this.pricingRuleService = pricingRuleService;
+		this.cache = Caffeine.newBuilder().maximumWeight(properties.getMaxMemory().toBytes())
+				.weigher(QuoteCache::estimateBytes).expireAfterWrite(properties.getTtl()).recordStats().build();
+	}
+
+	/**
+	 * Get cached quote
+	 *
+	 * @param key key of the request, built before it is priced
+	 * @return cached quote, null if not cached or no longer valid
+	 */
+	public CalculationResponse get(QuoteKey key) {
+		if (key == null) {
+			return null;
+		}
+		Quote quote = cache.getIfPresent(key);
+		if (quote == null) {
+			return null;
+		}
+		if (key.getPromoCode() != null && !Objects.equals(quote.voucher, localVoucher(key.getPromoCode()))) {
+			// Voucher expired or changed since the quote was priced
+			cache.invalidate(key);
+			return null;
+		}
+		return quote.response;
+	}
+
+	/**
+	 * Cache quote, unless its promo code voucher is not cached
+	 *
+	 * @param key      key of the request, built before it was priced so the quote
+	 *                 is never stored under rules newer than it was priced with
+	 * @param voucher  response body of voucher service the quote was priced with
+	 * @param response quote of the parcel
+	 */
+	public void put(QuoteKey key, Map<String, Object> voucher, CalculationResponse response) {
+		if (key == null) {
+			return;
+		}
+		// Quotes priced without a cached voucher (degraded or uncached lookups)
+		// could never be validated on a hit
+		String promoCode = key.getPromoCode();
+		if (promoCode != null && !Objects.equals(voucher, localVoucher(promoCode))) {
+			return;
+		}
+		cache.put(key, new Quote(promoCode != null ? voucher : null, response));
+	}
+
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	public boolean isEnabled() {
+		return properties.isEnabled();
+	}
+
+	public CacheStats getStats() {
+		return cache.stats();
+	}
+
+	public long getSize() {
+		return cache.estimatedSize();
+	}
+
+	public long getWeightedSize() {
+		return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
+	}
+
+	/**
+	 * Build the cache key of a request with the current pricing rules version.
+	 * Built before the request is priced, a reload during pricing leaves the
+	 * quote under the older version, where it is no longer hit
+	 *
+	 * @param request parcel request object
+	 * @return cache key, null if caching is disabled or the request is incomplete
+	 */
+	public QuoteKey keyOf(ParcelRequest request) {
+		if (!properties.isEnabled()) {
+			return null;
+		}
+		ParcelKey parcel = ParcelKey.of(request);
+		return parcel != null ? new QuoteKey(parcel, pricingRuleService.getSnapshot().getVersion()) : null;
+	}
+
+	/**
+	 * Get the voucher a lookup would currently be served without a remote call
+	 *
+	 * @param promoCode upper-cased promo code
+	 * @return voucher of the catalog or cache, empty if invalid, null if unknown
+	 */
+	private Map<String, Object> localVoucher(String promoCode) {
+		Map<String, Object> voucher = voucherCatalog.get(promoCode);
+		if (voucher != null) {
+			return voucher;
+		}
+		return voucherCatalog.isAuthoritative() ? Collections.emptyMap() : voucherCache.get(promoCode);
+	}
+
+	private static int estimateBytes(QuoteKey key, Quote quote) {
+		int bytes = ENTRY_BYTES + 7 * DECIMAL_BYTES;
+		if (key.getPromoCode() != null) {
+			bytes += STRING_BYTES + 2 * key.getPromoCode().length();
+		}
+		return bytes;
+	}
+
+	// Cache key of a request, its normalized parcel and the pricing rules version
+	@EqualsAndHashCode
+	public static final class QuoteKey {
+
+		private final ParcelKey parcel;
+		private final long rulesVersion;
+
+		private QuoteKey(ParcelKey parcel, long rulesVersion) {
+			this.parcel = parcel;
+			this.rulesVersion = rulesVersion;
+		}
+
+		private String getPromoCode() {
+			return parcel.getPromoCode();
+		}
+	}
+
+	private static final class Quote {
+
+		// Voucher the quote was priced with, null without promo code
+		private final Map<String, Object> voucher;
+		private final CalculationResponse response;
+
+		private Quote(Map<String, Object> voucher, CalculationResponse response) {
+			this.voucher = voucher;
+			this.response = response;
+		}
+	}
+}
@@ -0,0 +1,20 @@
+package com.mynt.exam.deliverycostcalculator.service.intf;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import com.mynt.exam.deliverycostcalculator.model.BulkPricingReport;
+
+// Interface class for offline pricing of parcel files
+public interface BulkPricingService {
+
+	/**
+	 * Price every parcel row of a file
+	 * 
+	 * @param input  parcel file, CSV or NDJSON
+	 * @param output file the calculation or rejection of each row is written to
+	 * @return rows priced, throughput and memory of the run
+	 * @throws IOException if a file cannot be read or written
+	 */
+	BulkPricingReport priceFile(Path input, Path output) throws IOException;
+}
@@ -1,7 +1,13 @@
 package com.mynt.exam.deliverycostcalculator.service.intf;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.mynt.exam.deliverycostcalculator.model.BatchCalculationResponse;
 import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
 import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+import com.mynt.exam.deliverycostcalculator.model.ShipmentCalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.ShipmentRequest;
 
 // Interface class for delivery cost service
 public interface DeliveryCostCalculatorService {
@@ -13,4 +19,30 @@ public interface DeliveryCostCalculatorService {
 	 * @return total cost
 	 */
 	CalculationResponse calculateCost(ParcelRequest request);
+
+	/**
+	 * Calculate cost of delivery without blocking on the voucher lookup
+	 * 
+	 * @param request request object containing calculation basis
+	 * @return future total cost, completed exceptionally if parcel is rejected
+	 */
+	CompletableFuture<CalculationResponse> calculateCostAsync(ParcelRequest request);
+
+	/**
+	 * Calculate cost of delivery for several parcels at once
+	 * 
+	 * @param requests request objects containing calculation basis
+	 * @return result or rejection per parcel, in request order
+	 */
+	List<BatchCalculationResponse> calculateCostBatch(List<ParcelRequest> requests);
+
+	/**
+	 * Calculate cost of delivery for the parcels of a shipment, discounted by the
+	 * promo code of the shipment, without blocking on the voucher lookup
+	 * 
+	 * @param request shipment parcels and promo code (if any)
+	 * @return future cost per parcel and in total, completed exceptionally if any
+	 *         parcel is rejected
+	 */
+	CompletableFuture<ShipmentCalculationResponse> calculateShipmentCostAsync(ShipmentRequest request);
 }
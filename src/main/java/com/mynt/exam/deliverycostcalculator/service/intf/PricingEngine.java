@@ -0,0 +1,97 @@
+package com.mynt.exam.deliverycostcalculator.service.intf;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import com.mynt.exam.deliverycostcalculator.exception.DeliveryCostCalculationException;
+import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+import com.mynt.exam.deliverycostcalculator.util.ParcelColumns;
+import com.mynt.exam.deliverycostcalculator.util.PricedColumns;
+import com.mynt.exam.deliverycostcalculator.util.PricingRuleSnapshot;
+
+// Interface class for the arithmetic behind a parcel delivery cost
+public interface PricingEngine {
+
+	/**
+	 * Calculate volume and undiscounted delivery cost of a parcel that passed the
+	 * rejected scenario checks
+	 *
+	 * @param request parcel request object
+	 * @return priced parcel awaiting its discount
+	 */
+	PricedParcel price(ParcelRequest request);
+
+	/**
+	 * Calculate volume and undiscounted delivery cost of a parcel that passed the
+	 * rejected scenario checks with the given pricing rules, for callers pricing
+	 * several parcels with one snapshot
+	 *
+	 * @param request parcel request object
+	 * @param rules   pricing rules to price with
+	 * @return priced parcel awaiting its discount
+	 */
+	PricedParcel price(ParcelRequest request, PricingRuleSnapshot rules);
+
+	/**
+	 * Calculate volume and undiscounted delivery cost of the parcels of a
+	 * shipment in one pass, all with the same pricing rules
+	 *
+	 * @param requests parcel request objects that passed the rejected scenario
+	 *                 checks
+	 * @return priced parcels awaiting their discount, in request order
+	 */
+	default List<PricedParcel> priceAll(List<ParcelRequest> requests) {
+		List<PricedParcel> pricedParcels = new ArrayList<>(requests.size());
+		for (ParcelRequest request : requests) {
+			pricedParcels.add(price(request));
+		}
+		return pricedParcels;
+	}
+
+	/**
+	 * Calculate the discounted delivery cost of parcels stored column-wise, all
+	 * with the same pricing rules
+	 *
+	 * @param parcels parcels that passed the rejected scenario checks, and their
+	 *                discounts
+	 * @return price or rejection per parcel, by row
+	 */
+	PricedColumns priceColumns(ParcelColumns parcels);
+
+	/**
+	 * Calculate the discounted delivery cost of parcels stored column-wise, each
+	 * on its own, in parallel on the calling ForkJoinPool
+	 *
+	 * @param parcels parcels that passed the rejected scenario checks, and their
+	 *                discounts
+	 * @param rules   pricing rules to price all parcels with
+	 * @return price or rejection per parcel, by row
+	 */
+	default PricedColumns priceColumns(ParcelColumns parcels, PricingRuleSnapshot rules) {
+		PricedColumns pricedColumns = new PricedColumns(parcels.size());
+		IntStream.range(0, parcels.size()).parallel().forEach(row -> {
+			try {
+				pricedColumns.setResponse(row,
+						price(parcels.getRequest(row), rules).applyDiscount(parcels.getDiscountPct(row)));
+			} catch (DeliveryCostCalculationException e) {
+				pricedColumns.setRejection(row, e);
+			}
+		});
+		return pricedColumns;
+	}
+
+	// Parcel priced before discount
+	interface PricedParcel {
+
+		/**
+		 * Apply discount and build the calculation response
+		 *
+		 * @param discountPct discount multiplier from voucher promo
+		 * @return calculated delivery cost, weight and volume
+		 */
+		CalculationResponse applyDiscount(BigDecimal discountPct);
+	}
+}
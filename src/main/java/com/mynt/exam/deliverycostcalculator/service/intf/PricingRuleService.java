@@ -0,0 +1,23 @@
+package com.mynt.exam.deliverycostcalculator.service.intf;
+
+import com.mynt.exam.deliverycostcalculator.util.PricingRuleSnapshot;
+
+// Interface class for the pricing rules used by the pricing engines
+public interface PricingRuleService {
+
+	/**
+	 * Get the current pricing rules. Never touches the rule store
+	 * 
+	 * @return compiled pricing rules
+	 */
+	PricingRuleSnapshot getSnapshot();
+
+	/**
+	 * Load the pricing rules from the rule store and swap them in atomically.
+	 * Invalid rules are not swapped in
+	 * 
+	 * @return pricing rules now in use
+	 * @throws IllegalArgumentException if the stored rules cannot price parcels
+	 */
+	PricingRuleSnapshot reload();
+}
@@ -6,9 +6,21 @@ public class ApplicationConstants {
 	public static final String VOUCHER_RESPONSE_CODE = "code";
 	public static final String VOUCHER_RESPONSE_DISCOUNT = "discount";
 	public static final String VOUCHER_RESPONSE_EXPIRY = "expiry";
+	public static final String VOUCHER_RESPONSE_ACTIVE = "active";
+
+	// Voucher catalog response constants
+	public static final String VOUCHER_CATALOG_AS_OF = "asOf";
+	public static final String VOUCHER_CATALOG_VOUCHERS = "vouchers";
 	
 	// Voucher Service constants
 	public static final String VOUCHER_SERVICE_URL = "https://mynt-exam.mocklab.io/voucher/{promocode}?key={key}";
 	public static final String PROMO_CODE_REQUEST_PARAM = "promocode";
 	public static final String API_KEY_REQUEST_PARAM = "key";
+
+	// Voucher catalog constants
+	public static final String VOUCHER_CATALOG_URL = "https://mynt-exam.mocklab.io/vouchers?key={key}&since={since}";
+	public static final String SINCE_REQUEST_PARAM = "since";
+
+	// Header of the client key replaying a quote for retries of a request
+	public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
 }
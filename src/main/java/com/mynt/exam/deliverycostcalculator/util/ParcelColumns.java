@@ -0,0 +1,179 @@
+package com.mynt.exam.deliverycostcalculator.util;
+
+import java.math.BigDecimal;
+
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+
+/**
+ * Parcels stored column-wise, one primitive array per field, for pricing many
+ * parcels in one pass: dimensions in milli-cm, weight in grams and discount at
+ * 4 decimal places. Fields that cannot be represented at their scale are
+ * stored as UNSUPPORTED, and the parcel keeps its request and discount to be
+ * priced in BigDecimal instead
+ */
+public final class ParcelColumns {
+
+	public static final int DIMENSION_SCALE = 3;
+	public static final int WEIGHT_SCALE = RuleDecisionTable.SCALED_WEIGHT_SCALE;
+	public static final int DISCOUNT_SCALE = 4;
+
+	// Scaled value of a field that is negative, too precise or too large
+	public static final long UNSUPPORTED = -1;
+
+	private static final int MAX_LONG_DIGITS = 18;
+
+	private static final long[] POWERS_OF_TEN = new long[MAX_LONG_DIGITS + 1];
+
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+		}
+	}
+
+	private final long[] lengths;
+	private final long[] widths;
+	private final long[] heights;
+	private final long[] weights;
+	private final long[] discounts;
+
+	// Requests and discounts of parcels with an UNSUPPORTED field, allocated
+	// with the first one
+	private ParcelRequest[] requests;
+	private BigDecimal[] discountPcts;
+
+	private int size;
+
+	/**
+	 * Create empty columns
+	 *
+	 * @param capacity most parcels held
+	 */
+	public ParcelColumns(int capacity) {
+		lengths = new long[capacity];
+		widths = new long[capacity];
+		heights = new long[capacity];
+		weights = new long[capacity];
+		discounts = new long[capacity];
+	}
+
+	/**
+	 * Add a parcel
+	 *
+	 * @param request     parcel request object
+	 * @param discountPct discount multiplier from voucher promo
+	 * @return row of the parcel
+	 */
+	public int add(ParcelRequest request, BigDecimal discountPct) {
+		int row = add(toScaled(request.getLength(), DIMENSION_SCALE), toScaled(request.getWidth(), DIMENSION_SCALE),
+				toScaled(request.getHeight(), DIMENSION_SCALE), toScaled(request.getWeight(), WEIGHT_SCALE),
+				toScaled(discountPct, DISCOUNT_SCALE));
+		if (lengths[row] == UNSUPPORTED || widths[row] == UNSUPPORTED || heights[row] == UNSUPPORTED
+				|| weights[row] == UNSUPPORTED || discounts[row] == UNSUPPORTED) {
+			if (requests == null) {
+				requests = new ParcelRequest[lengths.length];
+				discountPcts = new BigDecimal[lengths.length];
+			}
+			requests[row] = request;
+			discountPcts[row] = discountPct;
+		}
+		return row;
+	}
+
+	/**
+	 * Add a parcel already in fixed point
+	 *
+	 * @param length   length in milli-cm
+	 * @param width    width in milli-cm
+	 * @param height   height in milli-cm
+	 * @param weight   weight in grams
+	 * @param discount discount multiplier scaled by 10^DISCOUNT_SCALE
+	 * @return row of the parcel
+	 */
+	public int add(long length, long width, long height, long weight, long discount) {
+		if (size == lengths.length) {
+			throw new IllegalStateException("Parcel columns hold at most " + lengths.length + " parcels");
+		}
+		int row = size++;
+		lengths[row] = length;
+		widths[row] = width;
+		heights[row] = height;
+		weights[row] = weight;
+		discounts[row] = discount;
+		return row;
+	}
+
+	/**
+	 * Get the request of a parcel, as added or rebuilt from the columns
+	 *
+	 * @param row row of the parcel
+	 * @return parcel request object without promo code
+	 */
+	public ParcelRequest getRequest(int row) {
+		if (requests != null && requests[row] != null) {
+			return requests[row];
+		}
+		return ParcelRequest.builder().length(BigDecimal.valueOf(lengths[row], DIMENSION_SCALE))
+				.width(BigDecimal.valueOf(widths[row], DIMENSION_SCALE))
+				.height(BigDecimal.valueOf(heights[row], DIMENSION_SCALE))
+				.weight(BigDecimal.valueOf(weights[row], WEIGHT_SCALE)).build();
+	}
+
+	/**
+	 * Get the discount of a parcel, as added or rebuilt from the columns
+	 *
+	 * @param row row of the parcel
+	 * @return discount multiplier from voucher promo
+	 */
+	public BigDecimal getDiscountPct(int row) {
+		if (discountPcts != null && discountPcts[row] != null) {
+			return discountPcts[row];
+		}
+		return BigDecimal.valueOf(discounts[row], DISCOUNT_SCALE);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public long[] getLengths() {
+		return lengths;
+	}
+
+	public long[] getWidths() {
+		return widths;
+	}
+
+	public long[] getHeights() {
+		return heights;
+	}
+
+	public long[] getWeights() {
+		return weights;
+	}
+
+	public long[] getDiscounts() {
+		return discounts;
+	}
+
+	/**
+	 * Convert a non-negative decimal to a long scaled by 10^scale
+	 *
+	 * @param value decimal value
+	 * @param scale number of decimal places kept
+	 * @return scaled value, UNSUPPORTED if negative, too precise or too large
+	 */
+	public static long toScaled(BigDecimal value, int scale) {
+		if (value.signum() < 0) {
+			return UNSUPPORTED;
+		}
+		if (value.scale() > scale) {
+			value = value.stripTrailingZeros();
+		}
+		int shift = scale - value.scale();
+		if (shift < 0 || value.precision() + shift > MAX_LONG_DIGITS) {
+			return UNSUPPORTED;
+		}
+		return value.unscaledValue().longValue() * POWERS_OF_TEN[shift];
+	}
+}
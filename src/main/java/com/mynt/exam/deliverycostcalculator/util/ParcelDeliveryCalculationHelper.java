@@ -5,23 +5,46 @@ import java.math.BigDecimal;
 // Helper class in calculating parcel delivery cost
 public class ParcelDeliveryCalculationHelper {
 
+	// Cost per kg of weight
+	public static final BigDecimal HEAVY_PARCEL_RATE = BigDecimal.valueOf(20);
+	// Cost per cm3 of volume
+	public static final BigDecimal SMALL_PARCEL_RATE = BigDecimal.valueOf(0.03);
+	public static final BigDecimal MEDIUM_PARCEL_RATE = BigDecimal.valueOf(0.04);
+	public static final BigDecimal LARGE_PARCEL_RATE = BigDecimal.valueOf(0.05);
+
 	private ParcelDeliveryCalculationHelper() {
 	}
 
 	public static BigDecimal calculateHeavyParcel(BigDecimal weight) {
-		return BigDecimal.valueOf(20).multiply(weight);
+		return HEAVY_PARCEL_RATE.multiply(weight);
 	}
 
 	public static BigDecimal calculateSmallParcel(BigDecimal volume) {
-		return BigDecimal.valueOf(0.03).multiply(volume);
+		return SMALL_PARCEL_RATE.multiply(volume);
 	}
 
 	public static BigDecimal calculateMediumParcel(BigDecimal volume) {
-		return BigDecimal.valueOf(0.04).multiply(volume);
+		return MEDIUM_PARCEL_RATE.multiply(volume);
 	}
 
 	public static BigDecimal calculateLargeParcel(BigDecimal volume) {
-		return BigDecimal.valueOf(0.05).multiply(volume);
+		return LARGE_PARCEL_RATE.multiply(volume);
+	}
+
+	// Rate of a calculating rule, zero if the rule does not calculate
+	public static BigDecimal getRate(RulePriority rule) {
+		switch (rule) {
+		case SMALL_PARCEL:
+			return SMALL_PARCEL_RATE;
+		case MEDIUM_PARCEL:
+			return MEDIUM_PARCEL_RATE;
+		case LARGE_PARCEL:
+			return LARGE_PARCEL_RATE;
+		case HEAVY_PARCEL:
+			return HEAVY_PARCEL_RATE;
+		default:
+			return BigDecimal.ZERO;
+		}
 	}
 
 	public static BigDecimal calculateParcel(BigDecimal weight, BigDecimal volume, RulePriority rule) {
@@ -0,0 +1,279 @@
+package com.mynt.exam.deliverycostcalculator.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.mynt.exam.deliverycostcalculator.config.BulkPricingProperties.Format;
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+
+/**
+ * Reads parcel rows of a CSV or NDJSON file through a single reused NIO
+ * buffer. CSV fields are parsed straight from the buffer bytes and NDJSON rows
+ * are read token by token, so no per-row string or JSON tree is built. Rows
+ * that cannot be parsed are returned without dimensions, to be rejected like
+ * an incomplete request
+ */
+public class ParcelFileReader implements Closeable {
+
+	private static final String[] CSV_COLUMNS = { "length", "width", "height", "weight", "promocode" };
+	private static final int LENGTH = 0;
+	private static final int WIDTH = 1;
+	private static final int HEIGHT = 2;
+	private static final int WEIGHT = 3;
+	private static final int PROMO_CODE = 4;
+
+	// Longest number accepted in a CSV field
+	private static final int MAX_NUMBER_LENGTH = 64;
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer;
+	private final Format format;
+	private final JsonFactory jsonFactory = new JsonFactory();
+
+	// CSV column index of each field, in default order unless a header says
+	// otherwise
+	private final int[] columns = { LENGTH, WIDTH, HEIGHT, WEIGHT, PROMO_CODE };
+	private final int[] fieldStarts = new int[CSV_COLUMNS.length];
+	private final int[] fieldEnds = new int[CSV_COLUMNS.length];
+	private final char[] numberChars = new char[MAX_NUMBER_LENGTH];
+
+	private boolean firstRow = true;
+	private boolean endOfInput;
+	// Bytes after the buffer position already known to hold no line break
+	private int scanned;
+
+	/**
+	 * Open a parcel file
+	 *
+	 * @param input      parcel file
+	 * @param format     row format, CSV or NDJSON
+	 * @param bufferSize read buffer size, also the longest row accepted
+	 * @throws IOException if the file cannot be opened
+	 */
+	public ParcelFileReader(Path input, Format format, int bufferSize) throws IOException {
+		this.channel = FileChannel.open(input, StandardOpenOption.READ);
+		this.buffer = ByteBuffer.allocate(bufferSize);
+		this.format = format;
+		buffer.flip();
+	}
+
+	/**
+	 * Read the next rows of the file. Blank lines and a CSV header are skipped
+	 *
+	 * @param maxRows most rows to read
+	 * @return rows in file order, empty at the end of the file
+	 * @throws IOException if the file cannot be read or a row exceeds the buffer
+	 */
+	public List<ParcelRequest> readRows(int maxRows) throws IOException {
+		List<ParcelRequest> rows = new ArrayList<>(maxRows);
+		byte[] bytes = buffer.array();
+		while (rows.size() < maxRows) {
+			int start = buffer.position();
+			int end = indexOfLineBreak(bytes, start + scanned, buffer.limit());
+			if (end < 0) {
+				scanned = buffer.remaining();
+				if (!endOfInput) {
+					endOfInput = !fill();
+					continue;
+				}
+				if (!buffer.hasRemaining()) {
+					break;
+				}
+				// Last row without trailing line break
+				end = buffer.limit();
+			}
+			ParcelRequest row = parseRow(bytes, start, trimCarriageReturn(bytes, start, end));
+			if (row != null) {
+				rows.add(row);
+			}
+			buffer.position(Math.min(end + 1, buffer.limit()));
+			scanned = 0;
+		}
+		return rows;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	// Move the unread bytes to the buffer start and read more after them
+	private boolean fill() throws IOException {
+		buffer.compact();
+		if (!buffer.hasRemaining()) {
+			throw new IOException("Row exceeds " + buffer.capacity() + " bytes");
+		}
+		int read = channel.read(buffer);
+		buffer.flip();
+		return read >= 0;
+	}
+
+	private static int indexOfLineBreak(byte[] bytes, int from, int to) {
+		for (int i = from; i < to; i++) {
+			if (bytes[i] == '\n') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static int trimCarriageReturn(byte[] bytes, int start, int end) {
+		return end > start && bytes[end - 1] == '\r' ? end - 1 : end;
+	}
+
+	/**
+	 * Parse a row
+	 *
+	 * @return parcel request, null for a blank line or a CSV header
+	 */
+	private ParcelRequest parseRow(byte[] bytes, int start, int end) {
+		start = skipWhitespace(bytes, start, end);
+		if (start == end) {
+			return null;
+		}
+		boolean header = firstRow && Format.CSV == format && Character.isLetter(bytes[start]);
+		firstRow = false;
+		if (header) {
+			readHeader(bytes, start, end);
+			return null;
+		}
+		return Format.NDJSON == format ? parseJsonRow(bytes, start, end) : parseCsvRow(bytes, start, end);
+	}
+
+	// Map header column names to fields, unknown columns are ignored
+	private void readHeader(byte[] bytes, int start, int end) {
+		Arrays.fill(columns, -1);
+		int column = 0;
+		int fieldStart = start;
+		for (int i = start; i <= end; i++) {
+			if (i == end || bytes[i] == ',') {
+				String name = new String(bytes, fieldStart, i - fieldStart, StandardCharsets.US_ASCII).trim()
+						.replace("\"", "").replace("_", "").toLowerCase();
+				for (int field = 0; field < CSV_COLUMNS.length; field++) {
+					if (CSV_COLUMNS[field].equals(name)) {
+						columns[field] = column;
+					}
+				}
+				column++;
+				fieldStart = i + 1;
+			}
+		}
+	}
+
+	private ParcelRequest parseCsvRow(byte[] bytes, int start, int end) {
+		Arrays.fill(fieldStarts, -1);
+		int column = 0;
+		int fieldStart = start;
+		for (int i = start; i <= end; i++) {
+			if (i == end || bytes[i] == ',') {
+				for (int field = 0; field < columns.length; field++) {
+					if (columns[field] == column) {
+						fieldStarts[field] = fieldStart;
+						fieldEnds[field] = i;
+					}
+				}
+				column++;
+				fieldStart = i + 1;
+			}
+		}
+		return ParcelRequest.builder().length(csvDecimal(bytes, LENGTH)).width(csvDecimal(bytes, WIDTH))
+				.height(csvDecimal(bytes, HEIGHT)).weight(csvDecimal(bytes, WEIGHT))
+				.promoCode(csvText(bytes, PROMO_CODE)).build();
+	}
+
+	private BigDecimal csvDecimal(byte[] bytes, int field) {
+		int start = fieldStarts[field];
+		if (start < 0) {
+			return null;
+		}
+		int end = fieldEnds[field];
+		start = skipWhitespace(bytes, start, end);
+		while (end > start && (bytes[end - 1] == ' ' || bytes[end - 1] == '"')) {
+			end--;
+		}
+		if (start < end && bytes[start] == '"') {
+			start++;
+		}
+		int length = end - start;
+		if (length == 0 || length > MAX_NUMBER_LENGTH) {
+			return null;
+		}
+		for (int i = 0; i < length; i++) {
+			numberChars[i] = (char) bytes[start + i];
+		}
+		try {
+			return new BigDecimal(numberChars, 0, length);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private String csvText(byte[] bytes, int field) {
+		int start = fieldStarts[field];
+		if (start < 0) {
+			return null;
+		}
+		String text = new String(bytes, start, fieldEnds[field] - start, StandardCharsets.UTF_8).trim()
+				.replace("\"", "");
+		return text.isEmpty() ? null : text;
+	}
+
+	private ParcelRequest parseJsonRow(byte[] bytes, int start, int end) {
+		ParcelRequest.ParcelRequestBuilder row = ParcelRequest.builder();
+		try (JsonParser parser = jsonFactory.createParser(bytes, start, end - start)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				return row.build();
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+				JsonToken value = parser.nextToken();
+				switch (field) {
+				case "length":
+					row.length(jsonDecimal(parser, value));
+					break;
+				case "width":
+					row.width(jsonDecimal(parser, value));
+					break;
+				case "height":
+					row.height(jsonDecimal(parser, value));
+					break;
+				case "weight":
+					row.weight(jsonDecimal(parser, value));
+					break;
+				case "promoCode":
+					row.promoCode(value == JsonToken.VALUE_STRING ? parser.getText() : null);
+					break;
+				default:
+					parser.skipChildren();
+				}
+			}
+			return row.build();
+		} catch (IOException e) {
+			// Malformed row, rejected as incomplete
+			return ParcelRequest.builder().build();
+		}
+	}
+
+	private static BigDecimal jsonDecimal(JsonParser parser, JsonToken value) throws IOException {
+		return value.isNumeric() ? parser.getDecimalValue() : null;
+	}
+
+	private static int skipWhitespace(byte[] bytes, int start, int end) {
+		while (start < end && (bytes[start] == ' ' || bytes[start] == '\t')) {
+			start++;
+		}
+		return start;
+	}
+}
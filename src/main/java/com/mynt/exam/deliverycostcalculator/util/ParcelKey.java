@@ -0,0 +1,50 @@
+package com.mynt.exam.deliverycostcalculator.util;
+
+import java.math.BigDecimal;
+
+import org.springframework.util.StringUtils;
+
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+
+import lombok.EqualsAndHashCode;
+
+// Parcel request normalized for lookups: scale-stripped dimensions and weight
+// and upper-cased promo code, so 10 and 10.0 or mynt and MYNT are the same parcel
+@EqualsAndHashCode
+public final class ParcelKey {
+
+	private final BigDecimal length;
+	private final BigDecimal width;
+	private final BigDecimal height;
+	private final BigDecimal weight;
+	private final String promoCode;
+
+	private ParcelKey(BigDecimal length, BigDecimal width, BigDecimal height, BigDecimal weight, String promoCode) {
+		this.length = length;
+		this.width = width;
+		this.height = height;
+		this.weight = weight;
+		this.promoCode = promoCode;
+	}
+
+	/**
+	 * Normalize a parcel request
+	 *
+	 * @param request parcel request object
+	 * @return key of the request, null if the request is incomplete
+	 */
+	public static ParcelKey of(ParcelRequest request) {
+		if (request == null || request.getLength() == null || request.getWidth() == null
+				|| request.getHeight() == null || request.getWeight() == null) {
+			return null;
+		}
+		return new ParcelKey(request.getLength().stripTrailingZeros(), request.getWidth().stripTrailingZeros(),
+				request.getHeight().stripTrailingZeros(), request.getWeight().stripTrailingZeros(),
+				StringUtils.hasText(request.getPromoCode()) ? request.getPromoCode().toUpperCase() : null);
+	}
+
+	// Upper-cased promo code, null without promo code
+	public String getPromoCode() {
+		return promoCode;
+	}
+}
@@ -0,0 +1,102 @@
+package com.mynt.exam.deliverycostcalculator.util;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import com.mynt.exam.deliverycostcalculator.exception.DeliveryCostCalculationException;
+import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
+
+/**
+ * Prices of the parcels of ParcelColumns, by row. Parcels priced in fixed
+ * point hold their rule and their cost, weight and volume in centi-units.
+ * Parcels priced in BigDecimal hold their response or rejection instead
+ */
+public final class PricedColumns {
+
+	// Rule of parcels not priced in fixed point
+	public static final int NOT_FIXED_POINT = RuleDecisionTable.NO_RULE;
+
+	public static final int RESPONSE_SCALE = 2;
+
+	private static final RulePriority[] RULES = RulePriority.values();
+
+	private final int size;
+	private final int[] rules;
+	private final long[] deliveryCosts;
+	private final long[] totalWeights;
+	private final long[] totalVolumes;
+
+	// Results of parcels not priced in fixed point, set by row
+	private final CalculationResponse[] responses;
+	private final DeliveryCostCalculationException[] rejections;
+
+	/**
+	 * Create prices of parcels none of which is priced in fixed point yet
+	 *
+	 * @param size number of parcels
+	 */
+	public PricedColumns(int size) {
+		this.size = size;
+		this.rules = new int[size];
+		this.deliveryCosts = new long[size];
+		this.totalWeights = new long[size];
+		this.totalVolumes = new long[size];
+		this.responses = new CalculationResponse[size];
+		this.rejections = new DeliveryCostCalculationException[size];
+		Arrays.fill(rules, NOT_FIXED_POINT);
+	}
+
+	/**
+	 * Get the calculation of a parcel
+	 *
+	 * @param row row of the parcel
+	 * @return calculated delivery cost, weight and volume
+	 * @throws DeliveryCostCalculationException if the parcel was rejected
+	 */
+	public CalculationResponse getResponse(int row) {
+		if (rejections[row] != null) {
+			throw rejections[row];
+		}
+		if (rules[row] == NOT_FIXED_POINT) {
+			return responses[row];
+		}
+		return CalculationResponse.builder().deliveryCost(BigDecimal.valueOf(deliveryCosts[row], RESPONSE_SCALE))
+				.totalWeight(BigDecimal.valueOf(totalWeights[row], RESPONSE_SCALE))
+				.totalVolume(BigDecimal.valueOf(totalVolumes[row], RESPONSE_SCALE)).build();
+	}
+
+	// Rule a parcel was priced with in fixed point, null for the others
+	public RulePriority getRule(int row) {
+		return rules[row] != NOT_FIXED_POINT ? RULES[rules[row]] : null;
+	}
+
+	public void setResponse(int row, CalculationResponse response) {
+		rules[row] = NOT_FIXED_POINT;
+		responses[row] = response;
+	}
+
+	public void setRejection(int row, DeliveryCostCalculationException rejection) {
+		rules[row] = NOT_FIXED_POINT;
+		rejections[row] = rejection;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int[] getRules() {
+		return rules;
+	}
+
+	public long[] getDeliveryCosts() {
+		return deliveryCosts;
+	}
+
+	public long[] getTotalWeights() {
+		return totalWeights;
+	}
+
+	public long[] getTotalVolumes() {
+		return totalVolumes;
+	}
+}
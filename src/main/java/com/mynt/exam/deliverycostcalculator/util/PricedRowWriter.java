@@ -0,0 +1,131 @@
+package com.mynt.exam.deliverycostcalculator.util;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.mynt.exam.deliverycostcalculator.config.BulkPricingProperties.Format;
+import com.mynt.exam.deliverycostcalculator.model.BatchCalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
+
+/**
+ * Streams priced rows to a CSV or NDJSON file as they are produced, numbered
+ * in input order. Only the output buffer is held in memory
+ */
+public class PricedRowWriter implements Closeable {
+
+	private static final String CSV_HEADER = "row,status,deliveryCost,totalWeight,totalVolume,message\n";
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final OutputStream out;
+	private final JsonGenerator jsonGenerator;
+	private final StringBuilder csvRow = new StringBuilder();
+
+	private long rows;
+	private long priced;
+
+	/**
+	 * Create or replace a priced file
+	 *
+	 * @param output priced file
+	 * @param format row format, CSV or NDJSON
+	 * @throws IOException if the file cannot be created
+	 */
+	public PricedRowWriter(Path output, Format format) throws IOException {
+		this.out = new BufferedOutputStream(Files.newOutputStream(output), BUFFER_SIZE);
+		if (Format.NDJSON == format) {
+			jsonGenerator = new JsonFactory().createGenerator(out);
+			jsonGenerator.setRootValueSeparator(null);
+		} else {
+			jsonGenerator = null;
+			out.write(CSV_HEADER.getBytes(StandardCharsets.US_ASCII));
+		}
+	}
+
+	/**
+	 * Write the next priced rows
+	 *
+	 * @param responses calculation or rejection per row, in input order
+	 * @throws IOException if the file cannot be written
+	 */
+	public void writeRows(List<BatchCalculationResponse> responses) throws IOException {
+		for (BatchCalculationResponse response : responses) {
+			rows++;
+			if (HttpStatus.OK.value() == response.getStatus()) {
+				priced++;
+			}
+			if (jsonGenerator != null) {
+				writeJsonRow(response);
+			} else {
+				writeCsvRow(response);
+			}
+		}
+	}
+
+	public long getRows() {
+		return rows;
+	}
+
+	public long getPriced() {
+		return priced;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (jsonGenerator != null) {
+			jsonGenerator.close();
+		} else {
+			out.close();
+		}
+	}
+
+	private void writeJsonRow(BatchCalculationResponse response) throws IOException {
+		jsonGenerator.writeStartObject();
+		jsonGenerator.writeNumberField("row", rows);
+		jsonGenerator.writeNumberField("status", response.getStatus());
+		CalculationResponse result = response.getResult();
+		if (result != null) {
+			jsonGenerator.writeNumberField("deliveryCost", result.getDeliveryCost());
+			jsonGenerator.writeNumberField("totalWeight", result.getTotalWeight());
+			jsonGenerator.writeNumberField("totalVolume", result.getTotalVolume());
+		}
+		if (response.getMessage() != null) {
+			jsonGenerator.writeStringField("message", response.getMessage());
+		}
+		jsonGenerator.writeEndObject();
+		jsonGenerator.writeRaw('\n');
+	}
+
+	private void writeCsvRow(BatchCalculationResponse response) throws IOException {
+		csvRow.setLength(0);
+		csvRow.append(rows).append(',').append(response.getStatus()).append(',');
+		CalculationResponse result = response.getResult();
+		if (result != null) {
+			appendDecimal(result.getDeliveryCost()).append(',');
+			appendDecimal(result.getTotalWeight()).append(',');
+			appendDecimal(result.getTotalVolume());
+		} else {
+			csvRow.append(",,");
+		}
+		csvRow.append(',');
+		if (response.getMessage() != null) {
+			csvRow.append('"').append(response.getMessage().replace("\"", "\"\"")).append('"');
+		}
+		csvRow.append('\n');
+		out.write(csvRow.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	private StringBuilder appendDecimal(BigDecimal value) {
+		return value != null ? csvRow.append(value.toPlainString()) : csvRow;
+	}
+}
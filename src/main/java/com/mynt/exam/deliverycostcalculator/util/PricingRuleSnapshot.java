@@ -0,0 +1,206 @@
+package com.mynt.exam.deliverycostcalculator.util;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.mynt.exam.deliverycostcalculator.exception.DeliveryCostCalculationException;
+import com.mynt.exam.deliverycostcalculator.model.PricingRule;
+import com.mynt.exam.deliverycostcalculator.util.RuleDecisionTable.Condition;
+import com.mynt.exam.deliverycostcalculator.util.RuleDecisionTable.Metric;
+
+import lombok.Getter;
+
+/**
+ * Immutable compiled form of the pricing rule table: the decision table and
+ * the rate and cost basis of each rule. A pricing call reads a single snapshot,
+ * so a reload swapping in a new snapshot is never seen half applied
+ */
+public final class PricingRuleSnapshot {
+
+	private static final String CALCULATE_ACTION = "CALCULATE";
+
+	// Rules of the hard-coded rates and thresholds, used until the table is loaded
+	public static final PricingRuleSnapshot DEFAULT = compile(defaultRules(), 0);
+
+	// Increases with every reload
+	@Getter
+	private final long version;
+
+	@Getter
+	private final Instant loadedAt;
+
+	@Getter
+	private final RuleDecisionTable ruleTable;
+
+	// Conditions ordered by priority
+	@Getter
+	private final List<Condition> conditions;
+
+	@Getter
+	private final String rejectMessage;
+
+	// Preallocated rejection of parcels resolved to the REJECT rule
+	@Getter
+	private final DeliveryCostCalculationException rejection;
+
+	// Per rule, indexed by ordinal
+	private final int[] priorities = new int[RulePriority.values().length];
+	private final BigDecimal[] rates = new BigDecimal[RulePriority.values().length];
+	private final Metric[] costBases = new Metric[RulePriority.values().length];
+	private final long[] unscaledRates = new long[RulePriority.values().length];
+	private final int[] rateScales = new int[RulePriority.values().length];
+
+	// True if the fixed-point engine can price with these rules
+	@Getter
+	private final boolean fixedPointSupported;
+
+	private PricingRuleSnapshot(List<PricingRule> orderedRules, long version) {
+		this.version = version;
+		this.loadedAt = Instant.now();
+		List<Condition> compiledConditions = new ArrayList<>(orderedRules.size());
+		String reject = null;
+		boolean fixedPoint = true;
+		for (PricingRule pricingRule : orderedRules) {
+			RulePriority rule = pricingRule.getRule();
+			compiledConditions.add(new Condition(rule, pricingRule.getMetric(), pricingRule.getComparison(),
+					pricingRule.getThreshold(), pricingRule.getCostBasis()));
+			priorities[rule.ordinal()] = pricingRule.getPriority();
+			if (RulePriority.REJECT == rule) {
+				reject = rejectMessage(pricingRule);
+			}
+			if (pricingRule.getRate() == null) {
+				continue;
+			}
+			// Trailing zeros of the stored column scale would only widen fixed-point costs
+			BigDecimal rate = pricingRule.getRate().stripTrailingZeros();
+			if (rate.scale() < 0) {
+				rate = rate.setScale(0);
+			}
+			rates[rule.ordinal()] = rate;
+			costBases[rule.ordinal()] = pricingRule.getCostBasis();
+			rateScales[rule.ordinal()] = rate.scale();
+			try {
+				unscaledRates[rule.ordinal()] = rate.unscaledValue().longValueExact();
+			} catch (ArithmeticException e) {
+				fixedPoint = false;
+			}
+		}
+		this.conditions = Collections.unmodifiableList(compiledConditions);
+		this.ruleTable = new RuleDecisionTable(compiledConditions);
+		this.rejectMessage = reject;
+		this.rejection = reject != null ? DeliveryCostCalculationException.rejection(reject) : null;
+		this.fixedPointSupported = fixedPoint && ruleTable.isScaledResolvable();
+	}
+
+	/**
+	 * Compile pricing rules into a snapshot
+	 *
+	 * @param rules   pricing rules in any order
+	 * @param version version of the snapshot
+	 * @return compiled snapshot
+	 * @throws IllegalArgumentException if the rules cannot price parcels
+	 */
+	public static PricingRuleSnapshot compile(List<PricingRule> rules, long version) {
+		validate(rules);
+		List<PricingRule> orderedRules = new ArrayList<>(rules);
+		orderedRules.sort(Comparator.comparingInt(PricingRule::getPriority));
+		return new PricingRuleSnapshot(orderedRules, version);
+	}
+
+	/**
+	 * Get the hard-coded pricing rules, used to seed an empty rule table
+	 *
+	 * @return one pricing rule per RulePriority
+	 */
+	public static List<PricingRule> defaultRules() {
+		List<PricingRule> rules = new ArrayList<>();
+		for (Condition condition : RuleDecisionTable.DEFAULT_CONDITIONS) {
+			RulePriority rule = condition.getRule();
+			boolean calculates = condition.getCostBasis() != null;
+			rules.add(PricingRule.builder().rule(rule).priority(rule.getPriority()).metric(condition.getMetric())
+					.comparison(condition.getComparison()).threshold(condition.getThreshold())
+					.costBasis(condition.getCostBasis())
+					.rate(calculates ? ParcelDeliveryCalculationHelper.getRate(rule) : null).build());
+		}
+		return rules;
+	}
+
+	/**
+	 * Calculate the undiscounted cost of a parcel with a calculating rule
+	 *
+	 * @param rule   rule the parcel was resolved to
+	 * @param weight parcel weight
+	 * @param volume parcel volume
+	 * @return rate multiplied by the cost basis of the rule, zero if the rule
+	 *         does not calculate
+	 */
+	public BigDecimal calculateCost(RulePriority rule, BigDecimal weight, BigDecimal volume) {
+		BigDecimal rate = rates[rule.ordinal()];
+		if (rate == null) {
+			return BigDecimal.ZERO;
+		}
+		return rate.multiply(Metric.WEIGHT == costBases[rule.ordinal()] ? weight : volume);
+	}
+
+	public int getPriority(RulePriority rule) {
+		return priorities[rule.ordinal()];
+	}
+
+	// Rate of a rule, null if the rule does not calculate
+	public BigDecimal getRate(RulePriority rule) {
+		return rates[rule.ordinal()];
+	}
+
+	// Cost basis of a rule, null if the rule does not calculate
+	public Metric getCostBasis(RulePriority rule) {
+		return costBases[rule.ordinal()];
+	}
+
+	// Unscaled rate of a rule, only meaningful if fixed point is supported
+	public long getUnscaledRate(RulePriority rule) {
+		return unscaledRates[rule.ordinal()];
+	}
+
+	public int getRateScale(RulePriority rule) {
+		return rateScales[rule.ordinal()];
+	}
+
+	private static void validate(List<PricingRule> rules) {
+		if (rules.isEmpty()) {
+			throw new IllegalArgumentException("No pricing rules");
+		}
+		Set<Integer> priorities = new HashSet<>();
+		boolean calculating = false;
+		for (PricingRule rule : rules) {
+			if (rule.getRule() == null || rule.getMetric() == null || rule.getComparison() == null
+					|| rule.getThreshold() == null || rule.getThreshold().signum() < 0) {
+				throw new IllegalArgumentException("Incomplete condition of pricing rule " + rule.getRule());
+			}
+			if (!priorities.add(rule.getPriority())) {
+				throw new IllegalArgumentException("Duplicate priority " + rule.getPriority());
+			}
+			if (CALCULATE_ACTION.equalsIgnoreCase(rule.getRule().getAction())) {
+				if (rule.getCostBasis() == null || rule.getRate() == null || rule.getRate().signum() < 0) {
+					throw new IllegalArgumentException("Missing cost basis or rate of pricing rule " + rule.getRule());
+				}
+				calculating = true;
+			}
+		}
+		if (!calculating) {
+			throw new IllegalArgumentException("No calculating pricing rule");
+		}
+	}
+
+	private static String rejectMessage(PricingRule rule) {
+		String threshold = rule.getThreshold().stripTrailingZeros().toPlainString();
+		String limit = Metric.WEIGHT == rule.getMetric() ? "Weight exceeds " + threshold + "kg"
+				: "Volume exceeds " + threshold + "cm3";
+		return limit + ". Reject cost calculation for parcel";
+	}
+}
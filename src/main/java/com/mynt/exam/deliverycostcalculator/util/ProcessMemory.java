@@ -0,0 +1,42 @@
+package com.mynt.exam.deliverycostcalculator.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// Memory figures of the running process
+public class ProcessMemory {
+
+	private static final Path PROC_STATUS = Paths.get("/proc/self/status");
+	private static final String PEAK_RSS_KEY = "VmHWM:";
+
+	private ProcessMemory() {
+	}
+
+	/**
+	 * Get the peak resident set size of the process, read from /proc (Linux)
+	 * 
+	 * @return peak RSS in bytes, -1 if unavailable
+	 */
+	public static long peakRssBytes() {
+		if (!Files.isReadable(PROC_STATUS)) {
+			return -1;
+		}
+		try (BufferedReader reader = Files.newBufferedReader(PROC_STATUS, StandardCharsets.US_ASCII)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith(PEAK_RSS_KEY)) {
+					// Reported as "VmHWM:    123456 kB"
+					String kiloBytes = line.substring(PEAK_RSS_KEY.length()).replace("kB", "").trim();
+					return Long.parseLong(kiloBytes) * 1024;
+				}
+			}
+		} catch (IOException | NumberFormatException e) {
+			return -1;
+		}
+		return -1;
+	}
+}
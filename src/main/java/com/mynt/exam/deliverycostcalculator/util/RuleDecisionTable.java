@@ -0,0 +1,227 @@
+package com.mynt.exam.deliverycostcalculator.util;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Rule priorities compiled into a flat decision table
+// Conditions are held in arrays ordered by priority and evaluated in a single pass
+public final class RuleDecisionTable {
+
+	private static final String CALCULATE_ACTION = "CALCULATE";
+
+	// Thresholds of the default rules
+	public static final BigDecimal REJECT_WEIGHT_THRESHOLD = BigDecimal.valueOf(50);
+	public static final BigDecimal HEAVY_WEIGHT_THRESHOLD = BigDecimal.TEN;
+	public static final BigDecimal SMALL_VOLUME_THRESHOLD = BigDecimal.valueOf(1500);
+	public static final BigDecimal MEDIUM_VOLUME_THRESHOLD = BigDecimal.valueOf(2500);
+	public static final BigDecimal LARGE_VOLUME_THRESHOLD = BigDecimal.valueOf(2500);
+
+	// Scales of the fixed-point weight and volume accepted by resolveScaled
+	public static final int SCALED_WEIGHT_SCALE = 3;
+	public static final int SCALED_VOLUME_SCALE = 4;
+
+	// Rule ordinal of parcels no rule applies to, in column-wise resolution
+	public static final int NO_RULE = -1;
+
+	// Conditions of the default rules, ordered by priority
+	public static final List<Condition> DEFAULT_CONDITIONS = Collections
+			.unmodifiableList(defaultConditions(RulePriority.getRules().values()));
+
+	public static final RuleDecisionTable DEFAULT = new RuleDecisionTable(DEFAULT_CONDITIONS);
+
+	// Parcel property checked by a condition or used as cost basis
+	public enum Metric {
+		WEIGHT, VOLUME
+	}
+
+	// Comparison of the parcel property against the threshold. The mask holds the
+	// accepted compareTo results as bits (less = 1, equal = 2, greater = 4)
+	@Getter
+	@RequiredArgsConstructor
+	public enum Comparison {
+		LESS_THAN(1), AT_MOST(3), GREATER_THAN(4), AT_LEAST(6);
+
+		private final int mask;
+	}
+
+	// Condition under which a rule applies
+	@Getter
+	@RequiredArgsConstructor
+	public static class Condition {
+		private final RulePriority rule;
+		private final Metric metric;
+		private final Comparison comparison;
+		private final BigDecimal threshold;
+		// Property the cost is calculated from, null for rules that do not calculate
+		private final Metric costBasis;
+	}
+
+	private final RulePriority[] rules;
+	private final boolean[] onWeight;
+	private final int[] masks;
+	private final BigDecimal[] thresholds;
+	private final long[] scaledThresholds;
+	private final boolean[] calculates;
+	private final boolean[] costOnWeight;
+	private final RulePriority fallbackRule;
+	private final boolean scaledResolvable;
+
+	/**
+	 * Compile conditions into the decision table
+	 *
+	 * @param conditions rule conditions ordered by priority
+	 */
+	public RuleDecisionTable(List<Condition> conditions) {
+		int size = conditions.size();
+		rules = new RulePriority[size];
+		onWeight = new boolean[size];
+		masks = new int[size];
+		thresholds = new BigDecimal[size];
+		scaledThresholds = new long[size];
+		calculates = new boolean[size];
+		costOnWeight = new boolean[size];
+
+		RulePriority fallback = null;
+		boolean scaled = true;
+		for (int i = 0; i < size; i++) {
+			Condition condition = conditions.get(i);
+			rules[i] = condition.getRule();
+			onWeight[i] = condition.getMetric() == Metric.WEIGHT;
+			masks[i] = condition.getComparison().getMask();
+			thresholds[i] = condition.getThreshold();
+			try {
+				scaledThresholds[i] = condition.getThreshold()
+						.setScale(onWeight[i] ? SCALED_WEIGHT_SCALE : SCALED_VOLUME_SCALE).unscaledValue()
+						.longValueExact();
+			} catch (ArithmeticException e) {
+				// Threshold not exactly representable in fixed point
+				scaled = false;
+			}
+			calculates[i] = condition.getRule().getAction().equalsIgnoreCase(CALCULATE_ACTION);
+			costOnWeight[i] = condition.getCostBasis() == Metric.WEIGHT;
+			// Highest priority calculation is used if no condition yields a cost
+			if (fallback == null && calculates[i]) {
+				fallback = condition.getRule();
+			}
+		}
+		fallbackRule = fallback;
+		scaledResolvable = scaled;
+	}
+
+	/**
+	 * Resolve the rule applying to a parcel. A calculating rule only applies if
+	 * its cost basis is positive, as a zero cost is treated as no match
+	 *
+	 * @param weight parcel weight
+	 * @param volume parcel volume
+	 * @return matching rule, REJECT if parcel is rejected, null if no rule applies
+	 */
+	public RulePriority resolve(BigDecimal weight, BigDecimal volume) {
+		boolean weightPositive = weight.signum() > 0;
+		boolean volumePositive = volume.signum() > 0;
+		for (int i = 0; i < rules.length; i++) {
+			BigDecimal value = onWeight[i] ? weight : volume;
+			if ((masks[i] & (1 << (value.compareTo(thresholds[i]) + 1))) != 0
+					&& (!calculates[i] || (costOnWeight[i] ? weightPositive : volumePositive))) {
+				return rules[i];
+			}
+		}
+		return fallbackRule;
+	}
+
+	/**
+	 * Resolve the rule applying to a parcel measured in fixed point. Only
+	 * available if {@link #isScaledResolvable()}
+	 *
+	 * @param weight parcel weight scaled by 10^SCALED_WEIGHT_SCALE
+	 * @param volume parcel volume scaled by 10^SCALED_VOLUME_SCALE
+	 * @return matching rule, REJECT if parcel is rejected, null if no rule applies
+	 */
+	public RulePriority resolveScaled(long weight, long volume) {
+		boolean weightPositive = weight > 0;
+		boolean volumePositive = volume > 0;
+		for (int i = 0; i < rules.length; i++) {
+			long value = onWeight[i] ? weight : volume;
+			if ((masks[i] & (1 << (Long.compare(value, scaledThresholds[i]) + 1))) != 0
+					&& (!calculates[i] || (costOnWeight[i] ? weightPositive : volumePositive))) {
+				return rules[i];
+			}
+		}
+		return fallbackRule;
+	}
+
+	/**
+	 * Resolve the rules applying to parcels stored column-wise in fixed point.
+	 * Conditions are evaluated one at a time over all parcels, lowest priority
+	 * first, so a match overwrites the matches of lower priority conditions and
+	 * each pass is a loop without branches over the columns. Only available if
+	 * {@link #isScaledResolvable()}
+	 *
+	 * @param weights  parcel weights scaled by 10^SCALED_WEIGHT_SCALE
+	 * @param volumes  parcel volumes scaled by 10^SCALED_VOLUME_SCALE
+	 * @param size     number of parcels
+	 * @param resolved filled with the ordinal of the matching rule per parcel,
+	 *                 NO_RULE if no rule applies
+	 */
+	public void resolveScaled(long[] weights, long[] volumes, int size, int[] resolved) {
+		Arrays.fill(resolved, 0, size, fallbackRule != null ? fallbackRule.ordinal() : NO_RULE);
+		for (int i = rules.length - 1; i >= 0; i--) {
+			long[] values = onWeight[i] ? weights : volumes;
+			long[] costBases = costOnWeight[i] ? weights : volumes;
+			long threshold = scaledThresholds[i];
+			boolean matchesLess = (masks[i] & 1) != 0;
+			boolean matchesEqual = (masks[i] & 2) != 0;
+			boolean matchesGreater = (masks[i] & 4) != 0;
+			boolean calculating = calculates[i];
+			int rule = rules[i].ordinal();
+			for (int p = 0; p < size; p++) {
+				long value = values[p];
+				boolean matches = value < threshold ? matchesLess : value == threshold ? matchesEqual : matchesGreater;
+				resolved[p] = matches && (!calculating || costBases[p] > 0) ? rule : resolved[p];
+			}
+		}
+	}
+
+	// True if every threshold is exactly representable in fixed point
+	public boolean isScaledResolvable() {
+		return scaledResolvable;
+	}
+
+	private static List<Condition> defaultConditions(Collection<RulePriority> orderedRules) {
+		List<Condition> conditions = new ArrayList<>();
+		for (RulePriority rule : orderedRules) {
+			switch (rule) {
+			case REJECT:
+				conditions.add(new Condition(rule, Metric.WEIGHT, Comparison.GREATER_THAN, REJECT_WEIGHT_THRESHOLD,
+						null));
+				break;
+			case HEAVY_PARCEL:
+				conditions.add(new Condition(rule, Metric.WEIGHT, Comparison.GREATER_THAN, HEAVY_WEIGHT_THRESHOLD,
+						Metric.WEIGHT));
+				break;
+			case SMALL_PARCEL:
+				conditions.add(new Condition(rule, Metric.VOLUME, Comparison.LESS_THAN, SMALL_VOLUME_THRESHOLD,
+						Metric.VOLUME));
+				break;
+			case MEDIUM_PARCEL:
+				conditions.add(new Condition(rule, Metric.VOLUME, Comparison.LESS_THAN, MEDIUM_VOLUME_THRESHOLD,
+						Metric.VOLUME));
+				break;
+			case LARGE_PARCEL:
+				conditions.add(new Condition(rule, Metric.VOLUME, Comparison.AT_LEAST, LARGE_VOLUME_THRESHOLD,
+						Metric.VOLUME));
+				break;
+			default:
+				break;
+			}
+		}
+		return conditions;
+	}
+}
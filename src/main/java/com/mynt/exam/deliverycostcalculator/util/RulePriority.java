@@ -8,7 +8,8 @@ import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
 // Enum class for rules where priority is assigned
-// Can be moved to an Entity class for more flexibility
+// Conditions, priorities and rates are loaded from the pricing rule table
+// (PricingRule), the priorities here are those of the default rules
 @Getter
 @RequiredArgsConstructor
 public enum RulePriority {
@@ -0,0 +1,46 @@
+package com.mynt.exam.deliverycostcalculator;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+import com.mynt.exam.deliverycostcalculator.remoteservice.VoucherClient;
+import com.mynt.exam.deliverycostcalculator.remoteservice.WebClientVoucherClient;
+
+@ActiveProfiles("reactive")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+class ReactiveDeliveryCostCalculatorApplicationTests {
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Autowired
+	private VoucherClient voucherClient;
+
+	/**
+	 * Test the reactive profile serves the calculate endpoint on Netty with the
+	 * web client voucher transport
+	 */
+	@Test
+	void testCalculateDeliveryCost() {
+		assertTrue(voucherClient instanceof WebClientVoucherClient);
+
+		ParcelRequest request = ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.valueOf(20))
+				.height(BigDecimal.TEN).weight(BigDecimal.valueOf(8)).build();
+		// The web test client is bound to spring.webflux.base-path (/delivery)
+		webTestClient.post().uri("/calculate").contentType(MediaType.APPLICATION_JSON).bodyValue(request)
+				.exchange().expectStatus().isOk().expectBody()
+				.jsonPath("$.deliveryCost").isEqualTo(80.0)
+				.jsonPath("$.totalWeight").isEqualTo(8);
+	}
+
+}
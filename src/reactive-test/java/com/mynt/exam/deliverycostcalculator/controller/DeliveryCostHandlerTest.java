@@ -0,0 +1,182 @@
+package com.mynt.exam.deliverycostcalculator.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import javax.validation.Validation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.mynt.exam.deliverycostcalculator.config.IdempotencyProperties;
+import com.mynt.exam.deliverycostcalculator.exception.DeliveryCostCalculationException;
+import com.mynt.exam.deliverycostcalculator.model.BatchCalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+import com.mynt.exam.deliverycostcalculator.service.impl.IdempotencyStore;
+import com.mynt.exam.deliverycostcalculator.service.intf.DeliveryCostCalculatorService;
+
+class DeliveryCostHandlerTest {
+
+	private static final String ENDPOINT_URI = "/calculate";
+	private static final String BATCH_ENDPOINT_URI = "/calculate/batch";
+
+	private DeliveryCostCalculatorService deliveryCostCalculatorService;
+	private WebTestClient webTestClient;
+
+	@BeforeEach
+	void init() {
+		deliveryCostCalculatorService = mock(DeliveryCostCalculatorService.class);
+		DeliveryCostHandler handler = new DeliveryCostHandler(deliveryCostCalculatorService,
+				Validation.buildDefaultValidatorFactory().getValidator(),
+				new IdempotencyStore(new IdempotencyProperties()));
+		// Object mapper of the web application, which creates the Lombok builder
+		// classes through their all-args constructor
+		ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(new ParameterNamesModule()).build();
+		HandlerStrategies strategies = HandlerStrategies.builder().codecs(codecs -> {
+			codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(mapper));
+			codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(mapper));
+		}).build();
+		webTestClient = WebTestClient.bindToRouterFunction(new DeliveryCostRouter().deliveryCostRoutes(handler))
+				.handlerStrategies(strategies).build();
+	}
+
+	/**
+	 * Test calculate delivery cost route
+	 */
+	@Test
+	void testCalculateDeliveryCost() {
+		when(deliveryCostCalculatorService.calculateCostAsync(any()))
+				.thenReturn(CompletableFuture.completedFuture(CalculationResponse.builder().deliveryCost(BigDecimal.TEN)
+						.totalVolume(BigDecimal.valueOf(100)).totalWeight(BigDecimal.TEN).build()));
+
+		ParcelRequest request = ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.TEN)
+				.height(BigDecimal.TEN).weight(BigDecimal.ONE).build();
+		post(ENDPOINT_URI, request).expectStatus().isOk().expectBody()
+				.jsonPath("$.deliveryCost").isEqualTo(10)
+				.jsonPath("$.totalVolume").isEqualTo(100)
+				.jsonPath("$.totalWeight").isEqualTo(10);
+	}
+
+	/**
+	 * Test calculate delivery cost route retried with the same idempotency key
+	 * is answered with the first quote, and the key is refused for another parcel
+	 */
+	@Test
+	void testCalculateDeliveryCostIdempotencyKey() {
+		when(deliveryCostCalculatorService.calculateCostAsync(any()))
+				.thenReturn(CompletableFuture.completedFuture(CalculationResponse.builder().deliveryCost(BigDecimal.TEN)
+						.totalVolume(BigDecimal.valueOf(100)).totalWeight(BigDecimal.TEN).build()));
+
+		ParcelRequest request = ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.TEN)
+				.height(BigDecimal.TEN).weight(BigDecimal.ONE).build();
+		for (int i = 0; i < 2; i++) {
+			webTestClient.post().uri(ENDPOINT_URI).header("Idempotency-Key", "retry-1")
+					.contentType(MediaType.APPLICATION_JSON).bodyValue(request).exchange().expectStatus().isOk()
+					.expectBody().jsonPath("$.deliveryCost").isEqualTo(10);
+		}
+		verify(deliveryCostCalculatorService, times(1)).calculateCostAsync(any());
+
+		request.setWeight(BigDecimal.TEN);
+		webTestClient.post().uri(ENDPOINT_URI).header("Idempotency-Key", "retry-1")
+				.contentType(MediaType.APPLICATION_JSON).bodyValue(request).exchange().expectStatus()
+				.isEqualTo(422).expectBody().jsonPath("$.message")
+				.isEqualTo("Idempotency key was already used for another parcel");
+	}
+
+	/**
+	 * Test calculate delivery cost route - Weight exceeds 50kg
+	 */
+	@Test
+	void testCalculateDeliveryCostRejected() {
+		when(deliveryCostCalculatorService.calculateCostAsync(any())).thenReturn(CompletableFuture.failedFuture(
+				new DeliveryCostCalculationException("Weight exceeds 50kg. Reject cost calculation for parcel")));
+
+		ParcelRequest request = ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.TEN)
+				.height(BigDecimal.TEN).weight(BigDecimal.valueOf(100)).build();
+		post(ENDPOINT_URI, request).expectStatus().isForbidden().expectBody()
+				.jsonPath("$.message").isEqualTo("Weight exceeds 50kg. Reject cost calculation for parcel");
+	}
+
+	/**
+	 * Test calculate delivery cost route - Invalid length (0cm)
+	 */
+	@Test
+	void testCalculateDeliveryCostInvalidLength() {
+		ParcelRequest request = ParcelRequest.builder().length(BigDecimal.ZERO).width(BigDecimal.TEN)
+				.height(BigDecimal.TEN).weight(BigDecimal.ONE).build();
+		post(ENDPOINT_URI, request).expectStatus().isBadRequest().expectBody()
+				.jsonPath("$.message").isEqualTo("Length cannot be less than 1cm");
+	}
+
+	/**
+	 * Test calculate delivery cost route - Missing body
+	 */
+	@Test
+	void testCalculateDeliveryCostMissingBody() {
+		webTestClient.post().uri(ENDPOINT_URI).contentType(MediaType.APPLICATION_JSON).exchange().expectStatus()
+				.isBadRequest();
+	}
+
+	/**
+	 * Test calculate batch delivery cost route
+	 */
+	@Test
+	void testCalculateBatchDeliveryCost() {
+		when(deliveryCostCalculatorService.calculateCostBatch(any())).thenReturn(Arrays.asList(
+				BatchCalculationResponse.builder().status(200).result(CalculationResponse.builder()
+						.deliveryCost(BigDecimal.TEN).totalVolume(BigDecimal.valueOf(100)).totalWeight(BigDecimal.TEN)
+						.build()).build(),
+				BatchCalculationResponse.builder().status(403)
+						.message("Weight exceeds 50kg. Reject cost calculation for parcel").build()));
+
+		List<ParcelRequest> requests = Arrays.asList(
+				ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.TEN).height(BigDecimal.TEN)
+						.weight(BigDecimal.ONE).build(),
+				ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.TEN).height(BigDecimal.TEN)
+						.weight(BigDecimal.valueOf(100)).build());
+		post(BATCH_ENDPOINT_URI, requests).expectStatus().isOk().expectBody()
+				.jsonPath("$[0].status").isEqualTo(200)
+				.jsonPath("$[0].result.deliveryCost").isEqualTo(10)
+				.jsonPath("$[1].status").isEqualTo(403)
+				.jsonPath("$[1].message").isEqualTo("Weight exceeds 50kg. Reject cost calculation for parcel");
+	}
+
+	/**
+	 * Test calculate batch delivery cost route - Batch exceeds maximum size
+	 */
+	@Test
+	void testCalculateBatchDeliveryCostRejected() {
+		when(deliveryCostCalculatorService.calculateCostBatch(any()))
+				.thenThrow(new DeliveryCostCalculationException("Batch exceeds 1 parcels. Reject cost calculation for batch"));
+
+		List<ParcelRequest> requests = Arrays.asList(
+				ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.TEN).height(BigDecimal.TEN)
+						.weight(BigDecimal.ONE).build(),
+				ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.TEN).height(BigDecimal.TEN)
+						.weight(BigDecimal.ONE).build());
+		post(BATCH_ENDPOINT_URI, requests).expectStatus().isForbidden().expectBody()
+				.jsonPath("$.message").isEqualTo("Batch exceeds 1 parcels. Reject cost calculation for batch");
+	}
+
+	private WebTestClient.ResponseSpec post(String uri, Object body) {
+		return webTestClient.post().uri(uri).contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON).bodyValue(body).exchange();
+	}
+}
@@ -0,0 +1,117 @@
+package com.mynt.exam.deliverycostcalculator.remoteservice;
+
+import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.API_KEY_REQUEST_PARAM;
+import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.PROMO_CODE_REQUEST_PARAM;
+import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.VOUCHER_RESPONSE_CODE;
+import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.VOUCHER_RESPONSE_DISCOUNT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.mynt.exam.deliverycostcalculator.config.VoucherClientProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+class WebClientVoucherClientTest {
+
+	private HttpServer voucherServer;
+	private WebClientVoucherClient voucherClient;
+
+	@BeforeEach
+	void init() throws IOException {
+		// Stub voucher service: MYNT is valid, BROKEN fails, others are invalid
+		voucherServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		voucherServer.createContext("/voucher/", exchange -> {
+			String promoCode = exchange.getRequestURI().getPath().substring("/voucher/".length());
+			if ("MYNT".equals(promoCode) && exchange.getRequestURI().getQuery().equals("key=apikey")) {
+				respond(exchange, HttpStatus.OK, "{\"code\":\"MYNT\",\"discount\":12.25,\"expiry\":\"2050-08-18\"}");
+			} else if ("BROKEN".equals(promoCode)) {
+				respond(exchange, HttpStatus.INTERNAL_SERVER_ERROR, "{\"error\":\"broken\"}");
+			} else {
+				respond(exchange, HttpStatus.BAD_REQUEST, "{\"error\":\"invalid\"}");
+			}
+		});
+		voucherServer.start();
+
+		VoucherClientProperties properties = new VoucherClientProperties();
+		properties.setUrl("http://localhost:" + voucherServer.getAddress().getPort() + "/voucher/{promocode}?key={key}");
+		voucherClient = new WebClientVoucherClient(WebClient.builder(), properties);
+	}
+
+	@AfterEach
+	void tearDown() {
+		voucherClient.close();
+		voucherServer.stop(0);
+	}
+
+	/**
+	 * Test valid promo code response body is returned
+	 */
+	@Test
+	void testFetchVoucherValid() {
+		ResponseEntity<Map<String, Object>> response = voucherClient.fetchVoucher(uriVariables("MYNT")).join();
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals("MYNT", response.getBody().get(VOUCHER_RESPONSE_CODE));
+		assertEquals(12.25d, response.getBody().get(VOUCHER_RESPONSE_DISCOUNT));
+	}
+
+	/**
+	 * Test invalid promo code (400) completes with its status
+	 */
+	@Test
+	void testFetchVoucherInvalid() {
+		ResponseEntity<Map<String, Object>> response = voucherClient.fetchVoucher(uriVariables("UNKNOWN")).join();
+		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+		assertNull(response.getBody());
+	}
+
+	/**
+	 * Test server error (500) completes with its status
+	 */
+	@Test
+	void testFetchVoucherServerError() {
+		ResponseEntity<Map<String, Object>> response = voucherClient.fetchVoucher(uriVariables("BROKEN")).join();
+		assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+		assertNull(response.getBody());
+	}
+
+	/**
+	 * Test connection failure completes exceptionally
+	 */
+	@Test
+	void testFetchVoucherConnectionFailure() {
+		voucherServer.stop(0);
+		assertThrows(CompletionException.class, () -> voucherClient.fetchVoucher(uriVariables("MYNT")).join());
+	}
+
+	private Map<String, String> uriVariables(String promoCode) {
+		Map<String, String> uriVariables = new HashMap<>();
+		uriVariables.put(PROMO_CODE_REQUEST_PARAM, promoCode);
+		uriVariables.put(API_KEY_REQUEST_PARAM, "apikey");
+		return uriVariables;
+	}
+
+	private static void respond(HttpExchange exchange, HttpStatus status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status.value(), bytes.length);
+		try (OutputStream responseBody = exchange.getResponseBody()) {
+			responseBody.write(bytes);
+		}
+	}
+}
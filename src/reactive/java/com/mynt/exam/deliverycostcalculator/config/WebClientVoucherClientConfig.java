@@ -0,0 +1,22 @@
+package com.mynt.exam.deliverycostcalculator.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.mynt.exam.deliverycostcalculator.remoteservice.VoucherClient;
+import com.mynt.exam.deliverycostcalculator.remoteservice.WebClientVoucherClient;
+
+// Web client transport of voucher service calls, selected by
+// voucher.client.transport=web-client. Only built with the reactive Maven profile
+@Configuration
+@ConditionalOnProperty(prefix = "voucher.client", name = "transport", havingValue = "web-client")
+public class WebClientVoucherClientConfig {
+
+	// Calls the voucher service without blocking a thread
+	@Bean
+	public VoucherClient voucherClient(VoucherClientProperties properties, WebClient.Builder webClientBuilder) {
+		return new WebClientVoucherClient(webClientBuilder, properties);
+	}
+}
@@ -0,0 +1,118 @@
+package com.mynt.exam.deliverycostcalculator.controller;
+
+import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.IDEMPOTENCY_KEY_HEADER;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+
+import com.mynt.exam.deliverycostcalculator.exception.DeliveryCostCalculationException;
+import com.mynt.exam.deliverycostcalculator.exception.IdempotencyKeyReuseException;
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+import com.mynt.exam.deliverycostcalculator.model.ShipmentRequest;
+import com.mynt.exam.deliverycostcalculator.service.impl.IdempotencyStore;
+import com.mynt.exam.deliverycostcalculator.service.intf.DeliveryCostCalculatorService;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Reactive handler for Delivery Cost calculator. Answers like
+ * DeliveryCostController and DeliveryCostExceptionHandler do on Spring MVC
+ */
+@Component
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+@RequiredArgsConstructor
+public class DeliveryCostHandler {
+
+	private static final String ERROR_MESSAGE_KEY = "message";
+
+	private final DeliveryCostCalculatorService costCalculatorService;
+	private final Validator validator;
+	private final IdempotencyStore idempotencyStore;
+
+	/**
+	 * Calculate delivery cost. The event loop is not blocked while the voucher
+	 * lookup is in flight. Retries sent with the idempotency key of an earlier
+	 * request are answered with its quote
+	 * 
+	 * @param request parcel dimensions and promo code (if any)
+	 * @return total calculation for delivery of parcel
+	 */
+	public Mono<ServerResponse> calculateDeliveryCost(ServerRequest request) {
+		return request.bodyToMono(ParcelRequest.class)
+				.switchIfEmpty(Mono.error(() -> new ServerWebInputException("Parcel request is required")))
+				.flatMap(parcelRequest -> {
+					Set<ConstraintViolation<ParcelRequest>> violations = validator.validate(parcelRequest);
+					if (!violations.isEmpty()) {
+						return errorResponse(HttpStatus.BAD_REQUEST, violations.iterator().next().getMessage());
+					}
+					String idempotencyKey = request.headers().firstHeader(IDEMPOTENCY_KEY_HEADER);
+					return Mono.fromFuture(idempotencyStore.calculate(idempotencyKey, parcelRequest,
+							costCalculatorService::calculateCostAsync))
+							.flatMap(response -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+									.bodyValue(response));
+				})
+				.onErrorResume(DeliveryCostCalculationException.class,
+						e -> errorResponse(HttpStatus.FORBIDDEN, e.getMessage()))
+				.onErrorResume(IdempotencyKeyReuseException.class,
+						e -> errorResponse(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage()));
+	}
+
+	/**
+	 * Calculate delivery cost of several parcels in one call. Batch pricing waits
+	 * on voucher lookups, so it runs off the event loop
+	 * 
+	 * @param request parcel dimensions and promo code (if any) per parcel
+	 * @return calculation or rejection per parcel, in request order
+	 */
+	public Mono<ServerResponse> calculateBatchDeliveryCost(ServerRequest request) {
+		return request.bodyToFlux(ParcelRequest.class).collectList().publishOn(Schedulers.boundedElastic())
+				.map(costCalculatorService::calculateCostBatch)
+				.flatMap(responses -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(responses))
+				.onErrorResume(DeliveryCostCalculationException.class,
+						e -> errorResponse(HttpStatus.FORBIDDEN, e.getMessage()));
+	}
+
+	/**
+	 * Calculate delivery cost of the parcels of a shipment under one promo code.
+	 * The event loop is not blocked while the voucher lookup is in flight
+	 * 
+	 * @param request shipment parcels and promo code (if any)
+	 * @return calculation per parcel and in total
+	 */
+	public Mono<ServerResponse> calculateShipmentDeliveryCost(ServerRequest request) {
+		return request.bodyToMono(ShipmentRequest.class)
+				.switchIfEmpty(Mono.error(() -> new ServerWebInputException("Shipment request is required")))
+				.flatMap(shipmentRequest -> {
+					Set<ConstraintViolation<ShipmentRequest>> violations = validator.validate(shipmentRequest);
+					if (!violations.isEmpty()) {
+						return errorResponse(HttpStatus.BAD_REQUEST, violations.iterator().next().getMessage());
+					}
+					return Mono.fromFuture(costCalculatorService.calculateShipmentCostAsync(shipmentRequest))
+							.flatMap(response -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+									.bodyValue(response));
+				})
+				.onErrorResume(DeliveryCostCalculationException.class,
+						e -> errorResponse(HttpStatus.FORBIDDEN, e.getMessage()));
+	}
+
+	// Method to map error body returned in response
+	private Mono<ServerResponse> errorResponse(HttpStatus status, String message) {
+		Map<String, String> body = Collections.singletonMap(ERROR_MESSAGE_KEY, message);
+		return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).bodyValue(body);
+	}
+}
@@ -0,0 +1,33 @@
+package com.mynt.exam.deliverycostcalculator.controller;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.contentType;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * Routes of the Delivery Cost calculator when served as a reactive web
+ * application (spring.main.web-application-type=reactive)
+ */
+@Configuration
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class DeliveryCostRouter {
+
+	@Bean
+	public RouterFunction<ServerResponse> deliveryCostRoutes(DeliveryCostHandler deliveryCostHandler) {
+		return RouterFunctions.route()
+				.POST("/calculate", contentType(MediaType.APPLICATION_JSON),
+						deliveryCostHandler::calculateDeliveryCost)
+				.POST("/calculate/batch", contentType(MediaType.APPLICATION_JSON),
+						deliveryCostHandler::calculateBatchDeliveryCost)
+				.POST("/calculate/shipment", contentType(MediaType.APPLICATION_JSON),
+						deliveryCostHandler::calculateShipmentDeliveryCost)
+				.build();
+	}
+}
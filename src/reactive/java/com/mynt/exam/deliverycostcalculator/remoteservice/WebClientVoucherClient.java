@@ -0,0 +1,66 @@
+package com.mynt.exam.deliverycostcalculator.remoteservice;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.mynt.exam.deliverycostcalculator.config.VoucherClientProperties;
+
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Voucher service transport on a non-blocking web client. No thread waits on
+ * the call, concurrent calls are bounded by the connection pool instead of the
+ * voucher executor
+ */
+public class WebClientVoucherClient implements VoucherClient {
+
+	private static final ParameterizedTypeReference<Map<String, Object>> VOUCHER_RESPONSE_TYPE =
+			new ParameterizedTypeReference<Map<String, Object>>() {
+			};
+
+	private final ConnectionProvider connectionProvider;
+	private final WebClient voucherWebClient;
+	private final VoucherClientProperties voucherClientProperties;
+
+	public WebClientVoucherClient(WebClient.Builder webClientBuilder, VoucherClientProperties voucherClientProperties) {
+		this.voucherClientProperties = voucherClientProperties;
+		// The pool is kept per host, like the per route limit of the rest template
+		connectionProvider = ConnectionProvider.builder("voucher")
+				.maxConnections(voucherClientProperties.getMaxConnectionsPerRoute())
+				.pendingAcquireTimeout(voucherClientProperties.getConnectionRequestTimeout())
+				.maxIdleTime(voucherClientProperties.getIdleTimeout())
+				.evictInBackground(voucherClientProperties.getIdleTimeout()).build();
+		HttpClient httpClient = HttpClient.create(connectionProvider)
+				.option(ChannelOption.CONNECT_TIMEOUT_MILLIS,
+						(int) voucherClientProperties.getConnectTimeout().toMillis())
+				.responseTimeout(voucherClientProperties.getReadTimeout());
+		voucherWebClient = webClientBuilder.clone().clientConnector(new ReactorClientHttpConnector(httpClient))
+				.build();
+	}
+
+	@Override
+	public CompletableFuture<ResponseEntity<Map<String, Object>>> fetchVoucher(Map<String, String> uriVariables) {
+		return voucherWebClient.get().uri(voucherClientProperties.getUrl(), uriVariables)
+				.exchangeToMono(response -> {
+					if (HttpStatus.OK.value() == response.rawStatusCode()) {
+						return response.toEntity(VOUCHER_RESPONSE_TYPE);
+					}
+					// Error statuses are answers of the voucher service, not transport failures
+					return response.releaseBody()
+							.thenReturn(ResponseEntity.<Map<String, Object>>status(response.rawStatusCode()).build());
+				}).toFuture();
+	}
+
+	// Closes the pooled connections on shutdown
+	public void close() {
+		connectionProvider.dispose();
+	}
+}
@@ -1,13 +1,47 @@
 package com.mynt.exam.deliverycostcalculator;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.mynt.exam.deliverycostcalculator.config.VoucherClientProperties;
+import com.mynt.exam.deliverycostcalculator.endpoint.VoucherClientEndpoint;
 
 @SpringBootTest
 class DeliveryCostCalculatorApplicationTests {
 
+	@Autowired
+	private ApplicationContext applicationContext;
+
+	@Autowired
+	private VoucherClientEndpoint voucherClientEndpoint;
+
+	@Autowired
+	private VoucherClientProperties voucherClientProperties;
+
 	@Test
 	void contextLoads() {
 	}
 
+	/**
+	 * Test Boot's application executor is kept next to the voucher executor and
+	 * batch pricing pool
+	 */
+	@Test
+	void testApplicationTaskExecutorKept() {
+		ThreadPoolTaskExecutor applicationTaskExecutor = applicationContext.getBean(
+				TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, ThreadPoolTaskExecutor.class);
+		assertEquals("task-", applicationTaskExecutor.getThreadNamePrefix());
+
+		Map<?, ?> executor = (Map<?, ?>) voucherClientEndpoint.voucherClientState().get("executor");
+		assertEquals(voucherClientProperties.getExecutorThreads(), executor.get("maxThreads"));
+	}
+
 }
@@ -0,0 +1,129 @@
+package com.mynt.exam.deliverycostcalculator;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.mynt.exam.deliverycostcalculator.remoteservice.VoucherStubServer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Load test of /delivery/calculate against a local voucher service stand-in,
+ * so it runs without network. Requests arrive at a fixed rate (open model) and
+ * throughput and latency percentiles are reported. Only run with the load
+ * profile: mvn -P load test
+ * <p>
+ * Tuned with system properties: load.rate (requests per second),
+ * load.duration, load.warmup, load.voucher-latency, load.voucher-error-rate
+ * and load.max-p99. Application properties can be overridden the same way,
+ * e.g. -Dvoucher.cache.enabled=false
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+class DeliveryCostCalculatorLoadTest {
+
+	private static final int RATE = Integer.getInteger("load.rate", 100);
+	private static final Duration DURATION = duration("load.duration", "20s");
+	private static final Duration WARMUP = duration("load.warmup", "10s");
+	private static final Duration VOUCHER_LATENCY = duration("load.voucher-latency", "50ms");
+	private static final double VOUCHER_ERROR_RATE = Double
+			.parseDouble(System.getProperty("load.voucher-error-rate", "0.01"));
+	private static final Duration MAX_P99 = duration("load.max-p99", "1s");
+
+	private static final Path REPORT = Paths.get("target", "load-test-report.txt");
+
+	// Parcels of each rule, with valid, invalid and no promo codes
+	private static final String[] PARCELS = {
+			"{\"length\":10,\"width\":20,\"height\":10,\"weight\":8,\"promoCode\":\"MYNT\"}",
+			"{\"length\":30,\"width\":20,\"height\":2,\"weight\":3}",
+			"{\"length\":1,\"width\":1,\"height\":1,\"weight\":15,\"promoCode\":\"GFI\"}",
+			"{\"length\":20,\"width\":20,\"height\":10,\"weight\":5,\"promoCode\":\"UNKNOWN\"}",
+			"{\"length\":10,\"width\":10,\"height\":10,\"weight\":60}" };
+
+	private static final VoucherStubServer VOUCHER_SERVER = startVoucherServer();
+
+	@LocalServerPort
+	private int port;
+
+	@DynamicPropertySource
+	static void voucherServerProperties(DynamicPropertyRegistry registry) {
+		registry.add("voucher.client.url", VOUCHER_SERVER::getVoucherUrl);
+	}
+
+	@AfterAll
+	static void stopVoucherServer() {
+		VOUCHER_SERVER.close();
+	}
+
+	/**
+	 * Test calculate endpoint sustains the arrival rate within the p99 budget
+	 */
+	@Test
+	void testCalculateUnderLoad() throws IOException {
+		URI uri = URI.create("http://localhost:" + port + "/delivery/calculate");
+		ExecutorService httpExecutor = Executors.newFixedThreadPool(4);
+		OpenLoadGenerator.Result result;
+		try {
+			HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+					.executor(httpExecutor).build();
+			result = new OpenLoadGenerator(httpClient, RATE).run(
+					i -> HttpRequest.newBuilder(uri).header("Content-Type", "application/json")
+							.timeout(Duration.ofSeconds(10))
+							.POST(HttpRequest.BodyPublishers.ofString(PARCELS[(int) (i % PARCELS.length)])).build(),
+					WARMUP, DURATION, Duration.ofSeconds(15));
+		} finally {
+			httpExecutor.shutdownNow();
+		}
+
+		String report = String.format("Load test: %d req/s for %s after %s warmup, voucher latency %s, "
+				+ "voucher error rate %.3f, %d voucher lookups%n%s%n", RATE, DURATION, WARMUP, VOUCHER_LATENCY,
+				VOUCHER_ERROR_RATE, VOUCHER_SERVER.getLookups(), result.format());
+		log.info(report);
+		Files.createDirectories(REPORT.getParent());
+		Files.write(REPORT, report.getBytes(StandardCharsets.UTF_8));
+
+		assertTrue(result.getFailed() <= result.getSent() / 100, "Failed requests: " + result.getFailed());
+		assertTrue(result.getThroughput() >= RATE * 0.95, "Throughput below arrival rate");
+		assertTrue(result.getLatencyMillis(99) <= MAX_P99.toMillis(), "p99 above " + MAX_P99);
+	}
+
+	private static VoucherStubServer startVoucherServer() {
+		try {
+			VoucherStubServer voucherServer = new VoucherStubServer();
+			voucherServer.putVoucher("MYNT", 12.25, "2050-08-18");
+			voucherServer.putVoucher("GFI", 7.5, "2050-08-24");
+			voucherServer.setLatencyMillis(VOUCHER_LATENCY.toMillis());
+			voucherServer.setErrorRate(VOUCHER_ERROR_RATE);
+			return voucherServer;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static Duration duration(String property, String defaultValue) {
+		return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+	}
+}
@@ -0,0 +1,66 @@
+package com.mynt.exam.deliverycostcalculator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+import com.mynt.exam.deliverycostcalculator.service.intf.PricingRuleService;
+
+import springfox.documentation.spring.web.plugins.Docket;
+
+@ActiveProfiles("fast")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+class FastDeliveryCostCalculatorApplicationTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private ConfigurableApplicationContext context;
+
+	/**
+	 * Test the fast profile leaves Swagger out and creates beans lazily, except
+	 * those loading state at startup
+	 */
+	@Test
+	void testLazyInitialization() {
+		assertEquals(0, context.getBeanNamesForType(Docket.class).length);
+
+		ConfigurableListableBeanFactory beanFactory = context.getBeanFactory();
+		String[] pricingRuleServices = beanFactory.getBeanNamesForType(PricingRuleService.class);
+		assertEquals(1, pricingRuleServices.length);
+		assertFalse(beanFactory.getBeanDefinition(pricingRuleServices[0]).isLazyInit());
+		assertTrue(((AbstractBeanDefinition) beanFactory.getBeanDefinition("voucherCacheEndpoint")).getLazyInit());
+	}
+
+	/**
+	 * Test the fast profile serves the calculate endpoint
+	 */
+	@Test
+	void testCalculateDeliveryCost() {
+		ParcelRequest request = ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.valueOf(20))
+				.height(BigDecimal.TEN).weight(BigDecimal.valueOf(8)).build();
+		ResponseEntity<CalculationResponse> response = restTemplate.postForEntity("/calculate", request,
+				CalculationResponse.class);
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals(new BigDecimal("80.00"), response.getBody().getDeliveryCost());
+		assertEquals(new BigDecimal("8.00"), response.getBody().getTotalWeight());
+	}
+
+}
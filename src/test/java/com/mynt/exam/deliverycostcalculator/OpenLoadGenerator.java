@@ -0,0 +1,134 @@
+package com.mynt.exam.deliverycostcalculator;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Open model load generator: requests are sent at a fixed arrival rate
+ * regardless of how many are still in flight, the way independent clients
+ * arrive. Latency is measured from the time a request was scheduled to be
+ * sent, so a stalled server is not hidden by requests sent late (coordinated
+ * omission)
+ */
+class OpenLoadGenerator {
+
+	private final HttpClient httpClient;
+	private final int ratePerSecond;
+
+	OpenLoadGenerator(HttpClient httpClient, int ratePerSecond) {
+		this.httpClient = httpClient;
+		this.ratePerSecond = ratePerSecond;
+	}
+
+	/**
+	 * Send requests at the arrival rate, first for the warmup and then for the
+	 * measured duration. Only requests scheduled within the measured duration
+	 * are recorded
+	 *
+	 * @param requests request to send, per request number
+	 * @param warmup   time sent before measuring
+	 * @param duration time measured
+	 * @param drain    time allowed for the last responses
+	 * @return latencies and outcomes of the measured requests
+	 */
+	Result run(LongFunction<HttpRequest> requests, Duration warmup, Duration duration, Duration drain) {
+		long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+		long warmupRequests = warmup.toNanos() / intervalNanos;
+		long measuredRequests = duration.toNanos() / intervalNanos;
+		Result result = new Result(measuredRequests, duration);
+		ConcurrentLinkedQueue<CompletableFuture<?>> pending = new ConcurrentLinkedQueue<>();
+
+		long startNanos = System.nanoTime();
+		for (long i = 0; i < warmupRequests + measuredRequests; i++) {
+			long scheduledNanos = startNanos + i * intervalNanos;
+			long waitNanos;
+			while ((waitNanos = scheduledNanos - System.nanoTime()) > 0) {
+				LockSupport.parkNanos(waitNanos);
+			}
+			boolean measured = i >= warmupRequests;
+			CompletableFuture<HttpResponse<Void>> response = httpClient.sendAsync(requests.apply(i),
+					HttpResponse.BodyHandlers.discarding());
+			if (measured) {
+				pending.add(response.whenComplete((r, e) -> result.record(scheduledNanos, r, e)));
+			}
+			pending.removeIf(CompletableFuture::isDone);
+		}
+
+		try {
+			CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).get(drain.toMillis(),
+					TimeUnit.MILLISECONDS);
+		} catch (Exception e) {
+			// Responses still missing are counted as timed out
+		}
+		return result;
+	}
+
+	// Outcome of a load run
+	static class Result {
+
+		private final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+		private final long sent;
+		private final Duration duration;
+		private final LongAdder succeeded = new LongAdder();
+		private final LongAdder rejected = new LongAdder();
+		private final LongAdder failed = new LongAdder();
+
+		Result(long sent, Duration duration) {
+			this.sent = sent;
+			this.duration = duration;
+		}
+
+		private void record(long scheduledNanos, HttpResponse<?> response, Throwable error) {
+			long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledNanos);
+			latencies.recordValue(Math.min(micros, latencies.getHighestTrackableValue()));
+			if (error != null || response.statusCode() >= 500) {
+				failed.increment();
+			} else if (response.statusCode() >= 400) {
+				rejected.increment();
+			} else {
+				succeeded.increment();
+			}
+		}
+
+		long getSent() {
+			return sent;
+		}
+
+		long getCompleted() {
+			return succeeded.sum() + rejected.sum() + failed.sum();
+		}
+
+		// Requests failed or never answered
+		long getFailed() {
+			return sent - succeeded.sum() - rejected.sum();
+		}
+
+		double getThroughput() {
+			return getCompleted() / (duration.toNanos() / 1e9);
+		}
+
+		// Latency at a percentile, in milliseconds
+		double getLatencyMillis(double percentile) {
+			return latencies.getValueAtPercentile(percentile) / 1000.0;
+		}
+
+		String format() {
+			return String.format(
+					"sent %d, succeeded %d, rejected %d, failed %d, throughput %.1f req/s%n"
+							+ "latency p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms",
+					sent, succeeded.sum(), rejected.sum(), getFailed(), getThroughput(), getLatencyMillis(50),
+					getLatencyMillis(99), getLatencyMillis(99.9), latencies.getMaxValue() / 1000.0);
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package com.mynt.exam.deliverycostcalculator.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.mynt.exam.deliverycostcalculator.config.AdmissionControlProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AdaptiveConcurrencyLimiterTest {
+
+	private static final long MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final AdmissionControlProperties properties = new AdmissionControlProperties();
+
+	/**
+	 * Test requests over the limit are refused until one is released
+	 */
+	@Test
+	void testLimitEnforced() {
+		properties.setInitialLimit(2);
+		properties.setMinLimit(1);
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, new SimpleMeterRegistry());
+		assertTrue(limiter.tryAcquire());
+		assertTrue(limiter.tryAcquire());
+		assertFalse(limiter.tryAcquire());
+		assertEquals(1, limiter.getRejected());
+
+		limiter.release(MILLISECOND);
+		assertEquals(1, limiter.getInFlight());
+		assertTrue(limiter.tryAcquire());
+	}
+
+	/**
+	 * Test the limit grows while used at steady latency, up to the maximum
+	 */
+	@Test
+	void testLimitGrowsAtSteadyLatency() {
+		properties.setInitialLimit(20);
+		properties.setMaxLimit(25);
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, new SimpleMeterRegistry());
+		for (int i = 0; i < 100; i++) {
+			while (limiter.getInFlight() < limiter.getLimit() / 2) {
+				limiter.tryAcquire();
+			}
+			limiter.tryAcquire();
+			limiter.release(MILLISECOND);
+		}
+		assertEquals(25, limiter.getLimit());
+	}
+
+	/**
+	 * Test the limit shrinks when latency rises, not below the minimum
+	 */
+	@Test
+	void testLimitShrinksWhenLatencyRises() throws InterruptedException {
+		properties.setInitialLimit(100);
+		properties.setMinLimit(80);
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, new SimpleMeterRegistry());
+		for (int i = 0; i < 200; i++) {
+			limiter.tryAcquire();
+			limiter.release(MILLISECOND);
+		}
+		assertEquals(100, limiter.getLimit());
+
+		for (int i = 0; i < 50; i++) {
+			limiter.tryAcquire();
+			limiter.release(10 * MILLISECOND);
+			Thread.sleep(1);
+		}
+		assertTrue(limiter.getLimit() < 100, "limit " + limiter.getLimit());
+		assertTrue(limiter.getLimit() >= 80, "limit " + limiter.getLimit());
+		assertTrue(limiter.getShortLatencyNanos() > limiter.getLongLatencyNanos());
+	}
+}
@@ -0,0 +1,144 @@
+package com.mynt.exam.deliverycostcalculator.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.mynt.exam.deliverycostcalculator.config.AdmissionControlProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AdmissionControlFilterTest {
+
+	private final AdmissionControlProperties properties = new AdmissionControlProperties();
+	private final AtomicInteger calculations = new AtomicInteger();
+	private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+	@BeforeEach
+	void setUp() {
+		properties.setEnabled(true);
+		properties.setClientRate(1);
+		properties.setClientBurst(2);
+		properties.setClientRates(Collections.singletonMap("partner", 2.0));
+		properties.setInitialLimit(3);
+		properties.setMinLimit(1);
+	}
+
+	/**
+	 * Test a client over its burst is refused with 429 and Retry-After, without
+	 * affecting other clients
+	 */
+	@Test
+	void testClientRateLimited() throws Exception {
+		AdmissionControlFilter filter = createFilter();
+		assertEquals(200, calculate(filter, "client-1").getStatus());
+		assertEquals(200, calculate(filter, "client-1").getStatus());
+
+		MockHttpServletResponse response = calculate(filter, "client-1");
+		assertEquals(429, response.getStatus());
+		assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+		assertEquals("{\"message\":\"Request rate limit exceeded for client\"}", response.getContentAsString());
+		assertEquals(2, calculations.get());
+
+		assertEquals(200, calculate(filter, "client-2").getStatus());
+		// Configured client has a burst scaled by its rate
+		for (int i = 0; i < 4; i++) {
+			assertEquals(200, calculate(filter, "partner").getStatus());
+		}
+		assertEquals(429, calculate(filter, "partner").getStatus());
+	}
+
+	/**
+	 * Test requests without the client header are limited by address
+	 */
+	@Test
+	void testClientByAddress() throws Exception {
+		AdmissionControlFilter filter = createFilter();
+		calculate(filter, null);
+		calculate(filter, null);
+		assertEquals(429, calculate(filter, null).getStatus());
+		assertEquals(200, calculate(filter, "client-1").getStatus());
+	}
+
+	/**
+	 * Test requests over the concurrency limit are refused until an
+	 * asynchronously served request completes
+	 */
+	@Test
+	void testConcurrencyLimited() throws Exception {
+		properties.setClientRate(0);
+		AdmissionControlFilter filter = createFilter();
+		MockHttpServletRequest[] requests = new MockHttpServletRequest[3];
+		for (int i = 0; i < requests.length; i++) {
+			requests[i] = request("client-1");
+			filter.doFilter(requests[i], new MockHttpServletResponse(), (req, res) -> req.startAsync());
+		}
+		assertEquals(3, concurrencyLimiter.getInFlight());
+
+		MockHttpServletResponse response = calculate(filter, "client-2");
+		assertEquals(429, response.getStatus());
+		assertEquals("{\"message\":\"Too many requests in flight, retry later\"}", response.getContentAsString());
+
+		((MockAsyncContext) requests[0].getAsyncContext()).complete();
+		assertEquals(2, concurrencyLimiter.getInFlight());
+		assertEquals(200, calculate(filter, "client-2").getStatus());
+		assertEquals(2, concurrencyLimiter.getInFlight());
+	}
+
+	/**
+	 * Test nothing is limited while admission control is disabled
+	 */
+	@Test
+	void testDisabled() throws Exception {
+		properties.setEnabled(false);
+		AdmissionControlFilter filter = createFilter();
+		for (int i = 0; i < 10; i++) {
+			MockHttpServletResponse response = calculate(filter, "client-1");
+			assertEquals(200, response.getStatus());
+			assertNull(response.getHeader(HttpHeaders.RETRY_AFTER));
+		}
+	}
+
+	private AdmissionControlFilter createFilter() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		concurrencyLimiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+		return new AdmissionControlFilter(properties, new ClientRateLimiter(properties, meterRegistry),
+				concurrencyLimiter);
+	}
+
+	private MockHttpServletResponse calculate(AdmissionControlFilter filter, String client)
+			throws ServletException, IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request(client), response, new MockFilterChain() {
+			@Override
+			public void doFilter(ServletRequest request, ServletResponse response) {
+				calculations.incrementAndGet();
+			}
+		});
+		return response;
+	}
+
+	private static MockHttpServletRequest request(String client) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/calculate");
+		request.setAsyncSupported(true);
+		if (client != null) {
+			request.addHeader("X-Api-Key", client);
+		}
+		return request;
+	}
+}
@@ -0,0 +1,74 @@
+package com.mynt.exam.deliverycostcalculator.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class StripedTokenBucketTest {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	/**
+	 * Test the burst is admitted at once, then tokens are earned at the rate
+	 */
+	@Test
+	void testBurstThenRate() {
+		StripedTokenBucket bucket = new StripedTokenBucket(8, 20, 4, 0);
+		assertEquals(20, bucket.availableTokens(0));
+		for (int i = 0; i < 20; i++) {
+			assertEquals(0, bucket.tryAcquire(0));
+		}
+		long waitNanos = bucket.tryAcquire(0);
+		assertTrue(waitNanos > 0 && waitNanos <= SECOND / 2, "wait " + waitNanos);
+
+		// One second earns 8 tokens, spread over the stripes
+		int admitted = 0;
+		while (bucket.tryAcquire(SECOND) == 0) {
+			admitted++;
+		}
+		assertEquals(8, admitted);
+	}
+
+	/**
+	 * Test stripes are capped by the burst so every stripe holds a token
+	 */
+	@Test
+	void testSmallBurst() {
+		StripedTokenBucket bucket = new StripedTokenBucket(1, 1, 16, 0);
+		assertEquals(0, bucket.tryAcquire(0));
+		assertEquals(SECOND, bucket.tryAcquire(0));
+		assertEquals(0, bucket.tryAcquire(SECOND));
+	}
+
+	/**
+	 * Test concurrent requests never take more than the burst
+	 */
+	@Test
+	void testConcurrentAcquire() throws InterruptedException {
+		StripedTokenBucket bucket = new StripedTokenBucket(1, 1000, 8, 0);
+		AtomicInteger admitted = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		CountDownLatch done = new CountDownLatch(8);
+		for (int thread = 0; thread < 8; thread++) {
+			executor.execute(() -> {
+				for (int i = 0; i < 500; i++) {
+					if (bucket.tryAcquire(0) == 0) {
+						admitted.incrementAndGet();
+					}
+				}
+				done.countDown();
+			});
+		}
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		executor.shutdown();
+		assertEquals(1000, admitted.get());
+		assertEquals(0, bucket.availableTokens(0));
+	}
+}
@@ -0,0 +1,121 @@
+package com.mynt.exam.deliverycostcalculator.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import com.mynt.exam.deliverycostcalculator.audit.QuoteAuditEvent.Mode;
+import com.mynt.exam.deliverycostcalculator.config.QuoteAuditProperties;
+import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class QuoteAuditLogTest {
+
+	@TempDir
+	Path directory;
+
+	private final QuoteAuditProperties properties = new QuoteAuditProperties();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final ParcelRequest request = ParcelRequest.builder().length(BigDecimal.TEN)
+			.width(BigDecimal.valueOf(20)).height(BigDecimal.TEN).weight(BigDecimal.valueOf(8)).promoCode("MYNT")
+			.build();
+	private final CalculationResponse response = CalculationResponse.builder()
+			.deliveryCost(new BigDecimal("70.20")).totalWeight(new BigDecimal("8.00"))
+			.totalVolume(new BigDecimal("2000.00")).build();
+
+	@BeforeEach
+	void init() {
+		properties.setEnabled(true);
+		properties.setFile(directory.resolve("quote-audit.log"));
+		properties.setFlushInterval(Duration.ofMillis(10));
+	}
+
+	/**
+	 * Test audited quotes are written as records once the log is stopped
+	 */
+	@Test
+	void testRecordsWritten() throws IOException, InterruptedException {
+		QuoteAuditLog auditLog = new QuoteAuditLog(properties, meterRegistry);
+		auditLog.start();
+		auditLog.priced(Mode.SYNC, request, new BigDecimal("0.1225"), response);
+		auditLog.rejected(Mode.BATCH, request, "Weight exceeds 50kg. Reject cost calculation for parcel");
+		auditLog.stop();
+
+		List<String> lines = Files.readAllLines(properties.getFile());
+		assertEquals(3, lines.size());
+		assertEquals(QuoteAuditLog.HEADER.trim(), lines.get(0));
+		assertTrue(lines.get(1).endsWith(",SYNC,PRICED,10,20,10,8,\"MYNT\",0.1225,70.20,2000.00,"), lines.get(1));
+		assertTrue(lines.get(2).endsWith(
+				",BATCH,REJECTED,10,20,10,8,\"MYNT\",,,,\"Weight exceeds 50kg. Reject cost calculation for parcel\""),
+				lines.get(2));
+		assertEquals(2, auditLog.getWritten());
+		assertEquals(2, meterRegistry.get(QuoteAuditLog.AUDIT_EVENTS_METRIC).tag("result", "written")
+				.functionCounter().count());
+	}
+
+	/**
+	 * Test sample ratio of zero audits nothing
+	 */
+	@Test
+	void testSampledOut() throws IOException, InterruptedException {
+		properties.setSampleRatio(0);
+		QuoteAuditLog auditLog = new QuoteAuditLog(properties, meterRegistry);
+		auditLog.start();
+		for (int i = 0; i < 100; i++) {
+			auditLog.priced(Mode.SYNC, request, BigDecimal.ZERO, response);
+		}
+		auditLog.stop();
+
+		assertEquals(1, Files.readAllLines(properties.getFile()).size());
+		assertEquals(0, auditLog.getWritten());
+	}
+
+	/**
+	 * Test full audit files are rolled over, keeping the configured history
+	 */
+	@Test
+	void testRollOver() throws IOException, InterruptedException {
+		properties.setMaxFileSize(DataSize.ofBytes(400));
+		properties.setMaxHistory(2);
+		properties.setBatchSize(1);
+		QuoteAuditLog auditLog = new QuoteAuditLog(properties, meterRegistry);
+		auditLog.start();
+		for (int i = 0; i < 30; i++) {
+			auditLog.priced(Mode.ASYNC, request, BigDecimal.ZERO, response);
+		}
+		auditLog.stop();
+
+		assertTrue(Files.exists(directory.resolve("quote-audit.log.1")));
+		assertTrue(Files.exists(directory.resolve("quote-audit.log.2")));
+		assertTrue(Files.notExists(directory.resolve("quote-audit.log.3")));
+		assertTrue(Files.size(properties.getFile()) <= 400);
+	}
+
+	/**
+	 * Test disabled log starts no writer and creates no file
+	 */
+	@Test
+	void testDisabled() throws IOException, InterruptedException {
+		properties.setEnabled(false);
+		QuoteAuditLog auditLog = new QuoteAuditLog(properties, meterRegistry);
+		auditLog.start();
+		auditLog.priced(Mode.SYNC, request, BigDecimal.ZERO, response);
+		auditLog.stop();
+
+		assertTrue(Files.notExists(properties.getFile()));
+	}
+}
@@ -0,0 +1,125 @@
+package com.mynt.exam.deliverycostcalculator.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.mynt.exam.deliverycostcalculator.audit.QuoteAuditEvent.Mode;
+import com.mynt.exam.deliverycostcalculator.audit.QuoteAuditEvent.Outcome;
+
+class QuoteAuditRingBufferTest {
+
+	/**
+	 * Test capacity is rounded up to a power of two
+	 */
+	@Test
+	void testCapacityRoundedUp() {
+		assertEquals(8, new QuoteAuditRingBuffer(5).getCapacity());
+		assertEquals(8, new QuoteAuditRingBuffer(8).getCapacity());
+	}
+
+	/**
+	 * Test events are drained in publish order and cleared afterwards
+	 */
+	@Test
+	void testDrainInOrder() {
+		QuoteAuditRingBuffer ringBuffer = new QuoteAuditRingBuffer(4);
+		for (int i = 0; i < 3; i++) {
+			publish(ringBuffer, i);
+		}
+
+		List<Long> timestamps = new ArrayList<>();
+		assertEquals(2, ringBuffer.drain(event -> timestamps.add(event.getTimestamp()), 2));
+		assertEquals(1, ringBuffer.drain(event -> timestamps.add(event.getTimestamp()), 10));
+		assertEquals(List.of(0L, 1L, 2L), timestamps);
+		assertNull(ringBuffer.get(0).getMode());
+		assertEquals(0, ringBuffer.getBacklog());
+	}
+
+	/**
+	 * Test claims fail without waiting while the ring is full, and succeed once
+	 * drained
+	 */
+	@Test
+	void testFullRingDrops() {
+		QuoteAuditRingBuffer ringBuffer = new QuoteAuditRingBuffer(2);
+		publish(ringBuffer, 1);
+		publish(ringBuffer, 2);
+
+		assertEquals(-1, ringBuffer.tryClaim());
+		assertEquals(1, ringBuffer.getDropped());
+
+		ringBuffer.drain(event -> {
+		}, 1);
+		publish(ringBuffer, 3);
+		assertEquals(2, ringBuffer.getBacklog());
+	}
+
+	/**
+	 * Test a claimed but unpublished slot holds back the events after it
+	 */
+	@Test
+	void testUnpublishedSlotHoldsBackDrain() {
+		QuoteAuditRingBuffer ringBuffer = new QuoteAuditRingBuffer(4);
+		long sequence = ringBuffer.tryClaim();
+		publish(ringBuffer, 1);
+		assertEquals(0, ringBuffer.drain(event -> {
+		}, 10));
+
+		ringBuffer.publish(sequence);
+		assertEquals(2, ringBuffer.drain(event -> {
+		}, 10));
+	}
+
+	/**
+	 * Test every event of concurrent producers is drained exactly once, or
+	 * counted as dropped
+	 */
+	@Test
+	void testConcurrentProducers() throws InterruptedException {
+		QuoteAuditRingBuffer ringBuffer = new QuoteAuditRingBuffer(1024);
+		int producers = 4;
+		int eventsPerProducer = 50_000;
+		ExecutorService executor = Executors.newFixedThreadPool(producers);
+		CountDownLatch done = new CountDownLatch(producers);
+		for (int p = 0; p < producers; p++) {
+			long base = (long) p * eventsPerProducer;
+			executor.execute(() -> {
+				for (int i = 0; i < eventsPerProducer; i++) {
+					publish(ringBuffer, base + i);
+				}
+				done.countDown();
+			});
+		}
+
+		Set<Long> drained = new HashSet<>();
+		while (done.getCount() > 0 || ringBuffer.getBacklog() > 0) {
+			ringBuffer.drain(event -> assertEquals(true, drained.add(event.getTimestamp())), 256);
+		}
+		executor.shutdown();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+
+		assertEquals((long) producers * eventsPerProducer, drained.size() + ringBuffer.getDropped());
+	}
+
+	private static void publish(QuoteAuditRingBuffer ringBuffer, long timestamp) {
+		long sequence = ringBuffer.tryClaim();
+		if (sequence < 0) {
+			return;
+		}
+		ringBuffer.get(sequence).set(timestamp, Mode.SYNC, Outcome.PRICED, BigDecimal.ONE, BigDecimal.ONE,
+				BigDecimal.ONE, BigDecimal.ONE, null, null, null, null, null);
+		ringBuffer.publish(sequence);
+	}
+}
@@ -1,31 +1,52 @@
 package com.mynt.exam.deliverycostcalculator.controller;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mynt.exam.deliverycostcalculator.config.IdempotencyProperties;
+import com.mynt.exam.deliverycostcalculator.exception.DeliveryCostCalculationException;
+import com.mynt.exam.deliverycostcalculator.model.BatchCalculationResponse;
 import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
 import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+import com.mynt.exam.deliverycostcalculator.model.ShipmentCalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.ShipmentRequest;
+import com.mynt.exam.deliverycostcalculator.service.impl.IdempotencyStore;
 import com.mynt.exam.deliverycostcalculator.service.intf.DeliveryCostCalculatorService;
 
 @WebMvcTest(DeliveryCostController.class)
+@Import({ IdempotencyStore.class, IdempotencyProperties.class })
 class DeliveryCostControllerTest {
 
 	private static final String ENDPOINT_URI = "/calculate";
+	private static final String BATCH_ENDPOINT_URI = "/calculate/batch";
+	private static final String SHIPMENT_ENDPOINT_URI = "/calculate/shipment";
 
 	@Autowired
 	private MockMvc mockMvc;
@@ -33,9 +54,28 @@ class DeliveryCostControllerTest {
 	@Autowired
 	private ObjectMapper mapper;
 
+	@Autowired
+	private RequestMappingHandlerAdapter handlerAdapter;
+
 	@MockBean
 	private DeliveryCostCalculatorService deliveryCostCalculatorService;
 
+	/**
+	 * Test the streaming parcel codec is chosen before the Jackson databind
+	 * converter for single parcel requests and responses
+	 */
+	@Test
+	void testParcelJsonMessageConverterRegistered() {
+		HttpMessageConverter<?> reader = handlerAdapter.getMessageConverters().stream()
+				.filter(converter -> converter.canRead(ParcelRequest.class, MediaType.APPLICATION_JSON)).findFirst()
+				.orElse(null);
+		HttpMessageConverter<?> writer = handlerAdapter.getMessageConverters().stream()
+				.filter(converter -> converter.canWrite(CalculationResponse.class, MediaType.APPLICATION_JSON))
+				.findFirst().orElse(null);
+		assertTrue(reader instanceof ParcelJsonMessageConverter);
+		assertTrue(writer instanceof ParcelJsonMessageConverter);
+	}
+
 	/**
 	 * Test calculate delivery cost endpoint
 	 * 
@@ -43,8 +83,9 @@ class DeliveryCostControllerTest {
 	 */
 	@Test
 	void testCalculateDeliveryCost() throws Exception {
-		when(deliveryCostCalculatorService.calculateCost(any())).thenReturn(CalculationResponse.builder()
-				.deliveryCost(BigDecimal.TEN).totalVolume(BigDecimal.valueOf(100)).totalWeight(BigDecimal.TEN).build());
+		when(deliveryCostCalculatorService.calculateCostAsync(any()))
+				.thenReturn(CompletableFuture.completedFuture(CalculationResponse.builder().deliveryCost(BigDecimal.TEN)
+						.totalVolume(BigDecimal.valueOf(100)).totalWeight(BigDecimal.TEN).build()));
 
 		ParcelRequest request = ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.TEN)
 				.height(BigDecimal.TEN).weight(BigDecimal.ONE).build();
@@ -52,13 +93,115 @@ class DeliveryCostControllerTest {
 				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON)
 				.content(this.mapper.writeValueAsString(request));
 
-		mockMvc.perform(mockRequest)
+		MvcResult mvcResult = mockMvc.perform(mockRequest).andExpect(request().asyncStarted()).andReturn();
+		mockMvc.perform(asyncDispatch(mvcResult))
 		.andExpect(status().isOk())
 		.andExpect(jsonPath("$.deliveryCost", is(10)))
 		.andExpect(jsonPath("$.totalVolume", is(100)))
 		.andExpect(jsonPath("$.totalWeight", is(10)));
 	}
 	
+	/**
+	 * Test calculate delivery cost retried with the same idempotency key is
+	 * answered with the first quote
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	void testCalculateDeliveryCostIdempotentRetry() throws Exception {
+		when(deliveryCostCalculatorService.calculateCostAsync(any()))
+				.thenReturn(CompletableFuture.completedFuture(CalculationResponse.builder().deliveryCost(BigDecimal.TEN)
+						.totalVolume(BigDecimal.valueOf(100)).totalWeight(BigDecimal.TEN).build()));
+
+		ParcelRequest request = ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.TEN)
+				.height(BigDecimal.TEN).weight(BigDecimal.ONE).build();
+		for (int i = 0; i < 2; i++) {
+			MockHttpServletRequestBuilder mockRequest = MockMvcRequestBuilders.post(ENDPOINT_URI)
+					.header("Idempotency-Key", "retry-1").contentType(MediaType.APPLICATION_JSON)
+					.accept(MediaType.APPLICATION_JSON).content(this.mapper.writeValueAsString(request));
+
+			MvcResult mvcResult = mockMvc.perform(mockRequest).andExpect(request().asyncStarted()).andReturn();
+			mockMvc.perform(asyncDispatch(mvcResult))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.deliveryCost", is(10)));
+		}
+		verify(deliveryCostCalculatorService, times(1)).calculateCostAsync(any());
+	}
+
+	/**
+	 * Test calculate delivery cost - idempotency key reused for another parcel
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	void testCalculateDeliveryCostIdempotencyKeyReused() throws Exception {
+		when(deliveryCostCalculatorService.calculateCostAsync(any()))
+				.thenReturn(CompletableFuture.completedFuture(CalculationResponse.builder().deliveryCost(BigDecimal.TEN)
+						.totalVolume(BigDecimal.valueOf(100)).totalWeight(BigDecimal.TEN).build()));
+
+		ParcelRequest request = ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.TEN)
+				.height(BigDecimal.TEN).weight(BigDecimal.ONE).build();
+		mockMvc.perform(MockMvcRequestBuilders.post(ENDPOINT_URI).header("Idempotency-Key", "reused-1")
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON)
+				.content(this.mapper.writeValueAsString(request))).andExpect(request().asyncStarted());
+
+		request.setWeight(BigDecimal.TEN);
+		mockMvc.perform(MockMvcRequestBuilders.post(ENDPOINT_URI).header("Idempotency-Key", "reused-1")
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON)
+				.content(this.mapper.writeValueAsString(request)))
+		.andExpect(request().asyncNotStarted())
+		.andExpect(status().isUnprocessableEntity())
+		.andExpect(jsonPath("$.message", is("Idempotency key was already used for another parcel")));
+	}
+
+	/**
+	 * Test calculate delivery cost - Weight exceeds 50kg
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	void testCalculateDeliveryCostRejected() throws Exception {
+		when(deliveryCostCalculatorService.calculateCostAsync(any())).thenReturn(CompletableFuture.failedFuture(
+				DeliveryCostCalculationException.rejection("Weight exceeds 50kg. Reject cost calculation for parcel")));
+
+		ParcelRequest request = ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.TEN)
+				.height(BigDecimal.TEN).weight(BigDecimal.valueOf(100)).build();
+		MockHttpServletRequestBuilder mockRequest = MockMvcRequestBuilders.post(ENDPOINT_URI)
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON)
+				.content(this.mapper.writeValueAsString(request));
+
+		// Rejected right away, without async dispatch
+		mockMvc.perform(mockRequest)
+		.andExpect(request().asyncNotStarted())
+		.andExpect(status().isForbidden())
+		.andExpect(jsonPath("$.message", is("Weight exceeds 50kg. Reject cost calculation for parcel")));
+	}
+
+	/**
+	 * Test calculate delivery cost endpoint when the calculation is rejected
+	 * after it went async
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	void testCalculateDeliveryCostRejectedAsync() throws Exception {
+		CompletableFuture<CalculationResponse> quote = new CompletableFuture<>();
+		when(deliveryCostCalculatorService.calculateCostAsync(any())).thenReturn(quote);
+
+		ParcelRequest request = ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.TEN)
+				.height(BigDecimal.TEN).weight(BigDecimal.valueOf(100)).build();
+		MockHttpServletRequestBuilder mockRequest = MockMvcRequestBuilders.post(ENDPOINT_URI)
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON)
+				.content(this.mapper.writeValueAsString(request));
+
+		MvcResult mvcResult = mockMvc.perform(mockRequest).andExpect(request().asyncStarted()).andReturn();
+		quote.completeExceptionally(
+				new DeliveryCostCalculationException("Weight exceeds 50kg. Reject cost calculation for parcel"));
+		mockMvc.perform(asyncDispatch(mvcResult))
+		.andExpect(status().isForbidden())
+		.andExpect(jsonPath("$.message", is("Weight exceeds 50kg. Reject cost calculation for parcel")));
+	}
+
 	/**
 	 * Test calculate delivery cost - Invalid length (0cm)
 	 * 
@@ -133,4 +276,91 @@ class DeliveryCostControllerTest {
 		.andExpect(jsonPath("$.message", is("Weight cannot be less than 1kg")));
 	}
 
+	/**
+	 * Test calculate batch delivery cost endpoint
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	void testCalculateBatchDeliveryCost() throws Exception {
+		when(deliveryCostCalculatorService.calculateCostBatch(any())).thenReturn(Arrays.asList(
+				BatchCalculationResponse.builder().status(200).result(CalculationResponse.builder()
+						.deliveryCost(BigDecimal.TEN).totalVolume(BigDecimal.valueOf(100)).totalWeight(BigDecimal.TEN)
+						.build()).build(),
+				BatchCalculationResponse.builder().status(403)
+						.message("Weight exceeds 50kg. Reject cost calculation for parcel").build()));
+
+		List<ParcelRequest> requests = Arrays.asList(
+				ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.TEN).height(BigDecimal.TEN)
+						.weight(BigDecimal.ONE).build(),
+				ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.TEN).height(BigDecimal.TEN)
+						.weight(BigDecimal.valueOf(100)).build());
+		MockHttpServletRequestBuilder mockRequest = MockMvcRequestBuilders.post(BATCH_ENDPOINT_URI)
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON)
+				.content(this.mapper.writeValueAsString(requests));
+
+		mockMvc.perform(mockRequest)
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$[0].status", is(200)))
+		.andExpect(jsonPath("$[0].result.deliveryCost", is(10)))
+		.andExpect(jsonPath("$[1].status", is(403)))
+		.andExpect(jsonPath("$[1].message", is("Weight exceeds 50kg. Reject cost calculation for parcel")));
+	}
+
+	/**
+	 * Test calculate shipment delivery cost endpoint
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	void testCalculateShipmentDeliveryCost() throws Exception {
+		CalculationResponse parcelResponse = CalculationResponse.builder().deliveryCost(BigDecimal.TEN)
+				.totalVolume(BigDecimal.valueOf(100)).totalWeight(BigDecimal.TEN).build();
+		when(deliveryCostCalculatorService.calculateShipmentCostAsync(any()))
+				.thenReturn(CompletableFuture.completedFuture(ShipmentCalculationResponse.builder()
+						.parcels(Arrays.asList(parcelResponse, parcelResponse))
+						.total(CalculationResponse.builder().deliveryCost(BigDecimal.valueOf(20))
+								.totalVolume(BigDecimal.valueOf(200)).totalWeight(BigDecimal.valueOf(20)).build())
+						.build()));
+
+		ParcelRequest parcel = ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.TEN)
+				.height(BigDecimal.ONE).weight(BigDecimal.TEN).build();
+		ShipmentRequest request = ShipmentRequest.builder().parcels(Arrays.asList(parcel, parcel)).promoCode("MYNT")
+				.build();
+		MockHttpServletRequestBuilder mockRequest = MockMvcRequestBuilders.post(SHIPMENT_ENDPOINT_URI)
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON)
+				.content(this.mapper.writeValueAsString(request));
+
+		MvcResult mvcResult = mockMvc.perform(mockRequest).andExpect(request().asyncStarted()).andReturn();
+		mockMvc.perform(asyncDispatch(mvcResult))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.parcels[1].deliveryCost", is(10)))
+		.andExpect(jsonPath("$.total.deliveryCost", is(20)))
+		.andExpect(jsonPath("$.total.totalVolume", is(200)));
+	}
+
+	/**
+	 * Test calculate shipment delivery cost - Invalid parcel and empty shipment
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	void testCalculateShipmentDeliveryCostInvalid() throws Exception {
+		ParcelRequest parcel = ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.ZERO)
+				.height(BigDecimal.ONE).weight(BigDecimal.TEN).build();
+		MockHttpServletRequestBuilder invalidParcel = MockMvcRequestBuilders.post(SHIPMENT_ENDPOINT_URI)
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON)
+				.content(this.mapper.writeValueAsString(ShipmentRequest.builder().parcels(Arrays.asList(parcel)).build()));
+		mockMvc.perform(invalidParcel)
+		.andExpect(status().isBadRequest())
+		.andExpect(jsonPath("$.message", is("Width cannot be less than 1cm")));
+
+		MockHttpServletRequestBuilder emptyShipment = MockMvcRequestBuilders.post(SHIPMENT_ENDPOINT_URI)
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON)
+				.content("{\"parcels\":[],\"promoCode\":\"MYNT\"}");
+		mockMvc.perform(emptyShipment)
+		.andExpect(status().isBadRequest())
+		.andExpect(jsonPath("$.message", is("Shipment must contain at least 1 parcel")));
+	}
+
 }
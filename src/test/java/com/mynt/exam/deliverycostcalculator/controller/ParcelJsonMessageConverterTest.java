@@ -0,0 +1,124 @@
+package com.mynt.exam.deliverycostcalculator.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+
+class ParcelJsonMessageConverterTest {
+
+	private static final int RANDOM_CASES = 10_000;
+
+	// Configured like the application ObjectMapper, which creates requests through their constructor
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+			.modulesToInstall(new ParameterNamesModule(JsonCreator.Mode.DEFAULT)).build();
+	private final ParcelJsonMessageConverter converter = new ParcelJsonMessageConverter(objectMapper);
+
+	/**
+	 * Test only parcel requests are read and calculation responses written
+	 */
+	@Test
+	void testSupportedTypes() {
+		assertTrue(converter.canRead(ParcelRequest.class, MediaType.APPLICATION_JSON));
+		assertTrue(converter.canRead(ParcelRequest.class, null));
+		assertFalse(converter.canRead(CalculationResponse.class, MediaType.APPLICATION_JSON));
+		assertFalse(converter.canRead(ParcelRequest.class, MediaType.TEXT_PLAIN));
+		assertTrue(converter.canWrite(CalculationResponse.class, MediaType.APPLICATION_JSON));
+		assertFalse(converter.canWrite(ParcelRequest.class, MediaType.APPLICATION_JSON));
+		assertFalse(converter.canWrite(Map.class, MediaType.APPLICATION_JSON));
+	}
+
+	/**
+	 * Test parcel requests are read as databind reads them
+	 */
+	@Test
+	void testReadLikeDatabind() throws IOException {
+		List<String> requests = Arrays.asList(
+				"{\"length\":10,\"width\":20,\"height\":10,\"weight\":8,\"promoCode\":\"MYNT\"}",
+				"{\"length\":12.35,\"width\":7.10,\"height\":3.330,\"weight\":2.25}",
+				"{\"length\":1e2,\"width\":\"20\",\"height\":\" 10 \",\"weight\":\"\",\"promoCode\":null}",
+				"{\"weight\":null,\"promoCode\":12,\"unknown\":{\"nested\":[1,{\"a\":2}]},\"other\":[]}",
+				"{\"promoCode\":\"GFI\",\"promoCode\":\"MYNT\",\"length\":99999999999999999999.99}",
+				"{}");
+		for (String request : requests) {
+			assertEquals(objectMapper.readValue(request, ParcelRequest.class), read(request), request);
+		}
+	}
+
+	/**
+	 * Test malformed parcel requests are rejected as unreadable, as databind
+	 * rejects them
+	 */
+	@Test
+	void testReadMalformed() {
+		List<String> requests = Arrays.asList("[1,2]", "10", "{\"length\":", "{\"length\":true}",
+				"{\"length\":\"ten\"}", "{\"width\":[1]}", "{\"promoCode\":{\"code\":\"MYNT\"}}");
+		for (String request : requests) {
+			assertThrows(JsonProcessingException.class, () -> objectMapper.readValue(request, ParcelRequest.class),
+					request);
+			assertThrows(HttpMessageNotReadableException.class, () -> read(request), request);
+		}
+	}
+
+	/**
+	 * Test calculation responses are written byte for byte as databind writes
+	 * them, including missing values
+	 */
+	@Test
+	void testWriteByteIdentical() throws IOException {
+		assertWriteIdentical(CalculationResponse.builder().deliveryCost(new BigDecimal("71.02"))
+				.totalWeight(new BigDecimal("8.00")).totalVolume(new BigDecimal("2000.00")).build());
+		assertWriteIdentical(CalculationResponse.builder().deliveryCost(new BigDecimal("1E+3"))
+				.totalWeight(BigDecimal.ZERO).build());
+		assertWriteIdentical(CalculationResponse.builder().build());
+
+		Random random = new Random(20221018L);
+		for (int i = 0; i < RANDOM_CASES; i++) {
+			assertWriteIdentical(CalculationResponse.builder().deliveryCost(randomDecimal(random))
+					.totalWeight(randomDecimal(random)).totalVolume(randomDecimal(random)).build());
+		}
+	}
+
+	private ParcelRequest read(String json) throws IOException {
+		MockHttpInputMessage inputMessage = new MockHttpInputMessage(json.getBytes(StandardCharsets.UTF_8));
+		inputMessage.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+		return (ParcelRequest) converter.read(ParcelRequest.class, inputMessage);
+	}
+
+	private void assertWriteIdentical(CalculationResponse response) throws IOException {
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		converter.write(response, MediaType.APPLICATION_JSON, outputMessage);
+		assertArrayEquals(objectMapper.writeValueAsBytes(response), outputMessage.getBodyAsBytes(),
+				outputMessage.getBodyAsString());
+		assertEquals(MediaType.APPLICATION_JSON, outputMessage.getHeaders().getContentType());
+	}
+
+	private BigDecimal randomDecimal(Random random) {
+		return BigDecimal.valueOf(random.nextDouble() * Math.pow(10, random.nextInt(12)))
+				.setScale(random.nextInt(5), RoundingMode.HALF_UP);
+	}
+}
@@ -0,0 +1,118 @@
+package com.mynt.exam.deliverycostcalculator.remoteservice;
+
+import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.VOUCHER_RESPONSE_CODE;
+import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.VOUCHER_RESPONSE_DISCOUNT;
+import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.VOUCHER_RESPONSE_EXPIRY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.mynt.exam.deliverycostcalculator.config.VoucherCacheProperties;
+
+class VoucherCacheTest {
+
+	// 2022-08-01T00:00:00Z
+	private final Clock clock = Clock.fixed(Instant.parse("2022-08-01T00:00:00Z"), ZoneOffset.UTC);
+	private final AtomicLong nanos = new AtomicLong();
+
+	private VoucherCacheProperties properties;
+	private VoucherCache voucherCache;
+
+	@BeforeEach
+	void init() {
+		properties = new VoucherCacheProperties();
+		properties.setTtl(Duration.ofMinutes(10));
+		properties.setNegativeTtl(Duration.ofSeconds(30));
+		voucherCache = new VoucherCache(properties, clock, nanos::get);
+	}
+
+	/**
+	 * Test valid voucher is kept for the configured ttl
+	 */
+	@Test
+	void testValidVoucherExpiresAfterTtl() {
+		voucherCache.put("MYNT", voucher("MYNT", "2050-08-18"));
+		assertNotNull(voucherCache.get("MYNT"));
+
+		advance(Duration.ofMinutes(9));
+		assertNotNull(voucherCache.get("MYNT"));
+
+		advance(Duration.ofMinutes(2));
+		assertNull(voucherCache.get("MYNT"));
+	}
+
+	/**
+	 * Test voucher expiring before the ttl is evicted on its expiry date
+	 */
+	@Test
+	void testValidVoucherExpiresOnExpiryDate() {
+		Map<String, Object> voucher = voucher("GFI", "2022-08-01");
+		assertEquals(Duration.ofSeconds(30), voucherCache.getTimeToLive(voucher));
+
+		voucher = voucher("GFI", "2022-08-02");
+		Clock lateClock = Clock.fixed(Instant.parse("2022-08-01T23:55:00Z"), ZoneOffset.UTC);
+		VoucherCache lateCache = new VoucherCache(properties, lateClock, nanos::get);
+		assertEquals(Duration.ofMinutes(5), lateCache.getTimeToLive(voucher));
+	}
+
+	/**
+	 * Test invalid promo code is cached for the negative ttl
+	 */
+	@Test
+	void testInvalidPromoCodeExpiresAfterNegativeTtl() {
+		voucherCache.put("ABCDEF", Collections.emptyMap());
+		assertTrue(voucherCache.get("ABCDEF").isEmpty());
+
+		advance(Duration.ofSeconds(31));
+		assertNull(voucherCache.get("ABCDEF"));
+	}
+
+	/**
+	 * Test nothing is cached when cache is disabled
+	 */
+	@Test
+	void testCacheDisabled() {
+		properties.setEnabled(false);
+		voucherCache.put("MYNT", voucher("MYNT", "2050-08-18"));
+		assertNull(voucherCache.get("MYNT"));
+	}
+
+	/**
+	 * Test hit and miss counters
+	 */
+	@Test
+	void testStats() {
+		voucherCache.put("MYNT", voucher("MYNT", "2050-08-18"));
+		voucherCache.get("MYNT");
+		voucherCache.get("GFI");
+
+		assertEquals(1, voucherCache.getStats().hitCount());
+		assertEquals(1, voucherCache.getStats().missCount());
+		assertEquals(1, voucherCache.getSize());
+	}
+
+	private void advance(Duration duration) {
+		nanos.addAndGet(duration.toNanos());
+	}
+
+	private Map<String, Object> voucher(String code, String expiry) {
+		Map<String, Object> voucher = new HashMap<>();
+		voucher.put(VOUCHER_RESPONSE_CODE, code);
+		voucher.put(VOUCHER_RESPONSE_DISCOUNT, 12.25d);
+		voucher.put(VOUCHER_RESPONSE_EXPIRY, expiry);
+		return voucher;
+	}
+}
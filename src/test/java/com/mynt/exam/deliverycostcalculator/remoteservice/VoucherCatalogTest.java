@@ -0,0 +1,214 @@
+package com.mynt.exam.deliverycostcalculator.remoteservice;
+
+import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.VOUCHER_RESPONSE_ACTIVE;
+import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.VOUCHER_RESPONSE_DISCOUNT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.client.RestTemplate;
+
+import com.mynt.exam.deliverycostcalculator.config.VoucherCacheProperties;
+import com.mynt.exam.deliverycostcalculator.config.VoucherCatalogProperties;
+import com.mynt.exam.deliverycostcalculator.config.VoucherCircuitBreakerProperties;
+import com.mynt.exam.deliverycostcalculator.config.VoucherClientProperties;
+import com.mynt.exam.deliverycostcalculator.metrics.DeliveryCostMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class VoucherCatalogTest {
+
+	private final AtomicLong millis = new AtomicLong();
+
+	// Clock only moving when the test advances it
+	private final Clock clock = new Clock() {
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return Instant.ofEpochMilli(millis.get());
+		}
+	};
+
+	private final VoucherCatalogProperties properties = new VoucherCatalogProperties();
+	private final VoucherClientProperties clientProperties = new VoucherClientProperties();
+	private final RestTemplate restTemplate = new RestTemplate();
+
+	private VoucherStubServer voucherServer;
+	private ThreadPoolTaskExecutor executor;
+	private VoucherCatalog voucherCatalog;
+
+	@BeforeEach
+	void init() throws IOException {
+		voucherServer = new VoucherStubServer();
+		voucherServer.putVoucher("MYNT", 12.25, "2050-08-18");
+		voucherServer.putVoucher("GFI", 7.5, "2050-08-24");
+
+		properties.setEnabled(true);
+		properties.setUrl(voucherServer.getCatalogUrl());
+		// Refreshes are triggered by the tests
+		properties.setRefreshInterval(Duration.ofHours(1));
+		clientProperties.setUrl(voucherServer.getVoucherUrl());
+		voucherCatalog = new VoucherCatalog(properties, clientProperties, restTemplate, clock);
+
+		executor = new ThreadPoolTaskExecutor();
+		executor.initialize();
+	}
+
+	@AfterEach
+	void tearDown() {
+		voucherCatalog.stop();
+		executor.shutdown();
+		voucherServer.close();
+	}
+
+	/**
+	 * Test active vouchers are loaded at startup, keyed by upper-cased code
+	 */
+	@Test
+	void testLoadedAtStart() {
+		voucherCatalog.start();
+
+		assertTrue(voucherCatalog.isLoaded());
+		assertEquals(2, voucherCatalog.getSize());
+		Map<String, Object> voucher = voucherCatalog.get("MYNT");
+		assertEquals(12.25d, voucher.get(VOUCHER_RESPONSE_DISCOUNT));
+		assertFalse(voucher.containsKey(VOUCHER_RESPONSE_ACTIVE));
+		assertNull(voucherCatalog.get("UNKNOWN"));
+		assertEquals(Collections.singletonList(""), voucherServer.getCatalogSinces());
+	}
+
+	/**
+	 * Test refresh only asks for changes since the last refresh and applies them
+	 */
+	@Test
+	void testIncrementalRefresh() {
+		voucherCatalog.start();
+		voucherServer.putVoucher("NEW", 20, "2050-01-01");
+		voucherServer.putVoucher("MYNT", 15, "2050-08-18");
+		voucherServer.deactivateVoucher("GFI");
+
+		assertEquals(3, voucherCatalog.refresh());
+		assertEquals(Arrays.asList("", "2"), voucherServer.getCatalogSinces());
+		assertEquals(20d, voucherCatalog.get("NEW").get(VOUCHER_RESPONSE_DISCOUNT));
+		assertEquals(15d, voucherCatalog.get("MYNT").get(VOUCHER_RESPONSE_DISCOUNT));
+		assertNull(voucherCatalog.get("GFI"));
+
+		assertEquals(0, voucherCatalog.refresh());
+		assertEquals("5", voucherServer.getCatalogSinces().get(2));
+	}
+
+	/**
+	 * Test catalog is reloaded in full once the full refresh interval passed
+	 */
+	@Test
+	void testFullRefresh() {
+		voucherCatalog.start();
+		millis.addAndGet(properties.getFullRefreshInterval().toMillis());
+
+		assertEquals(2, voucherCatalog.refresh());
+		assertEquals(Arrays.asList("", ""), voucherServer.getCatalogSinces());
+	}
+
+	/**
+	 * Test catalog promo codes are served without a lookup, unknown ones are
+	 * looked up
+	 */
+	@Test
+	void testServedFromCatalog() {
+		voucherCatalog.start();
+		VoucherService voucherService = createVoucherService();
+
+		assertEquals(12.25d, voucherService.getVoucherDiscountFromPromoCode("mynt").get(VOUCHER_RESPONSE_DISCOUNT));
+		assertEquals(0, voucherServer.getLookups());
+
+		assertTrue(voucherService.getVoucherDiscountFromPromoCode("UNKNOWN").isEmpty());
+		assertEquals(1, voucherServer.getLookups());
+	}
+
+	/**
+	 * Test promo codes missing from the catalog get no discount without a lookup
+	 * unless lookups of unknown codes are enabled
+	 */
+	@Test
+	void testUnknownNotLookedUp() {
+		properties.setLookupUnknown(false);
+		voucherCatalog.start();
+		VoucherService voucherService = createVoucherService();
+
+		assertTrue(voucherService.getVoucherDiscountFromPromoCode("UNKNOWN").isEmpty());
+		assertEquals(0, voucherServer.getLookups());
+	}
+
+	/**
+	 * Test failed load leaves promo codes to be looked up one by one
+	 */
+	@Test
+	void testFailedLoadFallsBackToLookups() {
+		properties.setUrl(voucherServer.getCatalogUrl().replace("/vouchers", "/missing"));
+		properties.setLookupUnknown(false);
+		voucherCatalog.start();
+		VoucherService voucherService = createVoucherService();
+
+		assertFalse(voucherCatalog.isLoaded());
+		assertEquals(12.25d, voucherService.getVoucherDiscountFromPromoCode("MYNT").get(VOUCHER_RESPONSE_DISCOUNT));
+		assertEquals(1, voucherServer.getLookups());
+	}
+
+	/**
+	 * Test refreshes keep running after an unexpected failure
+	 */
+	@Test
+	void testRefreshesSurviveUnexpectedFailure() throws InterruptedException {
+		AtomicInteger fetches = new AtomicInteger();
+		RestTemplate failingRestTemplate = Mockito.mock(RestTemplate.class, invocation -> {
+			fetches.incrementAndGet();
+			throw new IllegalStateException("Unexpected failure");
+		});
+		properties.setRefreshInterval(Duration.ofMillis(10));
+		voucherCatalog = new VoucherCatalog(properties, clientProperties, failingRestTemplate, clock);
+		voucherCatalog.start();
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (fetches.get() < 3 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertTrue(fetches.get() >= 3);
+		assertFalse(voucherCatalog.isLoaded());
+	}
+
+	private VoucherService createVoucherService() {
+		return new VoucherService(new VoucherCache(new VoucherCacheProperties()),
+				new RestTemplateVoucherClient(restTemplate, executor, clientProperties), clientProperties,
+				new DeliveryCostMetrics(new SimpleMeterRegistry()),
+				new VoucherCircuitBreaker(new VoucherCircuitBreakerProperties()), voucherCatalog);
+	}
+}
@@ -0,0 +1,151 @@
+package com.mynt.exam.deliverycostcalculator.remoteservice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.mynt.exam.deliverycostcalculator.config.VoucherCircuitBreakerProperties;
+import com.mynt.exam.deliverycostcalculator.remoteservice.VoucherCircuitBreaker.State;
+
+class VoucherCircuitBreakerTest {
+
+	private final AtomicLong millis = new AtomicLong();
+
+	// Clock only moving when the test advances it
+	private final Clock clock = new Clock() {
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return Instant.ofEpochMilli(millis.get());
+		}
+	};
+
+	private VoucherCircuitBreakerProperties properties;
+	private VoucherCircuitBreaker circuitBreaker;
+
+	@BeforeEach
+	void init() {
+		properties = new VoucherCircuitBreakerProperties();
+		properties.setFailureThreshold(3);
+		properties.setOpenDuration(Duration.ofSeconds(30));
+		properties.setHalfOpenProbes(1);
+		circuitBreaker = new VoucherCircuitBreaker(properties, clock);
+	}
+
+	/**
+	 * Test circuit opens after consecutive failures and rejects calls while open
+	 */
+	@Test
+	void testOpensAfterConsecutiveFailures() {
+		fail(2);
+		assertEquals(State.CLOSED, circuitBreaker.getState());
+		assertTrue(circuitBreaker.tryAcquirePermission());
+
+		fail(1);
+		assertEquals(State.OPEN, circuitBreaker.getState());
+		assertFalse(circuitBreaker.tryAcquirePermission());
+
+		advance(Duration.ofSeconds(29));
+		assertFalse(circuitBreaker.tryAcquirePermission());
+	}
+
+	/**
+	 * Test success in between failures keeps the circuit closed
+	 */
+	@Test
+	void testSuccessResetsFailures() {
+		fail(2);
+		circuitBreaker.onSuccess();
+		fail(2);
+		assertEquals(State.CLOSED, circuitBreaker.getState());
+		assertEquals(2, circuitBreaker.getConsecutiveFailures());
+	}
+
+	/**
+	 * Test half-open circuit lets a single probe through and closes on success
+	 */
+	@Test
+	void testHalfOpenProbeSuccessCloses() {
+		fail(3);
+		advance(Duration.ofSeconds(30));
+
+		assertTrue(circuitBreaker.tryAcquirePermission());
+		assertEquals(State.HALF_OPEN, circuitBreaker.getState());
+		assertFalse(circuitBreaker.tryAcquirePermission());
+
+		circuitBreaker.onSuccess();
+		assertEquals(State.CLOSED, circuitBreaker.getState());
+		assertTrue(circuitBreaker.tryAcquirePermission());
+	}
+
+	/**
+	 * Test failed probe opens the circuit for another open duration
+	 */
+	@Test
+	void testHalfOpenProbeFailureReopens() {
+		fail(3);
+		advance(Duration.ofSeconds(30));
+		assertTrue(circuitBreaker.tryAcquirePermission());
+
+		circuitBreaker.onFailure();
+		assertEquals(State.OPEN, circuitBreaker.getState());
+		assertFalse(circuitBreaker.tryAcquirePermission());
+
+		advance(Duration.ofSeconds(30));
+		assertTrue(circuitBreaker.tryAcquirePermission());
+	}
+
+	/**
+	 * Test released probe permission lets another probe through
+	 */
+	@Test
+	void testReleasedProbePermission() {
+		fail(3);
+		advance(Duration.ofSeconds(30));
+		assertTrue(circuitBreaker.tryAcquirePermission());
+		assertFalse(circuitBreaker.tryAcquirePermission());
+
+		circuitBreaker.releasePermission();
+		assertTrue(circuitBreaker.tryAcquirePermission());
+	}
+
+	/**
+	 * Test disabled circuit breaker always permits calls
+	 */
+	@Test
+	void testDisabled() {
+		properties.setEnabled(false);
+		fail(5);
+		assertTrue(circuitBreaker.tryAcquirePermission());
+	}
+
+	private void fail(int failures) {
+		for (int i = 0; i < failures; i++) {
+			circuitBreaker.onFailure();
+		}
+	}
+
+	private void advance(Duration duration) {
+		millis.addAndGet(duration.toMillis());
+	}
+}
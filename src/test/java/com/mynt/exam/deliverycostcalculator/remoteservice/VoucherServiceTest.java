@@ -5,33 +5,77 @@ import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.VOU
 import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.VOUCHER_SERVICE_URL;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withBadRequest;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentMatchers;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.ResponseCreator;
 import org.springframework.web.client.RestTemplate;
 
+import com.mynt.exam.deliverycostcalculator.config.VoucherCatalogProperties;
+import com.mynt.exam.deliverycostcalculator.config.VoucherCircuitBreakerProperties;
+import com.mynt.exam.deliverycostcalculator.config.VoucherClientProperties;
+import com.mynt.exam.deliverycostcalculator.metrics.DeliveryCostMetrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
 @SpringBootTest
 @RunWith(SpringRunner.class)
 class VoucherServiceTest {
 
-	@InjectMocks
+	@Autowired
 	private VoucherService voucherService;
 
+	@Autowired
+	private VoucherCache voucherCache;
+
+	@Autowired
+	private VoucherClientProperties voucherClientProperties;
+
+	@Autowired
+	private ThreadPoolTaskExecutor voucherExecutor;
+
+	@Autowired
+	private DeliveryCostMetrics deliveryCostMetrics;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
 	@Mock
 	private RestTemplate restTemplate;
 
@@ -78,4 +122,295 @@ class VoucherServiceTest {
 				ArgumentMatchers.<ParameterizedTypeReference<Map<String, Object>>>any())).thenReturn(response);
 		assertNull(response.getBody());
 	}
+
+	/**
+	 * Test cached promo code is served without calling the voucher service
+	 */
+	@Test
+	void testGetVoucherDiscountFromPromoCodeCached() {
+		Map<String, Object> cachedResponse = new HashMap<>();
+		cachedResponse.put(VOUCHER_RESPONSE_CODE, "CACHED");
+		cachedResponse.put(VOUCHER_RESPONSE_DISCOUNT, 10.0d);
+		voucherCache.put("CACHED", cachedResponse);
+
+		Map<String, Object> promoResponse = voucherService.getVoucherDiscountFromPromoCode("cached");
+		assertEquals("CACHED", promoResponse.get(VOUCHER_RESPONSE_CODE));
+		assertEquals(10.0d, promoResponse.get(VOUCHER_RESPONSE_DISCOUNT));
+	}
+
+	/**
+	 * Test asynchronous lookup of a cached promo code completes immediately
+	 */
+	@Test
+	void testGetVoucherDiscountFromPromoCodeAsyncCached() {
+		Map<String, Object> cachedResponse = new HashMap<>();
+		cachedResponse.put(VOUCHER_RESPONSE_CODE, "ASYNC");
+		cachedResponse.put(VOUCHER_RESPONSE_DISCOUNT, 5.0d);
+		voucherCache.put("ASYNC", cachedResponse);
+
+		CompletableFuture<Map<String, Object>> promoFuture = voucherService
+				.getVoucherDiscountFromPromoCodeAsync("async");
+		assertTrue(promoFuture.isDone());
+		assertEquals("ASYNC", promoFuture.join().get(VOUCHER_RESPONSE_CODE));
+	}
+
+	/**
+	 * Test voucher service server error (500) does not stop the calculation and
+	 * is not cached
+	 */
+	@Test
+	void testGetVoucherDiscountFromPromoCodeServerErrorNotCached() {
+		RestTemplate stubRestTemplate = new RestTemplate();
+		MockRestServiceServer server = MockRestServiceServer.bindTo(stubRestTemplate).build();
+		server.expect(ExpectedCount.twice(), requestTo(startsWith("https://mynt-exam.mocklab.io/voucher/BROKEN")))
+				.andRespond(withServerError());
+
+		long errorCount = voucherRequestCount("error");
+		VoucherService stubVoucherService = createStubVoucherService(stubRestTemplate);
+		assertEquals(0, stubVoucherService.getVoucherDiscountFromPromoCode("broken").size());
+		assertEquals(0, stubVoucherService.getVoucherDiscountFromPromoCode("broken").size());
+		server.verify();
+		assertEquals(errorCount + 2, voucherRequestCount("error"));
+	}
+
+	/**
+	 * Test voucher service BAD_REQUEST (400) is cached as an invalid promo code
+	 */
+	@Test
+	void testGetVoucherDiscountFromPromoCodeInvalidCodeCached() {
+		RestTemplate stubRestTemplate = new RestTemplate();
+		MockRestServiceServer server = MockRestServiceServer.bindTo(stubRestTemplate).build();
+		server.expect(ExpectedCount.once(), requestTo(startsWith("https://mynt-exam.mocklab.io/voucher/UNKNOWN")))
+				.andRespond(withBadRequest());
+
+		long invalidCount = voucherRequestCount("invalid");
+		VoucherService stubVoucherService = createStubVoucherService(stubRestTemplate);
+		assertEquals(0, stubVoucherService.getVoucherDiscountFromPromoCode("unknown").size());
+		assertEquals(0, stubVoucherService.getVoucherDiscountFromPromoCode("unknown").size());
+		server.verify();
+		// Only the remote call is timed, the cached lookup is not
+		assertEquals(invalidCount + 1, voucherRequestCount("invalid"));
+	}
+
+	/**
+	 * Test concurrent lookups of the same promo code share a single voucher
+	 * service call
+	 */
+	@Test
+	void testGetVoucherDiscountFromPromoCodeConcurrentLookupsCoalesced() throws InterruptedException {
+		int followers = 8;
+		RestTemplate stubRestTemplate = new RestTemplate();
+		MockRestServiceServer server = MockRestServiceServer.bindTo(stubRestTemplate).build();
+		CountDownLatch callStarted = new CountDownLatch(1);
+		CountDownLatch callReleased = new CountDownLatch(1);
+		server.expect(ExpectedCount.once(), requestTo(startsWith("https://mynt-exam.mocklab.io/voucher/SHARED")))
+				.andRespond(blockingResponse(callStarted, callReleased, "SHARED"));
+
+		VoucherService stubVoucherService = createStubVoucherService(stubRestTemplate);
+		double coalescedCount = coalescedCount();
+		ExecutorService executor = Executors.newFixedThreadPool(followers + 1);
+		try {
+			CompletableFuture<Map<String, Object>> leader = CompletableFuture
+					.supplyAsync(() -> stubVoucherService.getVoucherDiscountFromPromoCode("shared"), executor);
+			assertTrue(callStarted.await(5, TimeUnit.SECONDS));
+
+			List<CompletableFuture<Map<String, Object>>> lookups = IntStream.range(0, followers)
+					.mapToObj(i -> CompletableFuture
+							.supplyAsync(() -> stubVoucherService.getVoucherDiscountFromPromoCode("Shared"), executor))
+					.collect(Collectors.toList());
+			lookups.add(stubVoucherService.getVoucherDiscountFromPromoCodeAsync("SHARED"));
+			lookups.add(leader);
+			awaitCoalescedCount(coalescedCount + followers + 1);
+			callReleased.countDown();
+
+			for (CompletableFuture<Map<String, Object>> lookup : lookups) {
+				assertEquals("SHARED", lookup.join().get(VOUCHER_RESPONSE_CODE));
+			}
+			server.verify();
+		} finally {
+			callReleased.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Test lookup waiting on an in-flight call of the same promo code gets no
+	 * discount once the follower timeout elapses
+	 */
+	@Test
+	void testGetVoucherDiscountFromPromoCodeFollowerTimeout() throws InterruptedException {
+		RestTemplate stubRestTemplate = new RestTemplate();
+		MockRestServiceServer server = MockRestServiceServer.bindTo(stubRestTemplate).build();
+		CountDownLatch callStarted = new CountDownLatch(1);
+		CountDownLatch callReleased = new CountDownLatch(1);
+		server.expect(ExpectedCount.once(), requestTo(startsWith("https://mynt-exam.mocklab.io/voucher/SLOW")))
+				.andRespond(blockingResponse(callStarted, callReleased, "SLOW"));
+
+		VoucherClientProperties shortWaitProperties = new VoucherClientProperties();
+		shortWaitProperties.setFollowerTimeout(Duration.ofMillis(50));
+		VoucherService stubVoucherService = createStubVoucherService(stubRestTemplate, shortWaitProperties,
+				voucherExecutor, new VoucherCircuitBreakerProperties());
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			CompletableFuture<Map<String, Object>> leader = CompletableFuture
+					.supplyAsync(() -> stubVoucherService.getVoucherDiscountFromPromoCode("slow"), executor);
+			assertTrue(callStarted.await(5, TimeUnit.SECONDS));
+
+			assertEquals(0, stubVoucherService.getVoucherDiscountFromPromoCode("slow").size());
+			assertEquals(0, stubVoucherService.getVoucherDiscountFromPromoCodeAsync("slow").join().size());
+
+			callReleased.countDown();
+			assertEquals("SLOW", leader.join().get(VOUCHER_RESPONSE_CODE));
+			server.verify();
+		} finally {
+			callReleased.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Test lookup exceeding the latency budget gets no discount while the voucher
+	 * service response is still cached for later lookups
+	 */
+	@Test
+	void testGetVoucherDiscountFromPromoCodeLatencyBudgetExceeded() throws InterruptedException {
+		RestTemplate stubRestTemplate = new RestTemplate();
+		MockRestServiceServer server = MockRestServiceServer.bindTo(stubRestTemplate).build();
+		CountDownLatch callStarted = new CountDownLatch(1);
+		CountDownLatch callReleased = new CountDownLatch(1);
+		server.expect(ExpectedCount.once(), requestTo(startsWith("https://mynt-exam.mocklab.io/voucher/BUDGET")))
+				.andRespond(blockingResponse(callStarted, callReleased, "BUDGET"));
+
+		VoucherClientProperties shortBudgetProperties = new VoucherClientProperties();
+		shortBudgetProperties.setLatencyBudget(Duration.ofMillis(50));
+		VoucherService stubVoucherService = createStubVoucherService(stubRestTemplate, shortBudgetProperties,
+				voucherExecutor, new VoucherCircuitBreakerProperties());
+		try {
+			assertEquals(0, stubVoucherService.getVoucherDiscountFromPromoCode("budget").size());
+			assertTrue(callStarted.await(5, TimeUnit.SECONDS));
+		} finally {
+			callReleased.countDown();
+		}
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (voucherCache.get("BUDGET") == null && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals("BUDGET", stubVoucherService.getVoucherDiscountFromPromoCode("budget").get(VOUCHER_RESPONSE_CODE));
+		server.verify();
+	}
+
+	/**
+	 * Test open circuit gives no discount without calling the voucher service
+	 */
+	@Test
+	void testGetVoucherDiscountFromPromoCodeCircuitOpen() {
+		RestTemplate stubRestTemplate = new RestTemplate();
+		MockRestServiceServer server = MockRestServiceServer.bindTo(stubRestTemplate).build();
+		server.expect(ExpectedCount.twice(), requestTo(startsWith("https://mynt-exam.mocklab.io/voucher/FLAKY")))
+				.andRespond(withServerError());
+
+		VoucherCircuitBreakerProperties circuitBreakerProperties = new VoucherCircuitBreakerProperties();
+		circuitBreakerProperties.setFailureThreshold(2);
+		VoucherService stubVoucherService = createStubVoucherService(stubRestTemplate, voucherClientProperties,
+				voucherExecutor, circuitBreakerProperties);
+		double circuitOpenCount = fallbackCount("circuit_open");
+		for (int i = 0; i < 4; i++) {
+			assertEquals(0, stubVoucherService.getVoucherDiscountFromPromoCode("flaky").size());
+		}
+		server.verify();
+		assertEquals(circuitOpenCount + 2, fallbackCount("circuit_open"));
+	}
+
+	/**
+	 * Test lookup beyond the executor threads and queue gets no discount
+	 * immediately
+	 */
+	@Test
+	void testGetVoucherDiscountFromPromoCodeExecutorSaturated() throws InterruptedException {
+		RestTemplate stubRestTemplate = new RestTemplate();
+		MockRestServiceServer server = MockRestServiceServer.bindTo(stubRestTemplate).build();
+		CountDownLatch callStarted = new CountDownLatch(1);
+		CountDownLatch callReleased = new CountDownLatch(1);
+		server.expect(ExpectedCount.once(), requestTo(startsWith("https://mynt-exam.mocklab.io/voucher/BUSY")))
+				.andRespond(blockingResponse(callStarted, callReleased, "BUSY"));
+
+		ThreadPoolTaskExecutor singleThreadExecutor = new ThreadPoolTaskExecutor();
+		singleThreadExecutor.setCorePoolSize(1);
+		singleThreadExecutor.setMaxPoolSize(1);
+		singleThreadExecutor.setQueueCapacity(0);
+		singleThreadExecutor.initialize();
+		VoucherService stubVoucherService = createStubVoucherService(stubRestTemplate, voucherClientProperties,
+				singleThreadExecutor, new VoucherCircuitBreakerProperties());
+		double saturatedCount = fallbackCount("executor_saturated");
+		try {
+			CompletableFuture<Map<String, Object>> busyLookup = stubVoucherService
+					.getVoucherDiscountFromPromoCodeAsync("busy");
+			assertTrue(callStarted.await(5, TimeUnit.SECONDS));
+
+			CompletableFuture<Map<String, Object>> rejectedLookup = stubVoucherService
+					.getVoucherDiscountFromPromoCodeAsync("other");
+			assertTrue(rejectedLookup.isDone());
+			assertEquals(0, rejectedLookup.join().size());
+			assertEquals(saturatedCount + 1, fallbackCount("executor_saturated"));
+
+			callReleased.countDown();
+			assertEquals("BUSY", busyLookup.join().get(VOUCHER_RESPONSE_CODE));
+			server.verify();
+		} finally {
+			callReleased.countDown();
+			singleThreadExecutor.shutdown();
+		}
+	}
+
+	// Valid voucher response held back until released
+	private ResponseCreator blockingResponse(CountDownLatch callStarted, CountDownLatch callReleased, String code) {
+		return request -> {
+			callStarted.countDown();
+			try {
+				callReleased.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			}
+			return withSuccess("{\"code\":\"" + code + "\",\"discount\":5.0,\"expiry\":\"2050-08-18\"}",
+					MediaType.APPLICATION_JSON).createResponse(request);
+		};
+	}
+
+	private void awaitCoalescedCount(double expectedCount) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (coalescedCount() < expectedCount && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(expectedCount, coalescedCount());
+	}
+
+	private double fallbackCount(String reason) {
+		return meterRegistry.get(DeliveryCostMetrics.VOUCHER_FALLBACKS_METRIC).tag("reason", reason).counter().count();
+	}
+
+	private double coalescedCount() {
+		return meterRegistry.get(DeliveryCostMetrics.VOUCHER_COALESCED_METRIC).counter().count();
+	}
+
+	private VoucherService createStubVoucherService(RestTemplate stubRestTemplate) {
+		return createStubVoucherService(stubRestTemplate, voucherClientProperties, voucherExecutor,
+				new VoucherCircuitBreakerProperties());
+	}
+
+	// Voucher service with its own circuit breaker so failures do not leak into
+	// other tests
+	private VoucherService createStubVoucherService(RestTemplate stubRestTemplate,
+			VoucherClientProperties clientProperties, ThreadPoolTaskExecutor executor,
+			VoucherCircuitBreakerProperties circuitBreakerProperties) {
+		return new VoucherService(voucherCache,
+				new RestTemplateVoucherClient(stubRestTemplate, executor, clientProperties), clientProperties,
+				deliveryCostMetrics, new VoucherCircuitBreaker(circuitBreakerProperties),
+				new VoucherCatalog(new VoucherCatalogProperties(), clientProperties, stubRestTemplate));
+	}
+
+	private long voucherRequestCount(String outcome) {
+		return meterRegistry.get(DeliveryCostMetrics.VOUCHER_REQUESTS_METRIC).tag("outcome", outcome).timer().count();
+	}
 }
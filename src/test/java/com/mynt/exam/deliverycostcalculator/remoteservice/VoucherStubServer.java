@@ -0,0 +1,176 @@
+package com.mynt.exam.deliverycostcalculator.remoteservice;
+
+import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.VOUCHER_CATALOG_AS_OF;
+import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.VOUCHER_CATALOG_VOUCHERS;
+import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.VOUCHER_RESPONSE_ACTIVE;
+import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.VOUCHER_RESPONSE_CODE;
+import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.VOUCHER_RESPONSE_DISCOUNT;
+import static com.mynt.exam.deliverycostcalculator.util.ApplicationConstants.VOUCHER_RESPONSE_EXPIRY;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.http.HttpStatus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-in for the voucher service in tests. Serves single promo code
+ * lookups on /voucher/{promocode} and the voucher catalog on
+ * /vouchers?since={since}, where since is the asOf of an earlier catalog
+ * response (a change counter). Lookups can be slowed down and made to fail at
+ * a given rate to stand in for the remote service under load
+ */
+public class VoucherStubServer implements AutoCloseable {
+
+	private final ObjectMapper mapper = new ObjectMapper();
+	private final HttpServer server;
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	// Voucher and change counter value of its last change, per promo code
+	private final Map<String, Map<String, Object>> vouchers = new LinkedHashMap<>();
+	private final Map<String, Long> changedAt = new LinkedHashMap<>();
+	private long changes;
+
+	private final AtomicInteger lookups = new AtomicInteger();
+	private final List<String> catalogSinces = new ArrayList<>();
+
+	private volatile long latencyMillis;
+	private volatile double errorRate;
+
+	public VoucherStubServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/voucher/", this::lookup);
+		server.createContext("/vouchers", this::catalog);
+		server.setExecutor(executor);
+		server.start();
+	}
+
+	// Voucher service url template of single promo code lookups
+	public String getVoucherUrl() {
+		return "http://localhost:" + server.getAddress().getPort() + "/voucher/{promocode}?key={key}";
+	}
+
+	// Voucher catalog url template
+	public String getCatalogUrl() {
+		return "http://localhost:" + server.getAddress().getPort() + "/vouchers?key={key}&since={since}";
+	}
+
+	public synchronized void putVoucher(String code, double discount, String expiry) {
+		Map<String, Object> voucher = new LinkedHashMap<>();
+		voucher.put(VOUCHER_RESPONSE_CODE, code);
+		voucher.put(VOUCHER_RESPONSE_DISCOUNT, discount);
+		voucher.put(VOUCHER_RESPONSE_EXPIRY, expiry);
+		voucher.put(VOUCHER_RESPONSE_ACTIVE, true);
+		vouchers.put(code, voucher);
+		changedAt.put(code, ++changes);
+	}
+
+	public synchronized void deactivateVoucher(String code) {
+		vouchers.get(code).put(VOUCHER_RESPONSE_ACTIVE, false);
+		changedAt.put(code, ++changes);
+	}
+
+	// Time each lookup takes
+	public void setLatencyMillis(long latencyMillis) {
+		this.latencyMillis = latencyMillis;
+	}
+
+	// Share of lookups answered with 500, from 0 to 1
+	public void setErrorRate(double errorRate) {
+		this.errorRate = errorRate;
+	}
+
+	// Single promo code lookups served
+	public int getLookups() {
+		return lookups.get();
+	}
+
+	// Since of each catalog request served, empty for full loads
+	public synchronized List<String> getCatalogSinces() {
+		return new ArrayList<>(catalogSinces);
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	private void lookup(HttpExchange exchange) throws IOException {
+		lookups.incrementAndGet();
+		if (latencyMillis > 0) {
+			try {
+				Thread.sleep(latencyMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+			respond(exchange, HttpStatus.INTERNAL_SERVER_ERROR, Map.of("error", "unavailable"));
+			return;
+		}
+		String promoCode = exchange.getRequestURI().getPath().substring("/voucher/".length());
+		Map<String, Object> voucher;
+		synchronized (this) {
+			voucher = vouchers.get(promoCode);
+			if (voucher != null && Boolean.TRUE.equals(voucher.get(VOUCHER_RESPONSE_ACTIVE))) {
+				voucher = new LinkedHashMap<>(voucher);
+				voucher.remove(VOUCHER_RESPONSE_ACTIVE);
+			} else {
+				voucher = null;
+			}
+		}
+		if (voucher != null) {
+			respond(exchange, HttpStatus.OK, voucher);
+		} else {
+			respond(exchange, HttpStatus.BAD_REQUEST, Map.of("error", "invalid"));
+		}
+	}
+
+	private void catalog(HttpExchange exchange) throws IOException {
+		String since = "";
+		String query = exchange.getRequestURI().getQuery();
+		for (String parameter : query != null ? query.split("&") : new String[0]) {
+			if (parameter.startsWith("since=")) {
+				since = parameter.substring("since=".length());
+			}
+		}
+		Map<String, Object> body = new LinkedHashMap<>();
+		List<Map<String, Object>> changed = new ArrayList<>();
+		synchronized (this) {
+			catalogSinces.add(since);
+			long after = since.isEmpty() ? -1 : Long.parseLong(since);
+			vouchers.forEach((code, voucher) -> {
+				boolean active = Boolean.TRUE.equals(voucher.get(VOUCHER_RESPONSE_ACTIVE));
+				// Full loads only hold active vouchers, refreshes every change
+				if (after < 0 ? active : changedAt.get(code) > after) {
+					changed.add(new LinkedHashMap<>(voucher));
+				}
+			});
+			body.put(VOUCHER_CATALOG_AS_OF, String.valueOf(changes));
+		}
+		body.put(VOUCHER_CATALOG_VOUCHERS, changed);
+		respond(exchange, HttpStatus.OK, body);
+	}
+
+	private void respond(HttpExchange exchange, HttpStatus status, Object body) throws IOException {
+		byte[] bytes = mapper.writeValueAsBytes(body);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status.value(), bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package com.mynt.exam.deliverycostcalculator.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import com.mynt.exam.deliverycostcalculator.model.BatchCalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+
+class BinaryPricingCodecTest {
+
+	/**
+	 * Test a request frame is read back as written, at the widest scale of its
+	 * decimals
+	 */
+	@Test
+	void testRequestRoundTrip() throws ProtocolException {
+		ParcelRequest request = ParcelRequest.builder().length(new BigDecimal("12.5")).width(BigDecimal.TEN)
+				.height(new BigDecimal("3.25")).weight(new BigDecimal("8")).promoCode("MYNT").build();
+		ByteBuffer buffer = ByteBuffer.allocate(BinaryPricingCodec.MAX_REQUEST_FRAME);
+		BinaryPricingCodec.encodeRequest(buffer, 42, request);
+		buffer.flip();
+
+		int length = BinaryPricingCodec.requestFrameLength(buffer);
+		assertEquals(BinaryPricingCodec.MIN_REQUEST_FRAME + 4, length);
+		buffer.getInt();
+		assertEquals(42, buffer.getInt());
+		ParcelRequest decoded = BinaryPricingCodec.decodeRequest(buffer, buffer.limit());
+		assertEquals(new BigDecimal("12.50"), decoded.getLength());
+		assertEquals(new BigDecimal("10.00"), decoded.getWidth());
+		assertEquals(new BigDecimal("3.25"), decoded.getHeight());
+		assertEquals(new BigDecimal("8.00"), decoded.getWeight());
+		assertEquals("MYNT", decoded.getPromoCode());
+	}
+
+	/**
+	 * Test a request without promo code is read without one
+	 */
+	@Test
+	void testRequestWithoutPromoCode() {
+		ParcelRequest request = ParcelRequest.builder().length(BigDecimal.ONE).width(BigDecimal.ONE)
+				.height(BigDecimal.ONE).weight(BigDecimal.ONE).build();
+		ByteBuffer buffer = ByteBuffer.allocate(BinaryPricingCodec.MAX_REQUEST_FRAME);
+		BinaryPricingCodec.encodeRequest(buffer, 1, request);
+		buffer.flip().position(8);
+
+		assertNull(BinaryPricingCodec.decodeRequest(buffer, buffer.limit()).getPromoCode());
+	}
+
+	/**
+	 * Test frame lengths outside the request format are refused
+	 */
+	@Test
+	void testInvalidRequestFrameLength() throws ProtocolException {
+		ByteBuffer buffer = ByteBuffer.allocate(8);
+		buffer.putInt(0, BinaryPricingCodec.MIN_REQUEST_FRAME - 1);
+		assertThrows(ProtocolException.class, () -> BinaryPricingCodec.requestFrameLength(buffer));
+		buffer.putInt(0, BinaryPricingCodec.MAX_REQUEST_FRAME + 1);
+		assertThrows(ProtocolException.class, () -> BinaryPricingCodec.requestFrameLength(buffer));
+		assertEquals(-1, BinaryPricingCodec.requestFrameLength(ByteBuffer.allocate(3)));
+	}
+
+	/**
+	 * Test response frames are read back as written
+	 */
+	@Test
+	void testResponseRoundTrip() {
+		CalculationResponse response = CalculationResponse.builder().deliveryCost(new BigDecimal("71.02"))
+				.totalWeight(new BigDecimal("8.00")).totalVolume(new BigDecimal("2000.00")).build();
+		ByteBuffer buffer = ByteBuffer.allocate(2 * BinaryPricingCodec.MAX_RESPONSE_FRAME);
+		BinaryPricingCodec.encodeResponse(buffer, 5, response);
+		BinaryPricingCodec.encodeError(buffer, 6, HttpStatus.FORBIDDEN, "Reject cost calculation for parcel");
+		buffer.flip();
+
+		int frameEnd = buffer.getInt() + buffer.position();
+		assertEquals(5, buffer.getInt());
+		BatchCalculationResponse priced = BinaryPricingCodec.decodeResponse(buffer, frameEnd);
+		assertEquals(200, priced.getStatus());
+		assertEquals(response, priced.getResult());
+
+		frameEnd = buffer.getInt() + buffer.position();
+		assertEquals(6, buffer.getInt());
+		BatchCalculationResponse rejected = BinaryPricingCodec.decodeResponse(buffer, frameEnd);
+		assertEquals(403, rejected.getStatus());
+		assertEquals("Reject cost calculation for parcel", rejected.getMessage());
+		assertEquals(buffer.limit(), buffer.position());
+	}
+
+	/**
+	 * Test a calculation beyond the format writes nothing
+	 */
+	@Test
+	void testResponseOutOfRange() {
+		CalculationResponse response = CalculationResponse.builder().deliveryCost(new BigDecimal("1E+30"))
+				.totalWeight(BigDecimal.ONE).totalVolume(new BigDecimal("123456789012345678901234567890"))
+				.build();
+		ByteBuffer buffer = ByteBuffer.allocate(BinaryPricingCodec.MAX_RESPONSE_FRAME);
+
+		assertThrows(ArithmeticException.class, () -> BinaryPricingCodec.encodeResponse(buffer, 1, response));
+		assertEquals(0, buffer.position());
+	}
+}
@@ -0,0 +1,183 @@
+package com.mynt.exam.deliverycostcalculator.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+import javax.validation.Validation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.mynt.exam.deliverycostcalculator.config.BinaryPricingProperties;
+import com.mynt.exam.deliverycostcalculator.exception.DeliveryCostCalculationException;
+import com.mynt.exam.deliverycostcalculator.model.BatchCalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+import com.mynt.exam.deliverycostcalculator.service.intf.DeliveryCostCalculatorService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BinaryPricingServerTest {
+
+	private static final int SOCKET_TIMEOUT_MILLIS = 5000;
+
+	private final DeliveryCostCalculatorService costCalculatorService = mock(DeliveryCostCalculatorService.class);
+
+	private BinaryPricingServer server;
+	private Socket socket;
+	private DataInputStream in;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		BinaryPricingProperties properties = new BinaryPricingProperties();
+		properties.setPort(0);
+		server = new BinaryPricingServer(properties, costCalculatorService,
+				Validation.buildDefaultValidatorFactory().getValidator(), new SimpleMeterRegistry());
+		server.start();
+		socket = new Socket(server.getLocalAddress().getAddress(), server.getLocalAddress().getPort());
+		socket.setSoTimeout(SOCKET_TIMEOUT_MILLIS);
+		in = new DataInputStream(socket.getInputStream());
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		socket.close();
+		server.stop();
+	}
+
+	/**
+	 * Test the listener binds to loopback when no address is configured
+	 */
+	@Test
+	void testDefaultAddressIsLoopback() throws IOException {
+		assertTrue(server.getLocalAddress().getAddress().isLoopbackAddress());
+	}
+
+	/**
+	 * Test pipelined requests are answered in request order, even when a later
+	 * calculation finishes first
+	 */
+	@Test
+	void testPipelinedResponsesInRequestOrder() throws IOException {
+		CompletableFuture<CalculationResponse> slowQuote = new CompletableFuture<>();
+		CalculationResponse slowResponse = response("71.02");
+		CalculationResponse fastResponse = response("180.00");
+		ParcelRequest slowRequest = parcel("10.0", "MYNT");
+		ParcelRequest fastRequest = parcel("12.0", null);
+		when(costCalculatorService.calculateCostAsync(slowRequest)).thenReturn(slowQuote);
+		when(costCalculatorService.calculateCostAsync(fastRequest))
+				.thenReturn(CompletableFuture.completedFuture(fastResponse));
+
+		ByteBuffer frames = ByteBuffer.allocate(2 * BinaryPricingCodec.MAX_REQUEST_FRAME);
+		BinaryPricingCodec.encodeRequest(frames, 1, slowRequest);
+		BinaryPricingCodec.encodeRequest(frames, 2, fastRequest);
+		send(frames);
+		slowQuote.complete(slowResponse);
+
+		assertResponse(1, 200, slowResponse, null);
+		assertResponse(2, 200, fastResponse, null);
+	}
+
+	/**
+	 * Test parcels are validated like the HTTP endpoint and rejections answered
+	 * with their message
+	 */
+	@Test
+	void testInvalidAndRejectedParcels() throws IOException {
+		ParcelRequest rejectedRequest = parcel("60.0", null);
+		when(costCalculatorService.calculateCostAsync(rejectedRequest)).thenReturn(CompletableFuture.failedFuture(
+				new DeliveryCostCalculationException("Weight exceeds 50kg. Reject cost calculation for parcel")));
+		ParcelRequest lightRequest = ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.TEN)
+				.height(BigDecimal.TEN).weight(new BigDecimal("0.5")).build();
+
+		ByteBuffer frames = ByteBuffer.allocate(3 * BinaryPricingCodec.MAX_REQUEST_FRAME);
+		BinaryPricingCodec.encodeRequest(frames, 7, lightRequest);
+		BinaryPricingCodec.encodeRequest(frames, 8, rejectedRequest);
+		BinaryPricingCodec.encodeRequest(frames, 9, parcel("10.0", null));
+		// Scale beyond the format
+		frames.put(frames.position() - BinaryPricingCodec.MIN_REQUEST_FRAME + 4, (byte) 19);
+		send(frames);
+
+		assertResponse(7, 400, null, "Weight cannot be less than 1kg");
+		assertResponse(8, 403, null, "Weight exceeds 50kg. Reject cost calculation for parcel");
+		assertResponse(9, 400, null, "Invalid scale 19");
+		verify(costCalculatorService, times(1)).calculateCostAsync(any());
+	}
+
+	/**
+	 * Test a frame of invalid length closes the connection
+	 */
+	@Test
+	void testInvalidFrameLengthClosesConnection() throws IOException {
+		ByteBuffer frame = ByteBuffer.allocate(8);
+		frame.putInt(BinaryPricingCodec.MAX_REQUEST_FRAME + 1).putInt(1);
+		send(frame);
+
+		assertThrows(EOFException.class, () -> in.readInt());
+	}
+
+	/**
+	 * Test outstanding responses are still written after the caller shuts down
+	 * its output
+	 */
+	@Test
+	void testResponsesWrittenAfterInputShutdown() throws IOException {
+		CompletableFuture<CalculationResponse> quote = new CompletableFuture<>();
+		ParcelRequest request = parcel("10.0", null);
+		when(costCalculatorService.calculateCostAsync(any())).thenReturn(quote);
+
+		ByteBuffer frame = ByteBuffer.allocate(BinaryPricingCodec.MAX_REQUEST_FRAME);
+		BinaryPricingCodec.encodeRequest(frame, 3, request);
+		send(frame);
+		socket.shutdownOutput();
+		CalculationResponse response = response("71.02");
+		quote.complete(response);
+
+		assertResponse(3, 200, response, null);
+		assertThrows(EOFException.class, () -> in.readInt());
+	}
+
+	private void send(ByteBuffer frames) throws IOException {
+		socket.getOutputStream().write(frames.array(), 0, frames.position());
+		socket.getOutputStream().flush();
+	}
+
+	private void assertResponse(int requestId, int status, CalculationResponse result, String message)
+			throws IOException {
+		int length = in.readInt();
+		byte[] frame = new byte[length];
+		in.readFully(frame);
+		ByteBuffer buffer = ByteBuffer.wrap(frame);
+		assertEquals(requestId, buffer.getInt());
+		BatchCalculationResponse response = BinaryPricingCodec.decodeResponse(buffer, length);
+		assertEquals(status, response.getStatus());
+		assertEquals(result, response.getResult());
+		assertEquals(message, response.getMessage());
+	}
+
+	private ParcelRequest parcel(String weight, String promoCode) {
+		// One scale for all decimals, as the codec reads them back
+		return ParcelRequest.builder().length(new BigDecimal("10.0")).width(new BigDecimal("20.5"))
+				.height(new BigDecimal("10.0")).weight(new BigDecimal(weight)).promoCode(promoCode).build();
+	}
+
+	private CalculationResponse response(String deliveryCost) {
+		return CalculationResponse.builder().deliveryCost(new BigDecimal(deliveryCost))
+				.totalWeight(new BigDecimal("10.00")).totalVolume(new BigDecimal("2050.0")).build();
+	}
+}
@@ -0,0 +1,261 @@
+package com.mynt.exam.deliverycostcalculator.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.mynt.exam.deliverycostcalculator.exception.DeliveryCostCalculationException;
+import com.mynt.exam.deliverycostcalculator.metrics.DeliveryCostMetrics;
+import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+import com.mynt.exam.deliverycostcalculator.model.PricingRule;
+import com.mynt.exam.deliverycostcalculator.service.intf.PricingEngine;
+import com.mynt.exam.deliverycostcalculator.util.ParcelColumns;
+import com.mynt.exam.deliverycostcalculator.util.PricedColumns;
+import com.mynt.exam.deliverycostcalculator.util.PricingRuleSnapshot;
+import com.mynt.exam.deliverycostcalculator.util.RulePriority;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ColumnarPricingKernelTest {
+
+	private static final int RANDOM_CASES = 100_000;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final DeliveryCostMetrics metrics = new DeliveryCostMetrics(meterRegistry);
+	private final BigDecimalPricingEngine bigDecimalEngine = new BigDecimalPricingEngine(metrics);
+	private final AtomicInteger fallbackCount = new AtomicInteger();
+
+	private ColumnarPricingKernel kernel;
+
+	@BeforeEach
+	void init() {
+		// Count parcels the kernel hands back to the BigDecimal engine
+		PricingEngine countingFallback = new BigDecimalPricingEngine(metrics) {
+
+			@Override
+			public PricedParcel price(ParcelRequest request, PricingRuleSnapshot rules) {
+				fallbackCount.incrementAndGet();
+				return super.price(request, rules);
+			}
+		};
+		kernel = new ColumnarPricingKernel(countingFallback, () -> PricingRuleSnapshot.DEFAULT, metrics);
+	}
+
+	/**
+	 * Test typical parcels are priced in fixed point like the BigDecimal engine,
+	 * including halfway rounding
+	 */
+	@Test
+	void testTypicalParcelsPricedInFixedPoint() {
+		List<ParcelRequest> requests = new ArrayList<>();
+		List<BigDecimal> discounts = new ArrayList<>();
+		add(requests, discounts, parcel("30", "20", "2", "3"), discount(12.25));
+		add(requests, discounts, parcel("10", "20", "10", "8"), discount(11.22));
+		add(requests, discounts, parcel("10", "20", "30", "10"), BigDecimal.ZERO);
+		add(requests, discounts, parcel("1", "1", "1", "15"), discount(7.5));
+		add(requests, discounts, parcel("0.1", "0.1", "0.005", "1"), BigDecimal.ZERO);
+		add(requests, discounts, parcel("0.5", "1", "1", "1"), BigDecimal.ZERO);
+		add(requests, discounts, parcel("1234.565", "1", "1", "10.005"), discount(50));
+		add(requests, discounts, parcel("0.001", "0.001", "0.001", "2"), BigDecimal.ZERO);
+
+		PricedColumns priced = assertEquivalent(requests, discounts);
+		assertEquals(0, fallbackCount.get());
+		assertEquals(RulePriority.SMALL_PARCEL, priced.getRule(0));
+		assertEquals(RulePriority.HEAVY_PARCEL, priced.getRule(3));
+		assertEquals(RulePriority.HEAVY_PARCEL, priced.getRule(7));
+	}
+
+	/**
+	 * Test rejected parcels and parcels beyond fixed-point range are priced by
+	 * the fallback engine, with the same rejection
+	 */
+	@Test
+	void testFallback() {
+		List<ParcelRequest> requests = new ArrayList<>();
+		List<BigDecimal> discounts = new ArrayList<>();
+		add(requests, discounts, parcel("10", "10", "10", "50.001"), BigDecimal.ZERO);
+		add(requests, discounts, parcel("10.0001", "10", "10", "5"), BigDecimal.ZERO);
+		add(requests, discounts, parcel("5000", "5000", "5000", "5"), BigDecimal.ZERO);
+		add(requests, discounts, parcel("10", "20", "10", "8"), new BigDecimal("0.12345"));
+		add(requests, discounts, parcel("10", "20", "10", "8"), discount(11.22));
+
+		PricedColumns priced = assertEquivalent(requests, discounts);
+		assertEquals(4, fallbackCount.get());
+		DeliveryCostCalculationException rejection = assertThrows(DeliveryCostCalculationException.class,
+				() -> priced.getResponse(0));
+		assertSame(PricingRuleSnapshot.DEFAULT.getRejection(), rejection);
+		assertNull(priced.getRule(1));
+		assertEquals(RulePriority.MEDIUM_PARCEL, priced.getRule(4));
+	}
+
+	/**
+	 * Test the kernel and the BigDecimal engine agree over a large randomized
+	 * input space, including fallback and rejected parcels
+	 */
+	@Test
+	void testRandomizedEquivalence() {
+		Random random = new Random(20221018L);
+		List<ParcelRequest> requests = new ArrayList<>();
+		List<BigDecimal> discounts = new ArrayList<>();
+		for (int i = 0; i < RANDOM_CASES; i++) {
+			add(requests, discounts,
+					ParcelRequest.builder().length(randomDecimal(random, 3000, 4)).width(randomDecimal(random, 300, 4))
+							.height(randomDecimal(random, 300, 4)).weight(randomDecimal(random, 60, 4)).build(),
+					randomDiscount(random));
+		}
+		assertEquivalent(requests, discounts);
+	}
+
+	/**
+	 * Test parcels within fixed-point range are never handed to the fallback, and
+	 * are counted per rule like single parcels
+	 */
+	@Test
+	void testRandomizedWithoutFallback() {
+		Random random = new Random(20221019L);
+		List<ParcelRequest> requests = new ArrayList<>();
+		List<BigDecimal> discounts = new ArrayList<>();
+		for (int i = 0; i < RANDOM_CASES; i++) {
+			add(requests, discounts,
+					ParcelRequest.builder().length(randomDecimal(random, 2000, 3)).width(randomDecimal(random, 200, 3))
+							.height(randomDecimal(random, 200, 3)).weight(randomDecimal(random, 49, 3)).build(),
+					randomDiscount(random));
+		}
+		PricedColumns priced = kernel.price(columns(requests, discounts));
+		assertEquals(0, fallbackCount.get());
+
+		long counted = 0;
+		for (RulePriority rule : RulePriority.values()) {
+			counted += (long) meterRegistry.get(DeliveryCostMetrics.RULE_SELECTED_METRIC)
+					.tag("rule", rule.getRemark()).counter().count();
+		}
+		assertEquals(RANDOM_CASES, counted);
+		for (int row = 0; row < RANDOM_CASES; row += 97) {
+			assertEquals(bigDecimalEngine.price(requests.get(row)).applyDiscount(discounts.get(row)),
+					priced.getResponse(row));
+		}
+	}
+
+	/**
+	 * Test parcels handed to the fallback engine are priced with the rules of the
+	 * fixed-point passes, not with rules reloaded since, in the kernel and in
+	 * engines without one
+	 */
+	@Test
+	void testFallbackUsesBatchRules() {
+		List<PricingRule> reloadedRules = PricingRuleSnapshot.defaultRules();
+		for (PricingRule rule : reloadedRules) {
+			if (rule.getRate() != null) {
+				rule.setRate(rule.getRate().multiply(BigDecimal.valueOf(2)));
+			}
+		}
+		PricingRuleSnapshot reloaded = PricingRuleSnapshot.compile(reloadedRules, 1);
+		List<ParcelRequest> requests = new ArrayList<>();
+		List<BigDecimal> discounts = new ArrayList<>();
+		add(requests, discounts, parcel("10", "20", "10", "8"), discount(12.25));
+		add(requests, discounts, parcel("10.0001", "10", "10", "5"), discount(12.25));
+		add(requests, discounts, parcel("5000", "5000", "5000", "5"), BigDecimal.ZERO);
+
+		for (int engine = 0; engine < 2; engine++) {
+			// Rules reloaded right after the batch read them
+			AtomicInteger snapshotReads = new AtomicInteger();
+			Supplier<PricingRuleSnapshot> reloadingRules = () -> snapshotReads.getAndIncrement() == 0
+					? PricingRuleSnapshot.DEFAULT
+					: reloaded;
+			BigDecimalPricingEngine fallbackEngine = new BigDecimalPricingEngine(reloadingRules, metrics);
+			PricedColumns priced = engine == 0
+					? new ColumnarPricingKernel(fallbackEngine, reloadingRules, metrics)
+							.price(columns(requests, discounts))
+					: fallbackEngine.priceColumns(columns(requests, discounts));
+			for (int row = 0; row < requests.size(); row++) {
+				assertEquals(bigDecimalEngine.price(requests.get(row)).applyDiscount(discounts.get(row)),
+						priced.getResponse(row));
+			}
+		}
+	}
+
+	/**
+	 * Test engines without a kernel price columns parcel by parcel
+	 */
+	@Test
+	void testDefaultPriceColumns() {
+		List<ParcelRequest> requests = new ArrayList<>();
+		List<BigDecimal> discounts = new ArrayList<>();
+		add(requests, discounts, parcel("30", "20", "2", "3"), discount(12.25));
+		add(requests, discounts, parcel("10", "10", "10", "51"), BigDecimal.ZERO);
+		add(requests, discounts, parcel("10.0001", "10", "10", "5"), discount(5));
+
+		PricedColumns priced = bigDecimalEngine.priceColumns(columns(requests, discounts));
+		assertEquals(bigDecimalEngine.price(requests.get(0)).applyDiscount(discounts.get(0)), priced.getResponse(0));
+		assertThrows(DeliveryCostCalculationException.class, () -> priced.getResponse(1));
+		assertEquals(bigDecimalEngine.price(requests.get(2)).applyDiscount(discounts.get(2)), priced.getResponse(2));
+	}
+
+	private PricedColumns assertEquivalent(List<ParcelRequest> requests, List<BigDecimal> discounts) {
+		PricedColumns priced = kernel.price(columns(requests, discounts));
+		assertEquals(requests.size(), priced.size());
+		for (int row = 0; row < requests.size(); row++) {
+			ParcelRequest request = requests.get(row);
+			CalculationResponse expected;
+			try {
+				expected = bigDecimalEngine.price(request).applyDiscount(discounts.get(row));
+			} catch (DeliveryCostCalculationException e) {
+				int rejectedRow = row;
+				DeliveryCostCalculationException actual = assertThrows(DeliveryCostCalculationException.class,
+						() -> priced.getResponse(rejectedRow));
+				assertEquals(e.getMessage(), actual.getMessage());
+				continue;
+			}
+			assertEquals(expected, priced.getResponse(row), request::toString);
+		}
+		return priced;
+	}
+
+	private static ParcelColumns columns(List<ParcelRequest> requests, List<BigDecimal> discounts) {
+		ParcelColumns columns = new ParcelColumns(requests.size());
+		for (int i = 0; i < requests.size(); i++) {
+			columns.add(requests.get(i), discounts.get(i));
+		}
+		return columns;
+	}
+
+	private static void add(List<ParcelRequest> requests, List<BigDecimal> discounts, ParcelRequest request,
+			BigDecimal discount) {
+		requests.add(request);
+		discounts.add(discount);
+	}
+
+	// Positive decimal up to max with 0 to maxScale decimal places
+	private BigDecimal randomDecimal(Random random, int max, int maxScale) {
+		int scale = random.nextInt(maxScale + 1);
+		long unscaled = 1 + (long) (random.nextDouble() * max * Math.pow(10, scale));
+		return BigDecimal.valueOf(unscaled, scale);
+	}
+
+	private BigDecimal randomDiscount(Random random) {
+		return random.nextInt(4) == 0 ? BigDecimal.ZERO : discount(random.nextInt(10_000_001) / 100_000d);
+	}
+
+	// Discount multiplier as derived from the voucher service response
+	private BigDecimal discount(double discount) {
+		return BigDecimal.valueOf(discount).divide(BigDecimal.valueOf(100), 4, RoundingMode.HALF_UP);
+	}
+
+	private ParcelRequest parcel(String length, String width, String height, String weight) {
+		return ParcelRequest.builder().length(new BigDecimal(length)).width(new BigDecimal(width))
+				.height(new BigDecimal(height)).weight(new BigDecimal(weight)).build();
+	}
+}
@@ -0,0 +1,156 @@
+package com.mynt.exam.deliverycostcalculator.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.validation.Validation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mynt.exam.deliverycostcalculator.audit.QuoteAuditLog;
+import com.mynt.exam.deliverycostcalculator.config.BatchProperties;
+import com.mynt.exam.deliverycostcalculator.config.BulkPricingProperties;
+import com.mynt.exam.deliverycostcalculator.config.QuoteAuditProperties;
+import com.mynt.exam.deliverycostcalculator.config.QuoteCacheProperties;
+import com.mynt.exam.deliverycostcalculator.metrics.DeliveryCostMetrics;
+import com.mynt.exam.deliverycostcalculator.model.BulkPricingReport;
+import com.mynt.exam.deliverycostcalculator.remoteservice.VoucherService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class FileBulkPricingServiceTest {
+
+	@TempDir
+	Path tempDir;
+
+	private final BulkPricingProperties bulkPricingProperties = new BulkPricingProperties();
+	private FileBulkPricingService bulkPricingService;
+
+	@BeforeEach
+	void init() {
+		Map<String, Object> promoResponse = new HashMap<>();
+		promoResponse.put("code", "MYNT");
+		promoResponse.put("discount", 12.25);
+		promoResponse.put("expiry", "2050-08-18");
+		VoucherService voucherService = Mockito.mock(VoucherService.class);
+		Mockito.when(voucherService.getVoucherDiscountFromPromoCode("MYNT")).thenReturn(promoResponse);
+
+		DeliveryCostMetrics metrics = new DeliveryCostMetrics(new SimpleMeterRegistry());
+		BatchProperties batchProperties = new BatchProperties();
+		ParcelDeliveryCostCalculatorService costCalculatorService = new ParcelDeliveryCostCalculatorService(
+				voucherService, Validation.buildDefaultValidatorFactory().getValidator(), ForkJoinPool.commonPool(),
+				batchProperties, new BigDecimalPricingEngine(metrics), metrics,
+				new QuoteCache(new QuoteCacheProperties(), null, null, null),
+				new QuoteAuditLog(new QuoteAuditProperties(), new SimpleMeterRegistry()));
+
+		// Small chunks so rows of several chunks are priced at the same time
+		bulkPricingProperties.setChunkSize(2);
+		bulkPricingProperties.setParallelism(2);
+		bulkPricingService = new FileBulkPricingService(costCalculatorService, bulkPricingProperties,
+				batchProperties);
+	}
+
+	/**
+	 * Test CSV rows are priced or rejected like the batch endpoint, in input
+	 * order
+	 */
+	@Test
+	void testPriceCsvFile() throws IOException {
+		Path input = write("parcels.csv", "length,width,height,weight,promoCode\n" + "10,20,10,8,\n"
+				+ "10,20,10,8,mynt\n" + "10,20,10,51,\n" + "0,20,10,8,\n" + "10,abc\n");
+		Path output = tempDir.resolve("parcels-priced.csv");
+
+		BulkPricingReport report = bulkPricingService.priceFile(input, output);
+		assertEquals(5, report.getRows());
+		assertEquals(2, report.getPriced());
+		assertEquals(3, report.getRejected());
+		assertTrue(report.getRowsPerSecond() > 0);
+
+		List<String> lines = Files.readAllLines(output);
+		assertEquals("row,status,deliveryCost,totalWeight,totalVolume,message", lines.get(0));
+		assertEquals("1,200,80.00,8.00,2000.00,", lines.get(1));
+		assertEquals("2,200,70.20,8.00,2000.00,", lines.get(2));
+		assertEquals("3,403,,,,\"Weight exceeds 50kg. Reject cost calculation for parcel\"", lines.get(3));
+		assertEquals("4,400,,,,\"Length cannot be less than 1cm\"", lines.get(4));
+		assertEquals("5,400,,,,\"Parcel dimensions and weight are required\"", lines.get(5));
+		assertEquals(6, lines.size());
+	}
+
+	/**
+	 * Test NDJSON rows are written back as NDJSON
+	 */
+	@Test
+	void testPriceJsonFile() throws IOException {
+		Path input = write("parcels.ndjson", "{\"length\":10,\"width\":20,\"height\":10,\"weight\":8,\"promoCode\":\"MYNT\"}\n"
+				+ "{\"length\":10,\"width\":20,\"height\":10,\"weight\":51}\n");
+		Path output = tempDir.resolve("parcels-priced.ndjson");
+
+		BulkPricingReport report = bulkPricingService.priceFile(input, output);
+		assertEquals(2, report.getRows());
+
+		ObjectMapper mapper = new ObjectMapper();
+		List<String> lines = Files.readAllLines(output);
+		assertEquals(2, lines.size());
+		JsonNode priced = mapper.readTree(lines.get(0));
+		assertEquals(1, priced.get("row").asInt());
+		assertEquals(200, priced.get("status").asInt());
+		assertEquals(0, new BigDecimal("70.20").compareTo(priced.get("deliveryCost").decimalValue()));
+		JsonNode rejected = mapper.readTree(lines.get(1));
+		assertEquals(403, rejected.get("status").asInt());
+		assertEquals("Weight exceeds 50kg. Reject cost calculation for parcel", rejected.get("message").asText());
+	}
+
+	/**
+	 * Test many chunks priced in parallel are written in input order
+	 */
+	@Test
+	void testPriceFileKeepsRowOrder() throws IOException {
+		StringBuilder content = new StringBuilder();
+		for (int i = 1; i <= 101; i++) {
+			// Odd rows are priced, even rows exceed the weight limit
+			content.append("10,20,10,").append(i % 2 == 0 ? 51 : 8).append('\n');
+		}
+		Path output = tempDir.resolve("order-priced.csv");
+
+		BulkPricingReport report = bulkPricingService.priceFile(write("order.csv", content.toString()), output);
+		assertEquals(101, report.getRows());
+		assertEquals(51, report.getPriced());
+
+		List<String> lines = Files.readAllLines(output);
+		for (int i = 1; i <= 101; i++) {
+			assertTrue(lines.get(i).startsWith(i + (i % 2 == 0 ? ",403," : ",200,")), lines.get(i));
+		}
+	}
+
+	/**
+	 * Test priced file defaults to the input file name suffixed with -priced
+	 */
+	@Test
+	void testResolveOutput() {
+		bulkPricingProperties.setInput(tempDir.resolve("manifest.csv"));
+		assertEquals(tempDir.resolve("manifest-priced.csv"), bulkPricingProperties.resolveOutput());
+		assertEquals(BulkPricingProperties.Format.CSV,
+				bulkPricingProperties.resolveFormat(bulkPricingProperties.getInput()));
+		assertEquals(BulkPricingProperties.Format.NDJSON,
+				bulkPricingProperties.resolveFormat(tempDir.resolve("manifest.jsonl")));
+	}
+
+	private Path write(String fileName, String content) throws IOException {
+		return Files.write(tempDir.resolve(fileName), content.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,255 @@
+package com.mynt.exam.deliverycostcalculator.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.mynt.exam.deliverycostcalculator.exception.DeliveryCostCalculationException;
+import com.mynt.exam.deliverycostcalculator.metrics.DeliveryCostMetrics;
+import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+import com.mynt.exam.deliverycostcalculator.model.PricingRule;
+import com.mynt.exam.deliverycostcalculator.service.intf.PricingEngine;
+import com.mynt.exam.deliverycostcalculator.service.intf.PricingEngine.PricedParcel;
+import com.mynt.exam.deliverycostcalculator.util.PricingRuleSnapshot;
+import com.mynt.exam.deliverycostcalculator.util.RulePriority;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class FixedPointPricingEngineTest {
+
+	private static final int RANDOM_CASES = 200_000;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final DeliveryCostMetrics metrics = new DeliveryCostMetrics(meterRegistry);
+	private final BigDecimalPricingEngine bigDecimalEngine = new BigDecimalPricingEngine(metrics);
+	private final AtomicInteger fallbackCount = new AtomicInteger();
+
+	private FixedPointPricingEngine fixedPointEngine;
+
+	@BeforeEach
+	void init() {
+		// Count parcels the fixed-point engine hands back to the BigDecimal engine
+		PricingEngine countingFallback = new BigDecimalPricingEngine(metrics) {
+
+			@Override
+			public PricedParcel price(ParcelRequest request, PricingRuleSnapshot rules) {
+				fallbackCount.incrementAndGet();
+				return super.price(request, rules);
+			}
+		};
+		fixedPointEngine = new FixedPointPricingEngine(countingFallback, metrics);
+	}
+
+	/**
+	 * Test typical whole and 2 decimal place parcels are priced without fallback
+	 */
+	@Test
+	void testTypicalParcelsPricedInFixedPoint() {
+		assertEquivalent(parcel("30", "20", "2", "3"), discount(12.25));
+		assertEquivalent(parcel("10", "20", "10", "8"), discount(11.22));
+		assertEquivalent(parcel("10", "20", "30", "10"), BigDecimal.ZERO);
+		assertEquivalent(parcel("1", "1", "1", "15"), discount(7.5));
+		assertEquivalent(parcel("12.35", "7.10", "3.33", "2.25"), discount(33.333));
+		assertEquals(0, fallbackCount.get());
+	}
+
+	/**
+	 * Test values landing exactly halfway are rounded up like BigDecimal HALF_UP
+	 */
+	@Test
+	void testHalfwayRounding() {
+		// Volume 0.00005 rounds to 0.0001
+		assertEquivalent(parcel("0.1", "0.1", "0.005", "1"), BigDecimal.ZERO);
+		// SMALL: 0.03 * 0.5 = 0.015 rounds to 0.02
+		assertEquivalent(parcel("0.5", "1", "1", "1"), BigDecimal.ZERO);
+		// Weight 10.005 rounds to 10.01, volume 1234.565 rounds to 1234.57
+		assertEquivalent(parcel("1234.565", "1", "1", "10.005"), discount(50));
+		assertEquals(0, fallbackCount.get());
+	}
+
+	/**
+	 * Test volume rounded to zero falls back to HEAVY calculation like the
+	 * BigDecimal engine
+	 */
+	@Test
+	void testZeroVolume() {
+		assertEquivalent(parcel("0.001", "0.001", "0.001", "2"), BigDecimal.ZERO);
+	}
+
+	/**
+	 * Test parcels over 50kg are rejected with the same exception
+	 */
+	@Test
+	void testWeightExceedLimit() {
+		DeliveryCostCalculationException expected = assertThrows(DeliveryCostCalculationException.class,
+				() -> fixedPointEngine.price(parcel("10", "10", "10", "50.001")));
+		assertEquals("Weight exceeds 50kg. Reject cost calculation for parcel", expected.getMessage());
+	}
+
+	/**
+	 * Test parcels beyond fixed-point range fall back to the BigDecimal engine
+	 */
+	@Test
+	void testFallback() {
+		// Too many decimal places
+		assertEquivalent(parcel("10.0001", "10", "10", "5"), BigDecimal.ZERO);
+		// Dimension too large to multiply without overflow
+		assertEquivalent(parcel("5000", "5000", "5000", "5"), BigDecimal.ZERO);
+		assertEquals(2, fallbackCount.get());
+	}
+
+	/**
+	 * Test a discount beyond fixed-point range is applied without pricing the
+	 * parcel again, counting its rule once
+	 */
+	@Test
+	void testDiscountFallbackCountsRuleOnce() {
+		ParcelRequest request = parcel("10", "20", "10", "8");
+		BigDecimal tooPrecise = new BigDecimal("0.12345");
+		BigDecimal tooLarge = new BigDecimal("1.5");
+		CalculationResponse tooPreciseResponse = fixedPointEngine.price(request).applyDiscount(tooPrecise);
+		CalculationResponse tooLargeResponse = fixedPointEngine.price(request).applyDiscount(tooLarge);
+
+		assertEquals(0, fallbackCount.get());
+		assertEquals(2, meterRegistry.get(DeliveryCostMetrics.RULE_SELECTED_METRIC)
+				.tag("rule", RulePriority.MEDIUM_PARCEL.getRemark()).counter().count());
+		assertEquals(bigDecimalEngine.price(request).applyDiscount(tooPrecise), tooPreciseResponse);
+		assertEquals(bigDecimalEngine.price(request).applyDiscount(tooLarge), tooLargeResponse);
+	}
+
+	/**
+	 * Test fixed-point and BigDecimal engines agree over a large randomized input
+	 * space, including fallback and rejected parcels
+	 */
+	@Test
+	void testRandomizedEquivalence() {
+		Random random = new Random(20220818L);
+		for (int i = 0; i < RANDOM_CASES; i++) {
+			ParcelRequest request = ParcelRequest.builder().length(randomDecimal(random, 3000, 4))
+					.width(randomDecimal(random, 300, 4)).height(randomDecimal(random, 300, 4))
+					.weight(randomDecimal(random, 60, 4)).build();
+			assertEquivalent(request, randomDiscount(random));
+		}
+	}
+
+	/**
+	 * Test parcels within fixed-point range are never handed to the fallback
+	 */
+	@Test
+	void testRandomizedWithoutFallback() {
+		Random random = new Random(20220819L);
+		for (int i = 0; i < RANDOM_CASES; i++) {
+			ParcelRequest request = ParcelRequest.builder().length(randomDecimal(random, 2000, 3))
+					.width(randomDecimal(random, 200, 3)).height(randomDecimal(random, 200, 3))
+					.weight(randomDecimal(random, 49, 3)).build();
+			assertEquivalent(request, randomDiscount(random));
+		}
+		assertEquals(0, fallbackCount.get());
+	}
+
+	/**
+	 * Test shipment parcels are priced like single parcels, reading the pricing
+	 * rules once per shipment in both engines
+	 */
+	@Test
+	void testPriceAll() {
+		AtomicInteger snapshotReads = new AtomicInteger();
+		PricingEngine countingBigDecimalEngine = new BigDecimalPricingEngine(() -> {
+			snapshotReads.incrementAndGet();
+			return PricingRuleSnapshot.DEFAULT;
+		}, metrics);
+		PricingEngine countingFixedPointEngine = new FixedPointPricingEngine(bigDecimalEngine, () -> {
+			snapshotReads.incrementAndGet();
+			return PricingRuleSnapshot.DEFAULT;
+		}, metrics);
+		List<ParcelRequest> parcels = Arrays.asList(parcel("30", "20", "2", "3"), parcel("10", "20", "10", "8"),
+				parcel("10", "20", "30", "10"), parcel("1", "1", "1", "15"), parcel("12.35", "7.10", "3.33", "2.25"));
+
+		for (PricingEngine engine : Arrays.asList(countingBigDecimalEngine, countingFixedPointEngine)) {
+			snapshotReads.set(0);
+			List<PricedParcel> pricedParcels = engine.priceAll(parcels);
+			assertEquals(1, snapshotReads.get());
+			assertEquals(parcels.size(), pricedParcels.size());
+			for (int i = 0; i < parcels.size(); i++) {
+				assertEquals(bigDecimalEngine.price(parcels.get(i)).applyDiscount(discount(12.25)),
+						pricedParcels.get(i).applyDiscount(discount(12.25)));
+			}
+		}
+	}
+
+	/**
+	 * Test parcels of a shipment handed to the fallback engine are priced with
+	 * the rules read for the shipment, not with rules reloaded since
+	 */
+	@Test
+	void testPriceAllFallbackUsesShipmentRules() {
+		List<PricingRule> reloadedRules = PricingRuleSnapshot.defaultRules();
+		for (PricingRule rule : reloadedRules) {
+			if (rule.getRate() != null) {
+				rule.setRate(rule.getRate().multiply(BigDecimal.valueOf(2)));
+			}
+		}
+		PricingRuleSnapshot reloaded = PricingRuleSnapshot.compile(reloadedRules, 1);
+		// Rules reloaded right after the shipment read them
+		AtomicInteger snapshotReads = new AtomicInteger();
+		Supplier<PricingRuleSnapshot> reloadingRules = () -> snapshotReads.getAndIncrement() == 0
+				? PricingRuleSnapshot.DEFAULT
+				: reloaded;
+		PricingEngine engine = new FixedPointPricingEngine(new BigDecimalPricingEngine(reloadingRules, metrics),
+				reloadingRules, metrics);
+		// Priced in fixed point, too precise and too large for fixed point
+		List<ParcelRequest> parcels = Arrays.asList(parcel("10", "20", "10", "8"), parcel("10.0001", "10", "10", "5"),
+				parcel("5000", "5000", "5000", "5"));
+
+		List<PricedParcel> pricedParcels = engine.priceAll(parcels);
+		for (int i = 0; i < parcels.size(); i++) {
+			assertEquals(bigDecimalEngine.price(parcels.get(i)).applyDiscount(discount(12.25)),
+					pricedParcels.get(i).applyDiscount(discount(12.25)));
+		}
+	}
+
+	private void assertEquivalent(ParcelRequest request, BigDecimal discountPct) {
+		CalculationResponse expected;
+		try {
+			expected = bigDecimalEngine.price(request).applyDiscount(discountPct);
+		} catch (DeliveryCostCalculationException e) {
+			DeliveryCostCalculationException actual = assertThrows(DeliveryCostCalculationException.class,
+					() -> fixedPointEngine.price(request));
+			assertEquals(e.getMessage(), actual.getMessage());
+			return;
+		}
+		assertEquals(expected, fixedPointEngine.price(request).applyDiscount(discountPct), request::toString);
+	}
+
+	// Positive decimal up to max with 0 to maxScale decimal places
+	private BigDecimal randomDecimal(Random random, int max, int maxScale) {
+		int scale = random.nextInt(maxScale + 1);
+		long unscaled = 1 + (long) (random.nextDouble() * max * Math.pow(10, scale));
+		return BigDecimal.valueOf(unscaled, scale);
+	}
+
+	private BigDecimal randomDiscount(Random random) {
+		return random.nextInt(4) == 0 ? BigDecimal.ZERO : discount(random.nextInt(10_000_001) / 100_000d);
+	}
+
+	// Discount multiplier as derived from the voucher service response
+	private BigDecimal discount(double discount) {
+		return BigDecimal.valueOf(discount).divide(BigDecimal.valueOf(100), 4, RoundingMode.HALF_UP);
+	}
+
+	private ParcelRequest parcel(String length, String width, String height, String weight) {
+		return ParcelRequest.builder().length(new BigDecimal(length)).width(new BigDecimal(width))
+				.height(new BigDecimal(height)).weight(new BigDecimal(weight)).build();
+	}
+}
@@ -0,0 +1,151 @@
+package com.mynt.exam.deliverycostcalculator.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import com.mynt.exam.deliverycostcalculator.config.IdempotencyProperties;
+import com.mynt.exam.deliverycostcalculator.exception.DeliveryCostCalculationException;
+import com.mynt.exam.deliverycostcalculator.exception.IdempotencyKeyReuseException;
+import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+
+class IdempotencyStoreTest {
+
+	private static final ParcelRequest REQUEST = ParcelRequest.builder().length(BigDecimal.TEN)
+			.width(BigDecimal.TEN).height(BigDecimal.TEN).weight(BigDecimal.ONE).promoCode("MYNT").build();
+	private static final CalculationResponse RESPONSE = CalculationResponse.builder().deliveryCost(BigDecimal.TEN)
+			.totalWeight(BigDecimal.ONE).totalVolume(BigDecimal.valueOf(1000)).build();
+
+	private final IdempotencyProperties properties = new IdempotencyProperties();
+	private final AtomicInteger calculations = new AtomicInteger();
+
+	/**
+	 * Test a retry arriving while the first request is calculated waits for the
+	 * same quote, and later retries replay it
+	 */
+	@Test
+	void testRetriesShareFirstCalculation() {
+		IdempotencyStore store = new IdempotencyStore(properties);
+		CompletableFuture<CalculationResponse> calculation = new CompletableFuture<>();
+
+		CompletableFuture<CalculationResponse> first = store.calculate("key-1", REQUEST, calculating(calculation));
+		CompletableFuture<CalculationResponse> retry = store.calculate("key-1", copy(REQUEST),
+				calculating(calculation));
+		assertFalse(retry.isDone());
+
+		calculation.complete(RESPONSE);
+		assertSame(RESPONSE, first.join());
+		assertSame(RESPONSE, retry.join());
+		assertSame(RESPONSE, store.calculate("key-1", REQUEST, calculating(calculation)).join());
+		assertEquals(1, calculations.get());
+	}
+
+	/**
+	 * Test a rejection is replayed without calculating again
+	 */
+	@Test
+	void testRejectionReplayed() {
+		IdempotencyStore store = new IdempotencyStore(properties);
+		DeliveryCostCalculationException rejection = DeliveryCostCalculationException
+				.rejection("Weight exceeds 50kg. Reject cost calculation for parcel");
+
+		store.calculate("key-1", REQUEST, calculating(CompletableFuture.failedFuture(rejection)));
+		CompletableFuture<CalculationResponse> retry = store.calculate("key-1", REQUEST,
+				calculating(CompletableFuture.completedFuture(RESPONSE)));
+
+		CompletionException e = assertThrows(CompletionException.class, retry::join);
+		assertSame(rejection, e.getCause());
+		assertEquals(1, calculations.get());
+	}
+
+	/**
+	 * Test an unexpected failure is not replayed, the retry calculates again
+	 */
+	@Test
+	void testFailureNotReplayed() {
+		IdempotencyStore store = new IdempotencyStore(properties);
+
+		CompletableFuture<CalculationResponse> first = store.calculate("key-1", REQUEST,
+				calculating(CompletableFuture.failedFuture(new IllegalStateException("Pricing rules not loaded"))));
+		assertTrue(first.isCompletedExceptionally());
+		assertSame(RESPONSE,
+				store.calculate("key-1", REQUEST, calculating(CompletableFuture.completedFuture(RESPONSE))).join());
+		assertEquals(2, calculations.get());
+	}
+
+	/**
+	 * Test a key sent again with another parcel is refused
+	 */
+	@Test
+	void testKeyReusedForAnotherRequest() {
+		IdempotencyStore store = new IdempotencyStore(properties);
+		store.calculate("key-1", REQUEST, calculating(CompletableFuture.completedFuture(RESPONSE)));
+
+		ParcelRequest otherRequest = copy(REQUEST);
+		otherRequest.setPromoCode("GFI");
+		assertThrows(IdempotencyKeyReuseException.class, () -> store.calculate("key-1", otherRequest,
+				calculating(CompletableFuture.completedFuture(RESPONSE))));
+		assertEquals(1, calculations.get());
+	}
+
+	/**
+	 * Test a retry differing only in decimal scale and promo code case replays
+	 * the quote instead of being refused
+	 */
+	@Test
+	void testRetryWithEquivalentRequestReplayed() {
+		IdempotencyStore store = new IdempotencyStore(properties);
+		store.calculate("key-1", REQUEST, calculating(CompletableFuture.completedFuture(RESPONSE)));
+
+		ParcelRequest retryRequest = copy(REQUEST);
+		retryRequest.setLength(new BigDecimal("10.0"));
+		retryRequest.setWeight(new BigDecimal("1.00"));
+		retryRequest.setPromoCode("mynt");
+		assertSame(RESPONSE, store.calculate("key-1", retryRequest,
+				calculating(CompletableFuture.completedFuture(RESPONSE))).join());
+		assertEquals(1, calculations.get());
+	}
+
+	/**
+	 * Test requests without key, or with the store disabled, are always
+	 * calculated
+	 */
+	@Test
+	void testCalculatedWithoutKey() {
+		IdempotencyStore store = new IdempotencyStore(properties);
+		store.calculate(null, REQUEST, calculating(CompletableFuture.completedFuture(RESPONSE)));
+		store.calculate(" ", REQUEST, calculating(CompletableFuture.completedFuture(RESPONSE)));
+
+		properties.setEnabled(false);
+		IdempotencyStore disabledStore = new IdempotencyStore(properties);
+		disabledStore.calculate("key-1", REQUEST, calculating(CompletableFuture.completedFuture(RESPONSE)));
+		disabledStore.calculate("key-1", REQUEST, calculating(CompletableFuture.completedFuture(RESPONSE)));
+
+		assertEquals(4, calculations.get());
+		assertEquals(0, store.getSize());
+	}
+
+	private Function<ParcelRequest, CompletableFuture<CalculationResponse>> calculating(
+			CompletableFuture<CalculationResponse> quote) {
+		return request -> {
+			calculations.incrementAndGet();
+			return quote;
+		};
+	}
+
+	private static ParcelRequest copy(ParcelRequest request) {
+		return ParcelRequest.builder().length(request.getLength()).width(request.getWidth())
+				.height(request.getHeight()).weight(request.getWeight()).promoCode(request.getPromoCode()).build();
+	}
+}
@@ -0,0 +1,86 @@
+package com.mynt.exam.deliverycostcalculator.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+import com.mynt.exam.deliverycostcalculator.model.PricingRule;
+import com.mynt.exam.deliverycostcalculator.repository.PricingRuleRepository;
+import com.mynt.exam.deliverycostcalculator.service.intf.DeliveryCostCalculatorService;
+import com.mynt.exam.deliverycostcalculator.util.PricingRuleSnapshot;
+import com.mynt.exam.deliverycostcalculator.util.RulePriority;
+
+@SpringBootTest
+class JpaPricingRuleServiceTest {
+
+	@Autowired
+	private JpaPricingRuleService pricingRuleService;
+
+	@Autowired
+	private PricingRuleRepository pricingRuleRepository;
+
+	@Autowired
+	private DeliveryCostCalculatorService deliveryCostCalculatorService;
+
+	@AfterEach
+	void restoreDefaultRules() {
+		pricingRuleRepository.saveAll(PricingRuleSnapshot.defaultRules());
+		pricingRuleService.reload();
+	}
+
+	/**
+	 * Test empty table is seeded with the default rules
+	 */
+	@Test
+	void testSeededWithDefaultRules() {
+		assertEquals(RulePriority.values().length, pricingRuleRepository.count());
+		assertEquals(0, calculate().getDeliveryCost().compareTo(new BigDecimal("80")));
+	}
+
+	/**
+	 * Test stored rate change is only priced with after a reload
+	 */
+	@Test
+	void testRateChangeVisibleAfterReload() {
+		PricingRule medium = pricingRuleRepository.findById(RulePriority.MEDIUM_PARCEL).orElseThrow();
+		medium.setRate(new BigDecimal("0.05"));
+		pricingRuleRepository.save(medium);
+		assertEquals(0, calculate().getDeliveryCost().compareTo(new BigDecimal("80")));
+
+		long version = pricingRuleService.getSnapshot().getVersion();
+		PricingRuleSnapshot reloaded = pricingRuleService.reload();
+		assertEquals(version + 1, reloaded.getVersion());
+		assertSame(reloaded, pricingRuleService.getSnapshot());
+		assertEquals(0, calculate().getDeliveryCost().compareTo(new BigDecimal("100")));
+	}
+
+	/**
+	 * Test invalid stored rules keep the rules in use
+	 */
+	@Test
+	void testInvalidReloadKeepsSnapshot() {
+		PricingRuleSnapshot snapshot = pricingRuleService.getSnapshot();
+		PricingRule small = pricingRuleRepository.findById(RulePriority.SMALL_PARCEL).orElseThrow();
+		small.setRate(null);
+		pricingRuleRepository.save(small);
+
+		assertThrows(IllegalArgumentException.class, pricingRuleService::reload);
+		assertSame(snapshot, pricingRuleService.getSnapshot());
+		assertEquals(0, calculate().getDeliveryCost().compareTo(new BigDecimal("80")));
+	}
+
+	// Medium parcel of 2000cm3, 80.00 with the default rate
+	private CalculationResponse calculate() {
+		return deliveryCostCalculatorService.calculateCost(ParcelRequest.builder().length(BigDecimal.TEN)
+				.width(BigDecimal.valueOf(20)).height(BigDecimal.TEN).weight(BigDecimal.valueOf(8)).build());
+	}
+}
@@ -2,12 +2,21 @@ package com.mynt.exam.deliverycostcalculator.service.impl;
 
 import static org.junit.Assert.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.validation.Validation;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,13 +24,25 @@ import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import com.mynt.exam.deliverycostcalculator.audit.QuoteAuditLog;
+import com.mynt.exam.deliverycostcalculator.config.BatchProperties;
+import com.mynt.exam.deliverycostcalculator.config.QuoteAuditProperties;
+import com.mynt.exam.deliverycostcalculator.config.QuoteCacheProperties;
 import com.mynt.exam.deliverycostcalculator.exception.DeliveryCostCalculationException;
+import com.mynt.exam.deliverycostcalculator.metrics.DeliveryCostMetrics;
+import com.mynt.exam.deliverycostcalculator.model.BatchCalculationResponse;
 import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
 import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+import com.mynt.exam.deliverycostcalculator.model.ShipmentCalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.ShipmentRequest;
 import com.mynt.exam.deliverycostcalculator.remoteservice.VoucherService;
+import com.mynt.exam.deliverycostcalculator.service.intf.PricingEngine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @SpringBootTest
 @RunWith(SpringRunner.class)
@@ -33,6 +54,22 @@ class ParcelDeliveryCostCalculatorServiceTest {
 	@Mock
 	private VoucherService voucherService;
 
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Spy
+	private DeliveryCostMetrics metrics = new DeliveryCostMetrics(meterRegistry);
+
+	@Spy
+	private PricingEngine pricingEngine = new BigDecimalPricingEngine(metrics);
+
+	// Disabled, calculations are tested without cached quotes
+	@Spy
+	private QuoteCache quoteCache = new QuoteCache(new QuoteCacheProperties(), null, null, null);
+
+	// Disabled, nothing is audited
+	@Spy
+	private QuoteAuditLog quoteAuditLog = new QuoteAuditLog(new QuoteAuditProperties(), meterRegistry);
+
 	private final Map<String, Object> noPromoResponse = Collections.emptyMap();
 	private final Map<String, Object> withPromoResponse = new HashMap<>();
 
@@ -208,6 +245,26 @@ class ParcelDeliveryCostCalculatorServiceTest {
 		assertEquals("Weight exceeds 50kg. Reject cost calculation for parcel", expected.getMessage());
 	}
 
+	/**
+	 * Test rejections are preallocated and carry no stack trace
+	 */
+	@Test
+	void testRejectionsStackless() {
+		ParcelRequest overweight = ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.TEN)
+				.height(BigDecimal.TEN).weight(BigDecimal.valueOf(100)).build();
+		ParcelRequest invalid = ParcelRequest.builder().length(BigDecimal.ZERO).width(BigDecimal.TEN)
+				.height(BigDecimal.TEN).weight(BigDecimal.valueOf(10)).build();
+
+		for (ParcelRequest request : Arrays.asList(overweight, invalid)) {
+			DeliveryCostCalculationException first = assertThrows(DeliveryCostCalculationException.class,
+					() -> parcelDeliveryCostCalculatorService.calculateCost(request));
+			DeliveryCostCalculationException second = assertThrows(DeliveryCostCalculationException.class,
+					() -> parcelDeliveryCostCalculatorService.calculateCost(request));
+			assertSame(first, second);
+			assertEquals(0, first.getStackTrace().length);
+		}
+	}
+
 	/**
 	 * Test cost calculation with invalid length. Should
 	 * throw @DeliveryCostCalculationException
@@ -271,4 +328,235 @@ class ParcelDeliveryCostCalculatorServiceTest {
 		});
 		assertEquals("Invalid dimension. Reject cost calculation for parcel", expected.getMessage());
 	}
+
+	/**
+	 * Test asynchronous cost calculation for Medium Parcel (with promo)
+	 */
+	@Test
+	void testCalculateCostAsyncMediumParcelWithPromo() {
+		ParcelRequest request = ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.valueOf(20))
+				.height(BigDecimal.TEN).weight(BigDecimal.valueOf(8)).promoCode(PROMO_CODE).build();
+		CompletableFuture<Map<String, Object>> voucherFuture = new CompletableFuture<>();
+		Mockito.when(voucherService.getVoucherDiscountFromPromoCodeAsync(PROMO_CODE)).thenReturn(voucherFuture);
+
+		CompletableFuture<CalculationResponse> responseFuture = parcelDeliveryCostCalculatorService
+				.calculateCostAsync(request);
+		// Response waits for the voucher lookup
+		assertFalse(responseFuture.isDone());
+
+		voucherFuture.complete(withPromoResponse);
+		CalculationResponse response = responseFuture.join();
+		assertEquals(BigDecimal.valueOf(2000).setScale(2), response.getTotalVolume());
+		assertEquals(BigDecimal.valueOf(8).setScale(2), response.getTotalWeight());
+		// MEDIUM calculation = volume * 0.04 = 2000 * 0.04
+		// With promo: 80 - (80 * 0.1122)
+		assertEquals(BigDecimal.valueOf(71.02).setScale(2), response.getDeliveryCost());
+	}
+
+	/**
+	 * Test asynchronous cost calculation with weight exceeding 50kg. Should
+	 * complete with @DeliveryCostCalculationException
+	 */
+	@Test
+	void testCalculateCostAsyncWeightExceedLimit() {
+		ParcelRequest request = ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.TEN)
+				.height(BigDecimal.TEN).weight(BigDecimal.valueOf(100)).build();
+		Mockito.when(voucherService.getVoucherDiscountFromPromoCodeAsync(null))
+				.thenReturn(CompletableFuture.completedFuture(noPromoResponse));
+
+		CompletableFuture<CalculationResponse> responseFuture = parcelDeliveryCostCalculatorService
+				.calculateCostAsync(request);
+		CompletionException expected = assertThrows(CompletionException.class, responseFuture::join);
+		assertEquals(DeliveryCostCalculationException.class, expected.getCause().getClass());
+		assertEquals("Weight exceeds 50kg. Reject cost calculation for parcel", expected.getCause().getMessage());
+	}
+
+	/**
+	 * Test batch cost calculation with priced, invalid and rejected parcels. Promo
+	 * code shared by several parcels should only be looked up once
+	 */
+	@Test
+	void testCalculateCostBatch() {
+		ParcelDeliveryCostCalculatorService batchService = createBatchService(new BatchProperties());
+		Mockito.when(voucherService.getVoucherDiscountFromPromoCode("TEST")).thenReturn(withPromoResponse);
+
+		List<ParcelRequest> requests = Arrays.asList(
+				ParcelRequest.builder().length(BigDecimal.valueOf(30)).width(BigDecimal.valueOf(20))
+						.height(BigDecimal.valueOf(2)).weight(BigDecimal.valueOf(3)).promoCode(PROMO_CODE).build(),
+				ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.valueOf(20)).height(BigDecimal.TEN)
+						.weight(BigDecimal.valueOf(8)).promoCode("Test").build(),
+				ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.valueOf(20))
+						.height(BigDecimal.valueOf(30)).weight(BigDecimal.valueOf(10)).build(),
+				ParcelRequest.builder().length(BigDecimal.ZERO).width(BigDecimal.TEN).height(BigDecimal.TEN)
+						.weight(BigDecimal.TEN).promoCode(PROMO_CODE).build(),
+				ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.TEN).height(BigDecimal.TEN)
+						.weight(BigDecimal.valueOf(100)).build());
+
+		List<BatchCalculationResponse> responses = batchService.calculateCostBatch(requests);
+		assertEquals(requests.size(), responses.size());
+		// SMALL with promo: 36 - (36 * 0.1122)
+		assertEquals(200, responses.get(0).getStatus());
+		assertEquals(BigDecimal.valueOf(31.96), responses.get(0).getResult().getDeliveryCost());
+		// MEDIUM with promo: 80 - (80 * 0.1122)
+		assertEquals(200, responses.get(1).getStatus());
+		assertEquals(BigDecimal.valueOf(71.02), responses.get(1).getResult().getDeliveryCost());
+		// LARGE without promo: 6000 * 0.05
+		assertEquals(200, responses.get(2).getStatus());
+		assertEquals(BigDecimal.valueOf(300).setScale(2), responses.get(2).getResult().getDeliveryCost());
+		assertEquals(400, responses.get(3).getStatus());
+		assertEquals("Length cannot be less than 1cm", responses.get(3).getMessage());
+		assertEquals(403, responses.get(4).getStatus());
+		assertEquals("Weight exceeds 50kg. Reject cost calculation for parcel", responses.get(4).getMessage());
+
+		Mockito.verify(voucherService, Mockito.times(1)).getVoucherDiscountFromPromoCode("TEST");
+	}
+
+	/**
+	 * Test batch cost calculation exceeding the maximum batch size. Should
+	 * throw @DeliveryCostCalculationException
+	 */
+	@Test
+	void testCalculateCostBatchExceedLimit() {
+		BatchProperties batchProperties = new BatchProperties();
+		batchProperties.setMaxSize(1);
+		ParcelDeliveryCostCalculatorService batchService = createBatchService(batchProperties);
+
+		ParcelRequest request = ParcelRequest.builder().length(BigDecimal.ONE).width(BigDecimal.ONE)
+				.height(BigDecimal.ONE).weight(BigDecimal.ONE).build();
+		List<ParcelRequest> requests = Arrays.asList(request, request);
+		DeliveryCostCalculationException expected = assertThrows(DeliveryCostCalculationException.class,
+				() -> batchService.calculateCostBatch(requests));
+		assertEquals("Batch exceeds 1 parcels. Reject cost calculation for batch", expected.getMessage());
+	}
+
+	/**
+	 * Test shipment cost calculation. The shipment promo code is looked up once
+	 * and applied to every parcel, the total sums the parcels
+	 */
+	@Test
+	void testCalculateShipmentCost() {
+		ParcelDeliveryCostCalculatorService shipmentService = createBatchService(new BatchProperties());
+		CompletableFuture<Map<String, Object>> voucherFuture = new CompletableFuture<>();
+		Mockito.when(voucherService.getVoucherDiscountFromPromoCodeAsync(PROMO_CODE)).thenReturn(voucherFuture);
+
+		ShipmentRequest request = ShipmentRequest.builder().promoCode(PROMO_CODE).parcels(Arrays.asList(
+				ParcelRequest.builder().length(BigDecimal.valueOf(30)).width(BigDecimal.valueOf(20))
+						.height(BigDecimal.valueOf(2)).weight(BigDecimal.valueOf(3)).promoCode("ignored").build(),
+				ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.valueOf(20)).height(BigDecimal.TEN)
+						.weight(BigDecimal.valueOf(8)).build(),
+				ParcelRequest.builder().length(BigDecimal.ONE).width(BigDecimal.ONE).height(BigDecimal.ONE)
+						.weight(BigDecimal.valueOf(15)).build()))
+				.build();
+
+		CompletableFuture<ShipmentCalculationResponse> responseFuture = shipmentService
+				.calculateShipmentCostAsync(request);
+		// Response waits for the voucher lookup
+		assertFalse(responseFuture.isDone());
+
+		voucherFuture.complete(withPromoResponse);
+		ShipmentCalculationResponse response = responseFuture.join();
+		assertEquals(3, response.getParcels().size());
+		// SMALL with promo: 36 - (36 * 0.1122)
+		assertEquals(BigDecimal.valueOf(31.96), response.getParcels().get(0).getDeliveryCost());
+		// MEDIUM with promo: 80 - (80 * 0.1122)
+		assertEquals(BigDecimal.valueOf(71.02), response.getParcels().get(1).getDeliveryCost());
+		// HEAVY with promo: 300 - (300 * 0.1122)
+		assertEquals(BigDecimal.valueOf(266.34), response.getParcels().get(2).getDeliveryCost());
+		assertEquals(BigDecimal.valueOf(369.32), response.getTotal().getDeliveryCost());
+		assertEquals(BigDecimal.valueOf(26).setScale(2), response.getTotal().getTotalWeight());
+		assertEquals(BigDecimal.valueOf(3201).setScale(2), response.getTotal().getTotalVolume());
+
+		Mockito.verify(voucherService, Mockito.times(1)).getVoucherDiscountFromPromoCodeAsync(PROMO_CODE);
+		Mockito.verify(voucherService, Mockito.never()).getVoucherDiscountFromPromoCodeAsync("ignored");
+		Mockito.verify(pricingEngine, Mockito.times(1)).priceAll(request.getParcels());
+		assertEquals(1,
+				meterRegistry.get(DeliveryCostMetrics.CALCULATION_METRIC).tag("mode", "shipment").timer().count());
+	}
+
+	/**
+	 * Test shipment with a rejected parcel is rejected as a whole, before any
+	 * voucher lookup
+	 */
+	@Test
+	void testCalculateShipmentCostRejected() {
+		ParcelDeliveryCostCalculatorService shipmentService = createBatchService(new BatchProperties());
+		Mockito.when(voucherService.getVoucherDiscountFromPromoCodeAsync(PROMO_CODE))
+				.thenReturn(CompletableFuture.completedFuture(withPromoResponse));
+		ParcelRequest validParcel = ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.TEN)
+				.height(BigDecimal.TEN).weight(BigDecimal.ONE).build();
+
+		ShipmentRequest invalidShipment = ShipmentRequest.builder().promoCode(PROMO_CODE).parcels(Arrays.asList(
+				validParcel, ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.TEN).height(null)
+						.weight(BigDecimal.ONE).build()))
+				.build();
+		CompletionException invalid = assertThrows(CompletionException.class,
+				shipmentService.calculateShipmentCostAsync(invalidShipment)::join);
+		assertEquals("Invalid dimension. Reject cost calculation for parcel", invalid.getCause().getMessage());
+		Mockito.verify(voucherService, Mockito.never()).getVoucherDiscountFromPromoCodeAsync(PROMO_CODE);
+
+		ShipmentRequest overweightShipment = ShipmentRequest.builder().promoCode(PROMO_CODE).parcels(Arrays.asList(
+				validParcel, ParcelRequest.builder().length(BigDecimal.TEN).width(BigDecimal.TEN)
+						.height(BigDecimal.TEN).weight(BigDecimal.valueOf(100)).build()))
+				.build();
+		CompletionException overweight = assertThrows(CompletionException.class,
+				shipmentService.calculateShipmentCostAsync(overweightShipment)::join);
+		assertEquals(DeliveryCostCalculationException.class, overweight.getCause().getClass());
+		assertEquals("Weight exceeds 50kg. Reject cost calculation for parcel", overweight.getCause().getMessage());
+	}
+
+	/**
+	 * Test shipment exceeding the maximum batch size. Should complete with
+	 * @DeliveryCostCalculationException
+	 */
+	@Test
+	void testCalculateShipmentCostExceedLimit() {
+		BatchProperties batchProperties = new BatchProperties();
+		batchProperties.setMaxSize(1);
+		ParcelDeliveryCostCalculatorService shipmentService = createBatchService(batchProperties);
+
+		ParcelRequest parcel = ParcelRequest.builder().length(BigDecimal.ONE).width(BigDecimal.ONE)
+				.height(BigDecimal.ONE).weight(BigDecimal.ONE).build();
+		ShipmentRequest request = ShipmentRequest.builder().parcels(Arrays.asList(parcel, parcel)).build();
+		CompletionException expected = assertThrows(CompletionException.class,
+				shipmentService.calculateShipmentCostAsync(request)::join);
+		assertEquals("Shipment exceeds 1 parcels. Reject cost calculation for shipment",
+				expected.getCause().getMessage());
+	}
+
+	/**
+	 * Test selected rules, rejections and calculation time are recorded
+	 */
+	@Test
+	void testCalculateCostMetrics() {
+		ParcelRequest heavyRequest = ParcelRequest.builder().length(BigDecimal.ONE).width(BigDecimal.ONE)
+				.height(BigDecimal.ONE).weight(BigDecimal.valueOf(15)).build();
+		ParcelRequest overweightRequest = ParcelRequest.builder().length(BigDecimal.ONE).width(BigDecimal.ONE)
+				.height(BigDecimal.ONE).weight(BigDecimal.valueOf(100)).build();
+		ParcelRequest invalidRequest = ParcelRequest.builder().length(BigDecimal.ZERO).width(BigDecimal.ONE)
+				.height(BigDecimal.ONE).weight(BigDecimal.ONE).build();
+		Mockito.when(voucherService.getVoucherDiscountFromPromoCode(null)).thenReturn(noPromoResponse);
+
+		parcelDeliveryCostCalculatorService.calculateCost(heavyRequest);
+		assertThrows(DeliveryCostCalculationException.class,
+				() -> parcelDeliveryCostCalculatorService.calculateCost(overweightRequest));
+		assertThrows(DeliveryCostCalculationException.class,
+				() -> parcelDeliveryCostCalculatorService.calculateCost(invalidRequest));
+
+		assertEquals(1, meterRegistry.get(DeliveryCostMetrics.RULE_SELECTED_METRIC).tag("rule", "HEAVY").counter()
+				.count());
+		assertEquals(0, meterRegistry.get(DeliveryCostMetrics.RULE_SELECTED_METRIC).tag("rule", "SMALL").counter()
+				.count());
+		assertEquals(1, meterRegistry.get(DeliveryCostMetrics.REJECTIONS_METRIC).tag("reason", "weight_limit")
+				.counter().count());
+		assertEquals(1, meterRegistry.get(DeliveryCostMetrics.REJECTIONS_METRIC).tag("reason", "invalid_dimension")
+				.counter().count());
+		assertEquals(3,
+				meterRegistry.get(DeliveryCostMetrics.CALCULATION_METRIC).tag("mode", "sync").timer().count());
+	}
+
+	private ParcelDeliveryCostCalculatorService createBatchService(BatchProperties batchProperties) {
+		return new ParcelDeliveryCostCalculatorService(voucherService,
+				Validation.buildDefaultValidatorFactory().getValidator(), ForkJoinPool.commonPool(), batchProperties,
+				pricingEngine, metrics, quoteCache, quoteAuditLog);
+	}
 }
@@ -0,0 +1,175 @@
+package com.mynt.exam.deliverycostcalculator.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.validation.Validation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.mynt.exam.deliverycostcalculator.audit.QuoteAuditLog;
+import com.mynt.exam.deliverycostcalculator.config.BatchProperties;
+import com.mynt.exam.deliverycostcalculator.config.QuoteAuditProperties;
+import com.mynt.exam.deliverycostcalculator.config.QuoteCacheProperties;
+import com.mynt.exam.deliverycostcalculator.config.VoucherCacheProperties;
+import com.mynt.exam.deliverycostcalculator.config.VoucherCatalogProperties;
+import com.mynt.exam.deliverycostcalculator.metrics.DeliveryCostMetrics;
+import com.mynt.exam.deliverycostcalculator.model.CalculationResponse;
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+import com.mynt.exam.deliverycostcalculator.remoteservice.VoucherCache;
+import com.mynt.exam.deliverycostcalculator.remoteservice.VoucherCatalog;
+import com.mynt.exam.deliverycostcalculator.remoteservice.VoucherService;
+import com.mynt.exam.deliverycostcalculator.service.impl.QuoteCache.QuoteKey;
+import com.mynt.exam.deliverycostcalculator.service.intf.PricingRuleService;
+import com.mynt.exam.deliverycostcalculator.util.PricingRuleSnapshot;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class QuoteCacheTest {
+
+	private final QuoteCacheProperties properties = new QuoteCacheProperties();
+	private final VoucherCache voucherCache = new VoucherCache(new VoucherCacheProperties());
+	private final PricingRuleService pricingRuleService = Mockito.mock(PricingRuleService.class);
+	private final Map<String, Object> voucher = new HashMap<>();
+
+	private QuoteCache quoteCache;
+
+	@BeforeEach
+	void init() {
+		voucher.put("code", "MYNT");
+		voucher.put("discount", 12.25);
+		voucher.put("expiry", "2050-08-18");
+		properties.setEnabled(true);
+		Mockito.when(pricingRuleService.getSnapshot()).thenReturn(PricingRuleSnapshot.DEFAULT);
+		quoteCache = new QuoteCache(properties, voucherCache,
+				new VoucherCatalog(new VoucherCatalogProperties(), null, null), pricingRuleService);
+	}
+
+	/**
+	 * Test quotes are hit regardless of decimal scale and promo code case
+	 */
+	@Test
+	void testNormalizedKey() {
+		CalculationResponse quote = quote("80.00");
+		voucherCache.put("MYNT", voucher);
+		quoteCache.put(key("10", "20", "10", "8", "mynt"), voucher, quote);
+
+		assertSame(quote, quoteCache.get(key("10.00", "20.0", "1E+1", "8.000", "MYNT")));
+		assertNull(quoteCache.get(key("10", "20", "10", "8", null)));
+		assertNull(quoteCache.get(key("10", "20", "10", "8.01", "MYNT")));
+	}
+
+	/**
+	 * Test quotes of another pricing rules version are not hit
+	 */
+	@Test
+	void testRulesReloadMisses() {
+		quoteCache.put(key("10", "20", "10", "8", null), Collections.emptyMap(), quote("80.00"));
+
+		Mockito.when(pricingRuleService.getSnapshot())
+				.thenReturn(PricingRuleSnapshot.compile(PricingRuleSnapshot.defaultRules(), 1));
+		assertNull(quoteCache.get(key("10", "20", "10", "8", null)));
+	}
+
+	/**
+	 * Test quotes with a promo code are dropped once their voucher changes, and
+	 * not cached without a cached voucher
+	 */
+	@Test
+	void testVoucherChangeMisses() {
+		quoteCache.put(key("10", "20", "10", "8", "MYNT"), voucher, quote("70.20"));
+		assertNull(quoteCache.get(key("10", "20", "10", "8", "MYNT")));
+
+		voucherCache.put("MYNT", voucher);
+		quoteCache.put(key("10", "20", "10", "8", "MYNT"), voucher, quote("70.20"));
+		Map<String, Object> changedVoucher = new HashMap<>(voucher);
+		changedVoucher.put("discount", 20.0);
+		voucherCache.put("MYNT", changedVoucher);
+		assertNull(quoteCache.get(key("10", "20", "10", "8", "MYNT")));
+		assertEquals(0, quoteCache.getSize());
+	}
+
+	/**
+	 * Test repeated quote skips pricing and the voucher lookup
+	 */
+	@Test
+	void testRepeatedQuoteServedFromCache() {
+		VoucherService voucherService = Mockito.mock(VoucherService.class);
+		Mockito.when(voucherService.getVoucherDiscountFromPromoCode(null)).thenReturn(Collections.emptyMap());
+		ParcelDeliveryCostCalculatorService service = service(voucherService);
+
+		CalculationResponse first = service.calculateCost(request("10", "20", "10", "8", null));
+		CalculationResponse second = service.calculateCost(request("10.0", "20", "10", "8", null));
+
+		assertEquals(new BigDecimal("80.00"), first.getDeliveryCost());
+		assertSame(first, second);
+		Mockito.verify(voucherService, Mockito.times(1)).getVoucherDiscountFromPromoCode(null);
+		assertEquals(1, quoteCache.getStats().hitCount());
+	}
+
+	/**
+	 * Test a quote priced before a rules reload is not served once its voucher
+	 * lookup completes after the reload
+	 */
+	@Test
+	void testRulesReloadWhileVoucherLookupInFlight() {
+		VoucherService voucherService = Mockito.mock(VoucherService.class);
+		CompletableFuture<Map<String, Object>> voucherLookup = new CompletableFuture<>();
+		Mockito.when(voucherService.getVoucherDiscountFromPromoCodeAsync(null)).thenReturn(voucherLookup,
+				CompletableFuture.completedFuture(Collections.emptyMap()));
+		ParcelDeliveryCostCalculatorService service = service(voucherService);
+
+		CompletableFuture<CalculationResponse> first = service.calculateCostAsync(request("10", "20", "10", "8", null));
+		Mockito.when(pricingRuleService.getSnapshot())
+				.thenReturn(PricingRuleSnapshot.compile(PricingRuleSnapshot.defaultRules(), 1));
+		voucherLookup.complete(Collections.emptyMap());
+		first.join();
+		service.calculateCostAsync(request("10", "20", "10", "8", null)).join();
+
+		Mockito.verify(voucherService, Mockito.times(2)).getVoucherDiscountFromPromoCodeAsync(null);
+		assertEquals(0, quoteCache.getStats().hitCount());
+	}
+
+	/**
+	 * Test disabled cache neither stores nor serves quotes
+	 */
+	@Test
+	void testDisabled() {
+		properties.setEnabled(false);
+		quoteCache.put(key("10", "20", "10", "8", null), Collections.emptyMap(), quote("80.00"));
+		assertNull(quoteCache.get(key("10", "20", "10", "8", null)));
+		assertEquals(0, quoteCache.getSize());
+	}
+
+	private ParcelDeliveryCostCalculatorService service(VoucherService voucherService) {
+		DeliveryCostMetrics metrics = new DeliveryCostMetrics(new SimpleMeterRegistry());
+		return new ParcelDeliveryCostCalculatorService(voucherService,
+				Validation.buildDefaultValidatorFactory().getValidator(), ForkJoinPool.commonPool(),
+				new BatchProperties(), new BigDecimalPricingEngine(metrics), metrics, quoteCache,
+				new QuoteAuditLog(new QuoteAuditProperties(), new SimpleMeterRegistry()));
+	}
+
+	private QuoteKey key(String length, String width, String height, String weight, String promoCode) {
+		return quoteCache.keyOf(request(length, width, height, weight, promoCode));
+	}
+
+	private static ParcelRequest request(String length, String width, String height, String weight,
+			String promoCode) {
+		return ParcelRequest.builder().length(new BigDecimal(length)).width(new BigDecimal(width))
+				.height(new BigDecimal(height)).weight(new BigDecimal(weight)).promoCode(promoCode).build();
+	}
+
+	private static CalculationResponse quote(String deliveryCost) {
+		return CalculationResponse.builder().deliveryCost(new BigDecimal(deliveryCost)).build();
+	}
+}
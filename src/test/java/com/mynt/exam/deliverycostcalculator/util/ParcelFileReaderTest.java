@@ -0,0 +1,135 @@
+package com.mynt.exam.deliverycostcalculator.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.mynt.exam.deliverycostcalculator.config.BulkPricingProperties.Format;
+import com.mynt.exam.deliverycostcalculator.model.ParcelRequest;
+
+class ParcelFileReaderTest {
+
+	@TempDir
+	Path tempDir;
+
+	/**
+	 * Test CSV rows in default column order, with CRLF, blank lines and no
+	 * trailing line break
+	 */
+	@Test
+	void testReadCsvRows() throws IOException {
+		List<ParcelRequest> rows = readAll(Format.CSV, 1024, "10,20,10,8,MYNT\r\n\n 1.5 , 2,3,4,\r\n30,20,2,3");
+		assertEquals(3, rows.size());
+		assertRow(rows.get(0), "10", "20", "10", "8", "MYNT");
+		assertRow(rows.get(1), "1.5", "2", "3", "4", null);
+		assertRow(rows.get(2), "30", "20", "2", "3", null);
+	}
+
+	/**
+	 * Test CSV header maps columns by name
+	 */
+	@Test
+	void testReadCsvRowsWithHeader() throws IOException {
+		List<ParcelRequest> rows = readAll(Format.CSV, 1024,
+				"promo_code,weight,height,width,length,note\nGFI,8,10,20,30,fragile\n,1,2,3,4,\n");
+		assertEquals(2, rows.size());
+		assertRow(rows.get(0), "30", "20", "10", "8", "GFI");
+		assertRow(rows.get(1), "4", "3", "2", "1", null);
+	}
+
+	/**
+	 * Test unparseable CSV fields are read as missing
+	 */
+	@Test
+	void testReadCsvMalformedRow() throws IOException {
+		List<ParcelRequest> rows = readAll(Format.CSV, 1024, "10,abc,10\n");
+		assertEquals(1, rows.size());
+		assertEquals(new BigDecimal("10"), rows.get(0).getLength());
+		assertNull(rows.get(0).getWidth());
+		assertNull(rows.get(0).getWeight());
+	}
+
+	/**
+	 * Test NDJSON rows ignore unknown fields and read malformed rows as missing
+	 */
+	@Test
+	void testReadJsonRows() throws IOException {
+		List<ParcelRequest> rows = readAll(Format.NDJSON, 1024,
+				"{\"length\":10,\"width\":20,\"height\":10,\"weight\":8.5,\"promoCode\":\"MYNT\"}\n"
+						+ "{\"id\":{\"nested\":[1,2]},\"weight\":1,\"length\":2,\"width\":3,\"height\":4}\n"
+						+ "{\"length\":10,\n");
+		assertEquals(3, rows.size());
+		assertRow(rows.get(0), "10", "20", "10", "8.5", "MYNT");
+		assertRow(rows.get(1), "2", "3", "4", "1", null);
+		assertNull(rows.get(2).getLength());
+	}
+
+	/**
+	 * Test rows spanning buffer refills are read whole, in chunks of the
+	 * requested size
+	 */
+	@Test
+	void testReadRowsAcrossBufferRefills() throws IOException {
+		StringBuilder content = new StringBuilder();
+		for (int i = 1; i <= 100; i++) {
+			content.append(i).append(",20,10,8,CODE").append(i).append('\n');
+		}
+		Path input = write(content.toString());
+		try (ParcelFileReader reader = new ParcelFileReader(input, Format.CSV, 32)) {
+			List<ParcelRequest> rows = new ArrayList<>();
+			List<ParcelRequest> chunk;
+			while (!(chunk = reader.readRows(7)).isEmpty()) {
+				assertTrue(chunk.size() <= 7);
+				rows.addAll(chunk);
+			}
+			assertEquals(100, rows.size());
+			for (int i = 0; i < 100; i++) {
+				assertRow(rows.get(i), String.valueOf(i + 1), "20", "10", "8", "CODE" + (i + 1));
+			}
+		}
+	}
+
+	/**
+	 * Test row longer than the buffer fails the read
+	 */
+	@Test
+	void testRowExceedsBuffer() throws IOException {
+		Path input = write("10,20,10,8,AVERYLONGPROMOCODETHATDOESNOTFIT\n");
+		try (ParcelFileReader reader = new ParcelFileReader(input, Format.CSV, 16)) {
+			assertThrows(IOException.class, () -> reader.readRows(10));
+		}
+	}
+
+	private List<ParcelRequest> readAll(Format format, int bufferSize, String content) throws IOException {
+		try (ParcelFileReader reader = new ParcelFileReader(write(content), format, bufferSize)) {
+			List<ParcelRequest> rows = reader.readRows(1000);
+			assertTrue(reader.readRows(10).isEmpty());
+			return rows;
+		}
+	}
+
+	private Path write(String content) throws IOException {
+		return Files.write(tempDir.resolve("parcels"), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static void assertRow(ParcelRequest row, String length, String width, String height, String weight,
+			String promoCode) {
+		assertEquals(new BigDecimal(length), row.getLength());
+		assertEquals(new BigDecimal(width), row.getWidth());
+		assertEquals(new BigDecimal(height), row.getHeight());
+		assertEquals(new BigDecimal(weight), row.getWeight());
+		assertEquals(promoCode, row.getPromoCode());
+	}
+}
@@ -0,0 +1,91 @@
+package com.mynt.exam.deliverycostcalculator.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.mynt.exam.deliverycostcalculator.model.PricingRule;
+
+class PricingRuleSnapshotTest {
+
+	/**
+	 * Test default rules resolve and price like the hard-coded decision table
+	 */
+	@Test
+	void testDefaultMatchesHardCodedRules() {
+		PricingRuleSnapshot snapshot = PricingRuleSnapshot.DEFAULT;
+		assertTrue(snapshot.isFixedPointSupported());
+		assertEquals("Weight exceeds 50kg. Reject cost calculation for parcel", snapshot.getRejectMessage());
+
+		Random random = new Random(20220801L);
+		for (int i = 0; i < 10_000; i++) {
+			BigDecimal weight = BigDecimal.valueOf(random.nextInt(6000), 2);
+			BigDecimal volume = BigDecimal.valueOf(random.nextInt(40_000_000), 4);
+			RulePriority rule = RuleDecisionTable.DEFAULT.resolve(weight, volume);
+			assertEquals(rule, snapshot.getRuleTable().resolve(weight, volume));
+			if (RulePriority.REJECT != rule) {
+				assertEquals(0, ParcelDeliveryCalculationHelper.calculateParcel(weight, volume, rule)
+						.compareTo(snapshot.calculateCost(rule, weight, volume)), weight + " / " + volume);
+			}
+		}
+	}
+
+	/**
+	 * Test stored rates and thresholds replace the hard-coded ones
+	 */
+	@Test
+	void testCustomRates() {
+		List<PricingRule> rules = PricingRuleSnapshot.defaultRules();
+		rule(rules, RulePriority.SMALL_PARCEL).setRate(new BigDecimal("0.0600"));
+		rule(rules, RulePriority.REJECT).setThreshold(new BigDecimal("40"));
+		PricingRuleSnapshot snapshot = PricingRuleSnapshot.compile(rules, 3);
+
+		assertEquals(3, snapshot.getVersion());
+		assertEquals(new BigDecimal("0.06"), snapshot.getRate(RulePriority.SMALL_PARCEL));
+		assertEquals(6, snapshot.getUnscaledRate(RulePriority.SMALL_PARCEL));
+		assertEquals(2, snapshot.getRateScale(RulePriority.SMALL_PARCEL));
+		assertEquals(0, new BigDecimal("60").compareTo(
+				snapshot.calculateCost(RulePriority.SMALL_PARCEL, BigDecimal.ONE, new BigDecimal("1000"))));
+		assertEquals(RulePriority.REJECT, snapshot.getRuleTable().resolve(new BigDecimal("45"), BigDecimal.ONE));
+		assertEquals("Weight exceeds 40kg. Reject cost calculation for parcel", snapshot.getRejectMessage());
+	}
+
+	/**
+	 * Test rates too precise for a long fall back to BigDecimal pricing
+	 */
+	@Test
+	void testUnrepresentableRateDisablesFixedPoint() {
+		List<PricingRule> rules = PricingRuleSnapshot.defaultRules();
+		rule(rules, RulePriority.LARGE_PARCEL).setRate(new BigDecimal("0.12345678901234567890123"));
+		assertFalse(PricingRuleSnapshot.compile(rules, 1).isFixedPointSupported());
+	}
+
+	/**
+	 * Test rules that cannot price parcels are rejected
+	 */
+	@Test
+	void testInvalidRules() {
+		List<PricingRule> missingRate = PricingRuleSnapshot.defaultRules();
+		rule(missingRate, RulePriority.MEDIUM_PARCEL).setRate(null);
+		assertThrows(IllegalArgumentException.class, () -> PricingRuleSnapshot.compile(missingRate, 1));
+
+		List<PricingRule> duplicatePriority = PricingRuleSnapshot.defaultRules();
+		rule(duplicatePriority, RulePriority.LARGE_PARCEL).setPriority(RulePriority.SMALL_PARCEL.getPriority());
+		assertThrows(IllegalArgumentException.class, () -> PricingRuleSnapshot.compile(duplicatePriority, 1));
+
+		List<PricingRule> negativeThreshold = PricingRuleSnapshot.defaultRules();
+		rule(negativeThreshold, RulePriority.HEAVY_PARCEL).setThreshold(BigDecimal.ONE.negate());
+		assertThrows(IllegalArgumentException.class, () -> PricingRuleSnapshot.compile(negativeThreshold, 1));
+	}
+
+	private static PricingRule rule(List<PricingRule> rules, RulePriority priority) {
+		return rules.stream().filter(rule -> rule.getRule() == priority).findFirst().orElseThrow();
+	}
+}
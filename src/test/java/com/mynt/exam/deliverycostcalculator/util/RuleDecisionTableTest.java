@@ -0,0 +1,95 @@
+package com.mynt.exam.deliverycostcalculator.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class RuleDecisionTableTest {
+
+	private final RuleDecisionTable table = RuleDecisionTable.DEFAULT;
+
+	/**
+	 * Test rules resolved at the weight and volume boundaries
+	 */
+	@Test
+	void testResolveBoundaries() {
+		assertEquals(RulePriority.REJECT, table.resolve(new BigDecimal("50.01"), BigDecimal.ONE));
+		assertEquals(RulePriority.HEAVY_PARCEL, table.resolve(new BigDecimal("50"), BigDecimal.ONE));
+		assertEquals(RulePriority.HEAVY_PARCEL, table.resolve(new BigDecimal("10.01"), BigDecimal.ONE));
+		assertEquals(RulePriority.SMALL_PARCEL, table.resolve(BigDecimal.TEN, new BigDecimal("1499.9999")));
+		assertEquals(RulePriority.MEDIUM_PARCEL, table.resolve(BigDecimal.TEN, new BigDecimal("1500")));
+		assertEquals(RulePriority.MEDIUM_PARCEL, table.resolve(BigDecimal.TEN, new BigDecimal("2499.9999")));
+		assertEquals(RulePriority.LARGE_PARCEL, table.resolve(BigDecimal.TEN, new BigDecimal("2500.0000")));
+	}
+
+	/**
+	 * Test volume rounded to zero falls back to highest priority calculation, as
+	 * a zero cost does not count as a match
+	 */
+	@Test
+	void testResolveZeroVolumeFallsBackToHeavy() {
+		assertEquals(RulePriority.HEAVY_PARCEL, table.resolve(BigDecimal.ONE, new BigDecimal("0.0000")));
+	}
+
+	/**
+	 * Test table resolves the same rule as the priority walk it replaces
+	 */
+	@Test
+	void testResolveMatchesPriorityWalk() {
+		Random random = new Random(20220801L);
+		for (int i = 0; i < 100_000; i++) {
+			BigDecimal weight = BigDecimal.valueOf(random.nextInt(6000), 2);
+			BigDecimal volume = BigDecimal.valueOf(random.nextInt(40_000_000), 4);
+			assertEquals(walkRules(weight, volume), table.resolve(weight, volume), weight + " / " + volume);
+		}
+	}
+
+	/**
+	 * Test column-wise resolution resolves the same rules as parcel by parcel
+	 * resolution, including boundaries and zero values
+	 */
+	@Test
+	void testResolveColumnsMatchesResolveScaled() {
+		Random random = new Random(20221018L);
+		int size = 100_000;
+		long[] weights = new long[size];
+		long[] volumes = new long[size];
+		for (int i = 0; i < size; i++) {
+			weights[i] = random.nextInt(8) == 0 ? 10_000 * random.nextInt(6) : random.nextInt(60_000);
+			volumes[i] = random.nextInt(8) == 0 ? 5_000_000L * random.nextInt(6) : random.nextInt(40_000_000);
+		}
+		int[] resolved = new int[size];
+		table.resolveScaled(weights, volumes, size, resolved);
+		for (int i = 0; i < size; i++) {
+			assertEquals(table.resolveScaled(weights[i], volumes[i]).ordinal(), resolved[i],
+					weights[i] + " / " + volumes[i]);
+		}
+	}
+
+	// Rule resolution as previously done by the service, walking the rule map
+	private RulePriority walkRules(BigDecimal weight, BigDecimal volume) {
+		for (Map.Entry<Integer, RulePriority> ruleEntry : RulePriority.getRules().entrySet()) {
+			RulePriority rule = ruleEntry.getValue();
+			BigDecimal cost = BigDecimal.ZERO;
+			if (RulePriority.REJECT == rule && BigDecimal.valueOf(50).compareTo(weight) < 0) {
+				return RulePriority.REJECT;
+			} else if (RulePriority.HEAVY_PARCEL == rule && BigDecimal.TEN.compareTo(weight) < 0) {
+				cost = ParcelDeliveryCalculationHelper.calculateHeavyParcel(weight);
+			} else if (RulePriority.SMALL_PARCEL == rule && BigDecimal.valueOf(1500).compareTo(volume) > 0) {
+				cost = ParcelDeliveryCalculationHelper.calculateSmallParcel(volume);
+			} else if (RulePriority.MEDIUM_PARCEL == rule && BigDecimal.valueOf(2500).compareTo(volume) > 0) {
+				cost = ParcelDeliveryCalculationHelper.calculateMediumParcel(volume);
+			} else if (RulePriority.LARGE_PARCEL == rule && BigDecimal.valueOf(2500).compareTo(volume) <= 0) {
+				cost = ParcelDeliveryCalculationHelper.calculateLargeParcel(volume);
+			}
+			if (BigDecimal.ZERO.compareTo(cost) < 0) {
+				return rule;
+			}
+		}
+		return RulePriority.HEAVY_PARCEL;
+	}
+}